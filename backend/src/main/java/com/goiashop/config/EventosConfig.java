@@ -0,0 +1,46 @@
+package com.goiashop.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.support.AbstractApplicationContext;
+
+import com.goiashop.service.CatalogoAlteradoEvent;
+
+/**
+ * Publicação de eventos da aplicação.
+ *
+ * Um ouvinte do {@link CatalogoAlteradoEvent} que falha não pode impedir os demais (nem a
+ * invalidação de cache e a troca de ETags feitas depois pelo CatalogoService): o erro é
+ * registrado e a entrega segue. Os demais eventos mantêm o comportamento padrão.
+ */
+@Configuration
+public class EventosConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventosConfig.class);
+
+    @Bean(name = AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+    public static SimpleApplicationEventMulticaster applicationEventMulticaster(BeanFactory beanFactory) {
+        return new SimpleApplicationEventMulticaster(beanFactory) {
+            @Override
+            protected void invokeListener(ApplicationListener<?> listener, ApplicationEvent event) {
+                if (!(event instanceof PayloadApplicationEvent<?> payload)
+                        || !(payload.getPayload() instanceof CatalogoAlteradoEvent)) {
+                    super.invokeListener(listener, event);
+                    return;
+                }
+                try {
+                    super.invokeListener(listener, event);
+                } catch (RuntimeException e) {
+                    logger.error("Ouvinte do catálogo falhou ({}): {}", listener, e.getMessage(), e);
+                }
+            }
+        };
+    }
+}
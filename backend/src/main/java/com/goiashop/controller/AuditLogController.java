@@ -5,15 +5,19 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.goiashop.model.AuditLog;
 import com.goiashop.service.AuditLogService;
+import com.goiashop.service.ExportacaoNdjsonService;
 
 @RestController
 @RequestMapping("/api/audit")
@@ -22,15 +26,23 @@ public class AuditLogController {
     @Autowired
     private AuditLogService auditLogService;
 
+    @Autowired
+    private ExportacaoNdjsonService exportacaoNdjsonService;
+
     /**
      * Lista todos os logs de auditoria (com paginação futura)
+     * Com Accept: application/x-ndjson, transmite um log por linha a partir de um cursor
      */
     @GetMapping
-    public ResponseEntity<List<AuditLog>> listarTodos() {
-        List<AuditLog> logs = auditLogService.getLogsByDateRange(
-            LocalDateTime.now().minusDays(30), // Últimos 30 dias
-            LocalDateTime.now()
-        );
+    public ResponseEntity<?> listarTodos(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        LocalDateTime fim = LocalDateTime.now();
+        LocalDateTime inicio = fim.minusDays(30); // Últimos 30 dias
+        if (ExportacaoNdjsonService.aceitaNdjson(accept)) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(exportacaoNdjsonService.auditoria(inicio, fim));
+        }
+        List<AuditLog> logs = auditLogService.getLogsByDateRange(inicio, fim);
         return ResponseEntity.ok(logs);
     }
 
@@ -64,12 +76,17 @@ public class AuditLogController {
     }
 
     /**
-     * Lista logs por período
+     * Lista logs por período (NDJSON com Accept: application/x-ndjson)
      */
     @GetMapping("/periodo")
-    public ResponseEntity<List<AuditLog>> listarPorPeriodo(
+    public ResponseEntity<?> listarPorPeriodo(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (ExportacaoNdjsonService.aceitaNdjson(accept)) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(exportacaoNdjsonService.auditoria(inicio, fim));
+        }
         List<AuditLog> logs = auditLogService.getLogsByDateRange(inicio, fim);
         return ResponseEntity.ok(logs);
     }
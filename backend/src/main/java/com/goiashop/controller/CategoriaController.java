@@ -1,16 +1,22 @@
 package com.goiashop.controller;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.goiashop.model.Categoria;
-import com.goiashop.repository.CategoriaRepository;
+import com.goiashop.dto.CategoriaCatalogo;
+import com.goiashop.service.CategoriaCatalogoService;
+import com.goiashop.service.VersaoCatalogoService;
+import com.goiashop.util.RespostaCondicional;
 
 /**
  * Controller para gerenciamento de categorias de produtos
@@ -21,20 +27,28 @@ import com.goiashop.repository.CategoriaRepository;
 public class CategoriaController {
 
     @Autowired
-    private CategoriaRepository categoriaRepository;
+    private CategoriaCatalogoService categoriaCatalogoService;
+    
+    @Autowired
+    private VersaoCatalogoService versaoCatalogoService;
+    
+    // Categorias mudam raramente: a loja pode reaproveitar por alguns minutos
+    private static final CacheControl CACHE_ADMIN = CacheControl.noCache().cachePrivate();
+    private static final CacheControl CACHE_PUBLICO = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic();
 
     /**
-     * Lista todas as categorias ativas
+     * Lista todas as categorias ativas com as contagens de produtos (servidas da memória)
      * GET /api/categorias
      */
     @GetMapping
-    public ResponseEntity<List<Categoria>> listarCategorias() {
-        try {
-            List<Categoria> categorias = categoriaRepository.findByAtivoTrueOrderByNomeAsc();
-            return ResponseEntity.ok(categorias);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(null);
+    public ResponseEntity<List<CategoriaCatalogo>> listarCategorias(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versaoCatalogoService.etagCategorias();
+        ResponseEntity<List<CategoriaCatalogo>> naoModificada = RespostaCondicional.naoModificada(ifNoneMatch, etag, CACHE_ADMIN);
+        if (naoModificada != null) {
+            return naoModificada;
         }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_ADMIN).body(categoriaCatalogoService.listar());
     }
 
     /**
@@ -42,12 +56,13 @@ public class CategoriaController {
      * GET /api/categorias/public
      */
     @GetMapping("/public")
-    public ResponseEntity<List<Categoria>> listarCategoriasPublico() {
-        try {
-            List<Categoria> categorias = categoriaRepository.findByAtivoTrueOrderByNomeAsc();
-            return ResponseEntity.ok(categorias);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(null);
+    public ResponseEntity<List<CategoriaCatalogo>> listarCategoriasPublico(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versaoCatalogoService.etagCategorias();
+        ResponseEntity<List<CategoriaCatalogo>> naoModificada = RespostaCondicional.naoModificada(ifNoneMatch, etag, CACHE_PUBLICO);
+        if (naoModificada != null) {
+            return naoModificada;
         }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_PUBLICO).body(categoriaCatalogoService.listar());
     }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,9 +21,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.goiashop.dto.CursorPaginatedResponse;
 import com.goiashop.model.Pedido;
 import com.goiashop.service.AuthService;
+import com.goiashop.service.ExportacaoNdjsonService;
 import com.goiashop.service.PedidoService;
+import com.goiashop.util.CursorPaginacao;
 
 /**
  * Controller para funcionalidades específicas do Estoquista
@@ -38,15 +43,22 @@ public class EstoqueController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private ExportacaoNdjsonService exportacaoNdjsonService;
+
     /**
      * Lista todos os pedidos para o estoquista
      * GET /api/estoque/pedidos
+     * Com Accept: application/x-ndjson, exporta todos os pedidos (com cliente e itens) em streaming
      */
     @GetMapping("/pedidos")
     public ResponseEntity<?> listarPedidos(
             @RequestHeader("Authorization") String authorization,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean incluirTotal,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         
         Map<String, Object> response = new HashMap<>();
         
@@ -74,6 +86,38 @@ public class EstoqueController {
                 return ResponseEntity.status(403).body(response);
             }
             
+            // Exportação completa, um pedido por linha, sem montar a lista em memória
+            if (ExportacaoNdjsonService.aceitaNdjson(accept)) {
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                    .body(exportacaoNdjsonService.pedidos());
+            }
+            
+            // Paginação por cursor (vazio = primeira página): sem OFFSET e sem COUNT por página
+            if (cursor != null) {
+                if (size < 1) {
+                    response.put("success", false);
+                    response.put("message", "size deve ser maior que zero");
+                    return ResponseEntity.badRequest().body(response);
+                }
+                CursorPaginatedResponse<Pedido> pagina;
+                try {
+                    pagina = pedidoService.listarTodosPedidosComCursor(cursor, Math.min(size, CursorPaginacao.TAMANHO_MAXIMO), incluirTotal);
+                } catch (CursorPaginacao.CursorInvalidoException e) {
+                    response.put("success", false);
+                    response.put("message", "Cursor inválido");
+                    return ResponseEntity.badRequest().body(response);
+                }
+                response.put("success", true);
+                response.put("pedidos", pagina.getContent());
+                response.put("size", pagina.getSize());
+                response.put("nextCursor", pagina.getNextCursor());
+                response.put("hasNext", pagina.isHasNext());
+                if (pagina.getTotalElements() != null) {
+                    response.put("totalElements", pagina.getTotalElements());
+                }
+                return ResponseEntity.ok(response);
+            }
+            
             // Buscar pedidos com paginação
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
             Page<Pedido> pedidosPage = pedidoService.listarTodosPedidosComPaginacao(pageable);
@@ -0,0 +1,93 @@
+package com.goiashop.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.goiashop.service.FeedCatalogoService;
+import com.goiashop.util.EnvioArquivo;
+import com.goiashop.util.JsonPreCodificado;
+import com.goiashop.util.RespostaCondicional;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Feeds estáticos do catálogo (sem autenticação)
+ * Servidos de arquivos pré-gerados em gzip, sem acesso ao banco nem serialização por requisição
+ */
+@RestController
+@RequestMapping("/api/feeds")
+@CrossOrigin(origins = "*")
+public class FeedController {
+
+    @Autowired
+    private FeedCatalogoService feedCatalogoService;
+
+    private static final CacheControl CACHE_FEED = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic();
+
+    /**
+     * Baixa um feed: produtos.json, produtos.xml, categorias.json, sitemap.xml (índice)
+     * ou uma parte do sitemap (sitemap-1.xml, sitemap-2.xml...)
+     * GET /api/feeds/{arquivo}
+     */
+    @GetMapping("/{arquivo}")
+    public ResponseEntity<Void> baixar(
+            @PathVariable String arquivo,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        FeedCatalogoService.Feed feed = FeedCatalogoService.Feed.de(arquivo);
+        Integer parte = feed == null ? FeedCatalogoService.numeroParteSitemap(arquivo) : null;
+        if (feed == null && parte == null) {
+            return ResponseEntity.notFound().build();
+        }
+        FeedCatalogoService.ArquivoFeed atual = feed != null
+            ? feedCatalogoService.obter(feed)
+            : feedCatalogoService.obterParteSitemap(parte);
+        // Parte além das geradas (e não primeira geração em andamento)
+        if (atual == null && parte != null && feedCatalogoService.obter(FeedCatalogoService.Feed.SITEMAP) != null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (atual == null) {
+            // Primeira geração ainda em andamento
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        ResponseEntity<Void> naoModificada = RespostaCondicional.naoModificada(ifNoneMatch, atual.getEtag(), CACHE_FEED);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+
+        boolean gzip = JsonPreCodificado.aceitaGzip(acceptEncoding);
+        response.setContentType(atual.getFeed().getTipo() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.ETAG, "\"" + atual.getEtag() + (gzip ? RespostaCondicional.SUFIXO_GZIP : "") + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_FEED.getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            EnvioArquivo.enviar(atual.getCaminho(), 0, atual.getTamanho(), request, response);
+        } else {
+            // Clientes sem gzip são raros: descomprime durante o envio
+            try (InputStream entrada = new GZIPInputStream(Files.newInputStream(atual.getCaminho()))) {
+                entrada.transferTo(response.getOutputStream());
+            }
+        }
+        // Corpo já escrito (ou entregue ao sendfile do Tomcat)
+        return null;
+    }
+}
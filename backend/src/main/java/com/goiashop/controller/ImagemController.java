@@ -0,0 +1,159 @@
+package com.goiashop.controller;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.goiashop.service.ArquivoImagemService;
+import com.goiashop.util.EnvioArquivo;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Imagens enviadas (produtos e variantes), servidas direto do disco
+ *
+ * Usa sendfile/transferTo (sem copiar bytes pela JVM), responde 304 por ETag e atende
+ * Range de um único intervalo. Arquivos nomeados pelo hash do conteúdo são imutáveis.
+ */
+@RestController
+@RequestMapping("/uploads")
+@CrossOrigin(origins = "*")
+public class ImagemController {
+
+    @Autowired
+    private ArquivoImagemService arquivoImagemService;
+
+    private static final CacheControl CACHE_IMUTAVEL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    private static final CacheControl CACHE_ARQUIVO = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    /**
+     * GET /uploads/{caminho}
+     */
+    @RequestMapping(value = "/**", method = { RequestMethod.GET, RequestMethod.HEAD })
+    public ResponseEntity<Void> servir(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        String caminho = PATH_MATCHER.extractPathWithinPattern(
+            (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+            (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE));
+
+        ArquivoImagemService.Arquivo arquivo = arquivoImagemService.abrir(caminho);
+        if (arquivo == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            String etag = "\"" + arquivo.getEtag() + "\"";
+            CacheControl cacheControl = arquivo.isImutavel() ? CACHE_IMUTAVEL : CACHE_ARQUIVO;
+            if (correspondeEtag(ifNoneMatch, arquivo.getEtag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+
+            long tamanho = arquivo.getTamanho();
+            long inicio = 0;
+            long fim = tamanho - 1;
+            // If-Range: só atende o intervalo se o cliente ainda tem esta mesma versão
+            if (range != null && (ifRange == null || ifRange.trim().equals(etag))) {
+                long[] faixa = faixa(range, tamanho);
+                if (faixa == INVALIDA) {
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + tamanho)
+                        .build();
+                }
+                if (faixa != null) {
+                    inicio = faixa[0];
+                    fim = faixa[1];
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fim + "/" + tamanho);
+                }
+            }
+
+            response.setContentType(arquivo.getTipo());
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader("X-Content-Type-Options", "nosniff");
+            if (RequestMethod.HEAD.name().equals(request.getMethod())) {
+                response.setContentLengthLong(fim - inicio + 1);
+            } else {
+                EnvioArquivo.enviar(arquivo.getCanal(), arquivo.getCaminho(), inicio, fim - inicio + 1, request, response);
+            }
+            // Corpo já escrito (ou entregue ao sendfile do Tomcat)
+            return null;
+        } finally {
+            arquivo.liberar();
+        }
+    }
+
+    private static final long[] INVALIDA = new long[0];
+
+    /**
+     * Interpreta um Range de intervalo único ("bytes=a-b", "bytes=a-", "bytes=-n")
+     *
+     * @return {inicio, fim} inclusivos; null para enviar o arquivo inteiro (ausente, vários
+     *         intervalos ou sintaxe inválida); {@link #INVALIDA} se fora do arquivo
+     */
+    private static long[] faixa(String range, long tamanho) {
+        String valor = range.trim();
+        if (!valor.startsWith("bytes=") || valor.indexOf(',') >= 0 || tamanho == 0) {
+            return null;
+        }
+        valor = valor.substring("bytes=".length()).trim();
+        int hifen = valor.indexOf('-');
+        if (hifen < 0) {
+            return null;
+        }
+        try {
+            String antes = valor.substring(0, hifen).trim();
+            String depois = valor.substring(hifen + 1).trim();
+            if (antes.isEmpty()) {
+                long sufixo = Long.parseLong(depois);
+                if (sufixo <= 0) {
+                    return INVALIDA;
+                }
+                return new long[] { Math.max(0, tamanho - sufixo), tamanho - 1 };
+            }
+            long inicio = Long.parseLong(antes);
+            long fim = depois.isEmpty() ? tamanho - 1 : Math.min(Long.parseLong(depois), tamanho - 1);
+            if (inicio >= tamanho) {
+                return INVALIDA;
+            }
+            return inicio <= fim ? new long[] { inicio, fim } : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean correspondeEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidata : ifNoneMatch.split(",")) {
+            String valor = candidata.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals("\"" + etag + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,8 +1,14 @@
 package com.goiashop.controller;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired; // Mudança: import do DTO de alteração de quantidade
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,15 +23,43 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.goiashop.dto.AtualizacaoLoteRequest;
 import com.goiashop.dto.PaginatedResponse;
 import com.goiashop.dto.ProdutoAlteracaoQuantidadeRequest;
 import com.goiashop.dto.ProdutoCadastroRequest;
+import com.goiashop.dto.ProdutoCatalogo;
 import com.goiashop.dto.ProdutoCompletoRequest;
+import com.goiashop.dto.ProdutoDetalhe;
+import com.goiashop.dto.ProdutoMaisVendido;
+import com.goiashop.dto.ProdutoResumo;
+import com.goiashop.dto.ResultadoAtualizacaoLote;
+import com.goiashop.dto.ResultadoFacetado;
+import com.goiashop.dto.ResultadoImportacao;
+import com.goiashop.dto.SugestaoAutocomplete;
 import com.goiashop.model.Produto;
 import com.goiashop.model.ProdutoImagem;
+import com.goiashop.service.AtualizacaoLoteService;
 import com.goiashop.service.AuthService;
+import com.goiashop.service.AutocompleteService;
+import com.goiashop.service.BuscaAproximadaService;
+import com.goiashop.service.BuscaProdutoService;
+import com.goiashop.service.CacheBuscaService;
+import com.goiashop.service.CatalogoJsonService;
+import com.goiashop.service.CatalogoService;
+import com.goiashop.service.CompradosJuntosService;
+import com.goiashop.service.ExportacaoNdjsonService;
+import com.goiashop.service.FeedAlteracoesService;
+import com.goiashop.service.FiltroFacetadoService;
+import com.goiashop.service.ImportacaoProdutoService;
+import com.goiashop.service.OrdenacaoCatalogoService;
 import com.goiashop.service.ProdutoService;
+import com.goiashop.service.RankingVendasService;
+import com.goiashop.service.VersaoCatalogoService;
+import com.goiashop.util.CursorPaginacao;
+import com.goiashop.util.JsonPreCodificado;
+import com.goiashop.util.RespostaCondicional;
 
 import jakarta.validation.Valid;
 
@@ -39,6 +73,58 @@ public class ProdutoController {
     
     @Autowired
     private AuthService authService;
+    
+    @Autowired
+    private CatalogoService catalogoService;
+    
+    @Autowired
+    private BuscaProdutoService buscaProdutoService;
+    
+    @Autowired
+    private BuscaAproximadaService buscaAproximadaService;
+    
+    @Autowired
+    private CacheBuscaService cacheBuscaService;
+    
+    @Autowired
+    private ExportacaoNdjsonService exportacaoNdjsonService;
+    
+    @Autowired
+    private CatalogoJsonService catalogoJsonService;
+    
+    @Autowired
+    private VersaoCatalogoService versaoCatalogoService;
+    
+    @Autowired
+    private AutocompleteService autocompleteService;
+    
+    @Autowired
+    private FiltroFacetadoService filtroFacetadoService;
+    
+    @Autowired
+    private OrdenacaoCatalogoService ordenacaoCatalogoService;
+    
+    @Autowired
+    private ImportacaoProdutoService importacaoProdutoService;
+    
+    @Autowired
+    private AtualizacaoLoteService atualizacaoLoteService;
+    
+    @Autowired
+    private FeedAlteracoesService feedAlteracoesService;
+    
+    @Autowired
+    private RankingVendasService rankingVendasService;
+    
+    @Autowired
+    private CompradosJuntosService compradosJuntosService;
+    
+    // Políticas de cache: telas administrativas sempre revalidam; a loja aceita alguns segundos de atraso
+    private static final CacheControl CACHE_ADMIN = CacheControl.noCache().cachePrivate();
+    private static final CacheControl CACHE_IMAGENS = CacheControl.noCache().cachePublic();
+    private static final CacheControl CACHE_LISTAS_PUBLICAS = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+    private static final CacheControl CACHE_PRODUTO_PUBLICO = CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic();
+    private static final CacheControl CACHE_BUSCA = CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic();
 
     @GetMapping
     public ResponseEntity<?> listarProdutos(
@@ -47,37 +133,71 @@ public class ProdutoController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false) Long categoriaId,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer pageSize) {
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean incluirTotal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        
+        // Qualquer listagem muda apenas quando o catálogo muda
+        String etag = versaoCatalogoService.etagCatalogo();
+        ResponseEntity<Object> naoModificada = RespostaCondicional.naoModificada(ifNoneMatch, etag, CACHE_ADMIN);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+        
+        // Se cursor foi fornecido (vazio = primeira página), usar paginação por cursor
+        if (cursor != null) {
+            int size = pageSize != null ? pageSize : 10;
+            if (size < 1) {
+                return ResponseEntity.badRequest().body("pageSize deve ser maior que zero");
+            }
+            size = Math.min(size, CursorPaginacao.TAMANHO_MAXIMO);
+            try {
+                return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_ADMIN)
+                    .body(produtoService.listarComCursor(nome, codigo, status, categoriaId, cursor, size, incluirTotal));
+            } catch (CursorPaginacao.CursorInvalidoException e) {
+                return ResponseEntity.badRequest().body("Cursor inválido");
+            }
+        }
         
         // Se page foi fornecido, usar paginação
         if (page != null) {
             int size = pageSize != null ? pageSize : 10; // Default 10 itens por página
-            PaginatedResponse<Produto> response = produtoService.listarComPaginacao(nome, codigo, status, categoriaId, page, size);
-            return ResponseEntity.ok(response);
+            PaginatedResponse<ProdutoResumo> response = produtoService.listarComPaginacao(nome, codigo, status, categoriaId, page, size);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_ADMIN).body(response);
         } else {
             // Compatibilidade com versão anterior (sem paginação)
             // Para clientes públicos, sempre filtrar apenas produtos ativos
-            List<Produto> produtos;
+            List<ProdutoResumo> produtos;
             if (status != null) {
                 try {
                     Produto.ProdutoStatus produtoStatus = Produto.ProdutoStatus.valueOf(status);
-                    produtos = produtoService.listarPorStatus(produtoStatus);
+                    produtos = produtoService.listarResumosPorStatus(produtoStatus);
                 } catch (IllegalArgumentException e) {
                     return ResponseEntity.badRequest().body("Status inválido: " + status);
                 }
             } else {
                 // Se não especificou status, assumir ATIVO para compatibilidade
-                produtos = produtoService.listarPorStatus(Produto.ProdutoStatus.ATIVO);
+                produtos = produtoService.listarResumosPorStatus(Produto.ProdutoStatus.ATIVO);
             }
-            return ResponseEntity.ok(produtos);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_ADMIN).body(produtos);
         }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Produto> buscarPorId(@PathVariable Long id) {
+    public ResponseEntity<Produto> buscarPorId(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // A entidade traz quantidadeVendida: a ETag também muda a cada venda
+        String etag = versaoCatalogoService.etagDetalheProduto(id);
+        ResponseEntity<Produto> naoModificada = RespostaCondicional.naoModificada(ifNoneMatch, etag, CACHE_ADMIN);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+        
         Produto produto = produtoService.buscarPorId(id);
         if (produto != null) {
-            return ResponseEntity.ok(produto);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_ADMIN).body(produto);
         }
         return ResponseEntity.notFound().build();
     }
@@ -86,75 +206,346 @@ public class ProdutoController {
     
     /**
      * Lista produtos para o e-commerce (sem autenticação)
-     * Apenas produtos ativos são retornados
+     * Apenas produtos ativos são retornados (servidos do catálogo em memória)
+     * Retorna a projeção de listagem; o produto completo fica em /public/{id}
+     * O corpo já vem serializado (e comprimido, se aceito) do cache de respostas
+     * Com Accept: application/x-ndjson, escreve um produto por linha direto do snapshot
      */
     @GetMapping("/public")
-    public ResponseEntity<List<Produto>> listarProdutosPublico() {
-        List<Produto> produtos = produtoService.listarProdutosAtivos();
-        return ResponseEntity.ok(produtos);
+    public ResponseEntity<?> listarProdutosPublico(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        boolean ndjson = ExportacaoNdjsonService.aceitaNdjson(accept);
+        // Representações diferentes não podem compartilhar a ETag
+        String etag = versaoCatalogoService.etagCatalogo() + (ndjson ? "-ndjson" : "");
+        ResponseEntity<byte[]> naoModificada = RespostaCondicional.naoModificada(ifNoneMatch, etag, CACHE_LISTAS_PUBLICAS);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+        if (ndjson) {
+            return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_LISTAS_PUBLICAS)
+                .contentType(MediaType.APPLICATION_NDJSON).body(exportacaoNdjsonService.produtosAtivos());
+        }
+        return catalogoJsonService.listarAtivos().responder(acceptEncoding, etag, CACHE_LISTAS_PUBLICAS);
+    }
+    
+    /**
+     * Produtos ativos frequentemente comprados junto com o produto (sem autenticação), servidos da memória
+     */
+    @GetMapping("/public/{id}/comprados-juntos")
+    public ResponseEntity<List<ProdutoResumo>> listarCompradosJuntos(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "6") int limite) {
+        List<ProdutoResumo> produtos = new ArrayList<>();
+        for (Long produtoId : compradosJuntosService.listar(id, Math.min(limite, CompradosJuntosService.TOP_K),
+                outroId -> catalogoService.buscarAtivo(outroId) != null)) {
+            ProdutoCatalogo produto = catalogoService.buscarAtivo(produtoId);
+            if (produto != null) {
+                produtos.add(ProdutoResumo.of(produto));
+            }
+        }
+        return ResponseEntity.ok().cacheControl(CACHE_LISTAS_PUBLICAS).body(produtos);
+    }
+    
+    /**
+     * Produtos ativos mais vendidos para a vitrine (sem autenticação), servidos da memória
+     * Parâmetros: periodo (total, 24h, 7d, 30d), categoriaId e limite (máximo 100)
+     */
+    @GetMapping("/public/mais-vendidos")
+    public ResponseEntity<?> listarMaisVendidosPublico(
+            @RequestParam(required = false) String periodo,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(defaultValue = "10") int limite) {
+        RankingVendasService.Periodo periodoRanking;
+        try {
+            periodoRanking = RankingVendasService.Periodo.de(periodo);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        
+        List<ProdutoResumo> produtos = new ArrayList<>();
+        for (ProdutoMaisVendido item : rankingVendasService.listar(periodoRanking, RankingVendasService.Criterio.QUANTIDADE,
+                categoriaId, Math.min(limite, RankingVendasService.LIMITE_MAXIMO), id -> catalogoService.buscarAtivo(id) != null)) {
+            ProdutoCatalogo produto = catalogoService.buscarAtivo(item.getProdutoId());
+            if (produto != null) {
+                produtos.add(ProdutoResumo.of(produto));
+            }
+        }
+        return ResponseEntity.ok().cacheControl(CACHE_LISTAS_PUBLICAS).body(produtos);
+    }
+    
+    /**
+     * Ranking de mais vendidos com unidades e receita (apenas administradores)
+     * Parâmetros: periodo (total, 24h, 7d, 30d), criterio (quantidade, receita), categoriaId e limite
+     */
+    @GetMapping("/mais-vendidos")
+    public ResponseEntity<?> listarMaisVendidos(
+            @RequestParam(required = false) String periodo,
+            @RequestParam(required = false) String criterio,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(defaultValue = "10") int limite,
+            @RequestHeader("Authorization") String token) {
+        if (token == null || !token.startsWith("Bearer ")) {
+            return ResponseEntity.status(401).body("Token de autorização necessário");
+        }
+        
+        String tokenValue = token.substring(7);
+        if (authService.validateSession(tokenValue) == null) {
+            return ResponseEntity.status(401).body("Sessão inválida");
+        }
+        if (!authService.isAdmin(tokenValue)) {
+            return ResponseEntity.status(403).body("Apenas administradores podem consultar o ranking de vendas");
+        }
+        
+        try {
+            List<ProdutoMaisVendido> ranking = rankingVendasService.listar(RankingVendasService.Periodo.de(periodo),
+                RankingVendasService.Criterio.de(criterio), categoriaId, Math.min(limite, RankingVendasService.LIMITE_MAXIMO));
+            return ResponseEntity.ok().cacheControl(CACHE_ADMIN).body(ranking);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    /**
+     * Feed de alterações do catálogo via Server-Sent Events (sem autenticação)
+     * Cada evento traz o produto alterado e os campos; reconexões retomam pelo Last-Event-ID
+     * (ou pelo parâmetro desde) e recebem um evento "reset" se o histórico não cobrir o intervalo
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> feedAlteracoes(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) String desde) {
+        SseEmitter emitter = feedAlteracoesService.abrirStream(lastEventId != null ? lastEventId : desde);
+        if (emitter == null) {
+            // Limite de streams simultâneos atingido
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
+    /**
+     * Página de produto em uma única chamada (sem autenticação): produto, imagens ordenadas,
+     * categoria, situação do estoque e unidades vendidas
+     */
+    @GetMapping("/public/{id}/detalhes")
+    public ResponseEntity<ProdutoDetalhe> buscarDetalheProdutoPublico(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (catalogoService.buscarAtivo(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = versaoCatalogoService.etagDetalheProduto(id);
+        ResponseEntity<ProdutoDetalhe> naoModificada = RespostaCondicional.naoModificada(ifNoneMatch, etag, CACHE_PRODUTO_PUBLICO);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+        
+        ProdutoDetalhe detalhe = produtoService.buscarDetalhePublico(id);
+        if (detalhe == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_PRODUTO_PUBLICO).body(detalhe);
     }
     
     /**
      * Busca produto por ID para o e-commerce (sem autenticação)
-     * Apenas produtos ativos são retornados
+     * Apenas produtos ativos são retornados (servidos do catálogo em memória)
      */
     @GetMapping("/public/{id}")
-    public ResponseEntity<Produto> buscarProdutoPublico(@PathVariable Long id) {
-        try {
-            Produto produto = produtoService.buscarProdutoPublico(id);
-            return ResponseEntity.ok(produto);
-        } catch (Exception e) {
+    public ResponseEntity<byte[]> buscarProdutoPublico(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Produto inativo ou inexistente nunca responde 304
+        if (catalogoService.buscarAtivo(id) == null) {
             return ResponseEntity.notFound().build();
         }
+        String etag = versaoCatalogoService.etagProduto(id);
+        ResponseEntity<byte[]> naoModificada = RespostaCondicional.naoModificada(ifNoneMatch, etag, CACHE_PRODUTO_PUBLICO);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+        
+        JsonPreCodificado produto = catalogoJsonService.produto(id);
+        if (produto == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return produto.responder(acceptEncoding, etag, CACHE_PRODUTO_PUBLICO);
     }
     
     /**
      * Busca produtos por nome (sem autenticação)
+     * Com termo, usa o índice invertido (sem acentos, por relevância)
+     * Com aproximada=true, tolera erros de digitação no nome (índice de trigramas)
+     * Com ordenar (menor-preco, maior-preco, avaliacao, recentes) e/ou page, ordena e pagina em memória
+     * Resultados com termo, ordenação ou página ficam no cache de busca até uma escrita afetá-los
      */
     @GetMapping("/public/buscar")
-    public ResponseEntity<List<Produto>> buscarProdutos(
+    public ResponseEntity<?> buscarProdutos(
             @RequestParam(required = false) String termo,
-            @RequestParam(required = false) Long categoriaId) {
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(defaultValue = "false") boolean aproximada,
+            @RequestParam(required = false) String ordenar,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        if (categoriaId != null && termo != null && !termo.trim().isEmpty()) {
-            // Busca por categoria E nome
-            List<Produto> produtos = produtoService.buscarPorCategoriaENome(categoriaId, termo);
-            return ResponseEntity.ok(produtos);
+        OrdenacaoCatalogoService.Ordenacao ordenacao = null;
+        if (ordenar != null && !ordenar.trim().isEmpty()) {
+            try {
+                ordenacao = OrdenacaoCatalogoService.Ordenacao.de(ordenar);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+        if ((page != null && page < 0) || size <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        String etag = versaoCatalogoService.etagCatalogo();
+        ResponseEntity<Object> naoModificada = RespostaCondicional.naoModificada(ifNoneMatch, etag, CACHE_BUSCA);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+        
+        boolean comTermo = termo != null && !termo.trim().isEmpty();
+        if (!comTermo && ordenacao == null && page == null) {
+            // Listagens pré-codificadas, sem necessidade de cache de resultados
+            return categoriaId != null
+                ? catalogoJsonService.listarPorCategoria(categoriaId).responder(acceptEncoding, etag, CACHE_BUSCA)
+                : catalogoJsonService.listarAtivos().responder(acceptEncoding, etag, CACHE_BUSCA);
+        }
+        
+        OrdenacaoCatalogoService.Ordenacao ordenacaoBusca = ordenacao;
+        CacheBuscaService.Chave chave = new CacheBuscaService.Chave(termo, categoriaId,
+            ordenacao != null ? ordenacao.name() : null, aproximada, page, size);
+        Object resultado = cacheBuscaService.obter(chave,
+            () -> executarBusca(termo, categoriaId, aproximada, ordenacaoBusca, page, size));
+        return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_BUSCA).body(resultado);
+    }
+    
+    /**
+     * Executa a busca com termo e/ou ordenação/paginação (resultado guardado no cache de busca)
+     */
+    private Object executarBusca(String termo, Long categoriaId, boolean aproximada,
+                                 OrdenacaoCatalogoService.Ordenacao ordenacao, Integer page, int size) {
+        boolean comTermo = termo != null && !termo.trim().isEmpty();
+        boolean indicePronto = aproximada ? buscaAproximadaService.isPronto() : buscaProdutoService.isPronto();
+        
+        if ((ordenacao != null || page != null) && (!comTermo || indicePronto)) {
+            // Ordenação/paginação sobre as colunas em memória
+            List<Long> idsBusca = comTermo ? buscarIds(termo, categoriaId, aproximada) : null;
+            PaginatedResponse<ProdutoResumo> pagina = page != null
+                ? ordenacaoCatalogoService.paginar(ordenacao, categoriaId, idsBusca, page, size)
+                : ordenacaoCatalogoService.paginar(ordenacao, categoriaId, idsBusca, 0, Integer.MAX_VALUE);
+            return page != null ? pagina : pagina.getContent();
+        }
+        
+        if (indicePronto) {
+            List<ProdutoResumo> produtos = new ArrayList<>();
+            for (Long id : buscarIds(termo, categoriaId, aproximada)) {
+                ProdutoCatalogo produto = catalogoService.buscarAtivo(id);
+                if (produto != null) {
+                    produtos.add(ProdutoResumo.of(produto));
+                }
+            }
+            return produtos;
         } else if (categoriaId != null) {
-            // Busca apenas por categoria
-            List<Produto> produtos = produtoService.listarPorCategoria(categoriaId);
-            return ResponseEntity.ok(produtos);
-        } else if (termo != null && !termo.trim().isEmpty()) {
-            // Busca apenas por nome
-            List<Produto> produtos = produtoService.buscarPorNome(termo);
-            return ResponseEntity.ok(produtos);
+            // Busca por categoria E nome
+            return produtoService.buscarPorCategoriaENome(categoriaId, termo);
         } else {
-            // Retorna produtos ativos
-            List<Produto> produtos = produtoService.listarProdutosAtivos();
-            return ResponseEntity.ok(produtos);
+            // Busca apenas por nome
+            return produtoService.buscarPorNome(termo);
         }
     }
     
+    private List<Long> buscarIds(String termo, Long categoriaId, boolean aproximada) {
+        return aproximada
+            ? buscaAproximadaService.buscar(termo, categoriaId)
+            : buscaProdutoService.buscar(termo, categoriaId, Produto.ProdutoStatus.ATIVO);
+    }
+    
+    /**
+     * Sugestões de produtos e categorias enquanto o usuário digita (sem autenticação)
+     * Respondido pela trie em memória, sem acesso ao banco
+     */
+    @GetMapping("/public/autocomplete")
+    public ResponseEntity<List<SugestaoAutocomplete>> autocomplete(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "8") int limite,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versaoCatalogoService.etagCatalogo();
+        ResponseEntity<List<SugestaoAutocomplete>> naoModificada =
+            RespostaCondicional.naoModificada(ifNoneMatch, etag, CACHE_BUSCA);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+        List<SugestaoAutocomplete> sugestoes = autocompleteService.sugerir(q, limite);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_BUSCA).body(sugestoes);
+    }
+    
+    /**
+     * Filtragem facetada (sem autenticação): categoria, faixa de preço, avaliação mínima e estoque,
+     * com a contagem de produtos de cada opção. Calculada sobre bitmaps em memória.
+     * Ex: /public/filtrar?categoriaId=1&categoriaId=2&faixaPreco=50-100&avaliacaoMinima=4&emEstoque=true
+     */
+    @GetMapping("/public/filtrar")
+    public ResponseEntity<ResultadoFacetado> filtrarProdutos(
+            @RequestParam(required = false) String termo,
+            @RequestParam(required = false) List<Long> categoriaId,
+            @RequestParam(required = false) List<String> faixaPreco,
+            @RequestParam(required = false) Integer avaliacaoMinima,
+            @RequestParam(defaultValue = "false") boolean emEstoque,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (page < 0 || size <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = versaoCatalogoService.etagCatalogo();
+        ResponseEntity<ResultadoFacetado> naoModificada = RespostaCondicional.naoModificada(ifNoneMatch, etag, CACHE_BUSCA);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+        ResultadoFacetado resultado = filtroFacetadoService.filtrar(
+            termo, categoriaId, faixaPreco, avaliacaoMinima, emEstoque, page, size);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_BUSCA).body(resultado);
+    }
+    
     /**
      * Lista produtos por categoria (sem autenticação)
      */
     @GetMapping("/public/categoria/{categoriaId}")
-    public ResponseEntity<List<Produto>> listarProdutosPorCategoria(@PathVariable Long categoriaId) {
-        try {
-            List<Produto> produtos = produtoService.listarPorCategoria(categoriaId);
-            return ResponseEntity.ok(produtos);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(null);
+    public ResponseEntity<byte[]> listarProdutosPorCategoria(
+            @PathVariable Long categoriaId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versaoCatalogoService.etagCategoria(categoriaId);
+        ResponseEntity<byte[]> naoModificada = RespostaCondicional.naoModificada(ifNoneMatch, etag, CACHE_LISTAS_PUBLICAS);
+        if (naoModificada != null) {
+            return naoModificada;
         }
+        return catalogoJsonService.listarPorCategoria(categoriaId).responder(acceptEncoding, etag, CACHE_LISTAS_PUBLICAS);
     }
     
     /**
      * Lista imagens de um produto
      */
     @GetMapping("/{id}/images")
-    public ResponseEntity<List<ProdutoImagem>> listarImagens(@PathVariable Long id) {
+    public ResponseEntity<List<ProdutoImagem>> listarImagens(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Alterações de imagens incrementam a versão do produto
+        String etag = versaoCatalogoService.etagProduto(id);
+        ResponseEntity<List<ProdutoImagem>> naoModificada = RespostaCondicional.naoModificada(ifNoneMatch, etag, CACHE_IMAGENS);
+        if (naoModificada != null) {
+            return naoModificada;
+        }
+        
         List<ProdutoImagem> imagens = produtoService.listarImagensPorProduto(id);
-        return ResponseEntity.ok(imagens);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CACHE_IMAGENS).body(imagens);
     }
     
     /**
@@ -189,6 +580,60 @@ public class ProdutoController {
         }
     }
     
+    /**
+     * Importação em massa de produtos (CSV ou NDJSON), lida em streaming e gravada em lotes.
+     * O formato vem do parâmetro formato ou da extensão do arquivo (.csv, .ndjson, .jsonl)
+     */
+    @PostMapping("/importar")
+    public ResponseEntity<?> importarProdutos(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "formato", required = false) String formato,
+            @RequestHeader("Authorization") String token) {
+        try {
+            if (token == null || !token.startsWith("Bearer ")) {
+                return ResponseEntity.status(401).body("Token de autorização necessário");
+            }
+            
+            String tokenValue = token.substring(7);
+            var user = authService.validateSession(tokenValue);
+            if (user == null) {
+                return ResponseEntity.status(401).body("Sessão inválida");
+            }
+            
+            if (!authService.isAdmin(tokenValue)) {
+                return ResponseEntity.status(403).body("Apenas administradores podem importar produtos");
+            }
+            
+            String formatoArquivo = formatoImportacao(formato, file.getOriginalFilename());
+            if (formatoArquivo == null) {
+                return ResponseEntity.badRequest().body("Formato não suportado. Use CSV ou NDJSON");
+            }
+            
+            try (var entrada = file.getInputStream()) {
+                ResultadoImportacao resultado = importacaoProdutoService.importar(entrada, formatoArquivo, user.getId());
+                return ResponseEntity.ok(resultado);
+            }
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao importar produtos: " + e.getMessage());
+        }
+    }
+    
+    private static String formatoImportacao(String formato, String nomeArquivo) {
+        String referencia = formato != null ? formato : nomeArquivo;
+        if (referencia == null) {
+            return null;
+        }
+        referencia = referencia.toLowerCase();
+        if (referencia.endsWith("csv")) {
+            return ImportacaoProdutoService.FORMATO_CSV;
+        }
+        if (referencia.endsWith("ndjson") || referencia.endsWith("jsonl")) {
+            return ImportacaoProdutoService.FORMATO_NDJSON;
+        }
+        return null;
+    }
+    
     /**
      * Adiciona imagem a um produto
      */
@@ -363,6 +808,41 @@ public class ProdutoController {
         }
     }
     
+    /**
+     * Atualização em lote de estoque e/ou preço (absoluto ou variação), com resultado por item.
+     * Estoquistas podem alterar apenas quantidades; preços exigem administrador
+     */
+    @PutMapping("/lote")
+    public ResponseEntity<?> atualizarEmLote(
+            @Valid @RequestBody AtualizacaoLoteRequest request,
+            @RequestHeader("Authorization") String token) {
+        try {
+            if (token == null || !token.startsWith("Bearer ")) {
+                return ResponseEntity.status(401).body("Token de autorização necessário");
+            }
+            
+            String tokenValue = token.substring(7);
+            var user = authService.validateSession(tokenValue);
+            if (user == null) {
+                return ResponseEntity.status(401).body("Sessão inválida");
+            }
+            
+            boolean admin = authService.isAdmin(tokenValue);
+            if (!admin && !authService.isEstoquista(tokenValue)) {
+                return ResponseEntity.status(403).body("Apenas administradores e estoquistas podem atualizar produtos em lote");
+            }
+            if (!admin && request.getItens().stream().anyMatch(AtualizacaoLoteRequest.Item::alteraPreco)) {
+                return ResponseEntity.status(403).body("Apenas administradores podem alterar preços");
+            }
+            
+            ResultadoAtualizacaoLote resultado = atualizacaoLoteService.atualizar(request.getItens(), user.getId());
+            return ResponseEntity.ok(resultado);
+            
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro ao atualizar produtos em lote: " + e.getMessage());
+        }
+    }
+    
     /**
      * Atualiza um produto completo com gerenciamento de imagens
      */
@@ -20,6 +20,7 @@ import com.goiashop.dto.UsuarioAlteracaoRequest;
 import com.goiashop.dto.UsuarioCadastroRequest;
 import com.goiashop.model.User;
 import com.goiashop.service.UserService;
+import com.goiashop.util.CursorPaginacao;
 
 import jakarta.validation.Valid;
 
@@ -36,7 +37,23 @@ public class UsuarioController {
             @RequestParam(required = false) String nome,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer pageSize) {
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        
+        // Se cursor foi fornecido (vazio = primeira página), usar paginação por cursor
+        if (cursor != null) {
+            int size = pageSize != null ? pageSize : 10;
+            if (size < 1) {
+                return ResponseEntity.badRequest().body("pageSize deve ser maior que zero");
+            }
+            size = Math.min(size, CursorPaginacao.TAMANHO_MAXIMO);
+            try {
+                return ResponseEntity.ok(userService.listarComCursor(nome, status, cursor, size, incluirTotal));
+            } catch (CursorPaginacao.CursorInvalidoException e) {
+                return ResponseEntity.badRequest().body("Cursor inválido");
+            }
+        }
         
         // Se page foi fornecido, usar paginação
         if (page != null) {
@@ -0,0 +1,41 @@
+package com.goiashop.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Evento compacto do feed de alterações do catálogo: qual produto mudou e quais campos.
+ *
+ * O id ("inicio-versao") é usado como Last-Event-ID para retomar o feed; a versão é
+ * sequencial dentro de uma mesma execução do servidor.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class AlteracaoProduto {
+
+    public static final String TIPO_CRIADO = "CRIADO";
+    public static final String TIPO_ALTERADO = "ALTERADO";
+    public static final String TIPO_REMOVIDO = "REMOVIDO";
+    // O cliente deve descartar tudo o que tem em cache (histórico perdido ou servidor reiniciado)
+    public static final String TIPO_RESET = "RESET";
+
+    private final String id;
+    private final long versao;
+    private final String tipo;
+    private final Long produtoId;
+    private final List<String> campos;
+
+    public AlteracaoProduto(String id, long versao, String tipo, Long produtoId, List<String> campos) {
+        this.id = id;
+        this.versao = versao;
+        this.tipo = tipo;
+        this.produtoId = produtoId;
+        this.campos = campos;
+    }
+
+    public String getId() { return id; }
+    public long getVersao() { return versao; }
+    public String getTipo() { return tipo; }
+    public Long getProdutoId() { return produtoId; }
+    public List<String> getCampos() { return campos; }
+}
@@ -0,0 +1,91 @@
+package com.goiashop.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Atualização em lote de estoque e/ou preço.
+ * Cada item informa o valor absoluto (quantidade, preco) ou a variação (quantidadeDelta, precoDelta).
+ */
+public class AtualizacaoLoteRequest {
+
+    @NotEmpty(message = "Informe ao menos um item")
+    @Size(max = 10000, message = "Máximo de 10000 itens por requisição")
+    @Valid
+    private List<Item> itens;
+
+    public AtualizacaoLoteRequest() {}
+
+    public List<Item> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<Item> itens) {
+        this.itens = itens;
+    }
+
+    public static class Item {
+
+        // Opcional na validação: item sem id é reportado no resultado do próprio item, sem rejeitar o lote
+        private Long id;
+
+        private Integer quantidade;
+        private Integer quantidadeDelta;
+        private BigDecimal preco;
+        private BigDecimal precoDelta;
+
+        public Item() {}
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public Integer getQuantidade() {
+            return quantidade;
+        }
+
+        public void setQuantidade(Integer quantidade) {
+            this.quantidade = quantidade;
+        }
+
+        public Integer getQuantidadeDelta() {
+            return quantidadeDelta;
+        }
+
+        public void setQuantidadeDelta(Integer quantidadeDelta) {
+            this.quantidadeDelta = quantidadeDelta;
+        }
+
+        public BigDecimal getPreco() {
+            return preco;
+        }
+
+        public void setPreco(BigDecimal preco) {
+            this.preco = preco;
+        }
+
+        public BigDecimal getPrecoDelta() {
+            return precoDelta;
+        }
+
+        public void setPrecoDelta(BigDecimal precoDelta) {
+            this.precoDelta = precoDelta;
+        }
+
+        public boolean alteraPreco() {
+            return preco != null || precoDelta != null;
+        }
+
+        public boolean alteraQuantidade() {
+            return quantidade != null || quantidadeDelta != null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.goiashop.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Visão imutável de uma categoria ativa com as contagens de produtos, servida da memória.
+ *
+ * quantidadeProdutos conta os produtos ativos; quantidadeEmEstoque, os ativos com estoque.
+ */
+public final class CategoriaCatalogo {
+
+    private final Long id;
+    private final String nome;
+    private final String descricao;
+    private final Boolean ativo;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final long quantidadeProdutos;
+    private final long quantidadeEmEstoque;
+
+    /**
+     * Construtor usado pela consulta JPQL (SELECT new ...)
+     */
+    public CategoriaCatalogo(Long id, String nome, String descricao, Boolean ativo,
+                             LocalDateTime createdAt, LocalDateTime updatedAt,
+                             Long quantidadeProdutos, Long quantidadeEmEstoque) {
+        this.id = id;
+        this.nome = nome;
+        this.descricao = descricao;
+        this.ativo = ativo;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.quantidadeProdutos = quantidadeProdutos != null ? quantidadeProdutos : 0L;
+        this.quantidadeEmEstoque = quantidadeEmEstoque != null ? quantidadeEmEstoque : 0L;
+    }
+
+    /**
+     * Cópia com novas contagens
+     */
+    public CategoriaCatalogo comContagens(long quantidadeProdutos, long quantidadeEmEstoque) {
+        return new CategoriaCatalogo(id, nome, descricao, ativo, createdAt, updatedAt,
+            quantidadeProdutos, quantidadeEmEstoque);
+    }
+
+    public Long getId() { return id; }
+    public String getNome() { return nome; }
+    public String getDescricao() { return descricao; }
+    public Boolean getAtivo() { return ativo; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public long getQuantidadeProdutos() { return quantidadeProdutos; }
+    public long getQuantidadeEmEstoque() { return quantidadeEmEstoque; }
+}
@@ -0,0 +1,69 @@
+package com.goiashop.dto;
+
+import java.util.List;
+
+/**
+ * Resposta paginada por cursor (keyset).
+ *
+ * Diferente de {@link PaginatedResponse}, não há número de página: o cliente envia
+ * o {@code nextCursor} recebido para obter a próxima página. O total é opcional e,
+ * quando presente, aproximado (vem de uma contagem em cache).
+ */
+public class CursorPaginatedResponse<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+    private Long totalElements;
+
+    public CursorPaginatedResponse() {}
+
+    public CursorPaginatedResponse(List<T> content, int size, String nextCursor, Long totalElements) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+        this.totalElements = totalElements;
+    }
+
+    // Getters e Setters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+}
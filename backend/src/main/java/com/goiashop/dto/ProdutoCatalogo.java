@@ -0,0 +1,156 @@
+package com.goiashop.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.goiashop.model.Categoria;
+import com.goiashop.model.Produto;
+import com.goiashop.model.ProdutoImagem;
+import com.goiashop.util.VariantesImagem;
+
+/**
+ * Visão imutável de um produto no catálogo em memória.
+ *
+ * Mantém o mesmo formato JSON da entidade Produto para não quebrar o e-commerce,
+ * mas não possui vínculo com o Hibernate (sem lazy loading).
+ */
+public final class ProdutoCatalogo {
+
+    private final Long id;
+    private final String nome;
+    private final String descricao;
+    private final BigDecimal preco;
+    private final Integer quantidadeEstoque;
+    private final Produto.ProdutoStatus status;
+    private final Double avaliacao;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final CategoriaResumo categoria;
+    private final List<ImagemResumo> imagens;
+    private final ImagemResumo imagemPrincipal;
+
+    private ProdutoCatalogo(Produto produto, boolean comImagens) {
+        this.id = produto.getId();
+        this.nome = produto.getNome();
+        this.descricao = produto.getDescricao();
+        this.preco = produto.getPreco();
+        this.quantidadeEstoque = produto.getQuantidadeEstoque();
+        this.status = produto.getStatus();
+        this.avaliacao = produto.getAvaliacao();
+        this.createdAt = produto.getCreatedAt();
+        this.updatedAt = produto.getUpdatedAt();
+        this.categoria = produto.getCategoria() != null ? new CategoriaResumo(produto.getCategoria()) : null;
+
+        List<ImagemResumo> lista = new ArrayList<>();
+        ImagemResumo principal = null;
+        List<ProdutoImagem> ordenadas = comImagens ? new ArrayList<>(produto.getImagens()) : new ArrayList<>();
+        ordenadas.sort(Comparator.comparing(ProdutoImagem::getOrdem, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ProdutoImagem::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+        for (ProdutoImagem imagem : ordenadas) {
+            ImagemResumo resumo = new ImagemResumo(imagem);
+            lista.add(resumo);
+            if (principal == null && Boolean.TRUE.equals(imagem.getIsPrincipal())) {
+                principal = resumo;
+            }
+        }
+        this.imagens = Collections.unmodifiableList(lista);
+        this.imagemPrincipal = principal != null ? principal : (lista.isEmpty() ? null : lista.get(0));
+    }
+
+    /**
+     * Cria a visão a partir de uma entidade com imagens e categoria já carregadas
+     */
+    public static ProdutoCatalogo of(Produto produto) {
+        return new ProdutoCatalogo(produto, true);
+    }
+
+    /**
+     * Visão sem imagens, para produtos fora da loja (os índices só usam os demais campos);
+     * não acessa a coleção de imagens da entidade
+     */
+    public static ProdutoCatalogo semImagens(Produto produto) {
+        return new ProdutoCatalogo(produto, false);
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getNome() { return nome; }
+    public String getDescricao() { return descricao; }
+    public BigDecimal getPreco() { return preco; }
+    public Integer getQuantidadeEstoque() { return quantidadeEstoque; }
+    public Produto.ProdutoStatus getStatus() { return status; }
+    public Double getAvaliacao() { return avaliacao; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public CategoriaResumo getCategoria() { return categoria; }
+    public List<ImagemResumo> getImagens() { return imagens; }
+    public ImagemResumo getImagemPrincipal() { return imagemPrincipal; }
+
+    // Compatibilidade com Produto.getQuantidade()
+    public Integer getQuantidade() { return quantidadeEstoque; }
+
+    /**
+     * Categoria do produto no catálogo
+     */
+    public static final class CategoriaResumo {
+        private final Long id;
+        private final String nome;
+        private final String descricao;
+        private final Boolean ativo;
+
+        private CategoriaResumo(Categoria categoria) {
+            this.id = categoria.getId();
+            this.nome = categoria.getNome();
+            this.descricao = categoria.getDescricao();
+            this.ativo = categoria.getAtivo();
+        }
+
+        public Long getId() { return id; }
+        public String getNome() { return nome; }
+        public String getDescricao() { return descricao; }
+        public Boolean getAtivo() { return ativo; }
+    }
+
+    /**
+     * Imagem do produto no catálogo
+     */
+    public static final class ImagemResumo {
+        private final Long id;
+        private final String nomeArquivo;
+        private final String caminhoArquivo;
+        private final String urlArquivo;
+        private final Boolean isPrincipal;
+        private final Integer ordem;
+        private final Long tamanhoArquivo;
+        private final String tipoMime;
+        private final Map<String, Map<String, String>> variantes;
+
+        private ImagemResumo(ProdutoImagem imagem) {
+            this.id = imagem.getId();
+            this.nomeArquivo = imagem.getNomeArquivo();
+            this.caminhoArquivo = imagem.getCaminhoArquivo();
+            this.urlArquivo = imagem.getUrlArquivo();
+            this.isPrincipal = imagem.getIsPrincipal();
+            this.ordem = imagem.getOrdem();
+            this.tamanhoArquivo = imagem.getTamanhoArquivo();
+            this.tipoMime = imagem.getTipoMime();
+            this.variantes = VariantesImagem.urls(imagem.getUrlArquivo(), imagem.getCaminhoArquivo(), imagem.getVariantes());
+        }
+
+        public Long getId() { return id; }
+        public String getNomeArquivo() { return nomeArquivo; }
+        public String getCaminhoArquivo() { return caminhoArquivo; }
+        public String getUrlArquivo() { return urlArquivo; }
+        public Boolean getIsPrincipal() { return isPrincipal; }
+        public Integer getOrdem() { return ordem; }
+        public Long getTamanhoArquivo() { return tamanhoArquivo; }
+        public String getTipoMime() { return tipoMime; }
+        // URLs redimensionadas por tamanho e formato; null enquanto não geradas
+        public Map<String, Map<String, String>> getVariantes() { return variantes; }
+    }
+}
@@ -0,0 +1,39 @@
+package com.goiashop.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.goiashop.model.Produto;
+
+/**
+ * Página de produto em uma única resposta: os mesmos campos de /public/{id}
+ * (imagens ordenadas e categoria) mais situação do estoque e unidades vendidas.
+ */
+public final class ProdutoDetalhe {
+
+    public static final int LIMITE_ESTOQUE_BAIXO = 5;
+
+    @JsonUnwrapped
+    private final ProdutoCatalogo produto;
+    private final boolean emEstoque;
+    private final boolean estoqueBaixo;
+    private final long quantidadeVendida;
+
+    private ProdutoDetalhe(Produto produto) {
+        this.produto = ProdutoCatalogo.of(produto);
+        int estoque = produto.getQuantidadeEstoque() != null ? produto.getQuantidadeEstoque() : 0;
+        this.emEstoque = estoque > 0;
+        this.estoqueBaixo = estoque > 0 && estoque <= LIMITE_ESTOQUE_BAIXO;
+        this.quantidadeVendida = produto.getQuantidadeVendida() != null ? produto.getQuantidadeVendida() : 0L;
+    }
+
+    /**
+     * Cria o detalhe a partir de uma entidade com imagens e categoria já carregadas
+     */
+    public static ProdutoDetalhe of(Produto produto) {
+        return new ProdutoDetalhe(produto);
+    }
+
+    public ProdutoCatalogo getProduto() { return produto; }
+    public boolean isEmEstoque() { return emEstoque; }
+    public boolean isEstoqueBaixo() { return estoqueBaixo; }
+    public long getQuantidadeVendida() { return quantidadeVendida; }
+}
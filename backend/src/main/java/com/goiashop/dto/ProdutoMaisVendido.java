@@ -0,0 +1,29 @@
+package com.goiashop.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Posição no ranking de mais vendidos: unidades e receita do produto no período
+ */
+public final class ProdutoMaisVendido {
+
+    private final Long produtoId;
+    private final String nome;
+    private final Long categoriaId;
+    private final long quantidade;
+    private final BigDecimal receita;
+
+    public ProdutoMaisVendido(Long produtoId, String nome, Long categoriaId, long quantidade, BigDecimal receita) {
+        this.produtoId = produtoId;
+        this.nome = nome;
+        this.categoriaId = categoriaId;
+        this.quantidade = quantidade;
+        this.receita = receita;
+    }
+
+    public Long getProdutoId() { return produtoId; }
+    public String getNome() { return nome; }
+    public Long getCategoriaId() { return categoriaId; }
+    public long getQuantidade() { return quantidade; }
+    public BigDecimal getReceita() { return receita; }
+}
@@ -0,0 +1,97 @@
+package com.goiashop.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.goiashop.model.Produto;
+
+/**
+ * Projeção leve de produto para listagens (grade da loja e tabela administrativa).
+ *
+ * Carregada em uma única consulta (sem imagens nem categoria completas), evitando
+ * o 1+N do lazy loading de Produto.imagens. O grafo completo fica apenas no detalhe.
+ */
+public final class ProdutoResumo {
+
+    private final Long id;
+    private final String nome;
+    private final String descricao;
+    private final BigDecimal preco;
+    private final Integer quantidadeEstoque;
+    private final Produto.ProdutoStatus status;
+    private final Double avaliacao;
+    private final LocalDateTime createdAt;
+    private final Long categoriaId;
+    private final String categoriaNome;
+    private final String imagemPrincipalUrl;
+    private final Map<String, Map<String, String>> imagemPrincipalVariantes;
+
+    /**
+     * Construtor usado pelas consultas JPQL (SELECT new ...)
+     */
+    public ProdutoResumo(Long id, String nome, String descricao, BigDecimal preco, Integer quantidadeEstoque,
+                         Produto.ProdutoStatus status, Double avaliacao, LocalDateTime createdAt,
+                         Long categoriaId, String categoriaNome, String imagemPrincipalUrl) {
+        this(id, nome, descricao, preco, quantidadeEstoque, status, avaliacao, createdAt,
+            categoriaId, categoriaNome, imagemPrincipalUrl, null);
+    }
+
+    private ProdutoResumo(Long id, String nome, String descricao, BigDecimal preco, Integer quantidadeEstoque,
+                          Produto.ProdutoStatus status, Double avaliacao, LocalDateTime createdAt,
+                          Long categoriaId, String categoriaNome, String imagemPrincipalUrl,
+                          Map<String, Map<String, String>> imagemPrincipalVariantes) {
+        this.id = id;
+        this.nome = nome;
+        this.descricao = descricao;
+        this.preco = preco;
+        this.quantidadeEstoque = quantidadeEstoque;
+        this.status = status;
+        this.avaliacao = avaliacao;
+        this.createdAt = createdAt;
+        this.categoriaId = categoriaId;
+        this.categoriaNome = categoriaNome;
+        this.imagemPrincipalUrl = imagemPrincipalUrl;
+        this.imagemPrincipalVariantes = imagemPrincipalVariantes;
+    }
+
+    /**
+     * Cria o resumo a partir da visão do catálogo em memória
+     */
+    public static ProdutoResumo of(ProdutoCatalogo produto) {
+        return new ProdutoResumo(
+            produto.getId(),
+            produto.getNome(),
+            produto.getDescricao(),
+            produto.getPreco(),
+            produto.getQuantidadeEstoque(),
+            produto.getStatus(),
+            produto.getAvaliacao(),
+            produto.getCreatedAt(),
+            produto.getCategoria() != null ? produto.getCategoria().getId() : null,
+            produto.getCategoria() != null ? produto.getCategoria().getNome() : null,
+            produto.getImagemPrincipal() != null ? produto.getImagemPrincipal().getUrlArquivo() : null,
+            produto.getImagemPrincipal() != null ? produto.getImagemPrincipal().getVariantes() : null);
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getNome() { return nome; }
+    public String getDescricao() { return descricao; }
+    public BigDecimal getPreco() { return preco; }
+    public Integer getQuantidadeEstoque() { return quantidadeEstoque; }
+    public Produto.ProdutoStatus getStatus() { return status; }
+    public Double getAvaliacao() { return avaliacao; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Long getCategoriaId() { return categoriaId; }
+    public String getCategoriaNome() { return categoriaNome; }
+    public String getImagemPrincipalUrl() { return imagemPrincipalUrl; }
+    public Map<String, Map<String, String>> getImagemPrincipalVariantes() { return imagemPrincipalVariantes; }
+
+    public boolean isEmEstoque() {
+        return quantidadeEstoque != null && quantidadeEstoque > 0;
+    }
+
+    // Compatibilidade com Produto.getQuantidade() (usado pelo carrinho)
+    public Integer getQuantidade() { return quantidadeEstoque; }
+}
@@ -0,0 +1,60 @@
+package com.goiashop.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado de uma atualização em lote: totais e o resultado de cada item, na ordem enviada
+ */
+public class ResultadoAtualizacaoLote {
+
+    private final int atualizados;
+    private final int falhas;
+    private final long duracaoMs;
+    private final List<ItemResultado> itens;
+
+    public ResultadoAtualizacaoLote(int atualizados, int falhas, long duracaoMs, List<ItemResultado> itens) {
+        this.atualizados = atualizados;
+        this.falhas = falhas;
+        this.duracaoMs = duracaoMs;
+        this.itens = itens;
+    }
+
+    public int getAtualizados() { return atualizados; }
+    public int getFalhas() { return falhas; }
+    public long getDuracaoMs() { return duracaoMs; }
+    public List<ItemResultado> getItens() { return itens; }
+
+    /**
+     * Resultado de um item: valores finais em caso de sucesso, ou a mensagem de erro
+     */
+    public static final class ItemResultado {
+        private final Long id;
+        private final boolean sucesso;
+        private final Integer quantidadeEstoque;
+        private final BigDecimal preco;
+        private final String mensagem;
+
+        private ItemResultado(Long id, boolean sucesso, Integer quantidadeEstoque, BigDecimal preco, String mensagem) {
+            this.id = id;
+            this.sucesso = sucesso;
+            this.quantidadeEstoque = quantidadeEstoque;
+            this.preco = preco;
+            this.mensagem = mensagem;
+        }
+
+        public static ItemResultado sucesso(Long id, Integer quantidadeEstoque, BigDecimal preco) {
+            return new ItemResultado(id, true, quantidadeEstoque, preco, null);
+        }
+
+        public static ItemResultado falha(Long id, String mensagem) {
+            return new ItemResultado(id, false, null, null, mensagem);
+        }
+
+        public Long getId() { return id; }
+        public boolean isSucesso() { return sucesso; }
+        public Integer getQuantidadeEstoque() { return quantidadeEstoque; }
+        public BigDecimal getPreco() { return preco; }
+        public String getMensagem() { return mensagem; }
+    }
+}
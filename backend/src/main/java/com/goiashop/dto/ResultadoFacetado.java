@@ -0,0 +1,60 @@
+package com.goiashop.dto;
+
+import java.util.List;
+
+/**
+ * Resultado da filtragem facetada do catálogo: a página de produtos e, para cada
+ * faceta, quantos produtos existiriam ao escolher cada opção (mantidos os demais filtros).
+ */
+public class ResultadoFacetado {
+
+    private final List<ProdutoResumo> produtos;
+    private final int page;
+    private final int size;
+    private final int totalElements;
+    private final List<Faceta> categorias;
+    private final List<Faceta> faixasPreco;
+    private final List<Faceta> avaliacoes;
+    private final int emEstoque;
+
+    public ResultadoFacetado(List<ProdutoResumo> produtos, int page, int size, int totalElements,
+                             List<Faceta> categorias, List<Faceta> faixasPreco, List<Faceta> avaliacoes,
+                             int emEstoque) {
+        this.produtos = produtos;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.categorias = categorias;
+        this.faixasPreco = faixasPreco;
+        this.avaliacoes = avaliacoes;
+        this.emEstoque = emEstoque;
+    }
+
+    public List<ProdutoResumo> getProdutos() { return produtos; }
+    public int getPage() { return page; }
+    public int getSize() { return size; }
+    public int getTotalElements() { return totalElements; }
+    public List<Faceta> getCategorias() { return categorias; }
+    public List<Faceta> getFaixasPreco() { return faixasPreco; }
+    public List<Faceta> getAvaliacoes() { return avaliacoes; }
+    public int getEmEstoque() { return emEstoque; }
+
+    /**
+     * Opção de uma faceta e a quantidade de produtos que ela retornaria
+     */
+    public static final class Faceta {
+        private final String valor;
+        private final String rotulo;
+        private final int total;
+
+        public Faceta(String valor, String rotulo, int total) {
+            this.valor = valor;
+            this.rotulo = rotulo;
+            this.total = total;
+        }
+
+        public String getValor() { return valor; }
+        public String getRotulo() { return rotulo; }
+        public int getTotal() { return total; }
+    }
+}
@@ -0,0 +1,55 @@
+package com.goiashop.dto;
+
+import java.util.List;
+
+/**
+ * Relatório de uma importação em massa de produtos: totais, vazão e erros por linha
+ */
+public class ResultadoImportacao {
+
+    private final String formato;
+    private final int linhasProcessadas;
+    private final int importados;
+    private final int rejeitados;
+    private final long duracaoMs;
+    private final long linhasPorMinuto;
+    private final List<ErroLinha> erros;
+    private final int errosOmitidos;
+
+    public ResultadoImportacao(String formato, int linhasProcessadas, int importados, int rejeitados,
+                               long duracaoMs, List<ErroLinha> erros, int errosOmitidos) {
+        this.formato = formato;
+        this.linhasProcessadas = linhasProcessadas;
+        this.importados = importados;
+        this.rejeitados = rejeitados;
+        this.duracaoMs = duracaoMs;
+        this.linhasPorMinuto = duracaoMs > 0 ? linhasProcessadas * 60_000L / duracaoMs : linhasProcessadas;
+        this.erros = erros;
+        this.errosOmitidos = errosOmitidos;
+    }
+
+    public String getFormato() { return formato; }
+    public int getLinhasProcessadas() { return linhasProcessadas; }
+    public int getImportados() { return importados; }
+    public int getRejeitados() { return rejeitados; }
+    public long getDuracaoMs() { return duracaoMs; }
+    public long getLinhasPorMinuto() { return linhasPorMinuto; }
+    public List<ErroLinha> getErros() { return erros; }
+    public int getErrosOmitidos() { return errosOmitidos; }
+
+    /**
+     * Linha rejeitada e o motivo
+     */
+    public static final class ErroLinha {
+        private final int linha;
+        private final String mensagem;
+
+        public ErroLinha(int linha, String mensagem) {
+            this.linha = linha;
+            this.mensagem = mensagem;
+        }
+
+        public int getLinha() { return linha; }
+        public String getMensagem() { return mensagem; }
+    }
+}
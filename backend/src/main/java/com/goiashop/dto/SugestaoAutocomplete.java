@@ -0,0 +1,43 @@
+package com.goiashop.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Sugestão retornada pelo autocomplete da busca (produto ou categoria)
+ */
+public final class SugestaoAutocomplete {
+
+    public static final String TIPO_PRODUTO = "PRODUTO";
+    public static final String TIPO_CATEGORIA = "CATEGORIA";
+
+    private final String tipo;
+    private final Long id;
+    private final String nome;
+    private final double popularidade;
+
+    public SugestaoAutocomplete(String tipo, Long id, String nome, double popularidade) {
+        this.tipo = tipo;
+        this.id = id;
+        this.nome = nome;
+        this.popularidade = popularidade;
+    }
+
+    public String getTipo() { return tipo; }
+    public Long getId() { return id; }
+    public String getNome() { return nome; }
+
+    @JsonIgnore
+    public double getPopularidade() { return popularidade; }
+
+    @JsonIgnore
+    public boolean isCategoria() {
+        return TIPO_CATEGORIA.equals(tipo);
+    }
+
+    /**
+     * Mesmo item sugerido (independente do nome e da popularidade)
+     */
+    public boolean mesmoItem(SugestaoAutocomplete outra) {
+        return tipo.equals(outra.tipo) && id.equals(outra.id);
+    }
+}
@@ -4,9 +4,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.goiashop.service.CategoriaAlteracaoListener;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -20,6 +22,7 @@ import jakarta.validation.constraints.Size;
 
 @Entity
 @Table(name = "categorias")
+@EntityListeners(CategoriaAlteracaoListener.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Categoria {
 
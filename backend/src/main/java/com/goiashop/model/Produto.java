@@ -6,6 +6,8 @@ import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -68,6 +70,11 @@ public class Produto {
     
     @Column(name = "updated_by")
     private Long updatedBy;
+    
+    // Atualizado apenas por VendasProdutoService (UPDATE atômico); a entidade nunca grava este campo
+    @Column(name = "quantidade_vendida", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private Long quantidadeVendida = 0L;
 
     // Relacionamento com categoria
     @ManyToOne(fetch = FetchType.EAGER)
@@ -181,6 +188,14 @@ public class Produto {
         this.updatedBy = updatedBy;
     }
     
+    public Long getQuantidadeVendida() {
+        return quantidadeVendida;
+    }
+    
+    public void setQuantidadeVendida(Long quantidadeVendida) {
+        this.quantidadeVendida = quantidadeVendida;
+    }
+    
     public List<ProdutoImagem> getImagens() {
         return imagens;
     }
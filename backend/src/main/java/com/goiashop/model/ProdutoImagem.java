@@ -49,6 +49,10 @@ public class ProdutoImagem {
     @Column(name = "tipo_mime", length = 100)
     private String tipoMime;
     
+    // Formatos das variantes redimensionadas ("webp,jpeg"); nulo = pendente, vazio = original ilegível
+    @Column(name = "variantes", length = 50)
+    private String variantes;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -142,6 +146,14 @@ public class ProdutoImagem {
         this.tipoMime = tipoMime;
     }
     
+    public String getVariantes() {
+        return variantes;
+    }
+    
+    public void setVariantes(String variantes) {
+        this.variantes = variantes;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -4,9 +4,12 @@ import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.goiashop.dto.CategoriaCatalogo;
 import com.goiashop.model.Categoria;
+import com.goiashop.model.Produto;
 
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
@@ -22,10 +25,15 @@ public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
     List<Categoria> findByNomeContainingIgnoreCaseAndAtivoTrue(String nome);
     
     /**
-     * Lista categorias com contagem de produtos ativos
+     * Lista categorias ativas com a contagem de produtos no status informado e destes com estoque
      */
-    @Query("SELECT c FROM Categoria c WHERE c.ativo = true ORDER BY c.nome ASC")
-    List<Categoria> findCategoriasAtivasComProdutos();
+    @Query("SELECT new com.goiashop.dto.CategoriaCatalogo(c.id, c.nome, c.descricao, c.ativo, c.createdAt, c.updatedAt, " +
+           "COUNT(p.id), SUM(CASE WHEN p.quantidadeEstoque > 0 THEN 1 ELSE 0 END)) " +
+           "FROM Categoria c LEFT JOIN c.produtos p ON p.status = :status " +
+           "WHERE c.ativo = true " +
+           "GROUP BY c.id, c.nome, c.descricao, c.ativo, c.createdAt, c.updatedAt " +
+           "ORDER BY c.nome ASC")
+    List<CategoriaCatalogo> findCategoriasAtivasComProdutos(@Param("status") Produto.ProdutoStatus status);
     
     /**
      * Verifica se existe categoria com o nome (case insensitive)
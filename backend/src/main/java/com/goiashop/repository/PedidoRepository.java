@@ -2,11 +2,13 @@ package com.goiashop.repository;
 
 import com.goiashop.model.Pedido;
 import com.goiashop.model.Cliente;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,4 +26,16 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
     
     @Query("SELECT COUNT(p) FROM Pedido p WHERE p.cliente.id = :clienteId")
     Long countByClienteId(@Param("clienteId") Long clienteId);
+    
+    /**
+     * Página seguinte à posição (aposCriacao, aposId) na ordem createdAt DESC, id DESC (keyset)
+     * @param limite Apenas o tamanho é usado (LIMIT)
+     */
+    @Query("SELECT p FROM Pedido p WHERE " +
+           ":aposCriacao IS NULL OR p.createdAt < :aposCriacao OR " +
+           "(p.createdAt = :aposCriacao AND p.id < :aposId) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Pedido> findPaginaPorCursor(@Param("aposCriacao") LocalDateTime aposCriacao,
+                                     @Param("aposId") Long aposId,
+                                     Pageable limite);
 }
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -21,4 +22,17 @@ public interface ProdutoImagemRepository extends JpaRepository<ProdutoImagem, Lo
     void deleteByProdutoId(Long produtoId);
     
     long countByProdutoId(Long produtoId);
+    
+    // Referências ao mesmo arquivo (armazenamento por conteúdo)
+    long countByCaminhoArquivo(String caminhoArquivo);
+    
+    // Imagens com variantes pendentes, em lotes por id
+    List<ProdutoImagem> findTop100ByVariantesIsNullAndIdGreaterThanOrderByIdAsc(Long id);
+    
+    @Modifying
+    @Query("UPDATE ProdutoImagem pi SET pi.variantes = :variantes WHERE pi.id = :id")
+    int atualizarVariantes(@Param("id") Long id, @Param("variantes") String variantes);
+    
+    @Query("SELECT pi.variantes FROM ProdutoImagem pi WHERE pi.caminhoArquivo = :caminho AND pi.variantes IS NOT NULL AND pi.variantes <> ''")
+    List<String> findVariantesGeradas(@Param("caminho") String caminhoArquivo);
 }
\ No newline at end of file
@@ -1,19 +1,37 @@
 package com.goiashop.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.goiashop.dto.ProdutoResumo;
 import com.goiashop.model.Produto;
 
 @Repository
 public interface ProdutoRepository extends JpaRepository<Produto, Long> {
     
+    /**
+     * Projeção de listagem: categoria por LEFT JOIN e imagem principal por subconsulta
+     * (a marcada como principal ou, se nenhuma, a mais antiga), tudo em uma única consulta
+     */
+    String SELECT_RESUMO = "SELECT new com.goiashop.dto.ProdutoResumo(" +
+           "p.id, p.nome, p.descricao, p.preco, p.quantidadeEstoque, p.status, p.avaliacao, p.createdAt, " +
+           "c.id, c.nome, " +
+           "COALESCE(" +
+           " (SELECT MIN(ip.urlArquivo) FROM ProdutoImagem ip WHERE ip.produto = p AND ip.isPrincipal = true), " +
+           " (SELECT MIN(io.urlArquivo) FROM ProdutoImagem io WHERE io.id = " +
+           "   (SELECT MIN(im.id) FROM ProdutoImagem im WHERE im.produto = p)))) " +
+           "FROM Produto p LEFT JOIN p.categoria c ";
+    
     List<Produto> findByStatus(Produto.ProdutoStatus status);
     
     List<Produto> findByNomeContainingIgnoreCase(String nome);
@@ -37,6 +55,19 @@ public interface ProdutoRepository extends JpaRepository<Produto, Long> {
                                 @Param("categoriaId") Long categoriaId,
                                 Pageable pageable);
     
+    /**
+     * Contagem com os mesmos filtros de findByFilters
+     */
+    @Query("SELECT COUNT(p) FROM Produto p WHERE " +
+           "(:nome IS NULL OR LOWER(p.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) AND " +
+           "(:codigo IS NULL OR p.id = :codigo) AND " +
+           "(:status IS NULL OR p.status = :status) AND " +
+           "(:categoriaId IS NULL OR p.categoria.id = :categoriaId)")
+    long countByFilters(@Param("nome") String nome,
+                        @Param("codigo") Long codigo,
+                        @Param("status") Produto.ProdutoStatus status,
+                        @Param("categoriaId") Long categoriaId);
+    
     // ===== MÉTODOS PARA E-COMMERCE =====
     
     List<Produto> findByStatusOrderByIdDesc(Produto.ProdutoStatus status);
@@ -50,4 +81,94 @@ public interface ProdutoRepository extends JpaRepository<Produto, Long> {
         
     List<Produto> findByStatusAndCategoriaIdAndNomeContainingIgnoreCaseOrderByIdDesc(
         Produto.ProdutoStatus status, Long categoriaId, String nome);
+    
+    // ===== MÉTODOS PARA O CATÁLOGO EM MEMÓRIA =====
+    
+    /**
+     * Página de produtos (com categoria, sem imagens) a partir de um id, para a carga do catálogo
+     */
+    @Query("SELECT p FROM Produto p LEFT JOIN FETCH p.categoria WHERE p.id > :ultimoId ORDER BY p.id")
+    List<Produto> findPaginaComCategoria(@Param("ultimoId") Long ultimoId, Pageable pageable);
+    
+    /**
+     * Carrega produtos por id já com imagens e categoria (uma única consulta)
+     */
+    @Query("SELECT DISTINCT p FROM Produto p LEFT JOIN FETCH p.imagens LEFT JOIN FETCH p.categoria " +
+           "WHERE p.id IN :ids")
+    List<Produto> findByIdInComImagens(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Produto com imagens (ordenadas) e categoria em uma única consulta
+     */
+    @Query("SELECT p FROM Produto p LEFT JOIN FETCH p.imagens LEFT JOIN FETCH p.categoria WHERE p.id = :id")
+    Optional<Produto> findByIdComImagens(@Param("id") Long id);
+    
+    /**
+     * Soma (ou subtrai, com quantidade negativa) unidades ao contador de vendas
+     */
+    @Modifying
+    @Query("UPDATE Produto p SET p.quantidadeVendida = p.quantidadeVendida + :quantidade WHERE p.id = :id")
+    int somarQuantidadeVendida(@Param("id") Long id, @Param("quantidade") long quantidade);
+    
+    // ===== PROJEÇÕES PARA LISTAGENS (sem carregar imagens) =====
+    
+    /**
+     * Mesmos filtros de findByFilters, retornando a projeção de listagem
+     */
+    @Query(value = SELECT_RESUMO + "WHERE " +
+           "(:nome IS NULL OR LOWER(p.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) AND " +
+           "(:codigo IS NULL OR p.id = :codigo) AND " +
+           "(:status IS NULL OR p.status = :status) AND " +
+           "(:categoriaId IS NULL OR c.id = :categoriaId)",
+           countQuery = "SELECT COUNT(p) FROM Produto p WHERE " +
+           "(:nome IS NULL OR LOWER(p.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) AND " +
+           "(:codigo IS NULL OR p.id = :codigo) AND " +
+           "(:status IS NULL OR p.status = :status) AND " +
+           "(:categoriaId IS NULL OR p.categoria.id = :categoriaId)")
+    Page<ProdutoResumo> findResumosByFilters(@Param("nome") String nome,
+                                             @Param("codigo") Long codigo,
+                                             @Param("status") Produto.ProdutoStatus status,
+                                             @Param("categoriaId") Long categoriaId,
+                                             Pageable pageable);
+    
+    /**
+     * Página seguinte à posição (aposCriacao, aposId) na ordem createdAt DESC, id DESC.
+     * Retorna a projeção de listagem (sem carregar entidades).
+     * Sem OFFSET nem COUNT: o custo de qualquer página é o mesmo da primeira.
+     * Com aposCriacao nulo e aposId preenchido, continua entre os registros sem createdAt.
+     * @param limite Apenas o tamanho é usado (LIMIT)
+     */
+    @Query(SELECT_RESUMO + "WHERE " +
+           "(:nome IS NULL OR LOWER(p.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) AND " +
+           "(:codigo IS NULL OR p.id = :codigo) AND " +
+           "(:status IS NULL OR p.status = :status) AND " +
+           "(:categoriaId IS NULL OR c.id = :categoriaId) AND " +
+           "(:aposCriacao IS NULL OR p.createdAt < :aposCriacao OR p.createdAt IS NULL OR " +
+           " (p.createdAt = :aposCriacao AND p.id < :aposId)) AND " +
+           "(:aposId IS NULL OR :aposCriacao IS NOT NULL OR (p.createdAt IS NULL AND p.id < :aposId)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProdutoResumo> findResumosPaginaPorCursor(@Param("nome") String nome,
+                                                   @Param("codigo") Long codigo,
+                                                   @Param("status") Produto.ProdutoStatus status,
+                                                   @Param("categoriaId") Long categoriaId,
+                                                   @Param("aposCriacao") LocalDateTime aposCriacao,
+                                                   @Param("aposId") Long aposId,
+                                                   Pageable limite);
+    
+    @Query(SELECT_RESUMO + "WHERE p.status = :status ORDER BY p.id DESC")
+    List<ProdutoResumo> findResumosByStatus(@Param("status") Produto.ProdutoStatus status);
+    
+    @Query(SELECT_RESUMO + "WHERE p.id IN :ids")
+    List<ProdutoResumo> findResumosByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Busca por nome (LIKE) com categoria opcional, retornando a projeção de listagem
+     */
+    @Query(SELECT_RESUMO + "WHERE p.status = :status AND " +
+           "(:categoriaId IS NULL OR c.id = :categoriaId) AND " +
+           "LOWER(p.nome) LIKE LOWER(CONCAT('%', :nome, '%')) " +
+           "ORDER BY p.id DESC")
+    List<ProdutoResumo> findResumosPorNome(@Param("status") Produto.ProdutoStatus status,
+                                           @Param("categoriaId") Long categoriaId,
+                                           @Param("nome") String nome);
 }
@@ -1,5 +1,6 @@
 package com.goiashop.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,4 +70,29 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findByFilters(@Param("nome") String nome, 
                            @Param("status") User.UserStatus status, 
                            Pageable pageable);
+    
+    /**
+     * Página seguinte à posição (aposCriacao, aposId) na ordem createdAt DESC, id DESC (keyset)
+     * @param limite Apenas o tamanho é usado (LIMIT)
+     */
+    @Query("SELECT u FROM User u WHERE " +
+           "(:nome IS NULL OR LOWER(u.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) AND " +
+           "(:status IS NULL OR u.status = :status) AND " +
+           "(:aposCriacao IS NULL OR u.createdAt < :aposCriacao OR u.createdAt IS NULL OR " +
+           " (u.createdAt = :aposCriacao AND u.id < :aposId)) AND " +
+           "(:aposId IS NULL OR :aposCriacao IS NOT NULL OR (u.createdAt IS NULL AND u.id < :aposId)) " +
+           "ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findPaginaPorCursor(@Param("nome") String nome,
+                                   @Param("status") User.UserStatus status,
+                                   @Param("aposCriacao") LocalDateTime aposCriacao,
+                                   @Param("aposId") Long aposId,
+                                   Pageable limite);
+    
+    /**
+     * Contagem com os mesmos filtros de findByFilters
+     */
+    @Query("SELECT COUNT(u) FROM User u WHERE " +
+           "(:nome IS NULL OR LOWER(u.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) AND " +
+           "(:status IS NULL OR u.status = :status)")
+    long countByFilters(@Param("nome") String nome, @Param("status") User.UserStatus status);
 }
@@ -0,0 +1,200 @@
+package com.goiashop.service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Localização e metadados dos arquivos de imagem servidos em /uploads.
+ *
+ * Mantém um LRU limitado com os metadados (tamanho, ETag, tipo) e o canal aberto de cada
+ * arquivo, evitando stat/open a cada requisição. Arquivos nomeados pelo SHA-256 do conteúdo
+ * (e suas variantes) nunca mudam e não são revalidados; os demais (nomes antigos por UUID)
+ * são conferidos no disco a cada {@code app.imagem.cache.revalidar-segundos}.
+ * O armazenamento chama {@link #invalidar(String)} ao remover ou substituir um arquivo.
+ */
+@Service
+public class ArquivoImagemService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArquivoImagemService.class);
+
+    // "<sha256>.<ext>" ou variante "<sha256>-<tamanho>.<ext>"
+    private static final Pattern NOME_POR_CONTEUDO = Pattern.compile("[0-9a-f]{64}(-[a-z]+)?\\.[a-z0-9]+");
+
+    private static final Map<String, String> TIPOS = Map.of(
+        "jpg", "image/jpeg",
+        "jpeg", "image/jpeg",
+        "png", "image/png",
+        "gif", "image/gif",
+        "webp", "image/webp"
+    );
+
+    private final Path raiz;
+    private final int maximoArquivos;
+    private final long revalidarMillis;
+
+    // Ordem de acesso: o primeiro é o menos usado recentemente
+    private final LinkedHashMap<String, Arquivo> arquivos = new LinkedHashMap<>(256, 0.75f, true);
+
+    public ArquivoImagemService(@Value("${app.upload.dir:uploads}") String uploadDir,
+                                @Value("${app.imagem.cache.max-arquivos:512}") int maximoArquivos,
+                                @Value("${app.imagem.cache.revalidar-segundos:30}") long revalidarSegundos) {
+        this.raiz = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.maximoArquivos = maximoArquivos;
+        this.revalidarMillis = revalidarSegundos * 1000;
+    }
+
+    @PreDestroy
+    public synchronized void encerrar() {
+        for (Arquivo arquivo : arquivos.values()) {
+            arquivo.descartar();
+        }
+        arquivos.clear();
+    }
+
+    /**
+     * Abre (ou reaproveita do cache) o arquivo pelo caminho relativo ao diretório de uploads
+     *
+     * O chamador deve chamar {@link Arquivo#liberar()} ao terminar o envio.
+     *
+     * @return null se o caminho é inválido, oculto ou não existe
+     */
+    public Arquivo abrir(String caminhoRelativo) {
+        long agora = System.currentTimeMillis();
+        synchronized (this) {
+            Arquivo arquivo = arquivos.get(caminhoRelativo);
+            if (arquivo != null && (arquivo.imutavel || arquivo.validoAte > agora)) {
+                arquivo.usar();
+                return arquivo;
+            }
+        }
+
+        Arquivo novo = carregar(caminhoRelativo, agora);
+        synchronized (this) {
+            Arquivo anterior = novo != null ? arquivos.put(caminhoRelativo, novo) : arquivos.remove(caminhoRelativo);
+            if (anterior != null) {
+                anterior.descartar();
+            }
+            if (novo == null) {
+                return null;
+            }
+            novo.usar();
+            Iterator<Arquivo> antigos = arquivos.values().iterator();
+            while (arquivos.size() > maximoArquivos && antigos.hasNext()) {
+                antigos.next().descartar();
+                antigos.remove();
+            }
+            return novo;
+        }
+    }
+
+    /**
+     * Descarta os dados em cache do arquivo (removido ou regravado)
+     */
+    public synchronized void invalidar(String caminhoRelativo) {
+        Arquivo anterior = arquivos.remove(caminhoRelativo);
+        if (anterior != null) {
+            anterior.descartar();
+        }
+    }
+
+    private Arquivo carregar(String caminhoRelativo, long agora) {
+        Path caminho = raiz.resolve(caminhoRelativo).normalize();
+        String nome = caminho.getFileName() != null ? caminho.getFileName().toString() : "";
+        // Bloqueia path traversal e arquivos temporários do upload (.upload-*.tmp)
+        if (!caminho.startsWith(raiz) || caminho.equals(raiz) || nome.startsWith(".")) {
+            return null;
+        }
+        try {
+            BasicFileAttributes atributos = Files.readAttributes(caminho, BasicFileAttributes.class);
+            if (!atributos.isRegularFile()) {
+                return null;
+            }
+            boolean imutavel = NOME_POR_CONTEUDO.matcher(nome).matches();
+            String etag = imutavel
+                ? nome.substring(0, nome.lastIndexOf('.'))
+                : Long.toHexString(atributos.size()) + "-" + Long.toHexString(atributos.lastModifiedTime().toMillis());
+            int ponto = nome.lastIndexOf('.');
+            String tipo = TIPOS.getOrDefault(ponto >= 0 ? nome.substring(ponto + 1).toLowerCase() : "", "application/octet-stream");
+            FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ);
+            return new Arquivo(caminho, canal, atributos.size(), etag, tipo, imutavel, agora + revalidarMillis);
+        } catch (IOException e) {
+            logger.debug("Imagem indisponível {}: {}", caminhoRelativo, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Arquivo aberto com seus metadados; o canal só é fechado quando sai do cache e ninguém o usa
+     */
+    public static final class Arquivo {
+        private final Path caminho;
+        private final FileChannel canal;
+        private final long tamanho;
+        private final String etag;
+        private final String tipo;
+        private final boolean imutavel;
+        private final long validoAte;
+
+        private int usos;
+        private boolean descartado;
+
+        private Arquivo(Path caminho, FileChannel canal, long tamanho, String etag, String tipo,
+                        boolean imutavel, long validoAte) {
+            this.caminho = caminho;
+            this.canal = canal;
+            this.tamanho = tamanho;
+            this.etag = etag;
+            this.tipo = tipo;
+            this.imutavel = imutavel;
+            this.validoAte = validoAte;
+        }
+
+        public Path getCaminho() { return caminho; }
+        public FileChannel getCanal() { return canal; }
+        public long getTamanho() { return tamanho; }
+        public String getEtag() { return etag; }
+        public String getTipo() { return tipo; }
+        // Nome pelo conteúdo: pode ser guardado pelo cliente indefinidamente
+        public boolean isImutavel() { return imutavel; }
+
+        private synchronized void usar() {
+            usos++;
+        }
+
+        public synchronized void liberar() {
+            usos--;
+            fecharSeLivre();
+        }
+
+        private synchronized void descartar() {
+            descartado = true;
+            fecharSeLivre();
+        }
+
+        private void fecharSeLivre() {
+            if (descartado && usos == 0) {
+                try {
+                    canal.close();
+                } catch (IOException e) {
+                    logger.debug("Erro ao fechar {}: {}", caminho, e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.goiashop.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.goiashop.dto.AtualizacaoLoteRequest;
+import com.goiashop.dto.ResultadoAtualizacaoLote;
+import com.goiashop.dto.ResultadoAtualizacaoLote.ItemResultado;
+
+/**
+ * Atualização em lote de estoque e preço (recontagem de estoque, reajustes).
+ *
+ * Os itens são processados em blocos; cada bloco roda em uma transação curta que trava as
+ * linhas (SELECT ... FOR UPDATE), aplica todas as alterações com um único UPDATE com CASE e
+ * grava a auditoria em batch. Um item inválido só falha a si mesmo.
+ */
+@Service
+public class AtualizacaoLoteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AtualizacaoLoteService.class);
+
+    private static final int TAMANHO_BLOCO = 500;
+    private static final BigDecimal PRECO_MAXIMO = new BigDecimal("99999999.99");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private CatalogoService catalogoService;
+
+    private final TransactionTemplate blocoTemplate;
+
+    public AtualizacaoLoteService(PlatformTransactionManager transactionManager) {
+        this.blocoTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ResultadoAtualizacaoLote atualizar(List<AtualizacaoLoteRequest.Item> itens, Long userId) {
+        long inicio = System.currentTimeMillis();
+        ItemResultado[] resultados = new ItemResultado[itens.size()];
+
+        for (int de = 0; de < itens.size(); de += TAMANHO_BLOCO) {
+            int ate = Math.min(itens.size(), de + TAMANHO_BLOCO);
+            int deBloco = de;
+            try {
+                blocoTemplate.executeWithoutResult(status -> processarBloco(itens, deBloco, ate, resultados, userId));
+            } catch (RuntimeException e) {
+                logger.error("Erro ao aplicar bloco {}-{} da atualização em lote: {}", de, ate - 1, e.getMessage(), e);
+                for (int i = de; i < ate; i++) {
+                    resultados[i] = ItemResultado.falha(itens.get(i).getId(), "Erro ao gravar bloco: " + e.getMessage());
+                }
+            }
+        }
+
+        int atualizados = 0;
+        for (ItemResultado resultado : resultados) {
+            if (resultado.isSucesso()) {
+                atualizados++;
+            }
+        }
+        long duracao = System.currentTimeMillis() - inicio;
+        logger.info("Atualização em lote: {} itens, {} atualizados, {} falhas em {} ms",
+            itens.size(), atualizados, itens.size() - atualizados, duracao);
+        return new ResultadoAtualizacaoLote(atualizados, itens.size() - atualizados, duracao, List.of(resultados));
+    }
+
+    private void processarBloco(List<AtualizacaoLoteRequest.Item> itens, int de, int ate,
+                                ItemResultado[] resultados, Long userId) {
+        Map<Long, Estado> estados = carregarComTrava(itens.subList(de, ate));
+
+        // Aplica os itens em ordem; ids repetidos acumulam as variações
+        for (int i = de; i < ate; i++) {
+            AtualizacaoLoteRequest.Item item = itens.get(i);
+            Estado estado = item.getId() != null ? estados.get(item.getId()) : null;
+            String erro = aplicar(item, estado);
+            resultados[i] = erro == null
+                ? ItemResultado.sucesso(item.getId(), estado.quantidade, estado.preco)
+                : ItemResultado.falha(item.getId(), erro);
+        }
+
+        List<Estado> alterados = new ArrayList<>();
+        for (Estado estado : estados.values()) {
+            if (estado.alterado()) {
+                alterados.add(estado);
+            }
+        }
+        if (alterados.isEmpty()) {
+            return;
+        }
+
+        atualizarEmUmComando(alterados, userId);
+
+        List<Long> ids = new ArrayList<>(alterados.size());
+        List<Map<String, Object>> antigos = new ArrayList<>(alterados.size());
+        List<Map<String, Object>> novos = new ArrayList<>(alterados.size());
+        for (Estado estado : alterados) {
+            Map<String, Object> antigo = new HashMap<>();
+            Map<String, Object> novo = new HashMap<>();
+            if (estado.quantidade != estado.quantidadeOriginal) {
+                antigo.put("quantidade_estoque", estado.quantidadeOriginal);
+                novo.put("quantidade_estoque", estado.quantidade);
+            }
+            if (estado.preco.compareTo(estado.precoOriginal) != 0) {
+                antigo.put("preco", estado.precoOriginal);
+                novo.put("preco", estado.preco);
+            }
+            ids.add(estado.id);
+            antigos.add(antigo);
+            novos.add(novo);
+        }
+        auditLogService.logUpdateEmLote(userId, "produtos_ecommerce", ids, antigos, novos);
+
+        for (Long id : ids) {
+            catalogoService.registrarAlteracao(id);
+        }
+    }
+
+    /**
+     * Aplica o item ao estado do produto. Retorna a mensagem de erro, ou null se aplicado
+     */
+    private String aplicar(AtualizacaoLoteRequest.Item item, Estado estado) {
+        if (item.getId() == null) {
+            return "Id do produto é obrigatório";
+        }
+        if (!item.alteraQuantidade() && !item.alteraPreco()) {
+            return "Informe quantidade, quantidadeDelta, preco ou precoDelta";
+        }
+        if (item.getQuantidade() != null && item.getQuantidadeDelta() != null) {
+            return "Informe quantidade ou quantidadeDelta, não ambos";
+        }
+        if (item.getPreco() != null && item.getPrecoDelta() != null) {
+            return "Informe preco ou precoDelta, não ambos";
+        }
+        if (estado == null) {
+            return "Produto não encontrado";
+        }
+
+        int quantidade = estado.quantidade;
+        if (item.getQuantidade() != null) {
+            quantidade = item.getQuantidade();
+        } else if (item.getQuantidadeDelta() != null) {
+            quantidade = estado.quantidade + item.getQuantidadeDelta();
+        }
+        if (quantidade < 0) {
+            return "Quantidade resultante não pode ser negativa (" + quantidade + ")";
+        }
+
+        BigDecimal preco = estado.preco;
+        if (item.getPreco() != null) {
+            preco = item.getPreco();
+        } else if (item.getPrecoDelta() != null) {
+            preco = estado.preco.add(item.getPrecoDelta());
+        }
+        preco = preco.setScale(2, RoundingMode.HALF_UP);
+        if (preco.signum() <= 0 || preco.compareTo(PRECO_MAXIMO) > 0) {
+            return "Preço resultante deve ser positivo e menor que " + PRECO_MAXIMO;
+        }
+
+        estado.quantidade = quantidade;
+        estado.preco = preco;
+        return null;
+    }
+
+    private Map<Long, Estado> carregarComTrava(List<AtualizacaoLoteRequest.Item> itens) {
+        Map<Long, Estado> estados = new LinkedHashMap<>();
+        Set<Long> ids = new LinkedHashSet<>();
+        for (AtualizacaoLoteRequest.Item item : itens) {
+            if (item.getId() != null) {
+                ids.add(item.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return estados;
+        }
+
+        String sql = "SELECT id, quantidade_estoque, preco FROM produtos_ecommerce WHERE id IN ("
+            + marcadores(ids.size()) + ") ORDER BY id FOR UPDATE";
+        jdbcTemplate.query(sql, rs -> {
+            Estado estado = new Estado(rs.getLong(1), rs.getInt(2), rs.getBigDecimal(3));
+            estados.put(estado.id, estado);
+        }, ids.toArray());
+        return estados;
+    }
+
+    /**
+     * Um único UPDATE para todo o bloco: SET coluna = CASE id WHEN ? THEN ? ... END
+     */
+    private void atualizarEmUmComando(List<Estado> alterados, Long userId) {
+        StringBuilder sql = new StringBuilder("UPDATE produtos_ecommerce SET quantidade_estoque = CASE id");
+        List<Object> parametros = new ArrayList<>(alterados.size() * 5 + 2);
+        for (Estado estado : alterados) {
+            sql.append(" WHEN ? THEN ?");
+            parametros.add(estado.id);
+            parametros.add(estado.quantidade);
+        }
+        sql.append(" ELSE quantidade_estoque END, preco = CASE id");
+        for (Estado estado : alterados) {
+            sql.append(" WHEN ? THEN ?");
+            parametros.add(estado.id);
+            parametros.add(estado.preco);
+        }
+        sql.append(" ELSE preco END, updated_at = ?, updated_by = ? WHERE id IN (")
+            .append(marcadores(alterados.size())).append(')');
+        parametros.add(Timestamp.valueOf(LocalDateTime.now()));
+        parametros.add(userId);
+        for (Estado estado : alterados) {
+            parametros.add(estado.id);
+        }
+        jdbcTemplate.update(sql.toString(), parametros.toArray());
+    }
+
+    private static String marcadores(int quantidade) {
+        return String.join(", ", Collections.nCopies(quantidade, "?"));
+    }
+
+    /**
+     * Valores atuais (travados) e finais de um produto no bloco
+     */
+    private static final class Estado {
+        private final long id;
+        private final int quantidadeOriginal;
+        private final BigDecimal precoOriginal;
+        private int quantidade;
+        private BigDecimal preco;
+
+        Estado(long id, int quantidade, BigDecimal preco) {
+            this.id = id;
+            this.quantidadeOriginal = quantidade;
+            this.precoOriginal = preco;
+            this.quantidade = quantidade;
+            this.preco = preco;
+        }
+
+        boolean alterado() {
+            return quantidade != quantidadeOriginal || preco.compareTo(precoOriginal) != 0;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.goiashop.service;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -17,9 +21,15 @@ import com.goiashop.repository.AuditLogRepository;
 @Service
 public class AuditLogService {
     
+    private static final String INSERT_AUDITORIA =
+        "INSERT INTO audit_logs (user_id, action, table_name, record_id, changes, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    
     @Autowired
     private AuditLogRepository auditLogRepository;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
     private final ObjectMapper objectMapper;
     
     public AuditLogService() {
@@ -106,6 +116,66 @@ public class AuditLogService {
         }
     }
     
+    /**
+     * Registra logs de criação em lote (um insert JDBC em batch), na transação corrente
+     */
+    public void logCreateEmLote(Long userId, String tableName, List<Long> recordIds, List<?> newData) {
+        String[] changes = new String[recordIds.size()];
+        for (int i = 0; i < changes.length; i++) {
+            Map<String, Object> change = new HashMap<>();
+            change.put("action", "CREATE");
+            change.put("new_data", newData.get(i));
+            changes[i] = serializar(change);
+        }
+        inserirEmLote(userId, "CREATE", tableName, recordIds, changes);
+    }
+    
+    /**
+     * Registra logs de atualização em lote (um insert JDBC em batch), na transação corrente
+     */
+    public void logUpdateEmLote(Long userId, String tableName, List<Long> recordIds, List<?> oldData, List<?> newData) {
+        String[] changes = new String[recordIds.size()];
+        for (int i = 0; i < changes.length; i++) {
+            Map<String, Object> change = new HashMap<>();
+            change.put("action", "UPDATE");
+            change.put("old_data", oldData.get(i));
+            change.put("new_data", newData.get(i));
+            changes[i] = serializar(change);
+        }
+        inserirEmLote(userId, "UPDATE", tableName, recordIds, changes);
+    }
+    
+    private String serializar(Map<String, Object> changes) {
+        try {
+            return objectMapper.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            System.err.println("Erro ao serializar dados para auditoria: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private void inserirEmLote(Long userId, String action, String tableName, List<Long> recordIds, String[] changes) {
+        if (recordIds.isEmpty()) {
+            return;
+        }
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexao -> {
+            try (PreparedStatement ps = conexao.prepareStatement(INSERT_AUDITORIA)) {
+                for (int i = 0; i < changes.length; i++) {
+                    ps.setLong(1, userId);
+                    ps.setString(2, action);
+                    ps.setString(3, tableName);
+                    ps.setLong(4, recordIds.get(i));
+                    ps.setString(5, changes[i]);
+                    ps.setTimestamp(6, agora);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            return null;
+        });
+    }
+    
     /**
      * Busca logs de auditoria por usuário
      */
@@ -0,0 +1,364 @@
+package com.goiashop.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.goiashop.dto.ProdutoCatalogo;
+import com.goiashop.dto.SugestaoAutocomplete;
+import com.goiashop.model.Produto;
+import com.goiashop.util.TextoBusca;
+
+/**
+ * Autocomplete da busca: trie em memória sobre os nomes de produtos ativos e de suas categorias.
+ *
+ * Os nomes são normalizados (sem acentos e stopwords) e inseridos a partir de cada palavra,
+ * então "cam" sugere tanto "Camiseta Polo" quanto "Polo Camuflada". Cada nó guarda as
+ * {@value #TOP_K} melhores sugestões da sua subárvore, de modo que a consulta só percorre
+ * o prefixo digitado. Mantida de forma incremental a partir dos {@link CatalogoAlteradoEvent}.
+ *
+ * Popularidade: avaliação do produto; para categorias, a quantidade de produtos ativos.
+ */
+@Service
+public class AutocompleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteService.class);
+
+    private static final int TOP_K = 10;
+    private static final int TAMANHO_MAXIMO_CHAVE = 32;
+    private static final int MAXIMO_CATEGORIAS = 3;
+
+    private static final SugestaoAutocomplete[] NENHUMA = new SugestaoAutocomplete[0];
+
+    // Categorias primeiro (são poucas e levam à listagem completa), depois as mais populares
+    private static final Comparator<SugestaoAutocomplete> ORDEM =
+        Comparator.comparing(SugestaoAutocomplete::isCategoria).reversed()
+            .thenComparing(Comparator.comparingDouble(SugestaoAutocomplete::getPopularidade).reversed())
+            .thenComparing(SugestaoAutocomplete::getNome, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(SugestaoAutocomplete::getId);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private No raiz = new No();
+
+    private final Map<Long, SugestaoAutocomplete> produtos = new HashMap<>();
+    private final Map<Long, Long> categoriaDoProduto = new HashMap<>();
+    private final Map<Long, SugestaoAutocomplete> categorias = new HashMap<>();
+    private final Map<Long, Integer> totalPorCategoria = new HashMap<>();
+    private final Map<Long, String> nomeCategoria = new HashMap<>();
+
+    /**
+     * Mantém a trie sincronizada com o catálogo
+     */
+    @EventListener
+    public void onCatalogoAlterado(CatalogoAlteradoEvent event) {
+        boolean recarga = event.isRecargaCompleta();
+
+        lock.writeLock().lock();
+        try {
+            if (recarga) {
+                raiz = new No();
+                produtos.clear();
+                categoriaDoProduto.clear();
+                categorias.clear();
+                totalPorCategoria.clear();
+                nomeCategoria.clear();
+            }
+
+            // Na recarga, as melhores sugestões são calculadas uma única vez ao final
+            boolean recalcular = !recarga;
+            Set<Long> categoriasAfetadas = new HashSet<>();
+            for (Map.Entry<Long, ProdutoCatalogo> entrada : event.getProdutos().entrySet()) {
+                removerProduto(entrada.getKey(), categoriasAfetadas, recalcular);
+                ProdutoCatalogo produto = entrada.getValue();
+                if (produto != null && produto.getStatus() == Produto.ProdutoStatus.ATIVO) {
+                    adicionarProduto(produto, categoriasAfetadas, recalcular);
+                }
+            }
+            for (Long categoriaId : categoriasAfetadas) {
+                atualizarCategoria(categoriaId, recalcular);
+            }
+
+            if (recarga) {
+                recalcularSubarvore(raiz);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (recarga) {
+            logger.info("Autocomplete reconstruído - {} produtos, {} categorias", produtos.size(), categorias.size());
+        }
+    }
+
+    /**
+     * Sugestões para o texto digitado
+     *
+     * @param texto Prefixo digitado pelo usuário (acentos e maiúsculas são ignorados)
+     * @param limite Quantidade máxima de sugestões (até {@value #TOP_K})
+     */
+    public List<SugestaoAutocomplete> sugerir(String texto, int limite) {
+        String prefixo = String.join(" ", TextoBusca.tokenizar(texto));
+        if (prefixo.isEmpty() || limite <= 0) {
+            return new ArrayList<>();
+        }
+        if (prefixo.length() > TAMANHO_MAXIMO_CHAVE) {
+            prefixo = prefixo.substring(0, TAMANHO_MAXIMO_CHAVE);
+        }
+
+        SugestaoAutocomplete[] melhores;
+        lock.readLock().lock();
+        try {
+            No no = raiz;
+            for (int i = 0; i < prefixo.length() && no != null; i++) {
+                no = no.filho(prefixo.charAt(i));
+            }
+            melhores = no != null ? no.melhores : NENHUMA;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // O limite de categorias já vale dentro de cada nó
+        return new ArrayList<>(Arrays.asList(melhores).subList(0, Math.min(limite, melhores.length)));
+    }
+
+    private void adicionarProduto(ProdutoCatalogo produto, Set<Long> categoriasAfetadas, boolean recalcular) {
+        double popularidade = produto.getAvaliacao() != null ? produto.getAvaliacao() : 0.0;
+        SugestaoAutocomplete sugestao = new SugestaoAutocomplete(
+            SugestaoAutocomplete.TIPO_PRODUTO, produto.getId(), produto.getNome(), popularidade);
+        produtos.put(produto.getId(), sugestao);
+        inserir(sugestao, recalcular);
+
+        if (produto.getCategoria() != null) {
+            Long categoriaId = produto.getCategoria().getId();
+            categoriaDoProduto.put(produto.getId(), categoriaId);
+            totalPorCategoria.merge(categoriaId, 1, Integer::sum);
+            nomeCategoria.put(categoriaId, produto.getCategoria().getNome());
+            categoriasAfetadas.add(categoriaId);
+        }
+    }
+
+    private void removerProduto(Long produtoId, Set<Long> categoriasAfetadas, boolean recalcular) {
+        SugestaoAutocomplete anterior = produtos.remove(produtoId);
+        if (anterior != null) {
+            remover(anterior, recalcular);
+        }
+        Long categoriaId = categoriaDoProduto.remove(produtoId);
+        if (categoriaId != null) {
+            totalPorCategoria.merge(categoriaId, -1, Integer::sum);
+            categoriasAfetadas.add(categoriaId);
+        }
+    }
+
+    /**
+     * Reinsere a categoria com a nova contagem (ou a remove, se ficou sem produtos ativos)
+     */
+    private void atualizarCategoria(Long categoriaId, boolean recalcular) {
+        SugestaoAutocomplete anterior = categorias.remove(categoriaId);
+        if (anterior != null) {
+            remover(anterior, recalcular);
+        }
+
+        int total = totalPorCategoria.getOrDefault(categoriaId, 0);
+        String nome = nomeCategoria.get(categoriaId);
+        if (total <= 0 || nome == null) {
+            totalPorCategoria.remove(categoriaId);
+            nomeCategoria.remove(categoriaId);
+            return;
+        }
+        SugestaoAutocomplete sugestao = new SugestaoAutocomplete(
+            SugestaoAutocomplete.TIPO_CATEGORIA, categoriaId, nome, total);
+        categorias.put(categoriaId, sugestao);
+        inserir(sugestao, recalcular);
+    }
+
+    private void inserir(SugestaoAutocomplete sugestao, boolean recalcular) {
+        for (String chave : chaves(sugestao.getNome())) {
+            No[] caminho = new No[chave.length() + 1];
+            caminho[0] = raiz;
+            for (int i = 0; i < chave.length(); i++) {
+                caminho[i + 1] = caminho[i].filhoOuCriar(chave.charAt(i));
+            }
+            caminho[chave.length()].adicionarTerminal(sugestao);
+
+            if (recalcular) {
+                for (int i = caminho.length - 1; i >= 0; i--) {
+                    caminho[i].recalcular();
+                }
+            }
+        }
+    }
+
+    private void remover(SugestaoAutocomplete sugestao, boolean recalcular) {
+        for (String chave : chaves(sugestao.getNome())) {
+            No[] caminho = new No[chave.length() + 1];
+            caminho[0] = raiz;
+            for (int i = 0; i < chave.length() && caminho[i] != null; i++) {
+                caminho[i + 1] = caminho[i].filho(chave.charAt(i));
+            }
+            if (caminho[chave.length()] == null) {
+                continue;
+            }
+            caminho[chave.length()].removerTerminal(sugestao);
+
+            // Poda os nós que ficaram vazios e recalcula o restante do caminho
+            for (int i = caminho.length - 1; i > 0; i--) {
+                if (caminho[i].isVazio()) {
+                    caminho[i - 1].removerFilho(chave.charAt(i - 1));
+                } else if (recalcular) {
+                    caminho[i].recalcular();
+                }
+            }
+            if (recalcular) {
+                raiz.recalcular();
+            }
+        }
+    }
+
+    private static void recalcularSubarvore(No no) {
+        for (No filho : no.filhos) {
+            recalcularSubarvore(filho);
+        }
+        no.recalcular();
+    }
+
+    /**
+     * Chaves indexadas para um nome: o nome normalizado a partir de cada palavra
+     */
+    private static Set<String> chaves(String nome) {
+        List<String> termos = TextoBusca.tokenizar(nome);
+        Set<String> chaves = new LinkedHashSet<>();
+        for (int i = 0; i < termos.size(); i++) {
+            String chave = String.join(" ", termos.subList(i, termos.size()));
+            chaves.add(chave.length() > TAMANHO_MAXIMO_CHAVE ? chave.substring(0, TAMANHO_MAXIMO_CHAVE) : chave);
+        }
+        return chaves;
+    }
+
+    /**
+     * Nó da trie com filhos em arrays ordenados (busca binária, sem mapas por nó)
+     */
+    private static final class No {
+        private char[] letras = new char[0];
+        private No[] filhos = new No[0];
+        private List<SugestaoAutocomplete> terminais;
+        private SugestaoAutocomplete[] melhores = NENHUMA;
+
+        No filho(char letra) {
+            int posicao = Arrays.binarySearch(letras, letra);
+            return posicao >= 0 ? filhos[posicao] : null;
+        }
+
+        No filhoOuCriar(char letra) {
+            int posicao = Arrays.binarySearch(letras, letra);
+            if (posicao >= 0) {
+                return filhos[posicao];
+            }
+            posicao = -posicao - 1;
+            char[] novasLetras = new char[letras.length + 1];
+            No[] novosFilhos = new No[filhos.length + 1];
+            System.arraycopy(letras, 0, novasLetras, 0, posicao);
+            System.arraycopy(filhos, 0, novosFilhos, 0, posicao);
+            System.arraycopy(letras, posicao, novasLetras, posicao + 1, letras.length - posicao);
+            System.arraycopy(filhos, posicao, novosFilhos, posicao + 1, filhos.length - posicao);
+            No novo = new No();
+            novasLetras[posicao] = letra;
+            novosFilhos[posicao] = novo;
+            letras = novasLetras;
+            filhos = novosFilhos;
+            return novo;
+        }
+
+        void removerFilho(char letra) {
+            int posicao = Arrays.binarySearch(letras, letra);
+            if (posicao < 0) {
+                return;
+            }
+            char[] novasLetras = new char[letras.length - 1];
+            No[] novosFilhos = new No[filhos.length - 1];
+            System.arraycopy(letras, 0, novasLetras, 0, posicao);
+            System.arraycopy(filhos, 0, novosFilhos, 0, posicao);
+            System.arraycopy(letras, posicao + 1, novasLetras, posicao, letras.length - posicao - 1);
+            System.arraycopy(filhos, posicao + 1, novosFilhos, posicao, filhos.length - posicao - 1);
+            letras = novasLetras;
+            filhos = novosFilhos;
+        }
+
+        void adicionarTerminal(SugestaoAutocomplete sugestao) {
+            if (terminais == null) {
+                terminais = new ArrayList<>(1);
+            }
+            terminais.add(sugestao);
+        }
+
+        void removerTerminal(SugestaoAutocomplete sugestao) {
+            if (terminais != null) {
+                terminais.remove(sugestao);
+                if (terminais.isEmpty()) {
+                    terminais = null;
+                }
+            }
+        }
+
+        boolean isVazio() {
+            return filhos.length == 0 && terminais == null;
+        }
+
+        /**
+         * Melhores sugestões = terminais deste nó + melhores de cada filho, sem repetir itens
+         *
+         * O mesmo item chega por vários filhos (uma chave por palavra do nome) e é contado uma
+         * vez só; categorias além de {@value #MAXIMO_CATEGORIAS} são puladas aqui, para não ocupar
+         * vagas do top-k que a consulta descartaria. Como a subárvore de um filho está contida na
+         * do pai, o top-k de cada filho basta para montar o do pai.
+         */
+        void recalcular() {
+            List<SugestaoAutocomplete> candidatos = new ArrayList<>();
+            if (terminais != null) {
+                candidatos.addAll(terminais);
+            }
+            for (No filho : filhos) {
+                Collections.addAll(candidatos, filho.melhores);
+            }
+            candidatos.sort(ORDEM);
+
+            List<SugestaoAutocomplete> topo = new ArrayList<>(TOP_K);
+            int totalCategorias = 0;
+            for (SugestaoAutocomplete candidato : candidatos) {
+                if (topo.size() == TOP_K) {
+                    break;
+                }
+                if (candidato.isCategoria() && totalCategorias == MAXIMO_CATEGORIAS) {
+                    continue;
+                }
+                boolean repetido = false;
+                for (SugestaoAutocomplete escolhido : topo) {
+                    if (escolhido.mesmoItem(candidato)) {
+                        repetido = true;
+                        break;
+                    }
+                }
+                if (!repetido) {
+                    topo.add(candidato);
+                    if (candidato.isCategoria()) {
+                        totalCategorias++;
+                    }
+                }
+            }
+            melhores = topo.isEmpty() ? NENHUMA : topo.toArray(NENHUMA);
+        }
+    }
+}
@@ -0,0 +1,686 @@
+package com.goiashop.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.goiashop.dto.ProdutoCatalogo;
+import com.goiashop.model.Produto;
+import com.goiashop.util.TextoBusca;
+
+/**
+ * Busca tolerante a erros de digitação sobre o nome dos produtos ativos.
+ *
+ * Os termos distintos dos nomes formam um vocabulário indexado por trigramas e bigramas;
+ * para cada termo da consulta, os trigramas em comum selecionam candidatos (palavras curtas
+ * demais para garantir um trigrama em comum, como "csaa" para "casa", usam os bigramas), que
+ * são confirmados pela distância de Damerau-Levenshtein limitada (1 erro até 7 letras, 2 a partir
+ * de 8). Cada termo
+ * do vocabulário aponta para os produtos (ids ordenados), e os termos da consulta são
+ * intersectados como no {@link BuscaProdutoService}. Mantido a partir dos {@link CatalogoAlteradoEvent}.
+ */
+@Service
+public class BuscaAproximadaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BuscaAproximadaService.class);
+
+    public static final int LIMITE_RESULTADOS = 1000;
+
+    private static final int MAXIMO_CANDIDATOS_POR_TERMO = 64;
+    // '$' (borda) + a-z + 0-9
+    private static final int ALFABETO = 37;
+
+    // Contadores de trigramas por termo, reaproveitados entre consultas (zerados após o uso)
+    private static final ThreadLocal<int[]> CONTAGEM = ThreadLocal.withInitial(() -> new int[0]);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Termo> vocabulario = new HashMap<>();
+    private Termo[] termos = new Termo[1024];
+    private final ArrayDeque<Integer> idsLivres = new ArrayDeque<>();
+    private int proximoId;
+
+    // trigrama / bigrama -> ids dos termos que o contêm
+    private final ListaInt[] trigramas = new ListaInt[ALFABETO * ALFABETO * ALFABETO];
+    private final ListaInt[] bigramas = new ListaInt[ALFABETO * ALFABETO];
+
+    // tamanho do texto -> ids dos termos (último recurso para palavras repetitivas como "aaaa")
+    private ListaInt[] porTamanho = new ListaInt[32];
+
+    // produto -> termos do nome (para remoção incremental) e categoria
+    private final Map<Long, Documento> documentos = new HashMap<>();
+
+    private volatile boolean pronto = false;
+
+    @EventListener
+    public void onCatalogoAlterado(CatalogoAlteradoEvent event) {
+        lock.writeLock().lock();
+        try {
+            boolean recarga = event.isRecargaCompleta();
+            if (recarga) {
+                vocabulario.clear();
+                Arrays.fill(termos, null);
+                idsLivres.clear();
+                proximoId = 0;
+                Arrays.fill(trigramas, null);
+                Arrays.fill(bigramas, null);
+                Arrays.fill(porTamanho, null);
+                documentos.clear();
+            }
+            for (Map.Entry<Long, ProdutoCatalogo> entrada : event.getProdutos().entrySet()) {
+                remover(entrada.getKey());
+                ProdutoCatalogo produto = entrada.getValue();
+                if (produto != null && produto.getStatus() == Produto.ProdutoStatus.ATIVO) {
+                    // Na recarga as postagens são ordenadas uma única vez no final
+                    indexar(produto, !recarga);
+                }
+            }
+            if (recarga) {
+                for (Termo termo : vocabulario.values()) {
+                    Arrays.sort(termo.produtos, 0, termo.tamanho);
+                }
+                logger.info("Índice de busca aproximada reconstruído - {} produtos, {} termos",
+                    documentos.size(), vocabulario.size());
+            }
+            pronto = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * Busca produtos ativos cujo nome contém todos os termos, cada um com poucos erros de digitação
+     *
+     * @param termo Texto digitado pelo usuário
+     * @param categoriaId Filtra por categoria (opcional)
+     * @return ids dos produtos (no máximo {@link #LIMITE_RESULTADOS}), dos mais parecidos para os menos
+     */
+    public List<Long> buscar(String termo, Long categoriaId) {
+        Set<String> consulta = new LinkedHashSet<>(TextoBusca.tokenizar(termo));
+        if (consulta.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postagens> porTermo = new ArrayList<>(consulta.size());
+            for (String palavra : consulta) {
+                Postagens postagens = postagensAproximadas(palavra);
+                if (postagens.tamanho == 0) {
+                    return new ArrayList<>();
+                }
+                porTermo.add(postagens);
+            }
+            porTermo.sort((a, b) -> Integer.compare(a.tamanho, b.tamanho));
+            return intersectar(porTermo, categoriaId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Produtos que contêm algum termo do vocabulário próximo da palavra, com a maior similaridade
+     */
+    private Postagens postagensAproximadas(String palavra) {
+        List<Candidato> candidatos = candidatos(palavra);
+        if (candidatos.isEmpty()) {
+            return Postagens.VAZIA;
+        }
+        if (candidatos.size() == 1) {
+            Candidato unico = candidatos.get(0);
+            return new Postagens(unico.termo.produtos, unico.termo.tamanho, null, unico.similaridade);
+        }
+        return mesclar(candidatos);
+    }
+
+    /**
+     * Termos do vocabulário a até k edições da palavra, dos mais para os menos parecidos
+     */
+    private List<Candidato> candidatos(String palavra) {
+        int tamanho = palavra.length();
+        int maximoErros = tamanho <= 3 ? 0 : tamanho <= 7 ? 1 : 2;
+        List<Candidato> candidatos = new ArrayList<>();
+
+        if (maximoErros == 0) {
+            Termo exato = vocabulario.get(palavra);
+            if (exato != null) {
+                candidatos.add(new Candidato(exato, 1.0f));
+            }
+            return candidatos;
+        }
+
+        // Cada edição altera no máximo 4 trigramas (a transposição é a pior) ou 3 bigramas
+        int[] gramas = gramas(palavra, 3);
+        int minimoEmComum = gramas.length - 4 * maximoErros;
+        ListaInt[] indice = trigramas;
+        if (minimoEmComum < 1) {
+            gramas = gramas(palavra, 2);
+            minimoEmComum = gramas.length - 3 * maximoErros;
+            indice = bigramas;
+        }
+        if (minimoEmComum < 1) {
+            for (int t = Math.max(1, tamanho - maximoErros); t <= tamanho + maximoErros && t < porTamanho.length; t++) {
+                ListaInt lista = porTamanho[t];
+                for (int i = 0; lista != null && i < lista.tamanho; i++) {
+                    conferir(palavra, termos[lista.valores[i]], maximoErros, candidatos);
+                }
+            }
+        } else {
+            int[] contagem = CONTAGEM.get();
+            if (contagem.length < proximoId) {
+                contagem = new int[Math.max(proximoId, contagem.length * 2)];
+                CONTAGEM.set(contagem);
+            }
+            ListaInt tocados = new ListaInt();
+            try {
+                for (int grama : gramas) {
+                    ListaInt lista = indice[grama];
+                    if (lista == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < lista.tamanho; i++) {
+                        int id = lista.valores[i];
+                        if (contagem[id]++ == 0) {
+                            tocados.adicionar(id);
+                        }
+                    }
+                }
+                for (int i = 0; i < tocados.tamanho; i++) {
+                    int id = tocados.valores[i];
+                    if (contagem[id] >= minimoEmComum) {
+                        conferir(palavra, termos[id], maximoErros, candidatos);
+                    }
+                }
+            } finally {
+                for (int i = 0; i < tocados.tamanho; i++) {
+                    contagem[tocados.valores[i]] = 0;
+                }
+            }
+        }
+
+        candidatos.sort((a, b) -> a.similaridade != b.similaridade
+            ? Float.compare(b.similaridade, a.similaridade)
+            : Integer.compare(b.termo.tamanho, a.termo.tamanho));
+        return candidatos.size() > MAXIMO_CANDIDATOS_POR_TERMO
+            ? candidatos.subList(0, MAXIMO_CANDIDATOS_POR_TERMO)
+            : candidatos;
+    }
+
+    /**
+     * Adiciona o termo aos candidatos se estiver a até maximoErros edições da palavra
+     */
+    private static void conferir(String palavra, Termo termo, int maximoErros, List<Candidato> candidatos) {
+        int tamanho = palavra.length();
+        if (Math.abs(termo.texto.length() - tamanho) > maximoErros) {
+            return;
+        }
+        int distancia = distancia(palavra, termo.texto, maximoErros);
+        if (distancia <= maximoErros) {
+            float similaridade = 1.0f - (float) distancia / (Math.max(tamanho, termo.texto.length()) + 1);
+            candidatos.add(new Candidato(termo, similaridade));
+        }
+    }
+
+    /**
+     * União ordenada das postagens dos candidatos (merge de k listas com um heap de cursores)
+     */
+    private static Postagens mesclar(List<Candidato> candidatos) {
+        int total = 0;
+        for (Candidato candidato : candidatos) {
+            total += candidato.termo.tamanho;
+        }
+        long[] ids = new long[total];
+        float[] similaridades = new float[total];
+        int tamanho = 0;
+
+        int k = candidatos.size();
+        int[] cursores = new int[k];
+        int[] heap = new int[k];
+        int heapTamanho = 0;
+        for (int c = 0; c < k; c++) {
+            if (candidatos.get(c).termo.tamanho > 0) {
+                heap[heapTamanho] = c;
+                subir(heap, heapTamanho++, cursores, candidatos);
+            }
+        }
+        while (heapTamanho > 0) {
+            int c = heap[0];
+            Termo termo = candidatos.get(c).termo;
+            long id = termo.produtos[cursores[c]];
+            float similaridade = candidatos.get(c).similaridade;
+            if (tamanho > 0 && ids[tamanho - 1] == id) {
+                similaridades[tamanho - 1] = Math.max(similaridades[tamanho - 1], similaridade);
+            } else {
+                ids[tamanho] = id;
+                similaridades[tamanho] = similaridade;
+                tamanho++;
+            }
+            if (++cursores[c] < termo.tamanho) {
+                descer(heap, heapTamanho, cursores, candidatos);
+            } else {
+                heap[0] = heap[--heapTamanho];
+                descer(heap, heapTamanho, cursores, candidatos);
+            }
+        }
+        return new Postagens(ids, tamanho, similaridades, 0f);
+    }
+
+    private static long atual(int c, int[] cursores, List<Candidato> candidatos) {
+        return candidatos.get(c).termo.produtos[cursores[c]];
+    }
+
+    private static void subir(int[] heap, int posicao, int[] cursores, List<Candidato> candidatos) {
+        while (posicao > 0) {
+            int pai = (posicao - 1) / 2;
+            if (atual(heap[pai], cursores, candidatos) <= atual(heap[posicao], cursores, candidatos)) {
+                return;
+            }
+            int troca = heap[pai];
+            heap[pai] = heap[posicao];
+            heap[posicao] = troca;
+            posicao = pai;
+        }
+    }
+
+    private static void descer(int[] heap, int tamanho, int[] cursores, List<Candidato> candidatos) {
+        int posicao = 0;
+        while (true) {
+            int menor = posicao;
+            int esquerda = 2 * posicao + 1;
+            int direita = esquerda + 1;
+            if (esquerda < tamanho && atual(heap[esquerda], cursores, candidatos) < atual(heap[menor], cursores, candidatos)) {
+                menor = esquerda;
+            }
+            if (direita < tamanho && atual(heap[direita], cursores, candidatos) < atual(heap[menor], cursores, candidatos)) {
+                menor = direita;
+            }
+            if (menor == posicao) {
+                return;
+            }
+            int troca = heap[menor];
+            heap[menor] = heap[posicao];
+            heap[posicao] = troca;
+            posicao = menor;
+        }
+    }
+
+    /**
+     * Produtos presentes em todas as listas, pontuados pela soma das similaridades; mantém os
+     * melhores em um heap limitado (chave = pontuação nos bits altos, id nos baixos)
+     */
+    private List<Long> intersectar(List<Postagens> porTermo, Long categoriaId) {
+        Postagens menor = porTermo.get(0);
+        int[] cursores = new int[porTermo.size()];
+        long[] melhores = new long[LIMITE_RESULTADOS];
+        int quantidade = 0;
+
+        for (int i = 0; i < menor.tamanho; i++) {
+            long id = menor.ids[i];
+            float pontuacao = menor.similaridade(i);
+            boolean todos = true;
+            for (int t = 1; t < porTermo.size() && todos; t++) {
+                Postagens outra = porTermo.get(t);
+                int posicao = avancar(outra, cursores[t], id);
+                cursores[t] = posicao;
+                if (posicao < outra.tamanho && outra.ids[posicao] == id) {
+                    pontuacao += outra.similaridade(posicao);
+                } else {
+                    todos = false;
+                }
+            }
+            if (!todos) {
+                continue;
+            }
+            if (categoriaId != null) {
+                Documento documento = documentos.get(id);
+                if (documento == null || !categoriaId.equals(documento.categoriaId)) {
+                    continue;
+                }
+            }
+
+            long chave = ((long) Math.round(pontuacao * 1000) << 32) | (id & 0xFFFFFFFFL);
+            if (quantidade < LIMITE_RESULTADOS) {
+                melhores[quantidade] = chave;
+                subirMinimo(melhores, quantidade++);
+            } else if (chave > melhores[0]) {
+                melhores[0] = chave;
+                descerMinimo(melhores, quantidade);
+            }
+        }
+
+        long[] ordenados = Arrays.copyOf(melhores, quantidade);
+        Arrays.sort(ordenados);
+        List<Long> ids = new ArrayList<>(quantidade);
+        for (int i = quantidade - 1; i >= 0; i--) {
+            ids.add(ordenados[i] & 0xFFFFFFFFL);
+        }
+        return ids;
+    }
+
+    /**
+     * Primeira posição a partir de inicio com id >= alvo (busca exponencial seguida de binária)
+     */
+    private static int avancar(Postagens postagens, int inicio, long alvo) {
+        int passo = 1;
+        int limite = inicio;
+        while (limite < postagens.tamanho && postagens.ids[limite] < alvo) {
+            inicio = limite + 1;
+            limite += passo;
+            passo <<= 1;
+        }
+        int fim = Math.min(limite, postagens.tamanho - 1);
+        int posicao = Arrays.binarySearch(postagens.ids, inicio, fim + 1, alvo);
+        return posicao >= 0 ? posicao : -posicao - 1;
+    }
+
+    private static void subirMinimo(long[] heap, int posicao) {
+        while (posicao > 0) {
+            int pai = (posicao - 1) / 2;
+            if (heap[pai] <= heap[posicao]) {
+                return;
+            }
+            long troca = heap[pai];
+            heap[pai] = heap[posicao];
+            heap[posicao] = troca;
+            posicao = pai;
+        }
+    }
+
+    private static void descerMinimo(long[] heap, int tamanho) {
+        int posicao = 0;
+        while (true) {
+            int menor = posicao;
+            int esquerda = 2 * posicao + 1;
+            int direita = esquerda + 1;
+            if (esquerda < tamanho && heap[esquerda] < heap[menor]) {
+                menor = esquerda;
+            }
+            if (direita < tamanho && heap[direita] < heap[menor]) {
+                menor = direita;
+            }
+            if (menor == posicao) {
+                return;
+            }
+            long troca = heap[menor];
+            heap[menor] = heap[posicao];
+            heap[posicao] = troca;
+            posicao = menor;
+        }
+    }
+
+    /**
+     * Distância de Damerau-Levenshtein (transposições adjacentes) limitada: retorna maximo + 1
+     * assim que a distância certamente passa do limite
+     */
+    static int distancia(String a, String b, int maximo) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > maximo) {
+            return maximo + 1;
+        }
+        int[] anterior2 = new int[m + 1];
+        int[] anterior = new int[m + 1];
+        int[] atual = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            atual[0] = i;
+            int menorDaLinha = atual[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char cb = b.charAt(j - 1);
+                int custo = ca == cb ? 0 : 1;
+                int valor = Math.min(Math.min(anterior[j] + 1, atual[j - 1] + 1), anterior[j - 1] + custo);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    valor = Math.min(valor, anterior2[j - 2] + 1);
+                }
+                atual[j] = valor;
+                menorDaLinha = Math.min(menorDaLinha, valor);
+            }
+            if (menorDaLinha > maximo) {
+                return maximo + 1;
+            }
+            int[] troca = anterior2;
+            anterior2 = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        return Math.min(anterior[m], maximo + 1);
+    }
+
+    /**
+     * N-gramas (2 ou 3) distintos do termo com bordas ("$termo$"), codificados em base 37
+     */
+    private static int[] gramas(String termo, int n) {
+        String texto = "$" + termo + "$";
+        int[] codigos = new int[texto.length() - n + 1];
+        for (int i = 0; i < codigos.length; i++) {
+            int codigo = 0;
+            for (int j = 0; j < n; j++) {
+                codigo = codigo * ALFABETO + simbolo(texto.charAt(i + j));
+            }
+            codigos[i] = codigo;
+        }
+        Arrays.sort(codigos);
+        int distintos = 0;
+        for (int i = 0; i < codigos.length; i++) {
+            if (i == 0 || codigos[i] != codigos[i - 1]) {
+                codigos[distintos++] = codigos[i];
+            }
+        }
+        return Arrays.copyOf(codigos, distintos);
+    }
+
+    private static int simbolo(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return 1 + (c - 'a');
+        }
+        if (c >= '0' && c <= '9') {
+            return 27 + (c - '0');
+        }
+        return 0;
+    }
+
+    private void indexar(ProdutoCatalogo produto, boolean manterOrdem) {
+        Set<String> palavras = new LinkedHashSet<>(TextoBusca.tokenizar(produto.getNome()));
+        for (String palavra : palavras) {
+            Termo termo = vocabulario.get(palavra);
+            if (termo == null) {
+                termo = criarTermo(palavra);
+            }
+            termo.adicionar(produto.getId(), manterOrdem);
+        }
+        documentos.put(produto.getId(), new Documento(palavras.toArray(new String[0]),
+            produto.getCategoria() != null ? produto.getCategoria().getId() : null));
+    }
+
+    private void remover(Long produtoId) {
+        Documento documento = documentos.remove(produtoId);
+        if (documento == null) {
+            return;
+        }
+        for (String palavra : documento.termos) {
+            Termo termo = vocabulario.get(palavra);
+            if (termo != null && termo.remover(produtoId) && termo.tamanho == 0) {
+                removerTermo(termo);
+            }
+        }
+    }
+
+    private Termo criarTermo(String palavra) {
+        int id = idsLivres.isEmpty() ? proximoId++ : idsLivres.pop();
+        if (id >= termos.length) {
+            termos = Arrays.copyOf(termos, termos.length * 2);
+        }
+        Termo termo = new Termo(id, palavra, gramas(palavra, 3), gramas(palavra, 2));
+        termos[id] = termo;
+        vocabulario.put(palavra, termo);
+        adicionarGramas(trigramas, termo.gramas, id);
+        adicionarGramas(bigramas, termo.bigramas, id);
+        int tamanho = palavra.length();
+        if (tamanho >= porTamanho.length) {
+            porTamanho = Arrays.copyOf(porTamanho, Math.max(tamanho + 1, porTamanho.length * 2));
+        }
+        if (porTamanho[tamanho] == null) {
+            porTamanho[tamanho] = new ListaInt();
+        }
+        porTamanho[tamanho].adicionar(id);
+        return termo;
+    }
+
+    private void removerTermo(Termo termo) {
+        vocabulario.remove(termo.texto);
+        termos[termo.id] = null;
+        idsLivres.push(termo.id);
+        removerGramas(trigramas, termo.gramas, termo.id);
+        removerGramas(bigramas, termo.bigramas, termo.id);
+        porTamanho[termo.texto.length()].remover(termo.id);
+    }
+
+    private static void adicionarGramas(ListaInt[] indice, int[] gramas, int id) {
+        for (int grama : gramas) {
+            if (indice[grama] == null) {
+                indice[grama] = new ListaInt();
+            }
+            indice[grama].adicionar(id);
+        }
+    }
+
+    private static void removerGramas(ListaInt[] indice, int[] gramas, int id) {
+        for (int grama : gramas) {
+            ListaInt lista = indice[grama];
+            if (lista != null) {
+                lista.remover(id);
+            }
+        }
+    }
+
+    /**
+     * Termo do vocabulário: trigramas, bigramas e ids dos produtos (ordenados) cujo nome o contém
+     */
+    private static final class Termo {
+        private final int id;
+        private final String texto;
+        private final int[] gramas;
+        private final int[] bigramas;
+        private long[] produtos = new long[2];
+        private int tamanho;
+
+        Termo(int id, String texto, int[] gramas, int[] bigramas) {
+            this.id = id;
+            this.texto = texto;
+            this.gramas = gramas;
+            this.bigramas = bigramas;
+        }
+
+        void adicionar(long produtoId, boolean manterOrdem) {
+            if (tamanho == produtos.length) {
+                produtos = Arrays.copyOf(produtos, tamanho * 2);
+            }
+            int posicao = tamanho;
+            if (manterOrdem) {
+                int busca = Arrays.binarySearch(produtos, 0, tamanho, produtoId);
+                if (busca >= 0) {
+                    return;
+                }
+                posicao = -busca - 1;
+                System.arraycopy(produtos, posicao, produtos, posicao + 1, tamanho - posicao);
+            }
+            produtos[posicao] = produtoId;
+            tamanho++;
+        }
+
+        boolean remover(long produtoId) {
+            int posicao = Arrays.binarySearch(produtos, 0, tamanho, produtoId);
+            if (posicao < 0) {
+                return false;
+            }
+            System.arraycopy(produtos, posicao + 1, produtos, posicao, tamanho - posicao - 1);
+            tamanho--;
+            return true;
+        }
+    }
+
+    /**
+     * Lista de ids de produtos ordenada, com a similaridade de cada um (ou uma única para todos)
+     */
+    private static final class Postagens {
+        private static final Postagens VAZIA = new Postagens(new long[0], 0, null, 0f);
+
+        private final long[] ids;
+        private final int tamanho;
+        private final float[] similaridades;
+        private final float similaridadeUnica;
+
+        Postagens(long[] ids, int tamanho, float[] similaridades, float similaridadeUnica) {
+            this.ids = ids;
+            this.tamanho = tamanho;
+            this.similaridades = similaridades;
+            this.similaridadeUnica = similaridadeUnica;
+        }
+
+        float similaridade(int posicao) {
+            return similaridades != null ? similaridades[posicao] : similaridadeUnica;
+        }
+    }
+
+    private static final class Candidato {
+        private final Termo termo;
+        private final float similaridade;
+
+        Candidato(Termo termo, float similaridade) {
+            this.termo = termo;
+            this.similaridade = similaridade;
+        }
+    }
+
+    private static final class Documento {
+        private final String[] termos;
+        private final Long categoriaId;
+
+        Documento(String[] termos, Long categoriaId) {
+            this.termos = termos;
+            this.categoriaId = categoriaId;
+        }
+    }
+
+    /**
+     * Lista de int sem boxing; a remoção troca com o último (a ordem não importa)
+     */
+    private static final class ListaInt {
+        private int[] valores = new int[4];
+        private int tamanho;
+
+        void adicionar(int valor) {
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            valores[tamanho++] = valor;
+        }
+
+        void remover(int valor) {
+            for (int i = 0; i < tamanho; i++) {
+                if (valores[i] == valor) {
+                    valores[i] = valores[--tamanho];
+                    return;
+                }
+            }
+        }
+    }
+}
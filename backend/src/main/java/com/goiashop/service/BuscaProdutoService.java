@@ -0,0 +1,390 @@
+package com.goiashop.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.goiashop.dto.ProdutoCatalogo;
+import com.goiashop.model.Produto;
+import com.goiashop.util.TextoBusca;
+
+/**
+ * Índice invertido em memória para a busca de produtos.
+ *
+ * Indexa nome, descrição e nome da categoria (sem acentos e radicalizados) de todos os
+ * produtos, inclusive inativos, para atender tanto a loja quanto a listagem administrativa.
+ * É mantido de forma incremental a partir dos {@link CatalogoAlteradoEvent}.
+ *
+ * Relevância: soma de (peso do campo x idf) de cada termo da consulta. Todos os termos
+ * precisam ocorrer no produto; o último termo também casa por prefixo (busca enquanto digita).
+ */
+@Service
+public class BuscaProdutoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BuscaProdutoService.class);
+
+    private static final float PESO_NOME = 3.0f;
+    private static final float PESO_CATEGORIA = 2.0f;
+    private static final float PESO_DESCRICAO = 1.0f;
+    private static final float FATOR_PREFIXO = 0.8f;
+
+    private static final int TAMANHO_MINIMO_PREFIXO = 2;
+    private static final int MAXIMO_EXPANSOES_PREFIXO = 64;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // termo (radical) -> postagens; ordenado para permitir busca por prefixo
+    private final TreeMap<String, Postagens> indice = new TreeMap<>();
+
+    // produto -> termos indexados (para remoção incremental) e metadados de filtro
+    private final Map<Long, Documento> documentos = new HashMap<>();
+
+    private volatile boolean pronto = false;
+
+    /**
+     * Mantém o índice sincronizado com o catálogo
+     */
+    @EventListener
+    public void onCatalogoAlterado(CatalogoAlteradoEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isRecargaCompleta()) {
+                indice.clear();
+                documentos.clear();
+            }
+            for (Map.Entry<Long, ProdutoCatalogo> entrada : event.getProdutos().entrySet()) {
+                remover(entrada.getKey());
+                if (entrada.getValue() != null) {
+                    indexar(entrada.getValue());
+                }
+            }
+            pronto = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (event.isRecargaCompleta()) {
+            logger.info("Índice de busca reconstruído - {} produtos, {} termos", documentos.size(), indice.size());
+        }
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * Busca produtos pelo termo, ordenados por relevância
+     *
+     * @param termo Texto digitado pelo usuário
+     * @param categoriaId Filtra por categoria (opcional)
+     * @param status Filtra por status (opcional)
+     * @return ids dos produtos encontrados, do mais para o menos relevante
+     */
+    public List<Long> buscar(String termo, Long categoriaId, Produto.ProdutoStatus status) {
+        List<String> termos = TextoBusca.tokenizar(termo);
+        if (termos.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            int totalDocumentos = Math.max(documentos.size(), 1);
+
+            // Pontuação parcial de cada termo da consulta; começamos pelo mais seletivo
+            List<Pontuacao> parciais = new ArrayList<>();
+            for (int i = 0; i < termos.size(); i++) {
+                boolean ultimo = i == termos.size() - 1;
+                Pontuacao parcial = pontuarTermo(termos.get(i), ultimo, totalDocumentos);
+                if (parcial.tamanho == 0) {
+                    return new ArrayList<>();
+                }
+                parciais.add(parcial);
+            }
+            parciais.sort((x, y) -> Integer.compare(x.tamanho, y.tamanho));
+
+            boolean filtrar = status != null || categoriaId != null;
+            Pontuacao menor = parciais.get(0);
+            int[] posicoes = new int[parciais.size()];
+            List<Resultado> resultados = new ArrayList<>();
+            for (int c = 0; c < menor.tamanho; c++) {
+                long id = menor.ids[c];
+                float score = menor.scores[c];
+                boolean todos = true;
+                for (int i = 1; i < parciais.size() && todos; i++) {
+                    // Os candidatos vêm em ordem de id: cada busca continua de onde a anterior parou
+                    Pontuacao outro = parciais.get(i);
+                    int pos = Arrays.binarySearch(outro.ids, posicoes[i], outro.tamanho, id);
+                    if (pos < 0) {
+                        posicoes[i] = -pos - 1;
+                        todos = false;
+                    } else {
+                        posicoes[i] = pos + 1;
+                        score += outro.scores[pos];
+                    }
+                }
+                if (!todos) {
+                    continue;
+                }
+                if (filtrar) {
+                    Documento documento = documentos.get(id);
+                    if (documento == null
+                            || (status != null && documento.status != status)
+                            || (categoriaId != null && !categoriaId.equals(documento.categoriaId))) {
+                        continue;
+                    }
+                }
+                resultados.add(new Resultado(id, score));
+            }
+
+            resultados.sort((a, b) -> a.score != b.score
+                ? Float.compare(b.score, a.score)
+                : Long.compare(b.id, a.id));
+
+            List<Long> ids = new ArrayList<>(resultados.size());
+            for (Resultado resultado : resultados) {
+                ids.add(resultado.id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pontua os produtos que contêm o termo (pelo radical e, se for o último, por prefixo)
+     */
+    private Pontuacao pontuarTermo(String termo, boolean permitePrefixo, int totalDocumentos) {
+        List<Postagens> listas = new ArrayList<>();
+        List<Float> fatores = new ArrayList<>();
+
+        String radical = TextoBusca.radical(termo);
+        Postagens exatas = indice.get(radical);
+        if (exatas != null) {
+            listas.add(exatas);
+            fatores.add(idf(exatas, totalDocumentos));
+        }
+
+        if (permitePrefixo && termo.length() >= TAMANHO_MINIMO_PREFIXO) {
+            SortedMap<String, Postagens> faixa = indice.subMap(termo, termo + Character.MAX_VALUE);
+            int expansoes = 0;
+            for (Map.Entry<String, Postagens> entrada : faixa.entrySet()) {
+                if (entrada.getKey().equals(radical)) {
+                    continue;
+                }
+                if (++expansoes > MAXIMO_EXPANSOES_PREFIXO) {
+                    break;
+                }
+                Postagens postagens = entrada.getValue();
+                listas.add(postagens);
+                fatores.add(idf(postagens, totalDocumentos) * FATOR_PREFIXO);
+            }
+        }
+        return Pontuacao.mesclar(listas, fatores);
+    }
+
+    private static float idf(Postagens postagens, int totalDocumentos) {
+        return (float) Math.log(1.0 + (double) totalDocumentos / Math.max(postagens.tamanho, 1));
+    }
+
+    private void indexar(ProdutoCatalogo produto) {
+        Map<String, Float> pesos = new HashMap<>();
+        adicionarCampo(pesos, produto.getNome(), PESO_NOME);
+        adicionarCampo(pesos, produto.getCategoria() != null ? produto.getCategoria().getNome() : null, PESO_CATEGORIA);
+        adicionarCampo(pesos, produto.getDescricao(), PESO_DESCRICAO);
+
+        for (Map.Entry<String, Float> peso : pesos.entrySet()) {
+            indice.computeIfAbsent(peso.getKey(), k -> new Postagens()).adicionar(produto.getId(), peso.getValue());
+        }
+
+        documentos.put(produto.getId(), new Documento(
+            pesos.keySet().toArray(new String[0]),
+            produto.getStatus(),
+            produto.getCategoria() != null ? produto.getCategoria().getId() : null));
+    }
+
+    private void adicionarCampo(Map<String, Float> pesos, String texto, float peso) {
+        for (String termo : TextoBusca.tokenizar(texto)) {
+            // Cada campo conta uma vez por termo; o nome prevalece sobre a descrição
+            pesos.merge(TextoBusca.radical(termo), peso, Math::max);
+        }
+    }
+
+    private void remover(Long produtoId) {
+        Documento documento = documentos.remove(produtoId);
+        if (documento == null) {
+            return;
+        }
+        for (String termo : documento.termos) {
+            Postagens postagens = indice.get(termo);
+            if (postagens != null) {
+                postagens.remover(produtoId);
+                if (postagens.tamanho == 0) {
+                    indice.remove(termo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lista de postagens de um termo em arrays primitivos (sem boxing por entrada), ordenada por id
+     */
+    private static final class Postagens {
+        private long[] ids = new long[4];
+        private float[] pesos = new float[4];
+        private int tamanho = 0;
+
+        void adicionar(long id, float peso) {
+            int pos = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (pos >= 0) {
+                pesos[pos] = peso;
+                return;
+            }
+            pos = -pos - 1;
+            if (tamanho == ids.length) {
+                ids = Arrays.copyOf(ids, tamanho * 2);
+                pesos = Arrays.copyOf(pesos, tamanho * 2);
+            }
+            // Produtos novos têm os maiores ids: em geral entram no fim, sem deslocamento
+            System.arraycopy(ids, pos, ids, pos + 1, tamanho - pos);
+            System.arraycopy(pesos, pos, pesos, pos + 1, tamanho - pos);
+            ids[pos] = id;
+            pesos[pos] = peso;
+            tamanho++;
+        }
+
+        void remover(long id) {
+            int pos = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (pos < 0) {
+                return;
+            }
+            tamanho--;
+            System.arraycopy(ids, pos + 1, ids, pos, tamanho - pos);
+            System.arraycopy(pesos, pos + 1, pesos, pos, tamanho - pos);
+        }
+    }
+
+    /**
+     * Pontuação parcial de um termo da consulta: ids ordenados e scores em arrays primitivos
+     */
+    private static final class Pontuacao {
+        private final long[] ids;
+        private final float[] scores;
+        private int tamanho;
+
+        private Pontuacao(int capacidade) {
+            this.ids = new long[capacidade];
+            this.scores = new float[capacidade];
+        }
+
+        /**
+         * Junta as postagens (radical e expansões de prefixo) multiplicadas pelos fatores;
+         * um produto presente em mais de uma fica com o maior score
+         */
+        static Pontuacao mesclar(List<Postagens> listas, List<Float> fatores) {
+            int capacidade = 0;
+            for (Postagens postagens : listas) {
+                capacidade += postagens.tamanho;
+            }
+            Pontuacao pontuacao = new Pontuacao(capacidade);
+            if (listas.size() == 1) {
+                Postagens unica = listas.get(0);
+                float fator = fatores.get(0);
+                System.arraycopy(unica.ids, 0, pontuacao.ids, 0, unica.tamanho);
+                for (int i = 0; i < unica.tamanho; i++) {
+                    pontuacao.scores[i] = unica.pesos[i] * fator;
+                }
+                pontuacao.tamanho = unica.tamanho;
+                return pontuacao;
+            }
+
+            // Intercalação das listas ordenadas por um heap de índices, pelo id corrente de cada uma
+            int[] posicoes = new int[listas.size()];
+            int[] heap = new int[listas.size()];
+            int emUso = 0;
+            for (int i = 0; i < listas.size(); i++) {
+                if (listas.get(i).tamanho > 0) {
+                    heap[emUso++] = i;
+                }
+            }
+            for (int i = emUso / 2 - 1; i >= 0; i--) {
+                descer(heap, emUso, i, listas, posicoes);
+            }
+            while (emUso > 0) {
+                int lista = heap[0];
+                Postagens postagens = listas.get(lista);
+                long id = postagens.ids[posicoes[lista]];
+                float score = postagens.pesos[posicoes[lista]] * fatores.get(lista);
+                int ultimo = pontuacao.tamanho - 1;
+                if (ultimo >= 0 && pontuacao.ids[ultimo] == id) {
+                    pontuacao.scores[ultimo] = Math.max(pontuacao.scores[ultimo], score);
+                } else {
+                    pontuacao.ids[pontuacao.tamanho] = id;
+                    pontuacao.scores[pontuacao.tamanho] = score;
+                    pontuacao.tamanho++;
+                }
+                if (++posicoes[lista] == postagens.tamanho) {
+                    heap[0] = heap[--emUso];
+                }
+                descer(heap, emUso, 0, listas, posicoes);
+            }
+            return pontuacao;
+        }
+
+        private static void descer(int[] heap, int emUso, int i, List<Postagens> listas, int[] posicoes) {
+            while (true) {
+                int menor = i;
+                int esquerda = 2 * i + 1;
+                int direita = esquerda + 1;
+                if (esquerda < emUso && atual(heap[esquerda], listas, posicoes) < atual(heap[menor], listas, posicoes)) {
+                    menor = esquerda;
+                }
+                if (direita < emUso && atual(heap[direita], listas, posicoes) < atual(heap[menor], listas, posicoes)) {
+                    menor = direita;
+                }
+                if (menor == i) {
+                    return;
+                }
+                int troca = heap[i];
+                heap[i] = heap[menor];
+                heap[menor] = troca;
+                i = menor;
+            }
+        }
+
+        private static long atual(int lista, List<Postagens> listas, int[] posicoes) {
+            return listas.get(lista).ids[posicoes[lista]];
+        }
+    }
+
+    private static final class Documento {
+        private final String[] termos;
+        private final Produto.ProdutoStatus status;
+        private final Long categoriaId;
+
+        Documento(String[] termos, Produto.ProdutoStatus status, Long categoriaId) {
+            this.termos = termos;
+            this.status = status;
+            this.categoriaId = categoriaId;
+        }
+    }
+
+    private static final class Resultado {
+        private final long id;
+        private final float score;
+
+        Resultado(long id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
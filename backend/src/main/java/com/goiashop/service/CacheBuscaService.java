@@ -0,0 +1,292 @@
+package com.goiashop.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.goiashop.dto.PaginatedResponse;
+import com.goiashop.dto.ProdutoCatalogo;
+import com.goiashop.dto.ProdutoResumo;
+import com.goiashop.model.Produto;
+import com.goiashop.util.TextoBusca;
+
+/**
+ * Cache dos resultados da busca pública de produtos (LRU limitado pelo número de itens, com TTL).
+ *
+ * A chave é o termo normalizado + categoria + ordenação + página. Buscas idênticas simultâneas
+ * sem resultado em cache executam uma única consulta (as demais aguardam o mesmo resultado).
+ *
+ * A invalidação vem das escritas no catálogo, via {@link #invalidar(CatalogoAlteradoEvent)},
+ * chamado pelo {@link CatalogoService} depois que os índices de busca já processaram o evento.
+ * Uma entrada é descartada quando contém um produto alterado, quando um produto do seu escopo
+ * muda nome/descrição/categoria/status (pode passar a corresponder ao termo) ou, se ordenada,
+ * quando qualquer produto do escopo muda (preço, avaliação e estoque alteram a ordem).
+ */
+@Service
+public class CacheBuscaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheBuscaService.class);
+
+    @Value("${app.busca.cache.max-itens:100000}")
+    private long maximoItens;
+
+    @Value("${app.busca.cache.max-entradas:5000}")
+    private int maximoEntradas;
+
+    @Value("${app.busca.cache.ttl-segundos:300}")
+    private long ttlSegundos;
+
+    // Ordem de acesso: o primeiro é o menos usado recentemente
+    private final LinkedHashMap<Chave, Entrada> entradas = new LinkedHashMap<>(256, 0.75f, true);
+    private long itensEmCache;
+
+    // Incrementada a cada invalidação; cargas iniciadas antes dela não são guardadas
+    private long geracao;
+
+    private final ConcurrentHashMap<Chave, CompletableFuture<Object>> emAndamento = new ConcurrentHashMap<>();
+
+    // Último estado conhecido de cada produto, para detectar mudanças que afetam a correspondência
+    private final Map<Long, ProdutoCatalogo> produtos = new HashMap<>();
+
+    /**
+     * Retorna o resultado em cache ou executa a busca (uma única vez para chamadas simultâneas)
+     *
+     * @param carregar Executa a busca; deve retornar uma lista de {@link ProdutoResumo} ou uma
+     *                 {@link PaginatedResponse} de {@link ProdutoResumo}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obter(Chave chave, Supplier<T> carregar) {
+        long geracaoInicial;
+        synchronized (this) {
+            Entrada entrada = entradas.get(chave);
+            if (entrada != null) {
+                if (entrada.expiraEm > System.currentTimeMillis()) {
+                    return (T) entrada.valor;
+                }
+                remover(chave);
+            }
+            geracaoInicial = geracao;
+        }
+
+        CompletableFuture<Object> nova = new CompletableFuture<>();
+        CompletableFuture<Object> existente = emAndamento.putIfAbsent(chave, nova);
+        if (existente != null) {
+            try {
+                return (T) existente.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            T valor = carregar.get();
+            guardar(chave, valor, geracaoInicial);
+            nova.complete(valor);
+            return valor;
+        } catch (RuntimeException e) {
+            nova.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, nova);
+        }
+    }
+
+    /**
+     * Descarta as entradas afetadas pelos produtos alterados
+     */
+    public void invalidar(CatalogoAlteradoEvent event) {
+        synchronized (this) {
+            geracao++;
+            // Novas buscas não devem aguardar cargas iniciadas antes da alteração
+            emAndamento.clear();
+
+            if (event.isRecargaCompleta()) {
+                produtos.clear();
+                produtos.putAll(event.getProdutos());
+                entradas.clear();
+                itensEmCache = 0;
+                return;
+            }
+
+            List<Alteracao> alteracoes = new ArrayList<>();
+            for (Map.Entry<Long, ProdutoCatalogo> item : event.getProdutos().entrySet()) {
+                ProdutoCatalogo novo = item.getValue();
+                ProdutoCatalogo anterior = novo != null ? produtos.put(item.getKey(), novo) : produtos.remove(item.getKey());
+                alteracoes.add(new Alteracao(item.getKey(), categoriaId(anterior), categoriaId(novo),
+                    mudouCorrespondencia(anterior, novo)));
+            }
+
+            int removidas = 0;
+            Iterator<Map.Entry<Chave, Entrada>> iterador = entradas.entrySet().iterator();
+            while (iterador.hasNext()) {
+                Map.Entry<Chave, Entrada> item = iterador.next();
+                if (afetada(item.getKey(), item.getValue(), alteracoes)) {
+                    itensEmCache -= item.getValue().peso;
+                    iterador.remove();
+                    removidas++;
+                }
+            }
+            if (removidas > 0) {
+                logger.debug("Cache de busca: {} entradas invalidadas por {} produtos alterados",
+                    removidas, alteracoes.size());
+            }
+        }
+    }
+
+    private static boolean afetada(Chave chave, Entrada entrada, List<Alteracao> alteracoes) {
+        for (Alteracao alteracao : alteracoes) {
+            if (Arrays.binarySearch(entrada.produtoIds, alteracao.produtoId) >= 0) {
+                return true;
+            }
+            boolean noEscopo = chave.categoriaId == null
+                || chave.categoriaId.equals(alteracao.categoriaAnterior)
+                || chave.categoriaId.equals(alteracao.categoriaNova);
+            if (noEscopo && (alteracao.mudouCorrespondencia || chave.ordenar != null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void guardar(Chave chave, Object valor, long geracaoInicial) {
+        if (geracao != geracaoInicial) {
+            return;
+        }
+        long[] produtoIds = produtoIds(valor);
+        long peso = produtoIds.length + 1L;
+        if (peso > maximoItens) {
+            return;
+        }
+        remover(chave);
+        entradas.put(chave, new Entrada(valor, produtoIds, peso, System.currentTimeMillis() + ttlSegundos * 1000));
+        itensEmCache += peso;
+
+        Iterator<Map.Entry<Chave, Entrada>> menosUsadas = entradas.entrySet().iterator();
+        while ((itensEmCache > maximoItens || entradas.size() > maximoEntradas) && menosUsadas.hasNext()) {
+            itensEmCache -= menosUsadas.next().getValue().peso;
+            menosUsadas.remove();
+        }
+    }
+
+    private void remover(Chave chave) {
+        Entrada anterior = entradas.remove(chave);
+        if (anterior != null) {
+            itensEmCache -= anterior.peso;
+        }
+    }
+
+    private static long[] produtoIds(Object valor) {
+        List<?> itens = valor instanceof PaginatedResponse ? ((PaginatedResponse<?>) valor).getContent() : (List<?>) valor;
+        long[] ids = new long[itens.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((ProdutoResumo) itens.get(i)).getId();
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Indica se a alteração pode mudar o conjunto de buscas a que o produto corresponde
+     */
+    private static boolean mudouCorrespondencia(ProdutoCatalogo anterior, ProdutoCatalogo novo) {
+        if (anterior == null || novo == null) {
+            return true;
+        }
+        return !Objects.equals(anterior.getNome(), novo.getNome())
+            || !Objects.equals(anterior.getDescricao(), novo.getDescricao())
+            || !Objects.equals(categoriaId(anterior), categoriaId(novo))
+            || !Objects.equals(categoriaNome(anterior), categoriaNome(novo))
+            || (anterior.getStatus() == Produto.ProdutoStatus.ATIVO) != (novo.getStatus() == Produto.ProdutoStatus.ATIVO);
+    }
+
+    private static Long categoriaId(ProdutoCatalogo produto) {
+        return produto != null && produto.getCategoria() != null ? produto.getCategoria().getId() : null;
+    }
+
+    private static String categoriaNome(ProdutoCatalogo produto) {
+        return produto.getCategoria() != null ? produto.getCategoria().getNome() : null;
+    }
+
+    /**
+     * Chave de uma busca; o termo é normalizado (minúsculas, sem acentos, espaços simples)
+     */
+    public static final class Chave {
+        private final String termo;
+        private final Long categoriaId;
+        private final String ordenar;
+        private final boolean aproximada;
+        private final Integer page;
+        private final int size;
+
+        public Chave(String termo, Long categoriaId, String ordenar, boolean aproximada, Integer page, int size) {
+            this.termo = termo != null ? TextoBusca.normalizar(termo).trim().replaceAll("\\s+", " ") : "";
+            this.categoriaId = categoriaId;
+            this.ordenar = ordenar;
+            this.aproximada = aproximada;
+            this.page = page;
+            // Sem página o resultado é a lista completa
+            this.size = page != null ? size : 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Chave)) {
+                return false;
+            }
+            Chave outra = (Chave) o;
+            return aproximada == outra.aproximada && size == outra.size && termo.equals(outra.termo)
+                && Objects.equals(categoriaId, outra.categoriaId) && Objects.equals(ordenar, outra.ordenar)
+                && Objects.equals(page, outra.page);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(termo, categoriaId, ordenar, aproximada, page, size);
+        }
+    }
+
+    private static final class Entrada {
+        private final Object valor;
+        private final long[] produtoIds;
+        private final long peso;
+        private final long expiraEm;
+
+        Entrada(Object valor, long[] produtoIds, long peso, long expiraEm) {
+            this.valor = valor;
+            this.produtoIds = produtoIds;
+            this.peso = peso;
+            this.expiraEm = expiraEm;
+        }
+    }
+
+    private static final class Alteracao {
+        private final long produtoId;
+        private final Long categoriaAnterior;
+        private final Long categoriaNova;
+        private final boolean mudouCorrespondencia;
+
+        Alteracao(long produtoId, Long categoriaAnterior, Long categoriaNova, boolean mudouCorrespondencia) {
+            this.produtoId = produtoId;
+            this.categoriaAnterior = categoriaAnterior;
+            this.categoriaNova = categoriaNova;
+            this.mudouCorrespondencia = mudouCorrespondencia;
+        }
+    }
+}
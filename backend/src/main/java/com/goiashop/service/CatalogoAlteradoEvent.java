@@ -0,0 +1,45 @@
+package com.goiashop.service;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.goiashop.dto.ProdutoCatalogo;
+
+/**
+ * Evento publicado pelo {@link CatalogoService} sempre que uma nova versão do catálogo
+ * é publicada. Permite que índices derivados (busca, filtros, ordenação...) sejam
+ * atualizados de forma incremental sem consultar o banco.
+ *
+ * Diferente do snapshot, {@link #getProdutos()} inclui produtos inativos, pois a
+ * listagem administrativa também usa esses índices; estes vêm sem imagens.
+ */
+public class CatalogoAlteradoEvent {
+
+    private final CatalogoSnapshot snapshot;
+    private final Map<Long, ProdutoCatalogo> produtos;
+    private final boolean recargaCompleta;
+
+    /**
+     * @param snapshot        nova versão do catálogo público
+     * @param produtos        id -> visão atual do produto (qualquer status), ou null se foi removido.
+     *                        Em uma recarga completa contém todos os produtos.
+     * @param recargaCompleta true quando os índices devem ser reconstruídos do zero
+     */
+    public CatalogoAlteradoEvent(CatalogoSnapshot snapshot, Map<Long, ProdutoCatalogo> produtos, boolean recargaCompleta) {
+        this.snapshot = snapshot;
+        this.produtos = Collections.unmodifiableMap(produtos);
+        this.recargaCompleta = recargaCompleta;
+    }
+
+    public CatalogoSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public Map<Long, ProdutoCatalogo> getProdutos() {
+        return produtos;
+    }
+
+    public boolean isRecargaCompleta() {
+        return recargaCompleta;
+    }
+}
@@ -0,0 +1,147 @@
+package com.goiashop.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goiashop.dto.ProdutoCatalogo;
+import com.goiashop.dto.ProdutoResumo;
+import com.goiashop.util.JsonPreCodificado;
+
+/**
+ * Cache das respostas JSON já codificadas do catálogo público.
+ *
+ * Cada entrada guarda a referência do objeto do snapshot que a originou; como o
+ * snapshot é imutável e reaproveita objetos inalterados, a entrada é válida enquanto
+ * o snapshot atual apontar para o mesmo objeto. Assim, qualquer escrita que passe
+ * pelo CatalogoService invalida automaticamente apenas as respostas afetadas.
+ *
+ * Cada versão é codificada uma única vez: requisições simultâneas para a mesma chave e a
+ * mesma origem esperam a codificação em andamento em vez de repeti-la.
+ */
+@Service
+public class CatalogoJsonService {
+
+    private static final String CHAVE_ATIVOS = "ativos";
+    private static final String PREFIXO_CATEGORIA = "categoria:";
+
+    // Categorias vazias ou inexistentes não ocupam entradas no cache
+    private static final JsonPreCodificado LISTA_VAZIA = JsonPreCodificado.de("[]".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private CatalogoService catalogoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<Long, Entrada> produtos = new ConcurrentHashMap<>();
+    private final Map<String, Entrada> listas = new ConcurrentHashMap<>();
+
+    /**
+     * Lista de produtos ativos (GET /api/produtos/public)
+     */
+    public JsonPreCodificado listarAtivos() {
+        return lista(CHAVE_ATIVOS, catalogoService.listarResumosAtivos());
+    }
+
+    /**
+     * Lista de produtos ativos da categoria (GET /api/produtos/public/categoria/{id})
+     */
+    public JsonPreCodificado listarPorCategoria(Long categoriaId) {
+        List<ProdutoResumo> produtosCategoria = catalogoService.listarResumosPorCategoria(categoriaId);
+        if (produtosCategoria.isEmpty()) {
+            return LISTA_VAZIA;
+        }
+        return lista(PREFIXO_CATEGORIA + categoriaId, produtosCategoria);
+    }
+
+    /**
+     * Produto ativo completo (GET /api/produtos/public/{id})
+     * @return corpo codificado, ou null se o produto não estiver no catálogo
+     */
+    public JsonPreCodificado produto(Long id) {
+        ProdutoCatalogo produto = catalogoService.buscarAtivo(id);
+        if (produto == null) {
+            return null;
+        }
+        return obter(produtos, id, produto);
+    }
+
+    /**
+     * Libera as entradas dos produtos alterados e das categorias que ficaram vazias (a validade
+     * já é garantida pela referência)
+     */
+    @EventListener
+    public void onCatalogoAlterado(CatalogoAlteradoEvent event) {
+        if (event.isRecargaCompleta()) {
+            produtos.clear();
+            listas.clear();
+            return;
+        }
+        for (Long id : event.getProdutos().keySet()) {
+            produtos.remove(id);
+        }
+        CatalogoSnapshot snapshot = event.getSnapshot();
+        listas.keySet().removeIf(chave -> chave.startsWith(PREFIXO_CATEGORIA)
+            && snapshot.listarResumosPorCategoria(Long.valueOf(chave.substring(PREFIXO_CATEGORIA.length()))).isEmpty());
+    }
+
+    private JsonPreCodificado lista(String chave, Object origem) {
+        return obter(listas, chave, origem);
+    }
+
+    /**
+     * Corpo em cache para a origem ou, se a entrada é de outra origem, codifica uma única vez
+     * (quem chegar durante a codificação espera pelo mesmo resultado)
+     */
+    private <K> JsonPreCodificado obter(Map<K, Entrada> cache, K chave, Object origem) {
+        while (true) {
+            Entrada entrada = cache.get(chave);
+            if (entrada != null && entrada.origem == origem) {
+                return entrada.corpo.join();
+            }
+            Entrada nova = new Entrada(origem, new CompletableFuture<>());
+            boolean instalada = entrada == null
+                ? cache.putIfAbsent(chave, nova) == null
+                : cache.replace(chave, entrada, nova);
+            if (!instalada) {
+                continue;
+            }
+            try {
+                JsonPreCodificado corpo = codificar(origem);
+                nova.corpo.complete(corpo);
+                return corpo;
+            } catch (RuntimeException e) {
+                cache.remove(chave, nova);
+                nova.corpo.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private JsonPreCodificado codificar(Object valor) {
+        try {
+            return JsonPreCodificado.de(objectMapper.writeValueAsBytes(valor));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Erro ao serializar catálogo: " + e.getMessage(), e);
+        }
+    }
+
+    private static final class Entrada {
+        private final Object origem;
+        private final CompletableFuture<JsonPreCodificado> corpo;
+
+        Entrada(Object origem, CompletableFuture<JsonPreCodificado> corpo) {
+            this.origem = origem;
+            this.corpo = corpo;
+        }
+    }
+}
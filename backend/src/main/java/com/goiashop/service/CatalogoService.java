@@ -0,0 +1,389 @@
+package com.goiashop.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.goiashop.dto.ProdutoCatalogo;
+import com.goiashop.dto.ProdutoResumo;
+import com.goiashop.model.Produto;
+import com.goiashop.repository.ProdutoRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Catálogo público em memória.
+ *
+ * Mantém um {@link CatalogoSnapshot} imutável com os produtos ativos, trocado de forma
+ * atômica a cada escrita confirmada. As leituras do e-commerce não acessam o banco.
+ *
+ * Os serviços que alteram produtos chamam {@link #registrarAlteracao(Long)} dentro da
+ * transação; após o commit os ids entram numa fila de pendentes aplicada por uma única
+ * thread ("catalogo-aplicador"), que junta as alterações acumuladas, relê os produtos e
+ * anuncia a nova versão com um {@link CatalogoAlteradoEvent} para os índices derivados.
+ * A thread que fez a escrita (pedido, estoque, cadastro) não espera pelos índices.
+ *
+ * Enquanto nenhuma carga completa tiver dado certo, as alterações não são aplicadas (o
+ * snapshot vazio não serve de base); uma carga que falha é repetida com espera crescente.
+ */
+@Service
+public class CatalogoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogoService.class);
+
+    // Produtos relidos por consulta na aplicação das alterações
+    private static final int LOTE_APLICACAO = 500;
+
+    // Produtos por página na carga completa
+    private static final int PAGINA_CARGA = 1000;
+
+    // Espera entre tentativas de recarga após falha (dobra a cada falha até o máximo)
+    private static final long ESPERA_RECARGA_INICIAL_MS = 1000;
+    private static final long ESPERA_RECARGA_MAXIMA_MS = 60_000;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheBuscaService cacheBuscaService;
+
+    @Autowired
+    private VersaoCatalogoService versaoCatalogoService;
+
+    private final TransactionTemplate leituraTemplate;
+
+    private final AtomicReference<CatalogoSnapshot> snapshotAtual = new AtomicReference<>(CatalogoSnapshot.vazio());
+
+    // Ids alterados ainda não aplicados; ids repetidos se juntam numa única releitura
+    private final Set<Long> pendentes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean aplicacaoAgendada = new AtomicBoolean();
+    private final AtomicBoolean recargaPendente = new AtomicBoolean();
+
+    // Só usados pela thread aplicadora
+    private boolean carregado;
+    private long esperaRecargaMs;
+    private long proximaRecargaNanos;
+
+    private final ScheduledExecutorService aplicador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "catalogo-aplicador");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CatalogoService(PlatformTransactionManager transactionManager) {
+        // Transação nova para não reaproveitar o contexto de persistência da escrita (open-in-view)
+        this.leituraTemplate = new TransactionTemplate(transactionManager);
+        this.leituraTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.leituraTemplate.setReadOnly(true);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        aplicador.shutdownNow();
+    }
+
+    /**
+     * Carga inicial do catálogo ao subir a aplicação; espera a primeira tentativa para não
+     * abrir o tráfego com o catálogo vazio (se falhar, é repetida em segundo plano)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarInicial() {
+        recargaPendente.set(true);
+        try {
+            aplicador.submit(this::aplicarPendentes).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("Erro na carga inicial do catálogo: {}", e.getMessage(), e);
+        }
+    }
+
+    public CatalogoSnapshot getSnapshot() {
+        return snapshotAtual.get();
+    }
+
+    public List<ProdutoCatalogo> listarAtivos() {
+        return snapshotAtual.get().listarAtivos();
+    }
+
+    public ProdutoCatalogo buscarAtivo(Long id) {
+        return snapshotAtual.get().buscar(id);
+    }
+
+    public List<ProdutoCatalogo> listarPorCategoria(Long categoriaId) {
+        return snapshotAtual.get().listarPorCategoria(categoriaId);
+    }
+
+    public List<ProdutoResumo> listarResumosAtivos() {
+        return snapshotAtual.get().listarResumosAtivos();
+    }
+
+    public List<ProdutoResumo> listarResumosPorCategoria(Long categoriaId) {
+        return snapshotAtual.get().listarResumosPorCategoria(categoriaId);
+    }
+
+    /**
+     * Registra que um produto foi alterado. Se houver transação ativa, o produto entra na
+     * fila de atualização após o commit (uma única vez por transação); caso contrário, imediatamente.
+     */
+    public void registrarAlteracao(Long produtoId) {
+        if (produtoId == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enfileirar(List.of(produtoId));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Long> pendentesTransacao = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pendentesTransacao == null) {
+            Set<Long> novosPendentes = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, novosPendentes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enfileirar(novosPendentes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CatalogoService.this);
+                }
+            });
+            pendentesTransacao = novosPendentes;
+        }
+        pendentesTransacao.add(produtoId);
+    }
+
+    /**
+     * Agenda a recarga de todo o catálogo a partir do banco
+     */
+    public void recarregar() {
+        recargaPendente.set(true);
+        agendar();
+    }
+
+    private void enfileirar(Collection<Long> produtoIds) {
+        if (produtoIds.isEmpty()) {
+            return;
+        }
+        pendentes.addAll(produtoIds);
+        agendar();
+    }
+
+    private void agendar() {
+        if (aplicacaoAgendada.compareAndSet(false, true)) {
+            try {
+                aplicador.execute(this::aplicarPendentes);
+            } catch (RejectedExecutionException e) {
+                // Aplicação encerrando
+                aplicacaoAgendada.set(false);
+            }
+        }
+    }
+
+    /**
+     * Executado só pela thread aplicadora: consome os pendentes acumulados até aqui.
+     * Alterações que chegarem durante a aplicação agendam uma nova rodada.
+     */
+    private void aplicarPendentes() {
+        aplicacaoAgendada.set(false);
+        if (recargaPendente.get()) {
+            if (System.nanoTime() - proximaRecargaNanos < 0) {
+                // Aguardando a próxima tentativa, já agendada
+                return;
+            }
+            recargaPendente.set(false);
+            // Os ids já pendentes são cobertos pela recarga, que lê o banco depois deles
+            pendentes.clear();
+            if (!aplicarRecarga()) {
+                agendarNovaTentativa();
+            }
+            return;
+        }
+        if (!carregado) {
+            // Sem carga completa não há base para aplicar alterações; ficam para a recarga
+            return;
+        }
+
+        while (!pendentes.isEmpty() && !recargaPendente.get()) {
+            List<Long> lote = new ArrayList<>(Math.min(pendentes.size(), LOTE_APLICACAO));
+            Iterator<Long> iterator = pendentes.iterator();
+            while (iterator.hasNext() && lote.size() < LOTE_APLICACAO) {
+                lote.add(iterator.next());
+                iterator.remove();
+            }
+            aplicarAlteracoes(lote);
+        }
+    }
+
+    /**
+     * Após uma recarga com falha, tenta de novo com espera crescente
+     */
+    private void agendarNovaTentativa() {
+        esperaRecargaMs = esperaRecargaMs == 0
+            ? ESPERA_RECARGA_INICIAL_MS
+            : Math.min(esperaRecargaMs * 2, ESPERA_RECARGA_MAXIMA_MS);
+        proximaRecargaNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaRecargaMs);
+        recargaPendente.set(true);
+        logger.warn("Nova tentativa de carregar o catálogo em {} ms", esperaRecargaMs);
+        try {
+            aplicador.schedule(this::agendar, esperaRecargaMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Aplicação encerrando
+        }
+    }
+
+    /**
+     * @return false se a carga falhou (o snapshot atual é mantido)
+     */
+    private boolean aplicarRecarga() {
+        CatalogoAlteradoEvent evento;
+        try {
+            // Em páginas por id, cada uma em sua transação: sem um único resultado gigante
+            // (produto x imagens) nem o contexto de persistência crescendo com o catálogo
+            Map<Long, ProdutoCatalogo> todos = new HashMap<>();
+            List<ProdutoCatalogo> ativos = new ArrayList<>();
+            long ultimoId = 0L;
+            while (true) {
+                long desde = ultimoId;
+                List<ProdutoCatalogo> pagina = leituraTemplate.execute(status -> lerPagina(desde));
+                if (pagina.isEmpty()) {
+                    break;
+                }
+                for (ProdutoCatalogo produto : pagina) {
+                    todos.put(produto.getId(), produto);
+                    if (produto.getStatus() == Produto.ProdutoStatus.ATIVO) {
+                        ativos.add(produto);
+                    }
+                }
+                ultimoId = pagina.get(pagina.size() - 1).getId();
+            }
+
+            CatalogoSnapshot novo = CatalogoSnapshot.de(snapshotAtual.get().getVersao() + 1, ativos);
+            snapshotAtual.set(novo);
+            carregado = true;
+            esperaRecargaMs = 0;
+            logger.info("Catálogo carregado - versão {} com {} produtos ativos", novo.getVersao(), novo.tamanho());
+            evento = new CatalogoAlteradoEvent(novo, todos, true);
+        } catch (Exception e) {
+            logger.error("Erro ao carregar catálogo em memória: {}", e.getMessage(), e);
+            return false;
+        }
+        publicar(evento);
+        return true;
+    }
+
+    /**
+     * Próxima página da carga completa, em ordem de id; só os ativos têm as imagens carregadas
+     */
+    private List<ProdutoCatalogo> lerPagina(long ultimoId) {
+        List<Produto> produtos = produtoRepository.findPaginaComCategoria(ultimoId, PageRequest.of(0, PAGINA_CARGA));
+        List<Long> idsAtivos = new ArrayList<>();
+        for (Produto produto : produtos) {
+            if (produto.getStatus() == Produto.ProdutoStatus.ATIVO) {
+                idsAtivos.add(produto.getId());
+            }
+        }
+        if (!idsAtivos.isEmpty()) {
+            // Inicializa as imagens das mesmas entidades, já no contexto de persistência
+            produtoRepository.findByIdInComImagens(idsAtivos);
+        }
+        List<ProdutoCatalogo> pagina = new ArrayList<>(produtos.size());
+        for (Produto produto : produtos) {
+            pagina.add(visao(produto));
+        }
+        return pagina;
+    }
+
+    /**
+     * Produtos fora da loja não precisam das imagens em memória (a listagem administrativa lê do banco)
+     */
+    private static ProdutoCatalogo visao(Produto produto) {
+        return produto.getStatus() == Produto.ProdutoStatus.ATIVO
+            ? ProdutoCatalogo.of(produto)
+            : ProdutoCatalogo.semImagens(produto);
+    }
+
+    /**
+     * Relê os produtos informados e publica uma nova versão do snapshot
+     */
+    private void aplicarAlteracoes(Collection<Long> produtoIds) {
+        try {
+            Map<Long, ProdutoCatalogo> produtos = leituraTemplate.execute(status -> {
+                Map<Long, ProdutoCatalogo> mapa = new HashMap<>();
+                for (Long id : produtoIds) {
+                    mapa.put(id, null); // ausente => removido
+                }
+                for (Produto produto : produtoRepository.findByIdInComImagens(produtoIds)) {
+                    mapa.put(produto.getId(), visao(produto));
+                }
+                return mapa;
+            });
+
+            // No snapshot público, produto inativo equivale a removido
+            Map<Long, ProdutoCatalogo> alteracoes = new HashMap<>();
+            produtos.forEach((id, produto) -> alteracoes.put(id,
+                produto != null && produto.getStatus() == Produto.ProdutoStatus.ATIVO ? produto : null));
+
+            CatalogoSnapshot novo = snapshotAtual.get().comAlteracoes(alteracoes);
+            snapshotAtual.set(novo);
+            logger.debug("Catálogo atualizado - versão {} ({} produtos alterados)", novo.getVersao(), alteracoes.size());
+            publicar(new CatalogoAlteradoEvent(novo, produtos, false));
+        } catch (Exception e) {
+            // A escrita já foi confirmada; força recarga completa para não servir dados antigos
+            logger.error("Erro ao atualizar catálogo para produtos {}: {}", produtoIds, e.getMessage(), e);
+            recarregar();
+        }
+    }
+
+    /**
+     * Anuncia a nova versão aos índices derivados; o cache de busca é invalidado e as ETags
+     * mudam só depois que todos processaram o evento, para não guardar nem validar
+     * resultados calculados sobre índices antigos. A falha de um ouvinte não impede os
+     * demais (ver EventosConfig) nem estes dois passos.
+     */
+    private void publicar(CatalogoAlteradoEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } finally {
+            try {
+                cacheBuscaService.invalidar(event);
+            } finally {
+                versaoCatalogoService.onCatalogoAlterado(event);
+            }
+        }
+    }
+}
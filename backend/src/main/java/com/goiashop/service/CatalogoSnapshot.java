@@ -0,0 +1,176 @@
+package com.goiashop.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import com.goiashop.dto.ProdutoCatalogo;
+import com.goiashop.dto.ProdutoResumo;
+
+/**
+ * Fotografia imutável do catálogo público (apenas produtos ativos).
+ *
+ * Uma vez publicada nunca é alterada: cada escrita gera uma nova versão que copia só os
+ * blocos das listas que contêm os produtos alterados e compartilha todo o resto
+ * (ver {@link ListaEmBlocos}), inclusive as listas das categorias não afetadas.
+ */
+public final class CatalogoSnapshot {
+
+    private static final ToLongFunction<ProdutoCatalogo> ID_PRODUTO = produto -> produto.getId();
+    private static final ToLongFunction<ProdutoResumo> ID_RESUMO = resumo -> resumo.getId();
+
+    private final long versao;
+    private final ListaEmBlocos<ProdutoCatalogo> ativos; // ordenado por id desc
+    private final Map<Long, ListaEmBlocos<ProdutoCatalogo>> porCategoria;
+
+    // Projeções de listagem (grade da loja), na mesma ordem das listas acima
+    private final ListaEmBlocos<ProdutoResumo> resumosAtivos;
+    private final Map<Long, ListaEmBlocos<ProdutoResumo>> resumosPorCategoria;
+
+    private CatalogoSnapshot(long versao, ListaEmBlocos<ProdutoCatalogo> ativos,
+                             Map<Long, ListaEmBlocos<ProdutoCatalogo>> porCategoria,
+                             ListaEmBlocos<ProdutoResumo> resumosAtivos,
+                             Map<Long, ListaEmBlocos<ProdutoResumo>> resumosPorCategoria) {
+        this.versao = versao;
+        this.ativos = ativos;
+        this.porCategoria = Collections.unmodifiableMap(porCategoria);
+        this.resumosAtivos = resumosAtivos;
+        this.resumosPorCategoria = Collections.unmodifiableMap(resumosPorCategoria);
+    }
+
+    /**
+     * Snapshot vazio usado antes da carga inicial
+     */
+    public static CatalogoSnapshot vazio() {
+        return new CatalogoSnapshot(0L, ListaEmBlocos.vazia(ID_PRODUTO), new HashMap<>(),
+            ListaEmBlocos.vazia(ID_RESUMO), new HashMap<>());
+    }
+
+    /**
+     * Monta um snapshot completo a partir da lista de produtos ativos
+     */
+    public static CatalogoSnapshot de(long versao, Collection<ProdutoCatalogo> produtosAtivos) {
+        List<ProdutoResumo> resumos = new ArrayList<>(produtosAtivos.size());
+        Map<Long, List<ProdutoCatalogo>> categorias = new HashMap<>();
+        Map<Long, List<ProdutoResumo>> resumosCategorias = new HashMap<>();
+        for (ProdutoCatalogo produto : produtosAtivos) {
+            ProdutoResumo resumo = ProdutoResumo.of(produto);
+            resumos.add(resumo);
+            Long categoriaId = categoriaId(produto);
+            if (categoriaId != null) {
+                categorias.computeIfAbsent(categoriaId, k -> new ArrayList<>()).add(produto);
+                resumosCategorias.computeIfAbsent(categoriaId, k -> new ArrayList<>()).add(resumo);
+            }
+        }
+
+        Map<Long, ListaEmBlocos<ProdutoCatalogo>> porCategoria = new HashMap<>();
+        categorias.forEach((id, lista) -> porCategoria.put(id, ListaEmBlocos.de(lista, ID_PRODUTO)));
+        Map<Long, ListaEmBlocos<ProdutoResumo>> resumosPorCategoria = new HashMap<>();
+        resumosCategorias.forEach((id, lista) -> resumosPorCategoria.put(id, ListaEmBlocos.de(lista, ID_RESUMO)));
+
+        return new CatalogoSnapshot(versao, ListaEmBlocos.de(produtosAtivos, ID_PRODUTO), porCategoria,
+            ListaEmBlocos.de(resumos, ID_RESUMO), resumosPorCategoria);
+    }
+
+    /**
+     * Gera a próxima versão aplicando as alterações informadas.
+     *
+     * Custo proporcional ao número de alterações (e de categorias), não ao tamanho do catálogo.
+     *
+     * @param alteracoes id do produto -> nova visão, ou null quando o produto
+     *                   deixou de ser público (inativado ou removido)
+     */
+    public CatalogoSnapshot comAlteracoes(Map<Long, ProdutoCatalogo> alteracoes) {
+        Map<Long, ProdutoResumo> resumos = new HashMap<>();
+        // categoria -> alterações da lista da categoria (saída da anterior, entrada na nova)
+        Map<Long, Map<Long, ProdutoCatalogo>> categoriasAfetadas = new HashMap<>();
+        Map<Long, Map<Long, ProdutoResumo>> resumosAfetados = new HashMap<>();
+
+        for (Map.Entry<Long, ProdutoCatalogo> alteracao : alteracoes.entrySet()) {
+            Long id = alteracao.getKey();
+            ProdutoCatalogo novo = alteracao.getValue();
+            ProdutoResumo resumo = novo != null ? ProdutoResumo.of(novo) : null;
+            resumos.put(id, resumo);
+
+            ProdutoCatalogo anterior = ativos.buscar(id);
+            if (anterior != null && categoriaId(anterior) != null) {
+                categoriasAfetadas.computeIfAbsent(categoriaId(anterior), k -> new HashMap<>()).put(id, null);
+                resumosAfetados.computeIfAbsent(categoriaId(anterior), k -> new HashMap<>()).put(id, null);
+            }
+            if (novo != null && categoriaId(novo) != null) {
+                categoriasAfetadas.computeIfAbsent(categoriaId(novo), k -> new HashMap<>()).put(id, novo);
+                resumosAfetados.computeIfAbsent(categoriaId(novo), k -> new HashMap<>()).put(id, resumo);
+            }
+        }
+
+        // Apenas as categorias afetadas ganham listas novas; as demais são compartilhadas
+        Map<Long, ListaEmBlocos<ProdutoCatalogo>> categorias = new HashMap<>(porCategoria);
+        Map<Long, ListaEmBlocos<ProdutoResumo>> resumosCategorias = new HashMap<>(resumosPorCategoria);
+        for (Map.Entry<Long, Map<Long, ProdutoCatalogo>> categoria : categoriasAfetadas.entrySet()) {
+            Long categoriaId = categoria.getKey();
+            ListaEmBlocos<ProdutoCatalogo> lista = categorias
+                .getOrDefault(categoriaId, ListaEmBlocos.vazia(ID_PRODUTO))
+                .comAlteracoes(categoria.getValue());
+            if (lista.isEmpty()) {
+                categorias.remove(categoriaId);
+                resumosCategorias.remove(categoriaId);
+            } else {
+                categorias.put(categoriaId, lista);
+                resumosCategorias.put(categoriaId, resumosCategorias
+                    .getOrDefault(categoriaId, ListaEmBlocos.vazia(ID_RESUMO))
+                    .comAlteracoes(resumosAfetados.get(categoriaId)));
+            }
+        }
+
+        return new CatalogoSnapshot(versao + 1, ativos.comAlteracoes(alteracoes), categorias,
+            resumosAtivos.comAlteracoes(resumos), resumosCategorias);
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Produtos ativos ordenados por id decrescente
+     */
+    public List<ProdutoCatalogo> listarAtivos() {
+        return ativos;
+    }
+
+    public ProdutoCatalogo buscar(Long id) {
+        return id != null ? ativos.buscar(id) : null;
+    }
+
+    public List<ProdutoCatalogo> listarPorCategoria(Long categoriaId) {
+        List<ProdutoCatalogo> lista = porCategoria.get(categoriaId);
+        return lista != null ? lista : Collections.emptyList();
+    }
+
+    /**
+     * Projeção de listagem dos produtos ativos, ordenados por id decrescente
+     */
+    public List<ProdutoResumo> listarResumosAtivos() {
+        return resumosAtivos;
+    }
+
+    public ProdutoResumo buscarResumo(Long id) {
+        return id != null ? resumosAtivos.buscar(id) : null;
+    }
+
+    public List<ProdutoResumo> listarResumosPorCategoria(Long categoriaId) {
+        List<ProdutoResumo> lista = resumosPorCategoria.get(categoriaId);
+        return lista != null ? lista : Collections.emptyList();
+    }
+
+    public int tamanho() {
+        return ativos.size();
+    }
+
+    private static Long categoriaId(ProdutoCatalogo produto) {
+        return produto.getCategoria() != null ? produto.getCategoria().getId() : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.goiashop.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+import com.goiashop.model.Categoria;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA da entidade Categoria: toda escrita incrementa a versão da categoria
+ * (e, com ela, as ETags das listagens de categorias e do catálogo) e recarrega as
+ * categorias em memória.
+ *
+ * Instanciado pelo Hibernate através do container de beans do Spring.
+ */
+public class CategoriaAlteracaoListener {
+
+    @Autowired
+    private VersaoCatalogoService versaoCatalogoService;
+
+    // Lazy: o serviço depende de repositórios, que dependem do EntityManagerFactory que cria este listener
+    @Lazy
+    @Autowired
+    private CategoriaCatalogoService categoriaCatalogoService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onAlteracao(Categoria categoria) {
+        versaoCatalogoService.registrarAlteracaoCategoria(categoria.getId());
+        categoriaCatalogoService.registrarAlteracaoCategoria();
+    }
+}
@@ -0,0 +1,158 @@
+package com.goiashop.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.goiashop.dto.CategoriaCatalogo;
+import com.goiashop.dto.ProdutoCatalogo;
+import com.goiashop.model.Produto;
+import com.goiashop.repository.CategoriaRepository;
+
+/**
+ * Categorias ativas com contagens de produtos, mantidas em memória para as listagens de categorias.
+ *
+ * Os dados das categorias vêm do banco (na carga e a cada alteração de categoria); as contagens
+ * são recalculadas a partir do catálogo em memória, só para as categorias afetadas por cada
+ * {@link CatalogoAlteradoEvent}.
+ */
+@Service
+public class CategoriaCatalogoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoriaCatalogoService.class);
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    private final TransactionTemplate leituraTemplate;
+
+    // Ordenada por nome; substituída inteira a cada alteração
+    private volatile List<CategoriaCatalogo> categorias;
+
+    // Categoria de cada produto ativo (para recontar a categoria antiga na troca); protegido por "this"
+    private final Map<Long, Long> categoriaDoProduto = new HashMap<>();
+
+    public CategoriaCatalogoService(PlatformTransactionManager transactionManager) {
+        this.leituraTemplate = new TransactionTemplate(transactionManager);
+        this.leituraTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Categorias ativas ordenadas por nome, com as contagens atuais
+     */
+    public List<CategoriaCatalogo> listar() {
+        List<CategoriaCatalogo> atuais = categorias;
+        if (atuais == null) {
+            recarregar();
+            atuais = categorias;
+        }
+        return atuais;
+    }
+
+    /**
+     * Registra a alteração de uma categoria; com transação ativa, recarrega após o commit
+     */
+    public void registrarAlteracaoCategoria() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recarregar();
+                }
+            });
+        } else {
+            recarregar();
+        }
+    }
+
+    /**
+     * Recarrega categorias e contagens a partir do banco
+     */
+    public synchronized void recarregar() {
+        try {
+            List<CategoriaCatalogo> lidas = leituraTemplate.execute(
+                status -> categoriaRepository.findCategoriasAtivasComProdutos(Produto.ProdutoStatus.ATIVO));
+            categorias = List.copyOf(lidas);
+            logger.debug("Categorias carregadas: {}", lidas.size());
+        } catch (RuntimeException e) {
+            logger.error("Erro ao carregar categorias em memória: {}", e.getMessage(), e);
+            if (categorias == null) {
+                throw e;
+            }
+        }
+    }
+
+    @EventListener
+    public synchronized void onCatalogoAlterado(CatalogoAlteradoEvent event) {
+        if (event.isRecargaCompleta()) {
+            categoriaDoProduto.clear();
+            event.getProdutos().forEach((id, produto) -> {
+                Long categoriaId = categoriaAtiva(produto);
+                if (categoriaId != null) {
+                    categoriaDoProduto.put(id, categoriaId);
+                }
+            });
+            recarregar();
+            return;
+        }
+
+        Set<Long> afetadas = new HashSet<>();
+        event.getProdutos().forEach((id, produto) -> {
+            Long categoriaNova = categoriaAtiva(produto);
+            Long categoriaAnterior = categoriaNova != null
+                ? categoriaDoProduto.put(id, categoriaNova)
+                : categoriaDoProduto.remove(id);
+            if (categoriaAnterior != null) {
+                afetadas.add(categoriaAnterior);
+            }
+            if (categoriaNova != null) {
+                afetadas.add(categoriaNova);
+            }
+        });
+
+        List<CategoriaCatalogo> atuais = categorias;
+        if (afetadas.isEmpty() || atuais == null) {
+            return;
+        }
+
+        Map<Long, CategoriaCatalogo> porId = new LinkedHashMap<>();
+        for (CategoriaCatalogo categoria : atuais) {
+            porId.put(categoria.getId(), categoria);
+        }
+        for (Long categoriaId : afetadas) {
+            CategoriaCatalogo categoria = porId.get(categoriaId);
+            if (categoria == null) {
+                continue; // categoria inativa
+            }
+            List<ProdutoCatalogo> produtos = event.getSnapshot().listarPorCategoria(categoriaId);
+            long emEstoque = 0;
+            for (ProdutoCatalogo produto : produtos) {
+                if (produto.getQuantidadeEstoque() != null && produto.getQuantidadeEstoque() > 0) {
+                    emEstoque++;
+                }
+            }
+            porId.put(categoriaId, categoria.comContagens(produtos.size(), emEstoque));
+        }
+        categorias = List.copyOf(porId.values());
+    }
+
+    private static Long categoriaAtiva(ProdutoCatalogo produto) {
+        if (produto == null || produto.getStatus() != Produto.ProdutoStatus.ATIVO || produto.getCategoria() == null) {
+            return null;
+        }
+        return produto.getCategoria().getId();
+    }
+}
@@ -0,0 +1,557 @@
+package com.goiashop.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongPredicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.goiashop.util.MapaLongDouble;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * "Comprados juntos": matriz esparsa de coocorrência entre produtos dos pedidos pagos.
+ *
+ * Cada pedido que entra em um status de venda soma, para cada par de produtos do pedido,
+ * um peso que cresce com a data do pedido (decaimento exponencial "para frente": pedidos
+ * antigos pesam menos sem precisar reescrever a matriz); ao sair do status, o mesmo peso
+ * é subtraído. Cada produto guarda o seu top-k, recalculado só quando a linha muda.
+ *
+ * A matriz guarda o conjunto (bitmap) dos pedidos somados, o que torna a soma e a subtração
+ * idempotentes. Ela é salva em um arquivo compacto (gzip) a cada lote de pedidos e no
+ * desligamento; na subida, o bitmap lido é comparado com os pedidos pagos no banco: os pagos
+ * fora dele são somados e os que saíram do status são subtraídos, qualquer que seja o id ou a
+ * ordem das transições. Sem arquivo, é reconstruída a partir de pedido_itens.
+ */
+@Service
+public class CompradosJuntosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompradosJuntosService.class);
+
+    public static final int TOP_K = 12;
+
+    // Pedidos com muitos itens geram pares demais e pouca informação
+    private static final int MAXIMO_PRODUTOS_POR_PEDIDO = 50;
+    private static final long MEIA_VIDA_MS = 90L * 24 * 60 * 60 * 1000;
+    private static final double LAMBDA = Math.log(2) / MEIA_VIDA_MS;
+    // Renormaliza antes que os pesos cresçam demais (2^20)
+    private static final long RENORMALIZAR_APOS_MS = 20 * MEIA_VIDA_MS;
+    private static final int PEDIDOS_POR_GRAVACAO = 100;
+
+    private static final int FORMATO_ARQUIVO = 0x434A0003; // "CJ" v3 (com o bitmap de pedidos)
+    private static final int PEDIDOS_POR_CONSULTA = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.recomendacao.arquivo:data/comprados-juntos.bin}")
+    private String caminhoArquivo;
+
+    // Todo o estado abaixo é protegido por "this"
+    private final Map<Long, Linha> linhas = new HashMap<>();
+    private long referencia = System.currentTimeMillis();
+    // Pedidos somados à matriz, por id
+    private BitSet incluidos = new BitSet();
+    private int pedidosNaoGravados;
+    // Durante uma carga, os pedidos ao vivo esperam aqui e são aplicados sobre a matriz nova
+    private List<Runnable> pendentes;
+    // Só grava depois de carregar, para não sobrescrever o arquivo com uma matriz vazia
+    private volatile boolean carregado;
+
+    private final ExecutorService gravacao = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "comprados-juntos-gravacao");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Carrega a matriz do arquivo ou, se não houver, reconstrói a partir dos pedidos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarInicial() {
+        Path arquivo = Paths.get(caminhoArquivo);
+        iniciarCarga();
+        try {
+            if (Files.exists(arquivo)) {
+                carregarArquivo(arquivo);
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Arquivo de coocorrência inválido ({}), reconstruindo: {}", arquivo, e.getMessage());
+        }
+        reconstruir();
+    }
+
+    /**
+     * Relê todos os pedidos pagos e recria a matriz
+     */
+    public void reconstruir() {
+        iniciarCarga();
+        long inicio = System.currentTimeMillis();
+        Map<Long, Linha> novas = new HashMap<>();
+        BitSet novosIncluidos = new BitSet();
+        long novaReferencia = System.currentTimeMillis();
+        long lidos;
+        try {
+            lidos = somarPedidos(novas, novosIncluidos, "p.status IN (" + statusDeVenda() + ")",
+                new Object[0], 1, novaReferencia);
+        } catch (Exception e) {
+            logger.error("Erro ao reconstruir coocorrência de produtos: {}", e.getMessage(), e);
+            concluirCarga(null, null, 0L);
+            return;
+        }
+
+        concluirCarga(novas, novosIncluidos, novaReferencia);
+        logger.info("Coocorrência reconstruída: {} pedidos, {} produtos em {} ms",
+            lidos, novas.size(), System.currentTimeMillis() - inicio);
+        agendarGravacao();
+    }
+
+    /**
+     * Soma (sinal 1) ou subtrai (sinal -1) no destino os pares dos pedidos que passam no filtro,
+     * marcando ou desmarcando cada um no bitmap
+     *
+     * @return quantidade de pedidos lidos
+     */
+    private long somarPedidos(Map<Long, Linha> destino, BitSet marcados, String filtro, Object[] parametros,
+                              int sinal, long referenciaPesos) {
+        long[] lidos = { 0, 0 };
+        long[] dataAtual = { 0 };
+        Set<Long> produtosDoPedido = new LinkedHashSet<>();
+        jdbcTemplate.query("SELECT p.id, p.created_at, i.produto_id FROM pedidos p "
+            + "JOIN pedido_itens i ON i.pedido_id = p.id WHERE " + filtro + " ORDER BY p.id",
+            rs -> {
+                long pedidoId = rs.getLong(1);
+                if (pedidoId != lidos[1]) {
+                    somarPares(destino, produtosDoPedido, sinal * peso(dataAtual[0], referenciaPesos));
+                    produtosDoPedido.clear();
+                    lidos[1] = pedidoId;
+                    dataAtual[0] = rs.getTimestamp(2).getTime();
+                    lidos[0]++;
+                    int indice = indice(pedidoId);
+                    if (indice >= 0) {
+                        marcados.set(indice, sinal > 0);
+                    }
+                }
+                produtosDoPedido.add(rs.getLong(3));
+            }, parametros);
+        somarPares(destino, produtosDoPedido, sinal * peso(dataAtual[0], referenciaPesos));
+        return lidos[0];
+    }
+
+    /**
+     * Acerta a matriz lida do arquivo com os pedidos pagos no banco
+     *
+     * @return quantidade de pedidos somados ou subtraídos
+     */
+    private long reconciliar(Map<Long, Linha> destino, BitSet marcados, long referenciaPesos) {
+        BitSet pagos = new BitSet();
+        jdbcTemplate.query("SELECT id FROM pedidos WHERE status IN (" + statusDeVenda() + ")", rs -> {
+            int indice = indice(rs.getLong(1));
+            if (indice >= 0) {
+                pagos.set(indice);
+            }
+        });
+
+        BitSet somar = (BitSet) pagos.clone();
+        somar.andNot(marcados);
+        BitSet subtrair = (BitSet) marcados.clone();
+        subtrair.andNot(pagos);
+
+        long alterados = somarPorIds(destino, marcados, somar, 1, referenciaPesos)
+            + somarPorIds(destino, marcados, subtrair, -1, referenciaPesos);
+        // Pedidos sem itens (ou apagados) também ficam acertados, para não voltarem na próxima subida
+        marcados.andNot(subtrair);
+        marcados.or(somar);
+        return alterados;
+    }
+
+    private long somarPorIds(Map<Long, Linha> destino, BitSet marcados, BitSet pedidos, int sinal, long referenciaPesos) {
+        long lidos = 0;
+        List<Object> lote = new ArrayList<>(PEDIDOS_POR_CONSULTA);
+        for (int i = pedidos.nextSetBit(0); i >= 0; i = pedidos.nextSetBit(i + 1)) {
+            lote.add((long) i);
+            if (lote.size() == PEDIDOS_POR_CONSULTA || pedidos.nextSetBit(i + 1) < 0) {
+                String marcadores = String.join(", ", Collections.nCopies(lote.size(), "?"));
+                lidos += somarPedidos(destino, marcados, "p.id IN (" + marcadores + ")", lote.toArray(),
+                    sinal, referenciaPesos);
+                lote.clear();
+            }
+        }
+        return lidos;
+    }
+
+    private static String statusDeVenda() {
+        return "'" + String.join("', '", VendasProdutoService.statusQueContamComoVenda()) + "'";
+    }
+
+    /**
+     * Posição do pedido no bitmap (-1 se o id não cabe nele; o pedido então não é controlado)
+     */
+    private static int indice(long pedidoId) {
+        return pedidoId > 0 && pedidoId <= Integer.MAX_VALUE ? (int) pedidoId : -1;
+    }
+
+    private synchronized void iniciarCarga() {
+        if (pendentes == null) {
+            pendentes = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Troca a matriz pela carregada (ou mantém a atual, se novas for null) e aplica sobre ela os
+     * pedidos recebidos durante a carga; os já contados pela carga são ignorados pelo bitmap
+     */
+    private void concluirCarga(Map<Long, Linha> novas, BitSet novosIncluidos, long novaReferencia) {
+        List<Runnable> atrasados;
+        synchronized (this) {
+            if (novas != null) {
+                linhas.clear();
+                linhas.putAll(novas);
+                incluidos = novosIncluidos;
+                referencia = novaReferencia;
+                carregado = true;
+            }
+            atrasados = pendentes != null ? pendentes : List.of();
+            pendentes = null;
+        }
+        atrasados.forEach(Runnable::run);
+    }
+
+    /**
+     * Soma (sinal 1) ou subtrai (sinal -1) os pares de produtos de um pedido; com transação ativa,
+     * só após o commit
+     */
+    public void registrarPedido(Long pedidoId, Collection<Long> produtoIds, int sinal, LocalDateTime dataPedido) {
+        // Pedidos de um produto não formam pares, mas com id entram no bitmap
+        if (produtoIds.size() < 2 && pedidoId == null) {
+            return;
+        }
+        long id = pedidoId != null ? pedidoId : 0L;
+        List<Long> produtos = List.copyOf(new LinkedHashSet<>(produtoIds));
+        long instante = dataPedido != null
+            ? dataPedido.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+            : System.currentTimeMillis();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(id, produtos, sinal, instante);
+                }
+            });
+        } else {
+            aplicar(id, produtos, sinal, instante);
+        }
+    }
+
+    /**
+     * Até limite produtos mais comprados junto com o produto, do mais forte ao mais fraco,
+     * pulando os que não passam no filtro (por exemplo, inativos na loja)
+     */
+    public synchronized List<Long> listar(Long produtoId, int limite, LongPredicate filtro) {
+        Linha linha = produtoId != null ? linhas.get(produtoId) : null;
+        if (linha == null || limite <= 0) {
+            return List.of();
+        }
+        long[] topo = linha.topo();
+        List<Long> resultado = new ArrayList<>(Math.min(limite, topo.length));
+        for (int i = 0; i < topo.length && resultado.size() < limite; i++) {
+            if (filtro.test(topo[i])) {
+                resultado.add(topo[i]);
+            }
+        }
+        return resultado;
+    }
+
+    private void aplicar(long pedidoId, List<Long> produtos, int sinal, long instante) {
+        boolean gravar;
+        synchronized (this) {
+            if (pendentes != null) {
+                pendentes.add(() -> aplicar(pedidoId, produtos, sinal, instante));
+                return;
+            }
+            int indice = indice(pedidoId);
+            if (indice >= 0) {
+                // Idempotente: um pedido só é somado se não estiver no bitmap, e subtraído se estiver
+                if (incluidos.get(indice) == sinal > 0) {
+                    return;
+                }
+                incluidos.set(indice, sinal > 0);
+            }
+            long agora = System.currentTimeMillis();
+            if (agora - referencia > RENORMALIZAR_APOS_MS) {
+                double fator = peso(referencia, agora);
+                linhas.values().forEach(linha -> linha.multiplicar(fator));
+                referencia = agora;
+            }
+            somarPares(linhas, produtos, sinal * peso(instante, referencia));
+            gravar = ++pedidosNaoGravados >= PEDIDOS_POR_GRAVACAO;
+            if (gravar) {
+                pedidosNaoGravados = 0;
+            }
+        }
+        if (gravar) {
+            agendarGravacao();
+        }
+    }
+
+    private static void somarPares(Map<Long, Linha> linhas, Collection<Long> produtos, double peso) {
+        if (produtos.size() < 2) {
+            return;
+        }
+        Long[] ids = produtos.stream().limit(MAXIMO_PRODUTOS_POR_PEDIDO).toArray(Long[]::new);
+        for (Long a : ids) {
+            Linha linha = linhas.computeIfAbsent(a, id -> new Linha());
+            for (Long b : ids) {
+                if (!a.equals(b)) {
+                    linha.somar(b, peso);
+                }
+            }
+        }
+    }
+
+    /**
+     * Peso de um pedido no instante informado, relativo à referência: 2^((instante - referência) / meia-vida)
+     */
+    private static double peso(long instante, long referencia) {
+        return Math.exp(LAMBDA * (instante - referencia));
+    }
+
+    private void agendarGravacao() {
+        try {
+            gravacao.execute(this::gravar);
+        } catch (RuntimeException e) {
+            logger.debug("Gravação da coocorrência não agendada: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Grava a matriz em arquivo temporário e o move sobre o anterior
+     *
+     * Sob a trava só copia os pesos para arrays; compressão e escrita ficam fora dela.
+     */
+    void gravar() {
+        if (!carregado) {
+            return;
+        }
+        long referenciaGravada;
+        long[] incluidosGravados;
+        List<LinhaGravada> copia;
+        synchronized (this) {
+            referenciaGravada = referencia;
+            incluidosGravados = incluidos.toLongArray();
+            copia = new ArrayList<>(linhas.size());
+            for (Map.Entry<Long, Linha> entrada : linhas.entrySet()) {
+                copia.add(entrada.getValue().copiar(entrada.getKey()));
+            }
+        }
+
+        Path arquivo = Paths.get(caminhoArquivo);
+        try {
+            Path pasta = arquivo.toAbsolutePath().getParent();
+            Files.createDirectories(pasta);
+            Path temporario = Files.createTempFile(pasta, "comprados-juntos", ".tmp");
+            try (DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temporario))))) {
+                saida.writeInt(FORMATO_ARQUIVO);
+                saida.writeLong(referenciaGravada);
+                saida.writeInt(incluidosGravados.length);
+                for (long palavra : incluidosGravados) {
+                    saida.writeLong(palavra);
+                }
+                saida.writeInt(copia.size());
+                for (LinhaGravada linha : copia) {
+                    linha.gravar(saida);
+                }
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Coocorrência gravada em {}", arquivo);
+        } catch (IOException e) {
+            logger.error("Erro ao gravar coocorrência em {}: {}", arquivo, e.getMessage(), e);
+        }
+    }
+
+    private void carregarArquivo(Path arquivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(arquivo))))) {
+            if (entrada.readInt() != FORMATO_ARQUIVO) {
+                throw new IOException("formato desconhecido");
+            }
+            long referenciaArquivo = entrada.readLong();
+            long[] palavras = new long[entrada.readInt()];
+            for (int i = 0; i < palavras.length; i++) {
+                palavras[i] = entrada.readLong();
+            }
+            BitSet incluidosArquivo = BitSet.valueOf(palavras);
+            int quantidade = entrada.readInt();
+            Map<Long, Linha> lidas = new HashMap<>(quantidade * 2);
+            for (int i = 0; i < quantidade; i++) {
+                long produtoId = entrada.readLong();
+                lidas.put(produtoId, Linha.ler(entrada));
+            }
+
+            // Pedidos pagos ou cancelados depois da última gravação (desligamento sem gravar, lote incompleto)
+            long alterados = reconciliar(lidas, incluidosArquivo, referenciaArquivo);
+            concluirCarga(lidas, incluidosArquivo, referenciaArquivo);
+            logger.info("Coocorrência carregada de {}: {} produtos, {} pedidos acertados com o banco",
+                arquivo, quantidade, alterados);
+            if (alterados > 0) {
+                agendarGravacao();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        gravacao.shutdown();
+        gravar();
+    }
+
+    /**
+     * Linha da matriz: pesos dos produtos comprados junto com um produto e o top-k em cache
+     */
+    private static final class Linha {
+        private final MapaLongDouble pesos;
+        private long[] topo;
+
+        Linha() {
+            this(new MapaLongDouble());
+        }
+
+        private Linha(MapaLongDouble pesos) {
+            this.pesos = pesos;
+        }
+
+        void somar(long produtoId, double peso) {
+            pesos.somar(produtoId, peso);
+            topo = null;
+        }
+
+        void multiplicar(double fator) {
+            pesos.multiplicar(fator);
+        }
+
+        /**
+         * Top-k da linha, recalculado só se a linha mudou desde a última leitura
+         */
+        long[] topo() {
+            if (topo == null) {
+                topo = calcularTopo();
+            }
+            return topo;
+        }
+
+        private long[] calcularTopo() {
+            // Seleção parcial: mantém os k maiores em ordem decrescente
+            long[] ids = new long[TOP_K];
+            double[] valores = new double[TOP_K];
+            int quantidade = 0;
+            for (int i = 0; i < pesos.capacidade(); i++) {
+                long id = pesos.chaveEm(i);
+                double valor = pesos.valorEm(i);
+                // Descarta pares desfeitos (resíduo de ponto flutuante)
+                if (id == 0 || valor <= 1e-9) {
+                    continue;
+                }
+                if (quantidade == TOP_K && valor <= valores[TOP_K - 1]) {
+                    continue;
+                }
+                int posicao = quantidade < TOP_K ? quantidade++ : TOP_K - 1;
+                while (posicao > 0 && valores[posicao - 1] < valor) {
+                    ids[posicao] = ids[posicao - 1];
+                    valores[posicao] = valores[posicao - 1];
+                    posicao--;
+                }
+                ids[posicao] = id;
+                valores[posicao] = valor;
+            }
+            return Arrays.copyOf(ids, quantidade);
+        }
+
+        /**
+         * Cópia compacta dos pesos válidos, para gravar fora da trava
+         */
+        LinhaGravada copiar(long produtoId) {
+            int validos = 0;
+            for (int i = 0; i < pesos.capacidade(); i++) {
+                if (pesos.chaveEm(i) != 0 && pesos.valorEm(i) > 1e-9) {
+                    validos++;
+                }
+            }
+            long[] ids = new long[validos];
+            double[] valores = new double[validos];
+            int posicao = 0;
+            for (int i = 0; i < pesos.capacidade(); i++) {
+                if (pesos.chaveEm(i) != 0 && pesos.valorEm(i) > 1e-9) {
+                    ids[posicao] = pesos.chaveEm(i);
+                    valores[posicao++] = pesos.valorEm(i);
+                }
+            }
+            return new LinhaGravada(produtoId, ids, valores);
+        }
+
+        static Linha ler(DataInputStream entrada) throws IOException {
+            int quantidade = entrada.readInt();
+            MapaLongDouble pesos = new MapaLongDouble(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                pesos.somar(entrada.readLong(), entrada.readDouble());
+            }
+            return new Linha(pesos);
+        }
+    }
+
+    private static final class LinhaGravada {
+        private final long produtoId;
+        private final long[] ids;
+        private final double[] valores;
+
+        LinhaGravada(long produtoId, long[] ids, double[] valores) {
+            this.produtoId = produtoId;
+            this.ids = ids;
+            this.valores = valores;
+        }
+
+        void gravar(DataOutputStream saida) throws IOException {
+            saida.writeLong(produtoId);
+            saida.writeInt(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                saida.writeLong(ids[i]);
+                saida.writeDouble(valores[i]);
+            }
+        }
+    }
+}
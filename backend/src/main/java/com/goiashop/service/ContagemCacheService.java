@@ -0,0 +1,53 @@
+package com.goiashop.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Cache de contagens (COUNT(*)) usadas nas listagens paginadas por cursor.
+ *
+ * As contagens ficam válidas por alguns segundos, por isso o total retornado
+ * ao cliente é aproximado. Evita um COUNT(*) a cada página navegada.
+ */
+@Service
+public class ContagemCacheService {
+
+    private static final long VALIDADE_MS = 60_000;
+    private static final int MAXIMO_ENTRADAS = 1_000;
+
+    private final Map<String, Contagem> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Retorna a contagem em cache para a chave, recalculando se expirada
+     *
+     * @param chave Identifica a listagem e seus filtros (ex: "produtos|ATIVO|3")
+     * @param contar Consulta de contagem executada quando não há valor válido
+     */
+    public long obter(String chave, Supplier<Long> contar) {
+        long agora = System.currentTimeMillis();
+        Contagem atual = cache.get(chave);
+        if (atual != null && atual.expiraEm > agora) {
+            return atual.valor;
+        }
+
+        long valor = contar.get();
+        if (cache.size() >= MAXIMO_ENTRADAS) {
+            cache.clear();
+        }
+        cache.put(chave, new Contagem(valor, agora + VALIDADE_MS));
+        return valor;
+    }
+
+    private static final class Contagem {
+        private final long valor;
+        private final long expiraEm;
+
+        Contagem(long valor, long expiraEm) {
+            this.valor = valor;
+            this.expiraEm = expiraEm;
+        }
+    }
+}
@@ -22,6 +22,9 @@ public class EstoqueMovimentoService {
     @Autowired
     private ProdutoRepository produtoRepository;
     
+    @Autowired
+    private CatalogoService catalogoService;
+    
     /**
      * Debita estoque para uma venda
      */
@@ -40,6 +43,7 @@ public class EstoqueMovimentoService {
         int novoSaldo = saldoAnterior - quantity;
         produto.setQuantidadeEstoque(novoSaldo);
         produtoRepository.save(produto);
+        catalogoService.registrarAlteracao(produtoId);
         
         // TODO: Salvar movimento na tabela estoque_movimento quando implementada
         
@@ -59,6 +63,7 @@ public class EstoqueMovimentoService {
         
         produto.setQuantidadeEstoque(novoSaldo);
         produtoRepository.save(produto);
+        catalogoService.registrarAlteracao(produtoId);
         
         // TODO: Salvar movimento na tabela estoque_movimento quando implementada
         
@@ -0,0 +1,236 @@
+package com.goiashop.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goiashop.dto.ProdutoResumo;
+
+/**
+ * Exportação de listagens grandes em NDJSON (um objeto JSON por linha).
+ *
+ * As linhas são escritas direto na resposta à medida que são lidas, sem montar a lista
+ * inteira em memória: do snapshot do catálogo para os produtos e de um cursor JDBC
+ * somente-avanço para auditoria e pedidos. O primeiro byte sai logo após a primeira linha.
+ */
+@Service
+public class ExportacaoNdjsonService {
+
+    // Linhas entre cada flush da resposta
+    private static final int LINHAS_POR_FLUSH = 500;
+    private static final int TAMANHO_LOTE_CURSOR = 1000;
+
+    private static final String SELECT_AUDITORIA =
+        "SELECT id, user_id, action, table_name, record_id, changes, created_at FROM audit_logs " +
+        "WHERE created_at BETWEEN ? AND ? ORDER BY created_at DESC, id DESC";
+
+    // Uma linha por item; as linhas do mesmo pedido chegam juntas e formam um único objeto
+    private static final String SELECT_PEDIDOS =
+        "SELECT p.id, p.numero_pedido, p.status, p.valor_total, p.items_total, p.shipping_price, p.total_amount, " +
+        "p.payment_method, p.forma_pagamento, p.shipping_service, p.shipping_deadline, p.entrega_cidade, " +
+        "p.entrega_estado, p.created_at, p.updated_at, c.id, c.nome, c.email, " +
+        "i.id, i.produto_id, i.produto_nome, i.quantidade, i.preco_unitario, i.preco_total " +
+        "FROM pedidos p JOIN clientes c ON c.id = p.cliente_id " +
+        "LEFT JOIN pedido_itens i ON i.pedido_id = p.id " +
+        "ORDER BY p.created_at DESC, p.id DESC, i.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogoService catalogoService;
+
+    /**
+     * Indica se o cliente pediu NDJSON no cabeçalho Accept
+     */
+    public static boolean aceitaNdjson(String accept) {
+        return accept != null && accept.toLowerCase().contains(MediaType.APPLICATION_NDJSON_VALUE);
+    }
+
+    /**
+     * Produtos ativos (mesmo formato de /api/produtos/public), lidos do snapshot em memória
+     */
+    public StreamingResponseBody produtosAtivos() {
+        CatalogoSnapshot snapshot = catalogoService.getSnapshot();
+        return saida -> {
+            try (JsonGenerator gerador = criarGerador(saida)) {
+                int linhas = 0;
+                for (ProdutoResumo produto : snapshot.listarResumosAtivos()) {
+                    gerador.writeObject(produto);
+                    linhas = terminarLinha(gerador, linhas);
+                }
+            }
+        };
+    }
+
+    /**
+     * Logs de auditoria do período, do mais recente para o mais antigo
+     */
+    public StreamingResponseBody auditoria(LocalDateTime inicio, LocalDateTime fim) {
+        return saida -> {
+            try (JsonGenerator gerador = criarGerador(saida)) {
+                int[] linhas = {0};
+                consultar(SELECT_AUDITORIA, rs -> {
+                    gerador.writeStartObject();
+                    gerador.writeNumberField("id", rs.getLong(1));
+                    escreverLong(gerador, "userId", rs, 2);
+                    gerador.writeStringField("action", rs.getString(3));
+                    gerador.writeStringField("tableName", rs.getString(4));
+                    escreverLong(gerador, "recordId", rs, 5);
+                    gerador.writeStringField("changes", rs.getString(6));
+                    escreverData(gerador, "createdAt", rs.getTimestamp(7));
+                    gerador.writeEndObject();
+                    linhas[0] = terminarLinha(gerador, linhas[0]);
+                }, Timestamp.valueOf(inicio), Timestamp.valueOf(fim));
+            }
+        };
+    }
+
+    /**
+     * Todos os pedidos (mais recentes primeiro) com cliente e itens
+     */
+    public StreamingResponseBody pedidos() {
+        return saida -> {
+            try (JsonGenerator gerador = criarGerador(saida)) {
+                long[] pedidoAtual = {0L};
+                int[] linhas = {0};
+                consultar(SELECT_PEDIDOS, rs -> {
+                    long pedidoId = rs.getLong(1);
+                    if (pedidoId != pedidoAtual[0]) {
+                        if (pedidoAtual[0] != 0L) {
+                            fecharPedido(gerador);
+                            linhas[0] = terminarLinha(gerador, linhas[0]);
+                        }
+                        pedidoAtual[0] = pedidoId;
+                        abrirPedido(gerador, rs);
+                    }
+                    if (rs.getObject(19) != null) {
+                        gerador.writeStartObject();
+                        gerador.writeNumberField("id", rs.getLong(19));
+                        escreverLong(gerador, "produtoId", rs, 20);
+                        gerador.writeStringField("produtoNome", rs.getString(21));
+                        escreverLong(gerador, "quantidade", rs, 22);
+                        gerador.writeObjectField("precoUnitario", rs.getBigDecimal(23));
+                        gerador.writeObjectField("precoTotal", rs.getBigDecimal(24));
+                        gerador.writeEndObject();
+                    }
+                });
+                if (pedidoAtual[0] != 0L) {
+                    fecharPedido(gerador);
+                    terminarLinha(gerador, linhas[0]);
+                }
+            }
+        };
+    }
+
+    private static void abrirPedido(JsonGenerator gerador, ResultSet rs) throws IOException, SQLException {
+        gerador.writeStartObject();
+        gerador.writeNumberField("id", rs.getLong(1));
+        gerador.writeStringField("numeroPedido", rs.getString(2));
+        gerador.writeStringField("status", rs.getString(3));
+        gerador.writeObjectField("valorTotal", rs.getBigDecimal(4));
+        gerador.writeObjectField("itemsTotal", rs.getBigDecimal(5));
+        gerador.writeObjectField("shippingPrice", rs.getBigDecimal(6));
+        gerador.writeObjectField("totalAmount", rs.getBigDecimal(7));
+        gerador.writeStringField("paymentMethod", rs.getString(8));
+        gerador.writeStringField("formaPagamento", rs.getString(9));
+        gerador.writeStringField("shippingService", rs.getString(10));
+        escreverLong(gerador, "shippingDeadline", rs, 11);
+        gerador.writeStringField("entregaCidade", rs.getString(12));
+        gerador.writeStringField("entregaEstado", rs.getString(13));
+        escreverData(gerador, "createdAt", rs.getTimestamp(14));
+        escreverData(gerador, "updatedAt", rs.getTimestamp(15));
+        gerador.writeObjectFieldStart("cliente");
+        gerador.writeNumberField("id", rs.getLong(16));
+        gerador.writeStringField("nome", rs.getString(17));
+        gerador.writeStringField("email", rs.getString(18));
+        gerador.writeEndObject();
+        gerador.writeArrayFieldStart("itens");
+    }
+
+    private static void fecharPedido(JsonGenerator gerador) throws IOException {
+        gerador.writeEndArray();
+        gerador.writeEndObject();
+    }
+
+    /**
+     * Percorre a consulta com um cursor somente-avanço, entregando uma linha por vez
+     */
+    private void consultar(String sql, Linha linha, Object... parametros) throws IOException {
+        try {
+            jdbcTemplate.query((Connection conexao) -> {
+                PreparedStatement ps = conexao.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                // No MySQL, Integer.MIN_VALUE faz o driver entregar as linhas uma a uma, sem carregar tudo
+                boolean mysql = conexao.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+                ps.setFetchSize(mysql ? Integer.MIN_VALUE : TAMANHO_LOTE_CURSOR);
+                for (int i = 0; i < parametros.length; i++) {
+                    ps.setObject(i + 1, parametros[i]);
+                }
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    linha.escrever(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Cliente desconectou ou falha de escrita: interrompe a consulta
+            throw e.getCause();
+        }
+    }
+
+    private JsonGenerator criarGerador(OutputStream saida) throws IOException {
+        JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida);
+        gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Sem separador entre objetos raiz: cada um termina com a quebra de linha
+        gerador.setRootValueSeparator(null);
+        return gerador;
+    }
+
+    private static int terminarLinha(JsonGenerator gerador, int linhas) throws IOException {
+        gerador.writeRaw('\n');
+        linhas++;
+        if (linhas == 1 || linhas % LINHAS_POR_FLUSH == 0) {
+            gerador.flush();
+        }
+        return linhas;
+    }
+
+    private static void escreverLong(JsonGenerator gerador, String campo, ResultSet rs, int coluna)
+            throws IOException, SQLException {
+        long valor = rs.getLong(coluna);
+        if (rs.wasNull()) {
+            gerador.writeNullField(campo);
+        } else {
+            gerador.writeNumberField(campo, valor);
+        }
+    }
+
+    private static void escreverData(JsonGenerator gerador, String campo, Timestamp valor) throws IOException {
+        gerador.writeObjectField(campo, valor != null ? valor.toLocalDateTime() : null);
+    }
+
+    @FunctionalInterface
+    private interface Linha {
+        void escrever(ResultSet rs) throws IOException, SQLException;
+    }
+}
@@ -0,0 +1,446 @@
+package com.goiashop.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.goiashop.dto.AlteracaoProduto;
+import com.goiashop.dto.ProdutoCatalogo;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Feed de alterações de produtos para invalidação precisa de caches (clientes e outros nós).
+ *
+ * A cada {@link CatalogoAlteradoEvent} (após o commit das escritas) compara o produto com a
+ * versão anterior e publica um evento com os campos alterados. Os últimos eventos ficam em
+ * memória para que um assinante retome a partir do último id visto; se isso não for possível
+ * (histórico descartado ou servidor reiniciado), recebe um evento RESET.
+ *
+ * Cada assinatura tem uma fila limitada, esvaziada por um pequeno pool de threads (no máximo
+ * uma tarefa por assinatura, preservando a ordem): um cliente lento não atrasa os demais e,
+ * se acumular mais que a fila comporta, o atraso é descartado e ele recebe um RESET. O número
+ * de streams SSE simultâneos é limitado por {@code app.feed.alteracoes.max-streams}.
+ */
+@Service
+public class FeedAlteracoesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedAlteracoesService.class);
+
+    private static final int CAPACIDADE_HISTORICO = 10_000;
+    private static final long TIMEOUT_SSE_MS = 30 * 60 * 1000L;
+    private static final long INTERVALO_HEARTBEAT_S = 20;
+    private static final int CAPACIDADE_FILA_ASSINANTE = 1_000;
+
+    private final String inicio = Long.toString(System.currentTimeMillis(), 36);
+
+    // Protegidos por "trava"
+    private final Object trava = new Object();
+    private final ArrayDeque<AlteracaoProduto> historico = new ArrayDeque<>();
+    private final Map<Long, ProdutoCatalogo> estadoAtual = new HashMap<>();
+    private long versao;
+    private boolean carregado;
+
+    private final List<Assinatura> assinaturas = new CopyOnWriteArrayList<>();
+    private final AtomicInteger streamsAbertos = new AtomicInteger();
+    private final int maximoStreams;
+
+    // Esvazia as filas das assinaturas; cada uma tem no máximo uma tarefa pendente
+    private final ThreadPoolExecutor entrega;
+
+    // Só agenda os heartbeats (o envio passa pela fila da assinatura)
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "feed-alteracoes-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FeedAlteracoesService(@Value("${app.feed.alteracoes.threads:4}") int threads,
+                                 @Value("${app.feed.alteracoes.max-streams:200}") int maximoStreams) {
+        this.maximoStreams = maximoStreams;
+        AtomicInteger contador = new AtomicInteger();
+        this.entrega = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), tarefa -> {
+                Thread thread = new Thread(tarefa, "feed-alteracoes-" + contador.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @EventListener
+    public void onCatalogoAlterado(CatalogoAlteradoEvent event) {
+        synchronized (trava) {
+            if (event.isRecargaCompleta() && !carregado) {
+                // Carga inicial: só registra o estado, não há o que notificar
+                event.getProdutos().forEach((id, produto) -> {
+                    if (produto != null) {
+                        estadoAtual.put(id, produto);
+                    }
+                });
+                carregado = true;
+                return;
+            }
+
+            Map<Long, ProdutoCatalogo> produtos = new HashMap<>(event.getProdutos());
+            if (event.isRecargaCompleta()) {
+                // Produtos ausentes da recarga foram removidos
+                for (Long id : estadoAtual.keySet()) {
+                    produtos.putIfAbsent(id, null);
+                }
+            }
+
+            List<AlteracaoProduto> novas = new ArrayList<>();
+            for (Map.Entry<Long, ProdutoCatalogo> entrada : produtos.entrySet()) {
+                Long id = entrada.getKey();
+                ProdutoCatalogo novo = entrada.getValue();
+                ProdutoCatalogo anterior = novo != null ? estadoAtual.put(id, novo) : estadoAtual.remove(id);
+
+                if (anterior == null && novo == null) {
+                    continue;
+                }
+                if (anterior == null) {
+                    novas.add(registrar(AlteracaoProduto.TIPO_CRIADO, id, null));
+                } else if (novo == null) {
+                    novas.add(registrar(AlteracaoProduto.TIPO_REMOVIDO, id, null));
+                } else {
+                    List<String> campos = camposAlterados(anterior, novo);
+                    if (!campos.isEmpty()) {
+                        novas.add(registrar(AlteracaoProduto.TIPO_ALTERADO, id, campos));
+                    }
+                }
+            }
+
+            if (!novas.isEmpty()) {
+                for (Assinatura assinatura : assinaturas) {
+                    assinatura.enfileirar(novas);
+                }
+            }
+        }
+    }
+
+    /**
+     * Assina o feed no processo. Recebe primeiro as alterações posteriores a ultimoId
+     * (ou um RESET, se não for possível retomar) e depois as novas, em ordem.
+     *
+     * @param ultimoId Id do último evento recebido; null para receber só as novas
+     */
+    public Assinatura assinar(String ultimoId, Consumer<AlteracaoProduto> ouvinte) {
+        return assinar(ultimoId, ouvinte, false);
+    }
+
+    private Assinatura assinar(String ultimoId, Consumer<AlteracaoProduto> ouvinte, boolean stream) {
+        synchronized (trava) {
+            if (stream && streamsAbertos.get() >= maximoStreams) {
+                return null;
+            }
+            Assinatura assinatura = new Assinatura(ouvinte, stream);
+            if (stream) {
+                streamsAbertos.incrementAndGet();
+            }
+            assinaturas.add(assinatura);
+            List<AlteracaoProduto> pendentes = desde(ultimoId);
+            if (!pendentes.isEmpty()) {
+                assinatura.enfileirar(pendentes);
+            }
+            return assinatura;
+        }
+    }
+
+    /**
+     * Abre um stream SSE do feed, retomando a partir de ultimoId
+     *
+     * @return null se o limite de streams simultâneos foi atingido
+     */
+    public SseEmitter abrirStream(String ultimoId) {
+        SseEmitter emitter = new SseEmitter(TIMEOUT_SSE_MS);
+
+        Assinatura assinatura = assinar(ultimoId, alteracao -> {
+            try {
+                emitter.send(SseEmitter.event()
+                    .id(alteracao.getId())
+                    .name(AlteracaoProduto.TIPO_RESET.equals(alteracao.getTipo()) ? "reset" : "produto")
+                    .data(alteracao, MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cliente do feed desconectado", e);
+            }
+        }, true);
+        if (assinatura == null) {
+            return null;
+        }
+
+        // Comentário periódico para manter a conexão aberta em proxies
+        assinatura.aoPing(() -> {
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cliente do feed desconectado", e);
+            }
+        });
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(assinatura::ping,
+            INTERVALO_HEARTBEAT_S, INTERVALO_HEARTBEAT_S, TimeUnit.SECONDS);
+
+        assinatura.aoCancelar(() -> {
+            heartbeat.cancel(false);
+            emitter.complete();
+        });
+        emitter.onCompletion(assinatura::cancelar);
+        emitter.onTimeout(assinatura::cancelar);
+        emitter.onError(erro -> assinatura.cancelar());
+        return emitter;
+    }
+
+    /**
+     * Id do evento mais recente (para o cliente começar sem histórico)
+     */
+    public String getUltimoId() {
+        synchronized (trava) {
+            return id(versao);
+        }
+    }
+
+    /**
+     * Alterações posteriores ao id informado, ou um único RESET se não for possível retomar
+     */
+    private List<AlteracaoProduto> desde(String ultimoId) {
+        if (ultimoId == null || ultimoId.isBlank()) {
+            return List.of();
+        }
+
+        int separador = ultimoId.lastIndexOf('-');
+        long visto;
+        try {
+            visto = separador > 0 && ultimoId.substring(0, separador).equals(inicio)
+                ? Long.parseLong(ultimoId.substring(separador + 1))
+                : -1;
+        } catch (NumberFormatException e) {
+            visto = -1;
+        }
+
+        AlteracaoProduto maisAntiga = historico.peekFirst();
+        long primeiraDisponivel = maisAntiga != null ? maisAntiga.getVersao() : versao + 1;
+        if (visto < 0 || visto > versao || visto < primeiraDisponivel - 1) {
+            return List.of(new AlteracaoProduto(id(versao), versao, AlteracaoProduto.TIPO_RESET, null, null));
+        }
+
+        List<AlteracaoProduto> pendentes = new ArrayList<>();
+        for (AlteracaoProduto alteracao : historico) {
+            if (alteracao.getVersao() > visto) {
+                pendentes.add(alteracao);
+            }
+        }
+        return pendentes;
+    }
+
+    private AlteracaoProduto registrar(String tipo, Long produtoId, List<String> campos) {
+        versao++;
+        AlteracaoProduto alteracao = new AlteracaoProduto(id(versao), versao, tipo, produtoId, campos);
+        historico.addLast(alteracao);
+        if (historico.size() > CAPACIDADE_HISTORICO) {
+            historico.removeFirst();
+        }
+        return alteracao;
+    }
+
+    private String id(long versao) {
+        return inicio + "-" + versao;
+    }
+
+    private static List<String> camposAlterados(ProdutoCatalogo anterior, ProdutoCatalogo novo) {
+        List<String> campos = new ArrayList<>();
+        if (!Objects.equals(anterior.getNome(), novo.getNome())) {
+            campos.add("nome");
+        }
+        if (!Objects.equals(anterior.getDescricao(), novo.getDescricao())) {
+            campos.add("descricao");
+        }
+        if (anterior.getPreco() == null ? novo.getPreco() != null
+                : novo.getPreco() == null || anterior.getPreco().compareTo(novo.getPreco()) != 0) {
+            campos.add("preco");
+        }
+        if (!Objects.equals(anterior.getQuantidadeEstoque(), novo.getQuantidadeEstoque())) {
+            campos.add("quantidadeEstoque");
+        }
+        if (anterior.getStatus() != novo.getStatus()) {
+            campos.add("status");
+        }
+        if (!Objects.equals(anterior.getAvaliacao(), novo.getAvaliacao())) {
+            campos.add("avaliacao");
+        }
+        if (!Objects.equals(categoriaId(anterior), categoriaId(novo))) {
+            campos.add("categoria");
+        }
+        // Produtos fora da loja ficam sem imagens no catálogo em memória
+        if (anterior.getStatus() == novo.getStatus() && !assinaturaImagens(anterior).equals(assinaturaImagens(novo))) {
+            campos.add("imagens");
+        }
+        return campos;
+    }
+
+    private static Long categoriaId(ProdutoCatalogo produto) {
+        return produto.getCategoria() != null ? produto.getCategoria().getId() : null;
+    }
+
+    private static String assinaturaImagens(ProdutoCatalogo produto) {
+        StringBuilder assinatura = new StringBuilder();
+        for (ProdutoCatalogo.ImagemResumo imagem : produto.getImagens()) {
+            assinatura.append(imagem.getId()).append(':').append(imagem.getOrdem()).append(':')
+                .append(imagem.getIsPrincipal()).append(':').append(imagem.getUrlArquivo()).append(';');
+        }
+        return assinatura.toString();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        heartbeats.shutdownNow();
+        entrega.shutdownNow();
+    }
+
+    /**
+     * Assinatura do feed; cancelar() interrompe a entrega
+     */
+    public final class Assinatura {
+        private final Consumer<AlteracaoProduto> ouvinte;
+        private final boolean stream;
+        private volatile boolean ativa = true;
+        private volatile Runnable aoCancelar;
+        private volatile Runnable aoPing;
+
+        // Protegidos pela própria assinatura
+        private final ArrayDeque<AlteracaoProduto> fila = new ArrayDeque<>();
+        private boolean pingPendente;
+        private boolean agendada;
+
+        private Assinatura(Consumer<AlteracaoProduto> ouvinte, boolean stream) {
+            this.ouvinte = ouvinte;
+            this.stream = stream;
+        }
+
+        private void enfileirar(List<AlteracaoProduto> alteracoes) {
+            synchronized (this) {
+                if (!ativa) {
+                    return;
+                }
+                if (fila.size() + alteracoes.size() > CAPACIDADE_FILA_ASSINANTE) {
+                    // Assinante lento: descarta o atraso e pede que recarregue a partir do evento mais recente
+                    AlteracaoProduto ultima = alteracoes.get(alteracoes.size() - 1);
+                    fila.clear();
+                    fila.addLast(new AlteracaoProduto(ultima.getId(), ultima.getVersao(), AlteracaoProduto.TIPO_RESET, null, null));
+                    logger.debug("Fila do assinante do feed cheia; enviado RESET");
+                } else {
+                    fila.addAll(alteracoes);
+                }
+            }
+            agendar();
+        }
+
+        private void aoPing(Runnable acao) {
+            this.aoPing = acao;
+        }
+
+        private void ping() {
+            synchronized (this) {
+                if (!ativa || aoPing == null) {
+                    return;
+                }
+                pingPendente = true;
+            }
+            agendar();
+        }
+
+        private void agendar() {
+            synchronized (this) {
+                if (agendada) {
+                    return;
+                }
+                agendada = true;
+            }
+            try {
+                entrega.execute(this::entregar);
+            } catch (RejectedExecutionException e) {
+                // Serviço encerrando
+                cancelar();
+            }
+        }
+
+        /**
+         * Entrega tudo o que estiver na fila; só uma execução por assinatura de cada vez
+         */
+        private void entregar() {
+            while (true) {
+                AlteracaoProduto alteracao;
+                boolean ping;
+                synchronized (this) {
+                    alteracao = ativa ? fila.pollFirst() : null;
+                    ping = alteracao == null && ativa && pingPendente;
+                    pingPendente = false;
+                    if (alteracao == null && !ping) {
+                        agendada = false;
+                        return;
+                    }
+                }
+                try {
+                    if (ping) {
+                        aoPing.run();
+                    } else {
+                        ouvinte.accept(alteracao);
+                    }
+                } catch (RuntimeException e) {
+                    logger.debug("Assinante do feed removido: {}", e.getMessage());
+                    cancelar();
+                }
+            }
+        }
+
+        private void aoCancelar(Runnable acao) {
+            this.aoCancelar = acao;
+        }
+
+        public void cancelar() {
+            synchronized (this) {
+                if (!ativa) {
+                    return;
+                }
+                ativa = false;
+                fila.clear();
+            }
+            assinaturas.remove(this);
+            if (stream) {
+                streamsAbertos.decrementAndGet();
+            }
+            Runnable acao = aoCancelar;
+            if (acao != null) {
+                try {
+                    acao.run();
+                } catch (RuntimeException e) {
+                    logger.debug("Erro ao encerrar assinatura do feed: {}", e.getMessage());
+                }
+            }
+        }
+
+        public boolean isAtiva() {
+            return ativa;
+        }
+    }
+}
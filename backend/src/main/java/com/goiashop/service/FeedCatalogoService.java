@@ -0,0 +1,485 @@
+package com.goiashop.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goiashop.dto.CategoriaCatalogo;
+import com.goiashop.dto.ProdutoCatalogo;
+import com.goiashop.dto.ProdutoResumo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Arquivos estáticos do catálogo (feeds) para marketplaces, crawlers e SSR.
+ *
+ * Produtos em JSON e XML, categorias em JSON e o sitemap são gravados já comprimidos em gzip
+ * num diretório local, com uma versão por geração (o nome inclui o número da geração). A
+ * geração roda em segundo plano, agrupando as alterações do catálogo; os trechos de cada
+ * produto são reaproveitados enquanto o snapshot apontar para o mesmo objeto, então só os
+ * produtos alterados são serializados de novo. As requisições leem apenas o arquivo pronto.
+ *
+ * O sitemap.xml é um índice de sitemaps: as URLs dos produtos vão em sitemap-1.xml,
+ * sitemap-2.xml..., cada um dentro dos limites do protocolo (50.000 URLs e 50 MB sem compressão).
+ */
+@Service
+public class FeedCatalogoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedCatalogoService.class);
+
+    // Espera para agrupar escritas em sequência numa única geração
+    private static final long ATRASO_GERACAO_MS = 2_000;
+
+    private static final byte[] VIRGULA = ",".getBytes(StandardCharsets.UTF_8);
+
+    // Limites de cada arquivo de sitemap (protocolo sitemaps.org)
+    private static final int MAXIMO_URLS_SITEMAP = 50_000;
+    private static final long MAXIMO_BYTES_SITEMAP = 50L * 1024 * 1024;
+    private static final Pattern PARTE_SITEMAP = Pattern.compile("sitemap-(\\d{1,6})\\.xml");
+    private static final byte[] INICIO_SITEMAP = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FIM_SITEMAP = "</urlset>\n".getBytes(StandardCharsets.UTF_8);
+
+    @Value("${app.feed.dir:data/feeds}")
+    private String diretorio;
+
+    @Value("${app.loja.url:http://localhost:3000}")
+    private String urlLoja;
+
+    // Endereço público da API, usado nas URLs das partes do sitemap
+    @Value("${app.public.base-url:http://localhost:8080}")
+    private String urlPublica;
+
+    @Autowired
+    private CatalogoService catalogoService;
+
+    @Autowired
+    private CategoriaCatalogoService categoriaCatalogoService;
+
+    @Autowired
+    private VersaoCatalogoService versaoCatalogoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final XMLOutputFactory xmlFactory = XMLOutputFactory.newInstance();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "feed-catalogo");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean agendada = new AtomicBoolean(false);
+
+    private volatile Geracao atual = new Geracao(new EnumMap<>(Feed.class), List.of());
+    // Versão do catálogo da última geração agendada
+    private volatile String versaoAgendada;
+
+    // Acessados apenas pela thread de geração
+    private final Map<Long, Trechos> trechos = new HashMap<>();
+    private final Deque<Geracao> anteriores = new ArrayDeque<>();
+    private long geracao;
+
+    /**
+     * Arquivos publicados: nome na URL e tipo de conteúdo
+     */
+    public enum Feed {
+        PRODUTOS_JSON("produtos.json", MediaType.APPLICATION_JSON),
+        PRODUTOS_XML("produtos.xml", MediaType.APPLICATION_XML),
+        CATEGORIAS_JSON("categorias.json", MediaType.APPLICATION_JSON),
+        // Índice; as partes (sitemap-N.xml) são obtidas por obterParteSitemap
+        SITEMAP("sitemap.xml", MediaType.APPLICATION_XML);
+
+        private final String nome;
+        private final MediaType tipo;
+
+        Feed(String nome, MediaType tipo) {
+            this.nome = nome;
+            this.tipo = tipo;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public MediaType getTipo() {
+            return tipo;
+        }
+
+        public static Feed de(String nome) {
+            for (Feed feed : values()) {
+                if (feed.nome.equals(nome)) {
+                    return feed;
+                }
+            }
+            return null;
+        }
+    }
+
+    @PostConstruct
+    public void inicializar() {
+        // Gerações de execuções anteriores não são reaproveitadas
+        Path pasta = Paths.get(diretorio);
+        if (Files.isDirectory(pasta)) {
+            try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(pasta, "*.gz")) {
+                for (Path arquivo : arquivos) {
+                    Files.deleteIfExists(arquivo);
+                }
+            } catch (IOException e) {
+                logger.warn("Não foi possível limpar feeds antigos em {}: {}", pasta, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onCatalogoAlterado(CatalogoAlteradoEvent event) {
+        agendar();
+    }
+
+    /**
+     * Arquivo atual do feed; agenda nova geração se o catálogo mudou desde a última
+     *
+     * @return null enquanto a primeira geração não terminou
+     */
+    public ArquivoFeed obter(Feed feed) {
+        verificarVersao();
+        return atual.arquivos.get(feed);
+    }
+
+    /**
+     * Parte do sitemap (numerada a partir de 1) da geração atual
+     *
+     * @return null enquanto a primeira geração não terminou ou se a parte não existe
+     */
+    public ArquivoFeed obterParteSitemap(int numero) {
+        verificarVersao();
+        List<ArquivoFeed> partes = atual.partesSitemap;
+        return numero >= 1 && numero <= partes.size() ? partes.get(numero - 1) : null;
+    }
+
+    private void verificarVersao() {
+        // Alterações só de categorias não passam pelo evento do catálogo
+        if (!versaoCatalogoService.etagCatalogo().equals(versaoAgendada)) {
+            agendar();
+        }
+    }
+
+    /**
+     * Número da parte do sitemap pelo nome do arquivo (sitemap-N.xml), ou null se não for uma parte
+     */
+    public static Integer numeroParteSitemap(String arquivo) {
+        Matcher matcher = PARTE_SITEMAP.matcher(arquivo);
+        return matcher.matches() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+
+    private void agendar() {
+        if (agendada.compareAndSet(false, true)) {
+            executor.schedule(this::gerar, ATRASO_GERACAO_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void gerar() {
+        agendada.set(false);
+        // Lida antes dos dados: uma escrita durante a geração agenda a próxima
+        String versao = versaoCatalogoService.etagCatalogo();
+        versaoAgendada = versao;
+        try {
+            CatalogoSnapshot snapshot = catalogoService.getSnapshot();
+            List<CategoriaCatalogo> categorias = categoriaCatalogoService.listar();
+            atualizarTrechos(snapshot.listarAtivos());
+
+            Path pasta = Paths.get(diretorio);
+            Files.createDirectories(pasta);
+            long numero = ++geracao;
+            List<ProdutoCatalogo> produtos = snapshot.listarAtivos();
+            Map<Feed, ArquivoFeed> novos = new EnumMap<>(Feed.class);
+            for (Feed feed : Feed.values()) {
+                if (feed != Feed.SITEMAP) {
+                    novos.put(feed, gravar(feed, feed.nome, pasta, numero, versao,
+                        saida -> escrever(feed, saida, produtos, categorias)));
+                }
+            }
+
+            List<ArquivoFeed> partes = new ArrayList<>();
+            List<Integer> inicios = dividirSitemap(produtos);
+            for (int i = 0; i < inicios.size(); i++) {
+                int inicio = inicios.get(i);
+                int fim = i + 1 < inicios.size() ? inicios.get(i + 1) : produtos.size();
+                boolean primeira = i == 0;
+                partes.add(gravar(Feed.SITEMAP, "sitemap-" + (i + 1) + ".xml", pasta, numero, versao,
+                    saida -> escreverSitemap(saida, produtos, inicio, fim, primeira)));
+            }
+            novos.put(Feed.SITEMAP, gravar(Feed.SITEMAP, Feed.SITEMAP.nome, pasta, numero, versao,
+                saida -> escreverIndiceSitemap(saida, partes.size())));
+
+            // Mantém a geração anterior: envios em andamento ainda podem ler seus arquivos
+            anteriores.addLast(atual);
+            atual = new Geracao(novos, partes);
+            while (anteriores.size() > 1) {
+                for (ArquivoFeed antigo : anteriores.removeFirst().todos()) {
+                    Files.deleteIfExists(antigo.caminho);
+                }
+            }
+            logger.info("Feeds do catálogo gerados - geração {} ({} produtos, {} partes do sitemap)",
+                numero, snapshot.tamanho(), partes.size());
+        } catch (Exception e) {
+            logger.error("Erro ao gerar feeds do catálogo: {}", e.getMessage(), e);
+            versaoAgendada = null;
+        }
+    }
+
+    private ArquivoFeed gravar(Feed feed, String nome, Path pasta, long numero, String versao, Escrita escrita)
+            throws IOException {
+        Path destino = pasta.resolve(nome + "-" + numero + ".gz");
+        Path temporario = pasta.resolve(nome + "-" + numero + ".tmp");
+        try (OutputStream saida = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temporario)), 8192)) {
+            escrita.escrever(saida);
+        }
+        Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new ArquivoFeed(feed, destino, Files.size(destino), "feed-" + nome + "-" + versao);
+    }
+
+    /**
+     * Posição do primeiro produto de cada parte do sitemap, respeitando os limites de URLs e de bytes
+     * (a primeira parte também leva a URL da listagem de produtos)
+     */
+    private List<Integer> dividirSitemap(List<ProdutoCatalogo> produtos) {
+        List<Integer> inicios = new ArrayList<>();
+        inicios.add(0);
+        int urls = 1;
+        long bytes = INICIO_SITEMAP.length + urlListagem().length + FIM_SITEMAP.length;
+        for (int i = 0; i < produtos.size(); i++) {
+            int tamanho = trechos.get(produtos.get(i).getId()).sitemap.length;
+            if (urls == MAXIMO_URLS_SITEMAP || bytes + tamanho > MAXIMO_BYTES_SITEMAP) {
+                inicios.add(i);
+                urls = 0;
+                bytes = INICIO_SITEMAP.length + FIM_SITEMAP.length;
+            }
+            urls++;
+            bytes += tamanho;
+        }
+        return inicios;
+    }
+
+    private void escreverSitemap(OutputStream saida, List<ProdutoCatalogo> produtos, int inicio, int fim,
+                                 boolean primeira) throws IOException {
+        saida.write(INICIO_SITEMAP);
+        if (primeira) {
+            saida.write(urlListagem());
+        }
+        for (int i = inicio; i < fim; i++) {
+            saida.write(trechos.get(produtos.get(i).getId()).sitemap);
+        }
+        saida.write(FIM_SITEMAP);
+    }
+
+    private void escreverIndiceSitemap(OutputStream saida, int partes) throws IOException {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+        for (int i = 1; i <= partes; i++) {
+            xml.append("<sitemap><loc>").append(urlPublica).append("/api/feeds/sitemap-").append(i)
+                .append(".xml</loc></sitemap>\n");
+        }
+        xml.append("</sitemapindex>\n");
+        saida.write(xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private byte[] urlListagem() {
+        return ("<url><loc>" + urlLoja + "/produtos</loc></url>\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serializa apenas os produtos cujo objeto no snapshot mudou desde a última geração
+     */
+    private void atualizarTrechos(List<ProdutoCatalogo> produtos) throws IOException, XMLStreamException {
+        Set<Long> presentes = new HashSet<>();
+        for (ProdutoCatalogo produto : produtos) {
+            presentes.add(produto.getId());
+            Trechos atual = trechos.get(produto.getId());
+            if (atual == null || atual.origem != produto) {
+                trechos.put(produto.getId(), new Trechos(produto, objectMapper.writeValueAsBytes(produto),
+                    xmlProduto(produto), xmlSitemap(produto)));
+            }
+        }
+        trechos.keySet().retainAll(presentes);
+    }
+
+    private void escrever(Feed feed, OutputStream saida, List<ProdutoCatalogo> produtos,
+                          List<CategoriaCatalogo> categorias) throws IOException {
+        switch (feed) {
+            case PRODUTOS_JSON:
+                saida.write('[');
+                for (int i = 0; i < produtos.size(); i++) {
+                    if (i > 0) {
+                        saida.write(VIRGULA);
+                    }
+                    saida.write(trechos.get(produtos.get(i).getId()).json);
+                }
+                saida.write(']');
+                break;
+            case PRODUTOS_XML:
+                saida.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<produtos>\n".getBytes(StandardCharsets.UTF_8));
+                for (ProdutoCatalogo produto : produtos) {
+                    saida.write(trechos.get(produto.getId()).xml);
+                }
+                saida.write("</produtos>\n".getBytes(StandardCharsets.UTF_8));
+                break;
+            case CATEGORIAS_JSON:
+                saida.write(objectMapper.writeValueAsBytes(categorias));
+                break;
+            case SITEMAP:
+                // Gerado à parte: índice e partes numeradas
+                break;
+        }
+    }
+
+    private byte[] xmlProduto(ProdutoCatalogo produto) throws XMLStreamException {
+        ProdutoResumo resumo = ProdutoResumo.of(produto);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        XMLStreamWriter xml = xmlFactory.createXMLStreamWriter(bytes, "UTF-8");
+        xml.writeStartElement("produto");
+        elemento(xml, "id", produto.getId());
+        elemento(xml, "nome", produto.getNome());
+        elemento(xml, "descricao", produto.getDescricao());
+        elemento(xml, "preco", produto.getPreco() != null ? produto.getPreco().toPlainString() : null);
+        elemento(xml, "estoque", produto.getQuantidadeEstoque());
+        elemento(xml, "avaliacao", produto.getAvaliacao());
+        elemento(xml, "categoriaId", resumo.getCategoriaId());
+        elemento(xml, "categoria", resumo.getCategoriaNome());
+        elemento(xml, "imagem", resumo.getImagemPrincipalUrl());
+        elemento(xml, "url", urlLoja + "/produto/" + produto.getId());
+        xml.writeEndElement();
+        xml.writeCharacters("\n");
+        xml.close();
+        return bytes.toByteArray();
+    }
+
+    private byte[] xmlSitemap(ProdutoCatalogo produto) throws XMLStreamException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        XMLStreamWriter xml = xmlFactory.createXMLStreamWriter(bytes, "UTF-8");
+        xml.writeStartElement("url");
+        elemento(xml, "loc", urlLoja + "/produto/" + produto.getId());
+        if (produto.getUpdatedAt() != null) {
+            elemento(xml, "lastmod", produto.getUpdatedAt().toLocalDate());
+        }
+        xml.writeEndElement();
+        xml.writeCharacters("\n");
+        xml.close();
+        return bytes.toByteArray();
+    }
+
+    private static void elemento(XMLStreamWriter xml, String nome, Object valor) throws XMLStreamException {
+        if (valor == null) {
+            return;
+        }
+        xml.writeStartElement(nome);
+        xml.writeCharacters(valor.toString());
+        xml.writeEndElement();
+    }
+
+    /**
+     * Arquivo gerado (gzip), imutável enquanto esta geração estiver publicada
+     */
+    public static final class ArquivoFeed {
+        private final Feed feed;
+        private final Path caminho;
+        private final long tamanho;
+        private final String etag;
+
+        ArquivoFeed(Feed feed, Path caminho, long tamanho, String etag) {
+            this.feed = feed;
+            this.caminho = caminho;
+            this.tamanho = tamanho;
+            this.etag = etag;
+        }
+
+        public Feed getFeed() { return feed; }
+        public Path getCaminho() { return caminho; }
+        public long getTamanho() { return tamanho; }
+        public String getEtag() { return etag; }
+    }
+
+    /**
+     * Arquivos de uma geração: os feeds e as partes do sitemap
+     */
+    private static final class Geracao {
+        private final Map<Feed, ArquivoFeed> arquivos;
+        private final List<ArquivoFeed> partesSitemap;
+
+        Geracao(Map<Feed, ArquivoFeed> arquivos, List<ArquivoFeed> partesSitemap) {
+            this.arquivos = arquivos;
+            this.partesSitemap = List.copyOf(partesSitemap);
+        }
+
+        List<ArquivoFeed> todos() {
+            List<ArquivoFeed> todos = new ArrayList<>(arquivos.values());
+            todos.addAll(partesSitemap);
+            return todos;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Escrita {
+        void escrever(OutputStream saida) throws IOException;
+    }
+
+    /**
+     * Trechos já serializados de um produto, válidos enquanto o snapshot tiver o mesmo objeto
+     */
+    private static final class Trechos {
+        private final ProdutoCatalogo origem;
+        private final byte[] json;
+        private final byte[] xml;
+        private final byte[] sitemap;
+
+        Trechos(ProdutoCatalogo origem, byte[] json, byte[] xml, byte[] sitemap) {
+            this.origem = origem;
+            this.json = json;
+            this.xml = xml;
+            this.sitemap = sitemap;
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package com.goiashop.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.goiashop.dto.ProdutoCatalogo;
+import com.goiashop.dto.ProdutoResumo;
+import com.goiashop.dto.ResultadoFacetado;
+import com.goiashop.model.Produto;
+
+/**
+ * Filtragem facetada do catálogo público com índices de bitmap em memória.
+ *
+ * Cada produto ativo recebe um ordinal denso (reaproveitado quando o produto sai do
+ * catálogo) e há um bitmap por categoria, faixa de preço, faixa de avaliação e situação
+ * de estoque. Filtros e contagens das facetas são interseções/uniões de bitmaps, sem
+ * consultas ao banco. Os bitmaps são atualizados no lugar a partir dos {@link CatalogoAlteradoEvent}.
+ *
+ * A página sem termo de busca segue a ordem do snapshot (id decrescente), guardada como
+ * ordinais: basta percorrê-la testando o bitmap e parar no fim da página, sem copiar nem
+ * ordenar os produtos encontrados.
+ */
+@Service
+public class FiltroFacetadoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FiltroFacetadoService.class);
+
+    private static final FaixaPreco[] FAIXAS_PRECO = {
+        new FaixaPreco("ate-50", "Até R$ 50", null, new BigDecimal("50")),
+        new FaixaPreco("50-100", "R$ 50 a R$ 100", new BigDecimal("50"), new BigDecimal("100")),
+        new FaixaPreco("100-200", "R$ 100 a R$ 200", new BigDecimal("100"), new BigDecimal("200")),
+        new FaixaPreco("200-500", "R$ 200 a R$ 500", new BigDecimal("200"), new BigDecimal("500")),
+        new FaixaPreco("acima-500", "Acima de R$ 500", new BigDecimal("500"), null)
+    };
+
+    // Faixas de avaliação disjuntas: [0,1), [1,2), [2,3), [3,4), [4,5]
+    private static final int FAIXAS_AVALIACAO = 5;
+    private static final int SEM_FAIXA = -1;
+
+    @Autowired
+    private BuscaProdutoService buscaProdutoService;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ordinal <-> produto
+    private final Map<Long, Integer> ordinais = new HashMap<>();
+    private final List<Entrada> entradas = new ArrayList<>();
+    private final BitSet livres = new BitSet();
+
+    // Bitmaps
+    private final BitSet ativos = new BitSet();
+    private final BitSet emEstoque = new BitSet();
+    private final Map<Long, BitSet> porCategoria = new HashMap<>();
+    private final BitSet[] porFaixaPreco = novosBitmaps(FAIXAS_PRECO.length);
+    private final BitSet[] porFaixaAvaliacao = novosBitmaps(FAIXAS_AVALIACAO);
+
+    private final Map<Long, String> nomeCategoria = new HashMap<>();
+
+    // Ordinais dos produtos ativos na ordem do snapshot (id decrescente)
+    private int[] ordemIdDesc = new int[0];
+
+    /**
+     * Mantém os bitmaps sincronizados com o catálogo
+     */
+    @EventListener
+    public void onCatalogoAlterado(CatalogoAlteradoEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isRecargaCompleta()) {
+                limpar();
+            }
+            for (Map.Entry<Long, ProdutoCatalogo> alteracao : event.getProdutos().entrySet()) {
+                remover(alteracao.getKey());
+                ProdutoCatalogo produto = alteracao.getValue();
+                if (produto != null && produto.getStatus() == Produto.ProdutoStatus.ATIVO) {
+                    adicionar(produto);
+                }
+            }
+            ordemIdDesc = ordinaisNaOrdem(event.getSnapshot().listarResumosAtivos());
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (event.isRecargaCompleta()) {
+            logger.info("Índices de facetas reconstruídos - {} produtos, {} categorias", ordinais.size(), porCategoria.size());
+        }
+    }
+
+    /**
+     * Filtra os produtos ativos e calcula as contagens de cada faceta
+     *
+     * @param termo Texto de busca (opcional; ordena por relevância)
+     * @param categorias Categorias aceitas (opcional)
+     * @param faixasPreco Códigos das faixas de preço aceitas (opcional)
+     * @param avaliacaoMinima Avaliação mínima de 1 a 4 (opcional)
+     * @param somenteEmEstoque Se true, apenas produtos com estoque
+     */
+    public ResultadoFacetado filtrar(String termo, Collection<Long> categorias, Collection<String> faixasPreco,
+                                     Integer avaliacaoMinima, boolean somenteEmEstoque, int page, int size) {
+        boolean comTermo = termo != null && !termo.trim().isEmpty();
+        List<Long> relevancia = comTermo ? buscaProdutoService.buscar(termo, null, Produto.ProdutoStatus.ATIVO) : null;
+
+        lock.readLock().lock();
+        try {
+            // Universo: todos os ativos ou apenas os encontrados pela busca
+            BitSet base = (BitSet) ativos.clone();
+            if (relevancia != null) {
+                BitSet encontrados = new BitSet();
+                for (Long id : relevancia) {
+                    Integer ordinal = ordinais.get(id);
+                    if (ordinal != null) {
+                        encontrados.set(ordinal);
+                    }
+                }
+                base.and(encontrados);
+            }
+
+            BitSet filtroCategoria = uniao(categorias, porCategoria);
+            BitSet filtroPreco = uniaoFaixasPreco(faixasPreco);
+            BitSet filtroAvaliacao = avaliacaoMinima != null ? avaliacaoAPartirDe(avaliacaoMinima) : null;
+            BitSet filtroEstoque = somenteEmEstoque ? emEstoque : null;
+
+            // Cada faceta é contada com todos os filtros exceto o dela mesma
+            List<ResultadoFacetado.Faceta> facetasCategoria = new ArrayList<>();
+            BitSet semCategoria = intersecao(base, filtroPreco, filtroAvaliacao, filtroEstoque);
+            for (Map.Entry<Long, BitSet> categoria : new TreeMap<>(porCategoria).entrySet()) {
+                int total = contarIntersecao(semCategoria, categoria.getValue());
+                if (total > 0) {
+                    facetasCategoria.add(new ResultadoFacetado.Faceta(
+                        String.valueOf(categoria.getKey()), nomeCategoria.get(categoria.getKey()), total));
+                }
+            }
+
+            List<ResultadoFacetado.Faceta> facetasPreco = new ArrayList<>();
+            BitSet semPreco = intersecao(base, filtroCategoria, filtroAvaliacao, filtroEstoque);
+            for (int i = 0; i < FAIXAS_PRECO.length; i++) {
+                facetasPreco.add(new ResultadoFacetado.Faceta(
+                    FAIXAS_PRECO[i].codigo, FAIXAS_PRECO[i].rotulo, contarIntersecao(semPreco, porFaixaPreco[i])));
+            }
+
+            List<ResultadoFacetado.Faceta> facetasAvaliacao = new ArrayList<>();
+            BitSet semAvaliacao = intersecao(base, filtroCategoria, filtroPreco, filtroEstoque);
+            int acumulado = contarIntersecao(semAvaliacao, porFaixaAvaliacao[FAIXAS_AVALIACAO - 1]);
+            for (int minimo = FAIXAS_AVALIACAO - 1; minimo >= 1; minimo--) {
+                if (minimo < FAIXAS_AVALIACAO - 1) {
+                    acumulado += contarIntersecao(semAvaliacao, porFaixaAvaliacao[minimo]);
+                }
+                facetasAvaliacao.add(new ResultadoFacetado.Faceta(
+                    String.valueOf(minimo), minimo + " estrelas ou mais", acumulado));
+            }
+
+            BitSet semEstoque = intersecao(base, filtroCategoria, filtroPreco, filtroAvaliacao);
+            int totalEmEstoque = contarIntersecao(semEstoque, emEstoque);
+
+            BitSet resultado = intersecao(semEstoque, filtroEstoque);
+            int total = resultado.cardinality();
+            long inicio = Math.min((long) page * size, total);
+            long fim = Math.min(inicio + size, total);
+            List<ProdutoResumo> produtos = relevancia != null
+                ? paginaPorRelevancia(resultado, relevancia, inicio, fim)
+                : paginaPorIdDesc(resultado, inicio, fim);
+            return new ResultadoFacetado(produtos, page, size, total,
+                facetasCategoria, facetasPreco, facetasAvaliacao, totalEmEstoque);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Produtos das posições [inicio, fim) do resultado, na ordem de relevância da busca
+     */
+    private List<ProdutoResumo> paginaPorRelevancia(BitSet resultado, List<Long> relevancia, long inicio, long fim) {
+        List<ProdutoResumo> produtos = new ArrayList<>((int) (fim - inicio));
+        long posicao = 0;
+        for (Long id : relevancia) {
+            if (posicao >= fim) {
+                break;
+            }
+            Integer ordinal = ordinais.get(id);
+            if (ordinal != null && resultado.get(ordinal)) {
+                if (posicao++ >= inicio) {
+                    produtos.add(entradas.get(ordinal).resumo);
+                }
+            }
+        }
+        return produtos;
+    }
+
+    /**
+     * Produtos das posições [inicio, fim) do resultado, do id maior para o menor
+     */
+    private List<ProdutoResumo> paginaPorIdDesc(BitSet resultado, long inicio, long fim) {
+        List<ProdutoResumo> produtos = new ArrayList<>((int) (fim - inicio));
+        long posicao = 0;
+        for (int i = 0; i < ordemIdDesc.length && posicao < fim; i++) {
+            int ordinal = ordemIdDesc[i];
+            if (resultado.get(ordinal)) {
+                if (posicao++ >= inicio) {
+                    produtos.add(entradas.get(ordinal).resumo);
+                }
+            }
+        }
+        return produtos;
+    }
+
+    private int[] ordinaisNaOrdem(List<ProdutoResumo> resumos) {
+        int[] ordem = new int[resumos.size()];
+        int quantidade = 0;
+        for (ProdutoResumo resumo : resumos) {
+            Integer ordinal = ordinais.get(resumo.getId());
+            if (ordinal != null) {
+                ordem[quantidade++] = ordinal;
+            }
+        }
+        return quantidade == ordem.length ? ordem : Arrays.copyOf(ordem, quantidade);
+    }
+
+    private void adicionar(ProdutoCatalogo produto) {
+        int ordinal = livres.nextSetBit(0);
+        if (ordinal >= 0) {
+            livres.clear(ordinal);
+        } else {
+            ordinal = entradas.size();
+            entradas.add(null);
+        }
+
+        Long categoriaId = produto.getCategoria() != null ? produto.getCategoria().getId() : null;
+        Entrada entrada = new Entrada(ProdutoResumo.of(produto), categoriaId,
+            faixaPreco(produto.getPreco()), faixaAvaliacao(produto.getAvaliacao()));
+        entradas.set(ordinal, entrada);
+        ordinais.put(produto.getId(), ordinal);
+
+        ativos.set(ordinal);
+        if (entrada.resumo.isEmEstoque()) {
+            emEstoque.set(ordinal);
+        }
+        if (categoriaId != null) {
+            porCategoria.computeIfAbsent(categoriaId, k -> new BitSet()).set(ordinal);
+            nomeCategoria.put(categoriaId, produto.getCategoria().getNome());
+        }
+        if (entrada.faixaPreco != SEM_FAIXA) {
+            porFaixaPreco[entrada.faixaPreco].set(ordinal);
+        }
+        if (entrada.faixaAvaliacao != SEM_FAIXA) {
+            porFaixaAvaliacao[entrada.faixaAvaliacao].set(ordinal);
+        }
+    }
+
+    private void remover(Long produtoId) {
+        Integer ordinal = ordinais.remove(produtoId);
+        if (ordinal == null) {
+            return;
+        }
+        Entrada entrada = entradas.get(ordinal);
+        entradas.set(ordinal, null);
+        livres.set(ordinal);
+
+        ativos.clear(ordinal);
+        emEstoque.clear(ordinal);
+        if (entrada.categoriaId != null) {
+            BitSet categoria = porCategoria.get(entrada.categoriaId);
+            if (categoria != null) {
+                categoria.clear(ordinal);
+                if (categoria.isEmpty()) {
+                    porCategoria.remove(entrada.categoriaId);
+                    nomeCategoria.remove(entrada.categoriaId);
+                }
+            }
+        }
+        if (entrada.faixaPreco != SEM_FAIXA) {
+            porFaixaPreco[entrada.faixaPreco].clear(ordinal);
+        }
+        if (entrada.faixaAvaliacao != SEM_FAIXA) {
+            porFaixaAvaliacao[entrada.faixaAvaliacao].clear(ordinal);
+        }
+    }
+
+    private void limpar() {
+        ordinais.clear();
+        entradas.clear();
+        livres.clear();
+        ativos.clear();
+        emEstoque.clear();
+        porCategoria.clear();
+        nomeCategoria.clear();
+        for (BitSet faixa : porFaixaPreco) {
+            faixa.clear();
+        }
+        for (BitSet faixa : porFaixaAvaliacao) {
+            faixa.clear();
+        }
+    }
+
+    private BitSet uniaoFaixasPreco(Collection<String> codigos) {
+        if (codigos == null || codigos.isEmpty()) {
+            return null;
+        }
+        BitSet uniao = new BitSet();
+        for (int i = 0; i < FAIXAS_PRECO.length; i++) {
+            if (codigos.contains(FAIXAS_PRECO[i].codigo)) {
+                uniao.or(porFaixaPreco[i]);
+            }
+        }
+        return uniao;
+    }
+
+    private BitSet avaliacaoAPartirDe(int minimo) {
+        BitSet uniao = new BitSet();
+        for (int i = Math.max(minimo, 0); i < FAIXAS_AVALIACAO; i++) {
+            uniao.or(porFaixaAvaliacao[i]);
+        }
+        return uniao;
+    }
+
+    private static BitSet uniao(Collection<Long> chaves, Map<Long, BitSet> bitmaps) {
+        if (chaves == null || chaves.isEmpty()) {
+            return null;
+        }
+        BitSet uniao = new BitSet();
+        for (Long chave : chaves) {
+            BitSet bitmap = bitmaps.get(chave);
+            if (bitmap != null) {
+                uniao.or(bitmap);
+            }
+        }
+        return uniao;
+    }
+
+    /**
+     * Interseção da base com os filtros informados (filtros nulos são ignorados)
+     */
+    private static BitSet intersecao(BitSet base, BitSet... filtros) {
+        BitSet resultado = (BitSet) base.clone();
+        for (BitSet filtro : filtros) {
+            if (filtro != null) {
+                resultado.and(filtro);
+            }
+        }
+        return resultado;
+    }
+
+    private static int contarIntersecao(BitSet a, BitSet b) {
+        BitSet copia = (BitSet) a.clone();
+        copia.and(b);
+        return copia.cardinality();
+    }
+
+    private static int faixaPreco(BigDecimal preco) {
+        if (preco == null) {
+            return SEM_FAIXA;
+        }
+        for (int i = 0; i < FAIXAS_PRECO.length; i++) {
+            if (FAIXAS_PRECO[i].contem(preco)) {
+                return i;
+            }
+        }
+        return SEM_FAIXA;
+    }
+
+    private static int faixaAvaliacao(Double avaliacao) {
+        if (avaliacao == null) {
+            return SEM_FAIXA;
+        }
+        return (int) Math.max(0, Math.min(FAIXAS_AVALIACAO - 1, Math.floor(avaliacao)));
+    }
+
+    private static BitSet[] novosBitmaps(int quantidade) {
+        BitSet[] bitmaps = new BitSet[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            bitmaps[i] = new BitSet();
+        }
+        return bitmaps;
+    }
+
+    /**
+     * Faixa de preço [minimo, maximo)
+     */
+    private static final class FaixaPreco {
+        private final String codigo;
+        private final String rotulo;
+        private final BigDecimal minimo;
+        private final BigDecimal maximo;
+
+        FaixaPreco(String codigo, String rotulo, BigDecimal minimo, BigDecimal maximo) {
+            this.codigo = codigo;
+            this.rotulo = rotulo;
+            this.minimo = minimo;
+            this.maximo = maximo;
+        }
+
+        boolean contem(BigDecimal preco) {
+            return (minimo == null || preco.compareTo(minimo) >= 0)
+                && (maximo == null || preco.compareTo(maximo) < 0);
+        }
+    }
+
+    /**
+     * Dados de um ordinal ocupado, guardados para limpar exatamente os bits dele na remoção
+     */
+    private static final class Entrada {
+        private final ProdutoResumo resumo;
+        private final Long categoriaId;
+        private final int faixaPreco;
+        private final int faixaAvaliacao;
+
+        Entrada(ProdutoResumo resumo, Long categoriaId, int faixaPreco, int faixaAvaliacao) {
+            this.resumo = resumo;
+            this.categoriaId = categoriaId;
+            this.faixaPreco = faixaPreco;
+            this.faixaAvaliacao = faixaAvaliacao;
+        }
+    }
+}
@@ -1,17 +1,45 @@
 package com.goiashop.service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.goiashop.repository.ProdutoImagemRepository;
+import com.goiashop.util.VariantesImagem;
+
+import jakarta.annotation.PreDestroy;
+
 /**
  * Serviço responsável pelo armazenamento de imagens no sistema de arquivos local.
  * 
@@ -19,11 +47,10 @@ import org.springframework.web.multipart.MultipartFile;
  * mantendo a mesma interface.
  * 
  * Funcionalidades:
- * - Salvar imagens com UUID único
- * - Organizar por ano/mês
+ * - Salvar imagens endereçadas pelo conteúdo (SHA-256), sem duplicar arquivos iguais
  * - Validar MIME types e tamanhos
  * - Sanitizar nomes de arquivos
- * - Deletar imagens
+ * - Deletar imagens quando não há mais referências em produto_imagens
  */
 @Service
 public class ImageStorageFilesystem {
@@ -34,15 +61,61 @@ public class ImageStorageFilesystem {
     @Value("${app.public.base-url:http://localhost:8080}")
     private String publicBaseUrl;
     
+    @Autowired
+    private ProdutoImagemRepository produtoImagemRepository;
+    
+    @Autowired
+    private ArquivoImagemService arquivoImagemService;
+    
+    private final TransactionTemplate transacaoNova;
+    
+    // Gravação paralela de vários arquivos do mesmo envio (fila cheia: o próprio chamador grava)
+    private final ThreadPoolExecutor executorUpload;
+    
+    // Arquivos recém-salvos cujo registro ainda não foi confirmado (caminho -> uploads em andamento)
+    private final Map<String, Integer> emUso = new HashMap<>();
+    
+    // Reservas feitas por faixa de caminhos (protegido por emUso): uma remoção confere se alguma
+    // reserva da faixa aconteceu enquanto contava as referências fora da trava
+    private final long[] reservasPorFaixa = new long[256];
+    
+    private static final int TENTATIVAS_REMOCAO = 3;
+    
     private static final List<String> ALLOWED_MIME_TYPES = Arrays.asList(
         "image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"
     );
     
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
     
+    private static final int BUFFER_UPLOAD = 64 * 1024;
+    
+    public ImageStorageFilesystem(PlatformTransactionManager transactionManager,
+                                  @Value("${app.imagem.upload.threads:4}") int threadsUpload) {
+        // A contagem de referências roda após o commit, fora da transação original
+        this.transacaoNova = new TransactionTemplate(transactionManager);
+        this.transacaoNova.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transacaoNova.setReadOnly(true);
+        
+        AtomicInteger contador = new AtomicInteger();
+        this.executorUpload = new ThreadPoolExecutor(threadsUpload, threadsUpload, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(100), r -> {
+                Thread thread = new Thread(r, "upload-imagem-" + contador.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    @PreDestroy
+    public void encerrar() {
+        executorUpload.shutdownNow();
+    }
+    
     /**
      * Salva uma imagem no sistema de arquivos
      * 
+     * O nome do arquivo é o SHA-256 do conteúdo, calculado durante a cópia: o mesmo arquivo
+     * enviado de novo reaproveita o que já está em disco (e a mesma URL).
+     * 
      * @param file Arquivo a ser salvo
      * @param subfolder Subpasta (ex: "produtos")
      * @return Dados do arquivo salvo
@@ -50,30 +123,116 @@ public class ImageStorageFilesystem {
      * @throws IllegalArgumentException Se o arquivo não for válido
      */
     public ImageStorageResult saveImage(MultipartFile file, String subfolder) throws IOException {
+        return salvar(file, subfolder, false);
+    }
+    
+    /**
+     * Salva vários arquivos em paralelo (validação, hash e gravação de cada um em outra thread)
+     * 
+     * Feito fora de transação: os arquivos ficam reservados até {@link #releaseReserved}, que deve
+     * ser chamado depois que os registros forem confirmados (ou descartados). Se algum arquivo
+     * falhar, os demais são liberados e a primeira falha é lançada.
+     * 
+     * @return Resultados na mesma ordem dos arquivos
+     */
+    public List<ImageStorageResult> saveImagesReserved(List<MultipartFile> files, String subfolder) throws IOException {
+        List<CompletableFuture<ImageStorageResult>> tarefas = new ArrayList<>();
+        for (MultipartFile file : files) {
+            tarefas.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return salvar(file, subfolder, true);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executorUpload));
+        }
+        
+        List<ImageStorageResult> salvos = new ArrayList<>();
+        Throwable falha = null;
+        for (CompletableFuture<ImageStorageResult> tarefa : tarefas) {
+            try {
+                salvos.add(tarefa.join());
+            } catch (CompletionException e) {
+                if (falha == null) {
+                    falha = e.getCause();
+                }
+            }
+        }
+        if (falha != null) {
+            releaseReserved(salvos, false);
+            if (falha instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) falha).getCause();
+            }
+            if (falha instanceof RuntimeException) {
+                throw (RuntimeException) falha;
+            }
+            throw new IOException(falha);
+        }
+        return salvos;
+    }
+    
+    /**
+     * Libera as reservas de {@link #saveImagesReserved}
+     * 
+     * @param committed false se os registros não foram gravados: arquivos sem outras referências são removidos
+     */
+    public void releaseReserved(List<ImageStorageResult> results, boolean committed) {
+        for (ImageStorageResult result : results) {
+            liberar(result.getRelativePath(), !committed);
+        }
+    }
+    
+    private ImageStorageResult salvar(MultipartFile file, String subfolder, boolean manterReserva) throws IOException {
         // 1. Validações de segurança
         validateFile(file);
         
         // 2. Sanitizar nome original
         String originalName = sanitizeFileName(file.getOriginalFilename());
         
-        // 3. Gerar UUID único
-        String uuid = UUID.randomUUID().toString();
         String extension = getFileExtension(originalName);
-        String fileName = uuid + "." + extension;
-        
-        // 4. Manter compatibilidade - sem organização por data por enquanto
-        String relativePath = subfolder + "/" + fileName;
-        
-        // 5. Criar diretório se não existir
-        Path fullPath = Paths.get(uploadDir, relativePath);
-        Files.createDirectories(fullPath.getParent());
+        if ("jpeg".equals(extension)) {
+            extension = "jpg";
+        }
         
-        // 6. Salvar arquivo usando Files.copy ao invés de transferTo
-        try (var inputStream = file.getInputStream()) {
-            Files.copy(inputStream, fullPath);
+        // 3. Uma única leitura: valida o cabeçalho e o tamanho, calcula o SHA-256 e grava
+        Path pasta = Paths.get(uploadDir, subfolder);
+        Files.createDirectories(pasta);
+        Path temporario = Files.createTempFile(pasta, ".upload-", ".tmp");
+        String relativePath;
+        String fileName;
+        long fileSize;
+        try {
+            MessageDigest sha256 = novoSha256();
+            try (InputStream inputStream = file.getInputStream()) {
+                fileSize = gravarValidando(inputStream, temporario, sha256);
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            
+            // 4. Caminho pelo conteúdo, distribuído pelos dois primeiros caracteres do hash
+            fileName = hash + "." + extension;
+            relativePath = subfolder + "/" + hash.substring(0, 2) + "/" + fileName;
+            
+            // 5. Publicar com rename no mesmo sistema de arquivos (sem nova cópia), reservando antes
+            //    para que uma remoção concorrente não apague o arquivo
+            reservar(relativePath);
+            try {
+                Path fullPath = Paths.get(uploadDir, relativePath);
+                if (!Files.exists(fullPath)) {
+                    Files.createDirectories(fullPath.getParent());
+                    Files.move(temporario, fullPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException | RuntimeException e) {
+                liberar(relativePath, false);
+                throw e;
+            }
+            if (!manterReserva) {
+                liberarAoFinal(relativePath);
+            }
+        } finally {
+            Files.deleteIfExists(temporario);
         }
         
-        // 7. Gerar URL pública
+        // 6. Gerar URL pública
         String publicUrl = publicBaseUrl + "/" + uploadDir + "/" + relativePath;
         
         return new ImageStorageResult(
@@ -81,28 +240,164 @@ public class ImageStorageFilesystem {
             fileName,
             relativePath,
             publicUrl,
-            file.getSize(),
+            fileSize,
             file.getContentType()
         );
     }
     
     /**
-     * Deleta uma imagem do sistema de arquivos
+     * Copia o conteúdo para o destino conferindo os magic bytes no início e o limite de tamanho
+     * durante a leitura, atualizando o digest com os mesmos bytes
+     * 
+     * @return Quantidade de bytes gravados
+     */
+    private long gravarValidando(InputStream entrada, Path destino, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[BUFFER_UPLOAD];
+        byte[] header = new byte[12];
+        int headerLido = 0;
+        boolean headerValidado = false;
+        long total = 0;
+        try (FileChannel saida = FileChannel.open(destino, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int lidos;
+            while ((lidos = entrada.read(buffer)) != -1) {
+                total += lidos;
+                if (total > MAX_FILE_SIZE) {
+                    throw new IllegalArgumentException("Arquivo muito grande. Máximo: " + (MAX_FILE_SIZE / 1024 / 1024) + "MB");
+                }
+                if (!headerValidado) {
+                    int copiar = Math.min(lidos, header.length - headerLido);
+                    System.arraycopy(buffer, 0, header, headerLido, copiar);
+                    headerLido += copiar;
+                    if (headerLido == header.length) {
+                        validateFileHeader(header, headerLido);
+                        headerValidado = true;
+                    }
+                }
+                digest.update(buffer, 0, lidos);
+                ByteBuffer bloco = ByteBuffer.wrap(buffer, 0, lidos);
+                while (bloco.hasRemaining()) {
+                    saida.write(bloco);
+                }
+            }
+        }
+        if (!headerValidado) {
+            validateFileHeader(header, headerLido);
+        }
+        return total;
+    }
+    
+    /**
+     * Deleta uma imagem do sistema de arquivos, se nenhum registro de produto_imagens a usa mais
+     * 
+     * Com transação ativa, a verificação e a remoção acontecem após o commit.
      * 
      * @param relativePath Caminho relativo da imagem
-     * @return true se deletou com sucesso, false se não encontrou
+     * @return true se deletou agora, false se ainda há referências, não encontrou ou foi adiada
      */
     public boolean deleteImage(String relativePath) {
-        try {
-            Path fullPath = Paths.get(uploadDir, relativePath);
-            return Files.deleteIfExists(fullPath);
-        } catch (IOException e) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removerSemReferencias(relativePath);
+                }
+            });
             return false;
         }
+        return removerSemReferencias(relativePath);
     }
     
     /**
-     * Valida se o arquivo é seguro para upload
+     * Remove o arquivo (e variantes) se não está reservado nem referenciado
+     * 
+     * A contagem no banco roda fora da trava de emUso (um upload pode estar esperando por ela
+     * segurando uma conexão); antes de apagar, confere se houve nova reserva na faixa do caminho
+     * e, nesse caso, conta de novo.
+     */
+    private boolean removerSemReferencias(String relativePath) {
+        int faixa = faixa(relativePath);
+        for (int tentativa = 0; tentativa < TENTATIVAS_REMOCAO; tentativa++) {
+            long reservas;
+            synchronized (emUso) {
+                if (emUso.containsKey(relativePath)) {
+                    return false;
+                }
+                reservas = reservasPorFaixa[faixa];
+            }
+            Long referencias = transacaoNova.execute(status -> produtoImagemRepository.countByCaminhoArquivo(relativePath));
+            if (referencias != null && referencias > 0) {
+                return false;
+            }
+            synchronized (emUso) {
+                if (emUso.containsKey(relativePath)) {
+                    return false;
+                }
+                if (reservasPorFaixa[faixa] != reservas) {
+                    continue;
+                }
+                try {
+                    for (String variante : VariantesImagem.caminhos(relativePath)) {
+                        arquivoImagemService.invalidar(variante);
+                        Files.deleteIfExists(Paths.get(uploadDir, variante));
+                    }
+                    arquivoImagemService.invalidar(relativePath);
+                    return Files.deleteIfExists(Paths.get(uploadDir, relativePath));
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+        }
+        // Faixa muito disputada: o arquivo fica (no pior caso órfão, sem afetar registros)
+        return false;
+    }
+    
+    private void reservar(String relativePath) {
+        synchronized (emUso) {
+            emUso.merge(relativePath, 1, Integer::sum);
+            reservasPorFaixa[faixa(relativePath)]++;
+        }
+    }
+    
+    private int faixa(String relativePath) {
+        return (relativePath.hashCode() & 0x7fffffff) % reservasPorFaixa.length;
+    }
+    
+    /**
+     * Mantém a reserva até o fim da transação do upload (ou solta imediatamente, sem transação)
+     */
+    private void liberarAoFinal(String relativePath) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    liberar(relativePath, status != STATUS_COMMITTED);
+                }
+            });
+        } else {
+            liberar(relativePath, false);
+        }
+    }
+    
+    private void liberar(String relativePath, boolean descartado) {
+        synchronized (emUso) {
+            emUso.computeIfPresent(relativePath, (caminho, usos) -> usos > 1 ? usos - 1 : null);
+        }
+        // Upload desfeito: o arquivo só fica se outro registro já o referencia
+        if (descartado) {
+            removerSemReferencias(relativePath);
+        }
+    }
+    
+    private static MessageDigest novoSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+    
+    /**
+     * Valida se o arquivo é seguro para upload (metadados; o conteúdo é conferido durante a gravação)
      */
     private void validateFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
@@ -131,58 +426,20 @@ public class ImageStorageFilesystem {
         if (!allowedExtensions.contains(extension)) {
             throw new IllegalArgumentException("Extensão não permitida: " + extension);
         }
-        
-        // Validação adicional de cabeçalho (magic bytes)
-        validateFileHeader(file);
     }
     
     /**
      * Valida os magic bytes do arquivo para garantir que é realmente uma imagem
+     * 
+     * @param header Primeiros bytes do conteúdo (até 12)
+     * @param bytesRead Quantos bytes do cabeçalho foram lidos
      */
-    private void validateFileHeader(MultipartFile file) {
-        try {
-            byte[] header = new byte[12];
-            int bytesRead = file.getInputStream().read(header);
-            
-            System.out.println("🔍 Validando arquivo: " + file.getOriginalFilename());
-            System.out.println("🔍 Tamanho do arquivo: " + file.getSize());
-            System.out.println("🔍 Content-Type: " + file.getContentType());
-            System.out.println("🔍 Bytes lidos: " + bytesRead);
-            
-            if (bytesRead < 4) {
-                System.out.println("❌ Arquivo muito pequeno: " + bytesRead + " bytes");
-                throw new IllegalArgumentException("Arquivo corrompido ou muito pequeno");
-            }
-            
-            // Log dos primeiros bytes em hex
-            StringBuilder hexString = new StringBuilder();
-            for (int i = 0; i < Math.min(bytesRead, 12); i++) {
-                hexString.append(String.format("%02X ", header[i]));
-            }
-            System.out.println("🔍 Magic bytes: " + hexString.toString());
-            
-            // Verificar magic bytes para diferentes formatos
-            boolean isJpegValid = isJpeg(header);
-            boolean isPngValid = isPng(header);
-            boolean isGifValid = isGif(header);
-            boolean isWebpValid = isWebp(header);
-            
-            System.out.println("🔍 JPEG válido: " + isJpegValid);
-            System.out.println("🔍 PNG válido: " + isPngValid);
-            System.out.println("🔍 GIF válido: " + isGifValid);
-            System.out.println("🔍 WEBP válido: " + isWebpValid);
-            
-            if (isJpegValid || isPngValid || isGifValid || isWebpValid) {
-                System.out.println("✅ Arquivo é uma imagem válida!");
-                return; // Arquivo válido
-            }
-            
-            System.out.println("❌ Nenhum formato válido detectado!");
+    private void validateFileHeader(byte[] header, int bytesRead) {
+        if (bytesRead < 4) {
+            throw new IllegalArgumentException("Arquivo corrompido ou muito pequeno");
+        }
+        if (!isJpeg(header) && !isPng(header) && !isGif(header) && !isWebp(header)) {
             throw new IllegalArgumentException("Arquivo não é uma imagem válida");
-            
-        } catch (IOException e) {
-            System.out.println("❌ Erro de IO: " + e.getMessage());
-            throw new IllegalArgumentException("Erro ao ler cabeçalho do arquivo");
         }
     }
     
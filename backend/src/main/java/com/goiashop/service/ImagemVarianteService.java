@@ -0,0 +1,338 @@
+package com.goiashop.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.goiashop.model.ProdutoImagem;
+import com.goiashop.repository.ProdutoImagemRepository;
+import com.goiashop.util.VariantesImagem;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Geração assíncrona das variantes redimensionadas (thumb/card/zoom) das imagens de produto.
+ *
+ * Após o commit do upload, a imagem entra numa fila limitada processada por poucas threads;
+ * cada tamanho é gravado em JPEG e, se houver um codificador WebP registrado no ImageIO, também
+ * em WebP. Ao terminar, os formatos gerados são gravados em produto_imagens.variantes e o
+ * catálogo é atualizado para expor as URLs. Imagens que ficaram pendentes (fila cheia,
+ * reinício) são retomadas na inicialização. As dimensões são conferidas antes de decodificar:
+ * imagens enormes são recusadas e as grandes são lidas já subamostradas.
+ */
+@Service
+public class ImagemVarianteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagemVarianteService.class);
+
+    private static final float QUALIDADE_JPEG = 0.82f;
+    private static final int TAMANHO_FILA = 500;
+    // Acima disso a leitura é subamostrada (o maior tamanho gerado tem 1200 px no maior lado)
+    private static final long PIXELS_SEM_SUBAMOSTRAGEM = 4096L * 4096;
+    // Dimensões declaradas acima disso não são decodificadas (bomba de descompressão)
+    private static final long MAXIMO_PIXELS = 100_000_000L;
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Autowired
+    private ProdutoImagemRepository produtoImagemRepository;
+
+    @Autowired
+    private CatalogoService catalogoService;
+
+    @Autowired
+    private ArquivoImagemService arquivoImagemService;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    public ImagemVarianteService(PlatformTransactionManager transactionManager,
+                                 @Value("${app.imagem.variantes.threads:2}") int threads) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(TAMANHO_FILA), r -> {
+                Thread thread = new Thread(r, "imagem-variantes-" + contador.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Agenda a geração das variantes da imagem; com transação ativa, só após o commit
+     */
+    public void agendar(ProdutoImagem imagem) {
+        Pendente pendente = new Pendente(imagem.getId(), imagem.getProduto().getId(), imagem.getCaminhoArquivo());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enfileirar(pendente);
+                }
+            });
+        } else {
+            enfileirar(pendente);
+        }
+    }
+
+    /**
+     * Retoma as imagens sem variantes (uploads anteriores a este recurso ou não processados)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void processarPendentes() {
+        try {
+            executor.execute(() -> {
+                long ultimoId = 0L;
+                int total = 0;
+                while (!Thread.currentThread().isInterrupted()) {
+                    long desde = ultimoId;
+                    List<Pendente> lote = transactionTemplate.execute(status -> {
+                        List<Pendente> pendentes = new ArrayList<>();
+                        for (ProdutoImagem imagem : produtoImagemRepository.findTop100ByVariantesIsNullAndIdGreaterThanOrderByIdAsc(desde)) {
+                            pendentes.add(new Pendente(imagem.getId(), imagem.getProduto().getId(), imagem.getCaminhoArquivo()));
+                        }
+                        return pendentes;
+                    });
+                    if (lote.isEmpty()) {
+                        break;
+                    }
+                    for (Pendente pendente : lote) {
+                        gerar(pendente);
+                        ultimoId = pendente.imagemId;
+                        total++;
+                    }
+                }
+                if (total > 0) {
+                    logger.info("Variantes geradas para {} imagens pendentes", total);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Fila de variantes cheia; imagens pendentes serão retomadas no próximo início");
+        }
+    }
+
+    private void enfileirar(Pendente pendente) {
+        try {
+            executor.execute(() -> gerar(pendente));
+        } catch (RejectedExecutionException e) {
+            // Continua com variantes nulas e é retomada na próxima inicialização
+            logger.warn("Fila de variantes cheia; imagem {} ficou pendente", pendente.imagemId);
+        }
+    }
+
+    private void gerar(Pendente pendente) {
+        String formatos = "";
+        try {
+            Path original = Paths.get(uploadDir, pendente.caminho);
+            String geradas = variantesExistentes(pendente.caminho);
+            BufferedImage imagem = geradas == null && Files.exists(original) ? ler(original) : null;
+            if (geradas != null) {
+                formatos = geradas;
+            } else if (imagem == null) {
+                logger.warn("Imagem {} não pôde ser lida ({}); variantes não geradas", pendente.imagemId, pendente.caminho);
+            } else {
+                boolean webp = ImageIO.getImageWritersByMIMEType("image/webp").hasNext();
+                for (VariantesImagem.Tamanho tamanho : VariantesImagem.Tamanho.values()) {
+                    BufferedImage reduzida = redimensionar(imagem, tamanho.getLadoMaximo());
+                    gravar(reduzida, pendente.caminho, tamanho, VariantesImagem.JPEG);
+                    if (webp) {
+                        gravar(reduzida, pendente.caminho, tamanho, VariantesImagem.WEBP);
+                    }
+                }
+                formatos = webp ? VariantesImagem.WEBP + "," + VariantesImagem.JPEG : VariantesImagem.JPEG;
+            }
+        } catch (Exception e) {
+            logger.error("Erro ao gerar variantes da imagem {}: {}", pendente.imagemId, e.getMessage(), e);
+            return;
+        }
+
+        String variantes = formatos;
+        transactionTemplate.executeWithoutResult(status -> {
+            if (produtoImagemRepository.atualizarVariantes(pendente.imagemId, variantes) > 0) {
+                catalogoService.registrarAlteracao(pendente.produtoId);
+            }
+        });
+    }
+
+    /**
+     * Formatos já gerados para o mesmo arquivo (conteúdo repetido em outro registro), se ainda em disco
+     */
+    private String variantesExistentes(String caminho) {
+        List<String> geradas = produtoImagemRepository.findVariantesGeradas(caminho);
+        if (geradas.isEmpty()) {
+            return null;
+        }
+        String formatos = geradas.get(0);
+        for (String formato : formatos.split(",")) {
+            for (VariantesImagem.Tamanho tamanho : VariantesImagem.Tamanho.values()) {
+                if (!Files.exists(Paths.get(uploadDir, VariantesImagem.caminho(caminho, tamanho, formato)))) {
+                    return null;
+                }
+            }
+        }
+        return formatos;
+    }
+
+    /**
+     * Lê a imagem conferindo antes as dimensões declaradas no cabeçalho: recusa acima de
+     * {@link #MAXIMO_PIXELS} e subamostra acima de {@link #PIXELS_SEM_SUBAMOSTRAGEM}, mantendo
+     * o maior lado acima do maior tamanho gerado
+     *
+     * @return null se não houver leitor para o formato
+     */
+    static BufferedImage ler(Path arquivo) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(arquivo.toFile())) {
+            Iterator<ImageReader> readers = entrada != null ? ImageIO.getImageReaders(entrada) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(entrada, true, true);
+                long largura = reader.getWidth(0);
+                long altura = reader.getHeight(0);
+                long pixels = largura * altura;
+                if (pixels > MAXIMO_PIXELS) {
+                    throw new IOException("Imagem de " + largura + "x" + altura + " acima do limite de pixels");
+                }
+                ImageReadParam parametros = reader.getDefaultReadParam();
+                if (pixels > PIXELS_SEM_SUBAMOSTRAGEM) {
+                    int ladoGerado = 0;
+                    for (VariantesImagem.Tamanho tamanho : VariantesImagem.Tamanho.values()) {
+                        ladoGerado = Math.max(ladoGerado, tamanho.getLadoMaximo());
+                    }
+                    int passo = (int) Math.ceil(Math.sqrt((double) pixels / PIXELS_SEM_SUBAMOSTRAGEM));
+                    passo = (int) Math.max(1, Math.min(passo, Math.max(largura, altura) / ladoGerado));
+                    parametros.setSourceSubsampling(passo, passo, 0, 0);
+                }
+                return reader.read(0, parametros);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reduz para caber no lado máximo (nunca amplia), em etapas de metade para manter a nitidez
+     */
+    static BufferedImage redimensionar(BufferedImage origem, int ladoMaximo) {
+        int largura = origem.getWidth();
+        int altura = origem.getHeight();
+        double escala = Math.min(1.0, (double) ladoMaximo / Math.max(largura, altura));
+        int larguraFinal = Math.max(1, (int) Math.round(largura * escala));
+        int alturaFinal = Math.max(1, (int) Math.round(altura * escala));
+
+        // Sem cópia no tamanho original: a primeira redução já desenha sobre fundo branco em RGB
+        // (JPEG não tem transparência)
+        BufferedImage atual = origem;
+        while (largura / 2 >= larguraFinal && altura / 2 >= alturaFinal) {
+            largura /= 2;
+            altura /= 2;
+            BufferedImage metade = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB);
+            desenhar(atual, metade, largura, altura);
+            atual = metade;
+        }
+        if (atual == origem || largura != larguraFinal || altura != alturaFinal) {
+            BufferedImage finalizada = new BufferedImage(larguraFinal, alturaFinal, BufferedImage.TYPE_INT_RGB);
+            desenhar(atual, finalizada, larguraFinal, alturaFinal);
+            atual = finalizada;
+        }
+        return atual;
+    }
+
+    private static void desenhar(BufferedImage origem, BufferedImage destino, int largura, int altura) {
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, largura, altura);
+            g.drawImage(origem, 0, 0, largura, altura, null);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private void gravar(BufferedImage imagem, String caminhoOriginal, VariantesImagem.Tamanho tamanho, String formato)
+            throws IOException {
+        Path destino = Paths.get(uploadDir, VariantesImagem.caminho(caminhoOriginal, tamanho, formato));
+        Files.createDirectories(destino.getParent());
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType("image/" + formato);
+        if (!writers.hasNext()) {
+            throw new IOException("Sem codificador para " + formato);
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream saida = ImageIO.createImageOutputStream(temporario.toFile())) {
+            writer.setOutput(saida);
+            ImageWriteParam parametros = writer.getDefaultWriteParam();
+            if (parametros.canWriteCompressed()) {
+                parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (parametros.getCompressionTypes() != null && parametros.getCompressionType() == null) {
+                    parametros.setCompressionType(parametros.getCompressionTypes()[0]);
+                }
+                parametros.setCompressionQuality(QUALIDADE_JPEG);
+            }
+            writer.write(null, new IIOImage(imagem, null, null), parametros);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        arquivoImagemService.invalidar(VariantesImagem.caminho(caminhoOriginal, tamanho, formato));
+    }
+
+    private static final class Pendente {
+        private final Long imagemId;
+        private final Long produtoId;
+        private final String caminho;
+
+        Pendente(Long imagemId, Long produtoId, String caminho) {
+            this.imagemId = imagemId;
+            this.produtoId = produtoId;
+            this.caminho = caminho;
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package com.goiashop.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goiashop.dto.ResultadoImportacao;
+import com.goiashop.model.Categoria;
+import com.goiashop.model.Produto;
+import com.goiashop.repository.CategoriaRepository;
+import com.goiashop.util.LeitorCsv;
+import com.goiashop.util.TextoBusca;
+
+/**
+ * Importação em massa de produtos a partir de CSV ou NDJSON.
+ *
+ * O arquivo é lido em streaming, linha a linha; as linhas válidas são gravadas em lotes
+ * via JDBC (produto + auditoria), cada lote em sua própria transação. Linhas inválidas
+ * são reportadas com o número da linha e não interrompem a importação.
+ */
+@Service
+public class ImportacaoProdutoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacaoProdutoService.class);
+
+    public static final String FORMATO_CSV = "csv";
+    public static final String FORMATO_NDJSON = "ndjson";
+
+    private static final int TAMANHO_LOTE = 1000;
+    private static final int MAX_ERROS_REPORTADOS = 1000;
+    private static final BigDecimal PRECO_MAXIMO = new BigDecimal("99999999.99");
+
+    private static final String INSERT_PRODUTO =
+        "INSERT INTO produtos_ecommerce (nome, descricao, preco, quantidade_estoque, status, avaliacao, " +
+        "categoria_id, created_at, updated_at, created_by, updated_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private CatalogoService catalogoService;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final TransactionTemplate loteTemplate;
+
+    public ImportacaoProdutoService(PlatformTransactionManager transactionManager) {
+        this.loteTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Importa os produtos do arquivo
+     *
+     * @param formato {@link #FORMATO_CSV} ou {@link #FORMATO_NDJSON}
+     */
+    public ResultadoImportacao importar(InputStream entrada, String formato, Long userId) throws IOException {
+        Importacao importacao = new Importacao(formato, userId, carregarCategorias());
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), 65536);
+        if (FORMATO_CSV.equals(formato)) {
+            lerCsv(reader, importacao);
+        } else {
+            lerNdjson(reader, importacao);
+        }
+        importacao.gravarLote();
+
+        ResultadoImportacao resultado = importacao.resultado();
+        logger.info("Importação {} concluída: {} linhas, {} importados, {} rejeitados em {} ms ({} linhas/min)",
+            formato, resultado.getLinhasProcessadas(), resultado.getImportados(), resultado.getRejeitados(),
+            resultado.getDuracaoMs(), resultado.getLinhasPorMinuto());
+        return resultado;
+    }
+
+    private void lerCsv(BufferedReader reader, Importacao importacao) throws IOException {
+        reader.mark(65536);
+        String primeiraLinha = reader.readLine();
+        reader.reset();
+
+        LeitorCsv csv = new LeitorCsv(reader, LeitorCsv.detectarSeparador(primeiraLinha));
+        List<String> cabecalho = csv.proximoRegistro();
+        if (cabecalho == null) {
+            return;
+        }
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int i = 0; i < cabecalho.size(); i++) {
+            String nome = cabecalho.get(i).replace("\uFEFF", "").trim().toLowerCase();
+            colunas.put(nome, i);
+        }
+        if (!colunas.containsKey("nome") || !colunas.containsKey("preco")) {
+            throw new IllegalArgumentException("Cabeçalho do CSV deve conter ao menos as colunas nome e preco");
+        }
+
+        List<String> registro;
+        while ((registro = csv.proximoRegistro()) != null) {
+            if (registro.size() == 1 && registro.get(0).isBlank()) {
+                continue;
+            }
+            Map<String, String> campos = new HashMap<>();
+            for (Map.Entry<String, Integer> coluna : colunas.entrySet()) {
+                if (coluna.getValue() < registro.size()) {
+                    campos.put(coluna.getKey(), registro.get(coluna.getValue()));
+                }
+            }
+            importacao.processar(csv.getLinhaRegistro(), campos);
+        }
+    }
+
+    private void lerNdjson(BufferedReader reader, Importacao importacao) throws IOException {
+        String linha;
+        int numero = 0;
+        while ((linha = reader.readLine()) != null) {
+            numero++;
+            if (linha.isBlank()) {
+                continue;
+            }
+            JsonNode objeto;
+            try {
+                objeto = objectMapper.readTree(linha);
+            } catch (JsonProcessingException e) {
+                importacao.rejeitar(numero, "JSON inválido: " + e.getOriginalMessage());
+                continue;
+            }
+            if (!objeto.isObject()) {
+                importacao.rejeitar(numero, "Cada linha deve ser um objeto JSON");
+                continue;
+            }
+            Map<String, String> campos = new HashMap<>();
+            objeto.fields().forEachRemaining(campo -> {
+                if (!campo.getValue().isNull()) {
+                    campos.put(campo.getKey().toLowerCase(), campo.getValue().asText());
+                }
+            });
+            importacao.processar(numero, campos);
+        }
+    }
+
+    /**
+     * Categorias indexadas por id e por nome normalizado, carregadas uma vez por importação
+     */
+    private Map<String, Long> carregarCategorias() {
+        Map<String, Long> categorias = new HashMap<>();
+        for (Categoria categoria : categoriaRepository.findAll()) {
+            categorias.put("#" + categoria.getId(), categoria.getId());
+            categorias.put(TextoBusca.normalizar(categoria.getNome()), categoria.getId());
+        }
+        return categorias;
+    }
+
+    private static String campo(Map<String, String> campos, String... nomes) {
+        for (String nome : nomes) {
+            String valor = campos.get(nome.toLowerCase());
+            if (valor != null && !valor.isBlank()) {
+                return valor.trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Aceita "1234.56", "1234,56" e "1.234,56"
+     */
+    private static BigDecimal decimal(String valor) {
+        String normalizado = valor;
+        if (normalizado.contains(",")) {
+            normalizado = normalizado.replace(".", "").replace(',', '.');
+        }
+        return new BigDecimal(normalizado);
+    }
+
+    /**
+     * Linha validada, pronta para gravação
+     */
+    private static final class LinhaProduto {
+        private final int linha;
+        private final String nome;
+        private final String descricao;
+        private final BigDecimal preco;
+        private final int quantidadeEstoque;
+        private final Produto.ProdutoStatus status;
+        private final Double avaliacao;
+        private final Long categoriaId;
+
+        LinhaProduto(int linha, String nome, String descricao, BigDecimal preco, int quantidadeEstoque,
+                     Produto.ProdutoStatus status, Double avaliacao, Long categoriaId) {
+            this.linha = linha;
+            this.nome = nome;
+            this.descricao = descricao;
+            this.preco = preco;
+            this.quantidadeEstoque = quantidadeEstoque;
+            this.status = status;
+            this.avaliacao = avaliacao;
+            this.categoriaId = categoriaId;
+        }
+    }
+
+    /**
+     * Estado de uma importação em andamento
+     */
+    private final class Importacao {
+        private final String formato;
+        private final Long userId;
+        private final Map<String, Long> categorias;
+        private final long inicio = System.currentTimeMillis();
+
+        private final List<LinhaProduto> lote = new ArrayList<>(TAMANHO_LOTE);
+        private final List<ResultadoImportacao.ErroLinha> erros = new ArrayList<>();
+        private int errosOmitidos;
+        private int linhasProcessadas;
+        private int importados;
+        private int rejeitados;
+
+        Importacao(String formato, Long userId, Map<String, Long> categorias) {
+            this.formato = formato;
+            this.userId = userId;
+            this.categorias = categorias;
+        }
+
+        void processar(int linha, Map<String, String> campos) {
+            LinhaProduto produto;
+            try {
+                produto = validar(linha, campos);
+            } catch (IllegalArgumentException e) {
+                rejeitar(linha, e.getMessage());
+                return;
+            }
+            linhasProcessadas++;
+            lote.add(produto);
+            if (lote.size() >= TAMANHO_LOTE) {
+                gravarLote();
+            }
+        }
+
+        void rejeitar(int linha, String mensagem) {
+            linhasProcessadas++;
+            rejeitados++;
+            if (erros.size() < MAX_ERROS_REPORTADOS) {
+                erros.add(new ResultadoImportacao.ErroLinha(linha, mensagem));
+            } else {
+                errosOmitidos++;
+            }
+        }
+
+        private LinhaProduto validar(int linha, Map<String, String> campos) {
+            String nome = campo(campos, "nome");
+            if (nome == null) {
+                throw new IllegalArgumentException("Nome do produto é obrigatório");
+            }
+            if (nome.length() > 200) {
+                throw new IllegalArgumentException("Nome deve ter no máximo 200 caracteres");
+            }
+
+            String descricao = campo(campos, "descricao");
+            if (descricao != null && descricao.length() > 2000) {
+                throw new IllegalArgumentException("Descrição deve ter no máximo 2000 caracteres");
+            }
+
+            String precoTexto = campo(campos, "preco");
+            if (precoTexto == null) {
+                throw new IllegalArgumentException("Preço é obrigatório");
+            }
+            BigDecimal preco;
+            try {
+                preco = decimal(precoTexto);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Preço inválido: " + precoTexto);
+            }
+            if (preco.signum() <= 0 || preco.compareTo(PRECO_MAXIMO) > 0) {
+                throw new IllegalArgumentException("Preço deve ser positivo e menor que " + PRECO_MAXIMO);
+            }
+
+            String quantidadeTexto = campo(campos, "quantidadeEstoque", "quantidade_estoque", "quantidade");
+            if (quantidadeTexto == null) {
+                throw new IllegalArgumentException("Quantidade em estoque é obrigatória");
+            }
+            int quantidade;
+            try {
+                quantidade = Integer.parseInt(quantidadeTexto);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Quantidade em estoque inválida: " + quantidadeTexto);
+            }
+            if (quantidade < 0) {
+                throw new IllegalArgumentException("Quantidade em estoque não pode ser negativa");
+            }
+
+            Produto.ProdutoStatus status = Produto.ProdutoStatus.ATIVO;
+            String statusTexto = campo(campos, "status");
+            if (statusTexto != null) {
+                try {
+                    status = Produto.ProdutoStatus.valueOf(statusTexto.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Status inválido: " + statusTexto);
+                }
+            }
+
+            Double avaliacao = null;
+            String avaliacaoTexto = campo(campos, "avaliacao");
+            if (avaliacaoTexto != null) {
+                try {
+                    avaliacao = decimal(avaliacaoTexto).doubleValue();
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Avaliação inválida: " + avaliacaoTexto);
+                }
+                // 1-5 estrelas com 0.5 de incremento
+                if (avaliacao < 1 || avaliacao > 5 || avaliacao * 2 != Math.rint(avaliacao * 2)) {
+                    throw new IllegalArgumentException("Avaliação deve estar entre 1 e 5, com passo 0.5");
+                }
+            }
+
+            Long categoriaId = null;
+            String categoriaIdTexto = campo(campos, "categoriaId", "categoria_id");
+            String categoriaNome = campo(campos, "categoria");
+            if (categoriaIdTexto != null) {
+                categoriaId = categorias.get("#" + categoriaIdTexto);
+                if (categoriaId == null) {
+                    throw new IllegalArgumentException("Categoria não encontrada: " + categoriaIdTexto);
+                }
+            } else if (categoriaNome != null) {
+                categoriaId = categorias.get(TextoBusca.normalizar(categoriaNome));
+                if (categoriaId == null) {
+                    throw new IllegalArgumentException("Categoria não encontrada: " + categoriaNome);
+                }
+            }
+
+            return new LinhaProduto(linha, nome, descricao, preco, quantidade, status, avaliacao, categoriaId);
+        }
+
+        /**
+         * Grava o lote atual (produtos + auditoria) em uma transação
+         */
+        void gravarLote() {
+            if (lote.isEmpty()) {
+                return;
+            }
+            List<LinhaProduto> linhas = new ArrayList<>(lote);
+            lote.clear();
+
+            try {
+                loteTemplate.executeWithoutResult(status -> {
+                    List<Long> ids = inserirProdutos(linhas);
+                    List<Map<String, Object>> dados = new ArrayList<>(linhas.size());
+                    for (int i = 0; i < linhas.size(); i++) {
+                        Map<String, Object> novo = new HashMap<>();
+                        novo.put("produto_id", ids.get(i));
+                        novo.put("nome", linhas.get(i).nome);
+                        dados.add(novo);
+                    }
+                    auditLogService.logCreateEmLote(userId, "produtos_ecommerce", ids, dados);
+                    for (Long id : ids) {
+                        catalogoService.registrarAlteracao(id);
+                    }
+                });
+                importados += linhas.size();
+            } catch (RuntimeException e) {
+                logger.error("Erro ao gravar lote da importação (linhas {} a {}): {}",
+                    linhas.get(0).linha, linhas.get(linhas.size() - 1).linha, e.getMessage(), e);
+                for (LinhaProduto linha : linhas) {
+                    rejeitados++;
+                    if (erros.size() < MAX_ERROS_REPORTADOS) {
+                        erros.add(new ResultadoImportacao.ErroLinha(linha.linha, "Erro ao gravar lote: " + e.getMessage()));
+                    } else {
+                        errosOmitidos++;
+                    }
+                }
+            }
+
+            long decorrido = Math.max(1, System.currentTimeMillis() - inicio);
+            logger.info("Importação {}: {} linhas processadas, {} importados, {} rejeitados ({} linhas/min)",
+                formato, linhasProcessadas, importados, rejeitados, linhasProcessadas * 60_000L / decorrido);
+        }
+
+        private List<Long> inserirProdutos(List<LinhaProduto> linhas) {
+            Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+            return jdbcTemplate.execute((ConnectionCallback<List<Long>>) conexao -> {
+                try (PreparedStatement ps = conexao.prepareStatement(INSERT_PRODUTO, Statement.RETURN_GENERATED_KEYS)) {
+                    for (LinhaProduto linha : linhas) {
+                        ps.setString(1, linha.nome);
+                        ps.setString(2, linha.descricao);
+                        ps.setBigDecimal(3, linha.preco);
+                        ps.setInt(4, linha.quantidadeEstoque);
+                        ps.setString(5, linha.status.name());
+                        if (linha.avaliacao != null) {
+                            ps.setDouble(6, linha.avaliacao);
+                        } else {
+                            ps.setNull(6, Types.DECIMAL);
+                        }
+                        if (linha.categoriaId != null) {
+                            ps.setLong(7, linha.categoriaId);
+                        } else {
+                            ps.setNull(7, Types.BIGINT);
+                        }
+                        ps.setTimestamp(8, agora);
+                        ps.setTimestamp(9, agora);
+                        ps.setLong(10, userId);
+                        ps.setLong(11, userId);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    List<Long> ids = new ArrayList<>(linhas.size());
+                    try (ResultSet chaves = ps.getGeneratedKeys()) {
+                        while (chaves.next()) {
+                            ids.add(chaves.getLong(1));
+                        }
+                    }
+                    if (ids.size() != linhas.size()) {
+                        throw new IllegalStateException("Banco não retornou os ids gerados do lote");
+                    }
+                    return ids;
+                }
+            });
+        }
+
+        ResultadoImportacao resultado() {
+            return new ResultadoImportacao(formato, linhasProcessadas, importados, rejeitados,
+                System.currentTimeMillis() - inicio, erros, errosOmitidos);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.goiashop.service;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Lista imutável ordenada por id decrescente, dividida em blocos de até ~512 elementos.
+ *
+ * Uma nova versão copia apenas os blocos que contêm ids alterados (e o pequeno índice de
+ * blocos); os demais são compartilhados com a versão anterior. Acesso por posição e por id
+ * em O(log n).
+ */
+final class ListaEmBlocos<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int TAMANHO_BLOCO = 512;
+
+    private final ToLongFunction<? super E> chave;
+    private final Object[][] blocos;
+    private final long[] menorChave; // último (menor) id de cada bloco
+    private final int[] inicio;      // posição do primeiro elemento de cada bloco na lista
+    private final int tamanho;
+
+    private ListaEmBlocos(ToLongFunction<? super E> chave, Object[][] blocos) {
+        this.chave = chave;
+        this.blocos = blocos;
+        this.menorChave = new long[blocos.length];
+        this.inicio = new int[blocos.length];
+        int total = 0;
+        for (int i = 0; i < blocos.length; i++) {
+            inicio[i] = total;
+            total += blocos[i].length;
+            menorChave[i] = chaveDe(blocos[i][blocos[i].length - 1]);
+        }
+        this.tamanho = total;
+    }
+
+    static <E> ListaEmBlocos<E> vazia(ToLongFunction<? super E> chave) {
+        return new ListaEmBlocos<>(chave, new Object[0][]);
+    }
+
+    /**
+     * Monta a lista a partir de elementos em qualquer ordem (ids distintos)
+     */
+    static <E> ListaEmBlocos<E> de(Collection<? extends E> elementos, ToLongFunction<? super E> chave) {
+        Object[] todos = elementos.toArray();
+        long[] chaves = new long[todos.length];
+        Integer[] ordem = new Integer[todos.length];
+        for (int i = 0; i < todos.length; i++) {
+            @SuppressWarnings("unchecked")
+            E elemento = (E) todos[i];
+            chaves[i] = chave.applyAsLong(elemento);
+            ordem[i] = i;
+        }
+        Arrays.sort(ordem, (a, b) -> Long.compare(chaves[b], chaves[a]));
+        Object[] ordenados = new Object[todos.length];
+        for (int i = 0; i < ordem.length; i++) {
+            ordenados[i] = todos[ordem[i]];
+        }
+        List<Object[]> blocos = new ArrayList<>();
+        fatiar(ordenados, blocos);
+        return new ListaEmBlocos<>(chave, blocos.toArray(new Object[0][]));
+    }
+
+    /**
+     * Nova versão com as alterações aplicadas; só os blocos afetados são copiados
+     *
+     * @param alteracoes id -> novo elemento, ou null para remover
+     */
+    ListaEmBlocos<E> comAlteracoes(Map<Long, ? extends E> alteracoes) {
+        if (alteracoes.isEmpty()) {
+            return this;
+        }
+        if (blocos.length == 0) {
+            List<E> novos = new ArrayList<>();
+            for (E elemento : alteracoes.values()) {
+                if (elemento != null) {
+                    novos.add(elemento);
+                }
+            }
+            return novos.isEmpty() ? this : de(novos, chave);
+        }
+
+        // bloco -> alterações do bloco em ordem decrescente de id
+        TreeMap<Integer, TreeMap<Long, E>> porBloco = new TreeMap<>();
+        for (Map.Entry<Long, ? extends E> alteracao : alteracoes.entrySet()) {
+            porBloco.computeIfAbsent(indiceBloco(alteracao.getKey()), k -> new TreeMap<>(Comparator.reverseOrder()))
+                .put(alteracao.getKey(), alteracao.getValue());
+        }
+
+        List<Object[]> novos = new ArrayList<>(blocos.length + porBloco.size());
+        int proximo = 0;
+        for (Map.Entry<Integer, TreeMap<Long, E>> afetado : porBloco.entrySet()) {
+            int indice = afetado.getKey();
+            for (; proximo < indice; proximo++) {
+                novos.add(blocos[proximo]);
+            }
+            Object[] mesclado = mesclar(blocos[indice], afetado.getValue());
+            proximo = indice + 1;
+            if (mesclado.length == 0) {
+                continue;
+            }
+            // Junta blocos que ficaram pequenos com o anterior para o índice não crescer
+            Object[] anterior = novos.isEmpty() ? null : novos.get(novos.size() - 1);
+            if (anterior != null && mesclado.length < TAMANHO_BLOCO / 4 && anterior.length + mesclado.length <= TAMANHO_BLOCO) {
+                Object[] juntos = Arrays.copyOf(anterior, anterior.length + mesclado.length);
+                System.arraycopy(mesclado, 0, juntos, anterior.length, mesclado.length);
+                novos.set(novos.size() - 1, juntos);
+            } else if (mesclado.length > 2 * TAMANHO_BLOCO) {
+                fatiar(mesclado, novos);
+            } else {
+                novos.add(mesclado);
+            }
+        }
+        for (; proximo < blocos.length; proximo++) {
+            novos.add(blocos[proximo]);
+        }
+        return new ListaEmBlocos<>(chave, novos.toArray(new Object[0][]));
+    }
+
+    /**
+     * Elemento pelo id, ou null
+     */
+    E buscar(long id) {
+        if (blocos.length == 0) {
+            return null;
+        }
+        Object[] bloco = blocos[indiceBloco(id)];
+        int baixo = 0;
+        int alto = bloco.length - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            long atual = chaveDe(bloco[meio]);
+            if (atual == id) {
+                return elemento(bloco[meio]);
+            }
+            if (atual > id) {
+                baixo = meio + 1;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= tamanho) {
+            throw new IndexOutOfBoundsException("Índice " + index + ", tamanho " + tamanho);
+        }
+        int bloco = Arrays.binarySearch(inicio, index);
+        if (bloco < 0) {
+            bloco = -bloco - 2;
+        }
+        return elemento(blocos[bloco][index - inicio[bloco]]);
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int bloco;
+            private int posicao;
+
+            @Override
+            public boolean hasNext() {
+                return bloco < blocos.length;
+            }
+
+            @Override
+            public E next() {
+                if (bloco >= blocos.length) {
+                    throw new NoSuchElementException();
+                }
+                Object atual = blocos[bloco][posicao++];
+                if (posicao == blocos[bloco].length) {
+                    bloco++;
+                    posicao = 0;
+                }
+                return elemento(atual);
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> acao) {
+        for (Object[] bloco : blocos) {
+            for (Object atual : bloco) {
+                acao.accept(elemento(atual));
+            }
+        }
+    }
+
+    /**
+     * Bloco que contém (ou receberia) o id: o primeiro cujo menor id é menor ou igual a ele
+     */
+    private int indiceBloco(long id) {
+        int baixo = 0;
+        int alto = blocos.length - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (menorChave[meio] <= id) {
+                alto = meio;
+            } else {
+                baixo = meio + 1;
+            }
+        }
+        return baixo;
+    }
+
+    private Object[] mesclar(Object[] bloco, TreeMap<Long, E> alteracoes) {
+        List<Object> resultado = new ArrayList<>(bloco.length + alteracoes.size());
+        int i = 0;
+        for (Map.Entry<Long, E> alteracao : alteracoes.entrySet()) {
+            long id = alteracao.getKey();
+            while (i < bloco.length && chaveDe(bloco[i]) > id) {
+                resultado.add(bloco[i++]);
+            }
+            if (i < bloco.length && chaveDe(bloco[i]) == id) {
+                i++; // substituído ou removido
+            }
+            if (alteracao.getValue() != null) {
+                resultado.add(alteracao.getValue());
+            }
+        }
+        while (i < bloco.length) {
+            resultado.add(bloco[i++]);
+        }
+        return resultado.toArray();
+    }
+
+    /**
+     * Divide os elementos ordenados em blocos de tamanho equilibrado
+     */
+    private static void fatiar(Object[] ordenados, List<Object[]> destino) {
+        if (ordenados.length == 0) {
+            return;
+        }
+        int quantidade = (ordenados.length + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+        int base = ordenados.length / quantidade;
+        int sobra = ordenados.length % quantidade;
+        int de = 0;
+        for (int i = 0; i < quantidade; i++) {
+            int ate = de + base + (i < sobra ? 1 : 0);
+            destino.add(Arrays.copyOfRange(ordenados, de, ate));
+            de = ate;
+        }
+    }
+
+    private long chaveDe(Object valor) {
+        return chave.applyAsLong(elemento(valor));
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elemento(Object valor) {
+        return (E) valor;
+    }
+}
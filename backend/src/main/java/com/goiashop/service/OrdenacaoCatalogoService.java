@@ -0,0 +1,374 @@
+package com.goiashop.service;
+
+import java.math.RoundingMode;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.goiashop.dto.PaginatedResponse;
+import com.goiashop.dto.ProdutoResumo;
+
+/**
+ * Ordenação e paginação do catálogo público em memória.
+ *
+ * Para cada critério há uma ordem pré-calculada dos produtos ativos (chave primitiva, id e
+ * resumo em arrays paralelos), geral e por categoria. Uma página ordenada é só um recorte
+ * dessa ordem, e o total é o tamanho dela, sem varredura, sem boxing e sem ida ao banco.
+ * A cada {@link CatalogoAlteradoEvent} só os produtos alterados saem e entram de novo nas
+ * ordens (uma intercalação linear, sem reordenar tudo), e apenas das categorias afetadas.
+ */
+@Service
+public class OrdenacaoCatalogoService {
+
+    /**
+     * Critérios de ordenação aceitos em /api/produtos/public/buscar?ordenar=
+     */
+    public enum Ordenacao {
+        MENOR_PRECO("menor-preco"),
+        MAIOR_PRECO("maior-preco"),
+        AVALIACAO("avaliacao"),
+        RECENTES("recentes");
+
+        private final String parametro;
+
+        Ordenacao(String parametro) {
+            this.parametro = parametro;
+        }
+
+        /**
+         * @throws IllegalArgumentException se o critério não existir
+         */
+        public static Ordenacao de(String parametro) {
+            for (Ordenacao ordenacao : values()) {
+                if (ordenacao.parametro.equalsIgnoreCase(parametro.trim())) {
+                    return ordenacao;
+                }
+            }
+            throw new IllegalArgumentException("Ordenação inválida: " + parametro);
+        }
+    }
+
+    private volatile Estado estado = Estado.de(CatalogoSnapshot.vazio());
+
+    @EventListener
+    public void onCatalogoAlterado(CatalogoAlteradoEvent event) {
+        estado = event.isRecargaCompleta()
+            ? Estado.de(event.getSnapshot())
+            : estado.comAlteracoes(event.getSnapshot(), event.getProdutos().keySet());
+    }
+
+    /**
+     * Página de produtos ativos filtrada e ordenada
+     *
+     * @param ordenacao Critério; se null, mantém a ordem de relevância (com busca) ou id decrescente
+     * @param categoriaId Filtra por categoria (opcional)
+     * @param idsBusca Resultado da busca textual, em ordem de relevância (opcional)
+     */
+    public PaginatedResponse<ProdutoResumo> paginar(Ordenacao ordenacao, Long categoriaId, List<Long> idsBusca,
+                                                    int page, int size) {
+        Estado atual = estado;
+
+        if (idsBusca != null) {
+            // Só os encontrados pela busca são ordenados (em geral bem menos que o catálogo)
+            List<ProdutoResumo> encontrados = new ArrayList<>();
+            for (Long id : idsBusca) {
+                ProdutoResumo resumo = atual.snapshot.buscarResumo(id);
+                if (resumo != null && (categoriaId == null || categoriaId.equals(resumo.getCategoriaId()))) {
+                    encontrados.add(resumo);
+                }
+            }
+            if (ordenacao != null) {
+                encontrados = Ordem.ordenar(encontrados, ordenacao);
+            }
+            return pagina(encontrados, page, size);
+        }
+
+        if (ordenacao == null) {
+            // A ordem do snapshot já é id decrescente
+            return pagina(categoriaId != null
+                ? atual.snapshot.listarResumosPorCategoria(categoriaId)
+                : atual.snapshot.listarResumosAtivos(), page, size);
+        }
+
+        Ordem[] ordens = categoriaId != null ? atual.porCategoria.get(categoriaId) : atual.geral;
+        return pagina(ordens != null ? ordens[ordenacao.ordinal()].comoLista() : Collections.emptyList(), page, size);
+    }
+
+    private static PaginatedResponse<ProdutoResumo> pagina(List<ProdutoResumo> produtos, int page, int size) {
+        int total = produtos.size();
+        int inicio = (int) Math.min((long) page * size, total);
+        int fim = (int) Math.min((long) inicio + size, total);
+        return new PaginatedResponse<>(new ArrayList<>(produtos.subList(inicio, fim)), page, size, total);
+    }
+
+    /**
+     * Ordens de todos os critérios (indexadas por {@link Ordenacao#ordinal()}) para um snapshot
+     */
+    private static final class Estado {
+        private final CatalogoSnapshot snapshot;
+        private final Ordem[] geral;
+        private final Map<Long, Ordem[]> porCategoria;
+
+        private Estado(CatalogoSnapshot snapshot, Ordem[] geral, Map<Long, Ordem[]> porCategoria) {
+            this.snapshot = snapshot;
+            this.geral = geral;
+            this.porCategoria = porCategoria;
+        }
+
+        static Estado de(CatalogoSnapshot snapshot) {
+            Map<Long, List<ProdutoResumo>> categorias = new HashMap<>();
+            for (ProdutoResumo resumo : snapshot.listarResumosAtivos()) {
+                if (resumo.getCategoriaId() != null) {
+                    categorias.computeIfAbsent(resumo.getCategoriaId(), k -> new ArrayList<>()).add(resumo);
+                }
+            }
+            Map<Long, Ordem[]> porCategoria = new HashMap<>();
+            categorias.forEach((id, lista) -> porCategoria.put(id, Ordem.todas(lista)));
+            return new Estado(snapshot, Ordem.todas(snapshot.listarResumosAtivos()), porCategoria);
+        }
+
+        /**
+         * Próximo estado: retira a versão anterior de cada produto alterado e insere a nova
+         */
+        Estado comAlteracoes(CatalogoSnapshot novo, Iterable<Long> produtoIds) {
+            List<ProdutoResumo> saem = new ArrayList<>();
+            List<ProdutoResumo> entram = new ArrayList<>();
+            Map<Long, List<ProdutoResumo>> saemDaCategoria = new HashMap<>();
+            Map<Long, List<ProdutoResumo>> entramNaCategoria = new HashMap<>();
+            for (Long id : produtoIds) {
+                ProdutoResumo anterior = snapshot.buscarResumo(id);
+                ProdutoResumo atual = novo.buscarResumo(id);
+                if (anterior == atual) {
+                    continue;
+                }
+                if (anterior != null) {
+                    saem.add(anterior);
+                    if (anterior.getCategoriaId() != null) {
+                        saemDaCategoria.computeIfAbsent(anterior.getCategoriaId(), k -> new ArrayList<>()).add(anterior);
+                    }
+                }
+                if (atual != null) {
+                    entram.add(atual);
+                    if (atual.getCategoriaId() != null) {
+                        entramNaCategoria.computeIfAbsent(atual.getCategoriaId(), k -> new ArrayList<>()).add(atual);
+                    }
+                }
+            }
+            if (saem.isEmpty() && entram.isEmpty()) {
+                return new Estado(novo, geral, porCategoria);
+            }
+
+            Map<Long, Ordem[]> categorias = new HashMap<>(porCategoria);
+            List<Long> afetadas = new ArrayList<>(saemDaCategoria.keySet());
+            for (Long categoriaId : entramNaCategoria.keySet()) {
+                if (!saemDaCategoria.containsKey(categoriaId)) {
+                    afetadas.add(categoriaId);
+                }
+            }
+            for (Long categoriaId : afetadas) {
+                Ordem[] ordens = Ordem.alterar(categorias.getOrDefault(categoriaId, Ordem.VAZIAS),
+                    saemDaCategoria.getOrDefault(categoriaId, Collections.emptyList()),
+                    entramNaCategoria.getOrDefault(categoriaId, Collections.emptyList()));
+                if (ordens[0].tamanho() == 0) {
+                    categorias.remove(categoriaId);
+                } else {
+                    categorias.put(categoriaId, ordens);
+                }
+            }
+            return new Estado(novo, Ordem.alterar(geral, saem, entram), categorias);
+        }
+    }
+
+    /**
+     * Produtos de um escopo na ordem de um critério: chave crescente e, no empate, id
+     * decrescente (a ordem do snapshot). Critérios decrescentes usam a chave complementar.
+     */
+    private static final class Ordem {
+
+        // Chave e posição são empacotadas em um único long para ordenar com Arrays.sort(long[])
+        private static final int BITS_POSICAO = 22; // até ~4 milhões de produtos
+        private static final long MASCARA_POSICAO = (1L << BITS_POSICAO) - 1;
+        private static final long CHAVE_MAXIMA = (1L << (63 - BITS_POSICAO)) - 1;
+
+        private static final Ordem[] VAZIAS = todas(Collections.emptyList());
+
+        private final long[] chaves;
+        private final long[] ids;
+        private final ProdutoResumo[] resumos;
+        private final List<ProdutoResumo> lista;
+
+        private Ordem(long[] chaves, long[] ids, ProdutoResumo[] resumos) {
+            this.chaves = chaves;
+            this.ids = ids;
+            this.resumos = resumos;
+            this.lista = Collections.unmodifiableList(Arrays.asList(resumos));
+        }
+
+        int tamanho() {
+            return ids.length;
+        }
+
+        List<ProdutoResumo> comoLista() {
+            return lista;
+        }
+
+        /**
+         * Ordens de todos os critérios a partir de produtos em id decrescente (carga completa)
+         */
+        static Ordem[] todas(List<ProdutoResumo> produtos) {
+            ProdutoResumo[] origem = produtos.toArray(new ProdutoResumo[0]);
+            Ordem[] ordens = new Ordem[Ordenacao.values().length];
+            for (Ordenacao ordenacao : Ordenacao.values()) {
+                // Empates mantêm a posição de origem, ou seja, id decrescente
+                long[] empacotados = new long[origem.length];
+                for (int i = 0; i < origem.length; i++) {
+                    empacotados[i] = (chave(ordenacao, origem[i]) << BITS_POSICAO) | i;
+                }
+                Arrays.sort(empacotados);
+
+                long[] chaves = new long[origem.length];
+                long[] ids = new long[origem.length];
+                ProdutoResumo[] resumos = new ProdutoResumo[origem.length];
+                for (int i = 0; i < empacotados.length; i++) {
+                    ProdutoResumo resumo = origem[(int) (empacotados[i] & MASCARA_POSICAO)];
+                    chaves[i] = empacotados[i] >>> BITS_POSICAO;
+                    ids[i] = resumo.getId();
+                    resumos[i] = resumo;
+                }
+                ordens[ordenacao.ordinal()] = new Ordem(chaves, ids, resumos);
+            }
+            return ordens;
+        }
+
+        static Ordem[] alterar(Ordem[] atuais, List<ProdutoResumo> saem, List<ProdutoResumo> entram) {
+            Ordem[] ordens = new Ordem[atuais.length];
+            for (Ordenacao ordenacao : Ordenacao.values()) {
+                ordens[ordenacao.ordinal()] = atuais[ordenacao.ordinal()].alterar(ordenacao, saem, entram);
+            }
+            return ordens;
+        }
+
+        /**
+         * Nova ordem sem os que saem e com os que entram, numa única passada de intercalação
+         */
+        private Ordem alterar(Ordenacao ordenacao, List<ProdutoResumo> saem, List<ProdutoResumo> entram) {
+            if (saem.isEmpty() && entram.isEmpty()) {
+                return this;
+            }
+            boolean[] removidos = new boolean[ids.length];
+            int quantidadeRemovidos = 0;
+            for (ProdutoResumo resumo : saem) {
+                int posicao = localizar(chave(ordenacao, resumo), resumo.getId());
+                if (posicao >= 0 && !removidos[posicao]) {
+                    removidos[posicao] = true;
+                    quantidadeRemovidos++;
+                }
+            }
+            List<ProdutoResumo> novos = ordenar(entram, ordenacao);
+
+            int tamanho = ids.length - quantidadeRemovidos + novos.size();
+            long[] novasChaves = new long[tamanho];
+            long[] novosIds = new long[tamanho];
+            ProdutoResumo[] novosResumos = new ProdutoResumo[tamanho];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < tamanho; k++) {
+                while (i < ids.length && removidos[i]) {
+                    i++;
+                }
+                long chaveNova = j < novos.size() ? chave(ordenacao, novos.get(j)) : 0L;
+                boolean usarNovo = j < novos.size()
+                    && (i >= ids.length || comparar(chaveNova, novos.get(j).getId(), chaves[i], ids[i]) < 0);
+                if (usarNovo) {
+                    novasChaves[k] = chaveNova;
+                    novosIds[k] = novos.get(j).getId();
+                    novosResumos[k] = novos.get(j);
+                    j++;
+                } else {
+                    novasChaves[k] = chaves[i];
+                    novosIds[k] = ids[i];
+                    novosResumos[k] = resumos[i];
+                    i++;
+                }
+            }
+            return new Ordem(novasChaves, novosIds, novosResumos);
+        }
+
+        private int localizar(long chave, long id) {
+            int baixo = 0;
+            int alto = ids.length - 1;
+            while (baixo <= alto) {
+                int meio = (baixo + alto) >>> 1;
+                int comparacao = comparar(chaves[meio], ids[meio], chave, id);
+                if (comparacao == 0) {
+                    return meio;
+                }
+                if (comparacao < 0) {
+                    baixo = meio + 1;
+                } else {
+                    alto = meio - 1;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Ordena poucos produtos pelo critério (resultado de busca, produtos alterados)
+         */
+        static List<ProdutoResumo> ordenar(List<ProdutoResumo> produtos, Ordenacao ordenacao) {
+            int n = produtos.size();
+            long[] chaves = new long[n];
+            Integer[] posicoes = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                chaves[i] = chave(ordenacao, produtos.get(i));
+                posicoes[i] = i;
+            }
+            Arrays.sort(posicoes, (a, b) -> comparar(chaves[a], produtos.get(a).getId(), chaves[b], produtos.get(b).getId()));
+            List<ProdutoResumo> ordenados = new ArrayList<>(n);
+            for (Integer posicao : posicoes) {
+                ordenados.add(produtos.get(posicao));
+            }
+            return ordenados;
+        }
+
+        private static int comparar(long chaveA, long idA, long chaveB, long idB) {
+            return chaveA != chaveB ? Long.compare(chaveA, chaveB) : Long.compare(idB, idA);
+        }
+
+        /**
+         * Chave em [0, CHAVE_MAXIMA], crescente na ordem do critério
+         */
+        private static long chave(Ordenacao ordenacao, ProdutoResumo produto) {
+            switch (ordenacao) {
+                case MENOR_PRECO:
+                    return limitar(centavos(produto));
+                case MAIOR_PRECO:
+                    return CHAVE_MAXIMA - limitar(centavos(produto));
+                case AVALIACAO:
+                    // Sem avaliação fica depois de qualquer nota
+                    return CHAVE_MAXIMA - (produto.getAvaliacao() != null ? Math.round(produto.getAvaliacao() * 100.0) + 1 : 0L);
+                default:
+                    return CHAVE_MAXIMA - limitar(produto.getCreatedAt() != null
+                        ? produto.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli()
+                        : 0L);
+            }
+        }
+
+        private static long centavos(ProdutoResumo produto) {
+            return produto.getPreco() != null
+                ? produto.getPreco().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue()
+                : 0L;
+        }
+
+        private static long limitar(long valor) {
+            return Math.max(0L, Math.min(CHAVE_MAXIMA, valor));
+        }
+    }
+}
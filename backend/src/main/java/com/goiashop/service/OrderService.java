@@ -43,6 +43,9 @@ public class OrderService {
     @Autowired
     private OrderAuditService auditService;
     
+    @Autowired
+    private VendasProdutoService vendasProdutoService;
+    
     /**
      * Cria um novo pedido a partir de um checkout
      * S5-TECH: Validação de estoque, geração de número, debitar estoque
@@ -230,6 +233,7 @@ public class OrderService {
         // Atualizar status
         order.setStatus(newStatus);
         order = orderRepository.save(order);
+        vendasProdutoService.registrarMudancaStatus(order, oldStatus, newStatus);
         
         // Registrar auditoria
         auditService.logStatusChange(order, oldStatus, newStatus, motivo);
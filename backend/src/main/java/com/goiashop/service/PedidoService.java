@@ -5,11 +5,13 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.goiashop.dto.CartItemRequest;
+import com.goiashop.dto.CursorPaginatedResponse;
 import com.goiashop.dto.PedidoRequest;
 import com.goiashop.model.Cliente;
 import com.goiashop.model.Pedido;
@@ -19,6 +21,7 @@ import com.goiashop.repository.ClienteRepository;
 import com.goiashop.repository.PedidoItemRepository;
 import com.goiashop.repository.PedidoRepository;
 import com.goiashop.repository.ProdutoRepository;
+import com.goiashop.util.CursorPaginacao;
 
 @Service
 public class PedidoService {
@@ -41,6 +44,15 @@ public class PedidoService {
     @Autowired
     private EnderecoEntregaService enderecoEntregaService;
     
+    @Autowired
+    private CatalogoService catalogoService;
+    
+    @Autowired
+    private ContagemCacheService contagemCacheService;
+    
+    @Autowired
+    private VendasProdutoService vendasProdutoService;
+    
     @Transactional
     public Pedido criarPedido(Long clienteId, List<CartItemRequest> itensCarrinho, PedidoRequest dadosPedido) {
         // Validar dados de pagamento primeiro
@@ -130,6 +142,7 @@ public class PedidoService {
             // Atualizar estoque do produto
             produto.setQuantidade(produto.getQuantidade() - item.getQuantidade());
             produtoRepository.save(produto);
+            catalogoService.registrarAlteracao(produto.getId());
         }
         
         // Salvar endereço na conta do cliente para reutilização futura
@@ -155,6 +168,35 @@ public class PedidoService {
         return pedidoRepository.findAll(pageable);
     }
     
+    /**
+     * Lista todos os pedidos paginando por cursor (createdAt, id), sem OFFSET e sem COUNT por página
+     * 
+     * @param cursor Cursor recebido na página anterior (null/vazio para a primeira)
+     * @param incluirTotal Se true, inclui o total aproximado (contagem em cache)
+     * @param size Tamanho da página, já validado pelo controller (1 a CursorPaginacao.TAMANHO_MAXIMO)
+     * @throws CursorPaginacao.CursorInvalidoException se o cursor for inválido
+     */
+    public CursorPaginatedResponse<Pedido> listarTodosPedidosComCursor(String cursor, int size, boolean incluirTotal) {
+        CursorPaginacao.Posicao posicao = CursorPaginacao.decodificar(cursor);
+        
+        // Busca um registro a mais para saber se existe próxima página
+        List<Pedido> linhas = pedidoRepository.findPaginaPorCursor(
+            posicao != null ? posicao.getCreatedAt() : null,
+            posicao != null ? posicao.getId() : null,
+            PageRequest.of(0, size + 1));
+        
+        String proximoCursor = null;
+        if (linhas.size() > size) {
+            linhas = linhas.subList(0, size);
+            Pedido ultimo = linhas.get(size - 1);
+            proximoCursor = CursorPaginacao.codificar(ultimo.getCreatedAt(), ultimo.getId());
+        }
+        
+        Long total = incluirTotal ? contagemCacheService.obter("pedidos", pedidoRepository::count) : null;
+        
+        return new CursorPaginatedResponse<>(linhas, size, proximoCursor, total);
+    }
+    
     public Pedido buscarPedido(Long pedidoId, Long clienteId) {
         Pedido pedido = pedidoRepository.findById(pedidoId)
             .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
@@ -171,6 +213,7 @@ public class PedidoService {
             .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
     }
     
+    @Transactional
     public Pedido atualizarStatus(Long pedidoId, Pedido.PedidoStatus novoStatus) {
         Pedido pedido = pedidoRepository.findById(pedidoId)
             .orElseThrow(() -> new RuntimeException("Pedido não encontrado"));
@@ -180,6 +223,7 @@ public class PedidoService {
         pedido.setUpdatedAt(java.time.LocalDateTime.now());
         
         Pedido pedidoSalvo = pedidoRepository.save(pedido);
+        vendasProdutoService.registrarMudancaStatus(pedidoId, statusAnterior, novoStatus);
         
         // Log da alteração
         System.out.println(String.format("Status do pedido %d alterado de %s para %s em %s", 
@@ -204,11 +248,14 @@ public class PedidoService {
             Produto produto = item.getProduto();
             produto.setQuantidade(produto.getQuantidade() + item.getQuantidade());
             produtoRepository.save(produto);
+            catalogoService.registrarAlteracao(produto.getId());
         }
         
         // Atualizar status
+        Pedido.PedidoStatus statusAnterior = pedido.getStatus();
         pedido.setStatus(Pedido.PedidoStatus.CANCELADO);
         pedidoRepository.save(pedido);
+        vendasProdutoService.registrarMudancaStatus(pedidoId, statusAnterior, Pedido.PedidoStatus.CANCELADO);
     }
     
     public Long contarPedidosCliente(Long clienteId) {
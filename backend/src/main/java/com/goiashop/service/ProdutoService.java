@@ -2,6 +2,7 @@ package com.goiashop.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,20 +14,26 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.goiashop.dto.CursorPaginatedResponse;
 import com.goiashop.dto.PaginatedResponse;
 import com.goiashop.dto.ProdutoAlteracaoQuantidadeRequest;
 import com.goiashop.dto.ProdutoCadastroRequest;
 import com.goiashop.dto.ProdutoCompletoRequest;
+import com.goiashop.dto.ProdutoDetalhe;
 import com.goiashop.dto.ProdutoImagemRequest;
+import com.goiashop.dto.ProdutoResumo;
 import com.goiashop.model.Categoria;
 import com.goiashop.model.Produto;
 import com.goiashop.model.ProdutoImagem;
 import com.goiashop.repository.CategoriaRepository;
 import com.goiashop.repository.ProdutoImagemRepository;
 import com.goiashop.repository.ProdutoRepository;
+import com.goiashop.util.CursorPaginacao;
 
 @Service
 public class ProdutoService {
@@ -45,6 +52,24 @@ public class ProdutoService {
     
     @Autowired
     private CategoriaRepository categoriaRepository;
+    
+    @Autowired
+    private CatalogoService catalogoService;
+    
+    @Autowired
+    private BuscaProdutoService buscaProdutoService;
+    
+    @Autowired
+    private ContagemCacheService contagemCacheService;
+    
+    @Autowired
+    private ImagemVarianteService imagemVarianteService;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    public ProdutoService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     public List<Produto> listarTodos() {
         return produtoRepository.findAll();
@@ -59,23 +84,28 @@ public class ProdutoService {
         return produtoRepository.findByStatus(status);
     }
     
+    /**
+     * Lista a projeção de listagem dos produtos com o status informado (uma única consulta)
+     */
+    public List<ProdutoResumo> listarResumosPorStatus(Produto.ProdutoStatus status) {
+        return produtoRepository.findResumosByStatus(status);
+    }
+    
     /**
      * Lista produtos com paginação e filtros
      */
-    public PaginatedResponse<Produto> listarComPaginacao(String nome, Long codigo, String status, Long categoriaId, int page, int size) {
+    public PaginatedResponse<ProdutoResumo> listarComPaginacao(String nome, Long codigo, String status, Long categoriaId, int page, int size) {
         // Configurar ordenação por data de criação (decrescente)
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         
-        Produto.ProdutoStatus statusEnum = null;
-        if (status != null && !status.trim().isEmpty()) {
-            try {
-                statusEnum = Produto.ProdutoStatus.valueOf(status.toUpperCase());
-            } catch (IllegalArgumentException e) {
-                // Ignora status inválido
-            }
+        Produto.ProdutoStatus statusEnum = converterStatus(status);
+        
+        // Filtro por nome: usar o índice de busca (por relevância) em vez de LIKE '%nome%'
+        if (nome != null && !nome.trim().isEmpty() && buscaProdutoService.isPronto()) {
+            return listarPorIndiceDeBusca(nome, codigo, statusEnum, categoriaId, page, size);
         }
         
-        Page<Produto> produtoPage = produtoRepository.findByFilters(nome, codigo, statusEnum, categoriaId, pageable);
+        Page<ProdutoResumo> produtoPage = produtoRepository.findResumosByFilters(nome, codigo, statusEnum, categoriaId, pageable);
         
         return new PaginatedResponse<>(
             produtoPage.getContent(),
@@ -85,6 +115,84 @@ public class ProdutoService {
         );
     }
     
+    /**
+     * Lista produtos paginando por cursor (createdAt, id), sem OFFSET e sem COUNT por página
+     * 
+     * @param cursor Cursor recebido na página anterior (null/vazio para a primeira)
+     * @param incluirTotal Se true, inclui o total aproximado (contagem em cache)
+     * @param size Tamanho da página, já validado pelo controller (1 a CursorPaginacao.TAMANHO_MAXIMO)
+     * @throws CursorPaginacao.CursorInvalidoException se o cursor for inválido
+     */
+    public CursorPaginatedResponse<ProdutoResumo> listarComCursor(String nome, Long codigo, String status, Long categoriaId,
+                                                            String cursor, int size, boolean incluirTotal) {
+        Produto.ProdutoStatus statusEnum = converterStatus(status);
+        String nomeFiltro = nome != null && !nome.trim().isEmpty() ? nome.trim() : null;
+        CursorPaginacao.Posicao posicao = CursorPaginacao.decodificar(cursor);
+        
+        // Busca um registro a mais para saber se existe próxima página
+        List<ProdutoResumo> linhas = produtoRepository.findResumosPaginaPorCursor(nomeFiltro, codigo, statusEnum, categoriaId,
+            posicao != null ? posicao.getCreatedAt() : null,
+            posicao != null ? posicao.getId() : null,
+            PageRequest.of(0, size + 1));
+        
+        String proximoCursor = null;
+        if (linhas.size() > size) {
+            linhas = linhas.subList(0, size);
+            ProdutoResumo ultimo = linhas.get(size - 1);
+            proximoCursor = CursorPaginacao.codificar(ultimo.getCreatedAt(), ultimo.getId());
+        }
+        
+        Long total = null;
+        if (incluirTotal) {
+            final Produto.ProdutoStatus statusContagem = statusEnum;
+            total = contagemCacheService.obter(
+                "produtos|" + nomeFiltro + "|" + codigo + "|" + statusEnum + "|" + categoriaId,
+                () -> produtoRepository.countByFilters(nomeFiltro, codigo, statusContagem, categoriaId));
+        }
+        
+        return new CursorPaginatedResponse<>(linhas, size, proximoCursor, total);
+    }
+    
+    private Produto.ProdutoStatus converterStatus(String status) {
+        if (status != null && !status.trim().isEmpty()) {
+            try {
+                return Produto.ProdutoStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // Ignora status inválido
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Pagina o resultado do índice de busca e carrega do banco apenas os produtos da página
+     */
+    private PaginatedResponse<ProdutoResumo> listarPorIndiceDeBusca(String nome, Long codigo, Produto.ProdutoStatus status,
+                                                              Long categoriaId, int page, int size) {
+        List<Long> ids = buscaProdutoService.buscar(nome, categoriaId, status);
+        if (codigo != null) {
+            ids = ids.contains(codigo) ? List.of(codigo) : List.of();
+        }
+        
+        int inicio = Math.min(page * size, ids.size());
+        int fim = Math.min(inicio + size, ids.size());
+        List<Long> idsPagina = ids.subList(inicio, fim);
+        
+        // Manter a ordem de relevância do índice
+        Map<Long, ProdutoResumo> encontrados = new HashMap<>();
+        for (ProdutoResumo produto : produtoRepository.findResumosByIdIn(idsPagina)) {
+            encontrados.put(produto.getId(), produto);
+        }
+        List<ProdutoResumo> conteudo = new ArrayList<>();
+        for (Long id : idsPagina) {
+            if (encontrados.containsKey(id)) {
+                conteudo.add(encontrados.get(id));
+            }
+        }
+        
+        return new PaginatedResponse<>(conteudo, page, size, ids.size());
+    }
+    
     @Transactional
     public Produto cadastrarProduto(ProdutoCadastroRequest request, Long userId) {
         // Criar novo produto
@@ -119,6 +227,7 @@ public class ProdutoService {
         changes.put("produto_id", produtoSalvo.getId());
         changes.put("nome", produtoSalvo.getNome());
         auditLogService.logCreate(userId, "produtos_ecommerce", produtoSalvo.getId(), changes);
+        catalogoService.registrarAlteracao(produtoSalvo.getId());
         
         return produtoSalvo;
     }
@@ -178,6 +287,7 @@ public class ProdutoService {
         newValues.put("categoria_id", produtoAtualizado.getCategoria() != null ? produtoAtualizado.getCategoria().getId() : null);
         
         auditLogService.logUpdate(userId, "produtos_ecommerce", produtoAtualizado.getId(), oldValues, newValues);
+        catalogoService.registrarAlteracao(produtoAtualizado.getId());
         
         return produtoAtualizado;
     }
@@ -218,6 +328,8 @@ public class ProdutoService {
             changes.put("imagem_id", imagemSalva.getId());
             changes.put("produto_id", produtoId);
             auditLogService.logCreate(userId, "produto_imagens", imagemSalva.getId(), changes);
+            catalogoService.registrarAlteracao(produtoId);
+            imagemVarianteService.agendar(imagemSalva);
             
             return imagemSalva;
             
@@ -246,6 +358,7 @@ public class ProdutoService {
             Map<String, Object> changes = new HashMap<>();
             changes.put("imagem_deletada", imagemId);
             auditLogService.logDelete(userId, "produto_imagens", imagemId, changes);
+            catalogoService.registrarAlteracao(imagem.getProduto().getId());
         }
     }
     
@@ -269,6 +382,7 @@ public class ProdutoService {
             Map<String, Object> newData = new HashMap<>();
             newData.put("is_principal", true);
             auditLogService.logUpdate(userId, "produto_imagens", imagemId, oldData, newData);
+            catalogoService.registrarAlteracao(produto.getId());
         }
     }
     
@@ -289,6 +403,7 @@ public class ProdutoService {
             Map<String, Object> newData = new HashMap<>();
             newData.put("status", "ATIVO");
             auditLogService.logUpdate(userId, "produtos_ecommerce", id, oldData, newData);
+            catalogoService.registrarAlteracao(id);
 
             return produtoAtualizado;
         }
@@ -312,6 +427,7 @@ public class ProdutoService {
             Map<String, Object> newData = new HashMap<>();
             newData.put("status", "INATIVO");
             auditLogService.logUpdate(userId, "produtos_ecommerce", id, oldData, newData);
+            catalogoService.registrarAlteracao(id);
 
             return produtoAtualizado;
         }
@@ -345,6 +461,7 @@ public class ProdutoService {
         Map<String, Object> newData = new HashMap<>();
         newData.put("quantidade_estoque", request.getQuantidadeEstoque());
         auditLogService.logUpdate(userId, "produtos_ecommerce", produtoId, oldData, newData);
+        catalogoService.registrarAlteracao(produtoId);
 
         return produtoAtualizado;
     }
@@ -410,6 +527,7 @@ public class ProdutoService {
         newData.put("status", produto.getStatus());
         newData.put("avaliacao", produto.getAvaliacao());
         auditLogService.logUpdate(userId, "produtos_ecommerce", produtoId, oldData, newData);
+        catalogoService.registrarAlteracao(produtoId);
 
         return produtoAtualizado;
     }
@@ -478,6 +596,8 @@ public class ProdutoService {
                 throw new IllegalArgumentException("Imagem ID " + imgRequest.getImagemId() + " não encontrada");
             }
         }
+        
+        catalogoService.registrarAlteracao(produto.getId());
     }
     
     /**
@@ -528,61 +648,76 @@ public class ProdutoService {
         
         // Remover do banco
         produtoImagemRepository.delete(imagem);
+        catalogoService.registrarAlteracao(produtoId);
     }
     
     /**
      * Adiciona novas imagens a um produto
+     * 
+     * Os arquivos são validados e gravados em paralelo, sem transação aberta; só a inserção dos
+     * registros (com auditoria) ocorre numa transação curta ao final.
      */
-    @Transactional
     public List<ProdutoImagem> adicionarImagensProduto(Long produtoId, List<MultipartFile> arquivos, Long userId) {
-        Optional<Produto> produtoOpt = produtoRepository.findById(produtoId);
-        if (!produtoOpt.isPresent()) {
+        if (!produtoRepository.existsById(produtoId)) {
             throw new IllegalArgumentException("Produto não encontrado");
         }
         
-        Produto produto = produtoOpt.get();
-        List<ProdutoImagem> imagensAdicionadas = new java.util.ArrayList<>();
+        List<ImageStorageFilesystem.ImageStorageResult> resultados;
+        try {
+            resultados = imageStorage.saveImagesReserved(arquivos, "produtos");
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao processar imagem: " + e.getMessage(), e);
+        }
+        
+        boolean gravado = false;
+        try {
+            List<ProdutoImagem> imagens = transactionTemplate.execute(status -> registrarImagens(produtoId, resultados, userId));
+            gravado = true;
+            return imagens;
+        } finally {
+            imageStorage.releaseReserved(resultados, gravado);
+        }
+    }
+    
+    private List<ProdutoImagem> registrarImagens(Long produtoId, List<ImageStorageFilesystem.ImageStorageResult> resultados, Long userId) {
+        Produto produto = produtoRepository.findById(produtoId)
+            .orElseThrow(() -> new IllegalArgumentException("Produto não encontrado"));
         
         // Obter próxima ordem
         long countImagens = produtoImagemRepository.countByProdutoId(produtoId);
         int proximaOrdem = (int) countImagens;
         
-        for (MultipartFile arquivo : arquivos) {
-            try {
-                // Upload da imagem
-                ImageStorageFilesystem.ImageStorageResult result = imageStorage.saveImage(arquivo, "produtos");
-                
-                // Criar entidade da imagem
-                ProdutoImagem imagem = new ProdutoImagem();
-                imagem.setProduto(produto);
-                imagem.setNomeArquivo(result.getOriginalName());
-                imagem.setCaminhoArquivo(result.getRelativePath());
-                imagem.setUrlArquivo(result.getPublicUrl());
-                imagem.setTamanhoArquivo(arquivo.getSize());
-                imagem.setTipoMime(arquivo.getContentType());
-                imagem.setOrdem(proximaOrdem++);
-                imagem.setIsPrincipal(countImagens == 0); // Primeira imagem é principal
-                
-                ProdutoImagem imagemSalva = produtoImagemRepository.save(imagem);
-                imagensAdicionadas.add(imagemSalva);
-                
-                // Registrar auditoria
-                Map<String, Object> newData = new HashMap<>();
-                newData.put("nome_arquivo", imagem.getNomeArquivo());
-                newData.put("caminho_arquivo", imagem.getCaminhoArquivo());
-                newData.put("url_arquivo", imagem.getUrlArquivo());
-                newData.put("is_principal", imagem.getIsPrincipal());
-                newData.put("ordem", imagem.getOrdem());
-                newData.put("tamanho_arquivo", imagem.getTamanhoArquivo());
-                newData.put("tipo_mime", imagem.getTipoMime());
-                
-                auditLogService.logCreate(userId, "produto_imagens", imagemSalva.getId(), newData);
-                
-            } catch (Exception e) {
-                throw new RuntimeException("Erro ao processar imagem: " + e.getMessage(), e);
-            }
+        List<ProdutoImagem> imagens = new ArrayList<>();
+        for (ImageStorageFilesystem.ImageStorageResult result : resultados) {
+            ProdutoImagem imagem = new ProdutoImagem();
+            imagem.setProduto(produto);
+            imagem.setNomeArquivo(result.getOriginalName());
+            imagem.setCaminhoArquivo(result.getRelativePath());
+            imagem.setUrlArquivo(result.getPublicUrl());
+            imagem.setTamanhoArquivo(result.getFileSize());
+            imagem.setTipoMime(result.getMimeType());
+            imagem.setIsPrincipal(countImagens == 0 && proximaOrdem == 0); // Primeira imagem é principal
+            imagem.setOrdem(proximaOrdem++);
+            imagens.add(imagem);
         }
+        List<ProdutoImagem> imagensAdicionadas = produtoImagemRepository.saveAll(imagens);
         
+        for (ProdutoImagem imagemSalva : imagensAdicionadas) {
+            // Registrar auditoria
+            Map<String, Object> newData = new HashMap<>();
+            newData.put("nome_arquivo", imagemSalva.getNomeArquivo());
+            newData.put("caminho_arquivo", imagemSalva.getCaminhoArquivo());
+            newData.put("url_arquivo", imagemSalva.getUrlArquivo());
+            newData.put("is_principal", imagemSalva.getIsPrincipal());
+            newData.put("ordem", imagemSalva.getOrdem());
+            newData.put("tamanho_arquivo", imagemSalva.getTamanhoArquivo());
+            newData.put("tipo_mime", imagemSalva.getTipoMime());
+            
+            auditLogService.logCreate(userId, "produto_imagens", imagemSalva.getId(), newData);
+            imagemVarianteService.agendar(imagemSalva);
+        }
+        
+        catalogoService.registrarAlteracao(produtoId);
         return imagensAdicionadas;
     }
     
@@ -630,6 +765,8 @@ public class ProdutoService {
             newData.put("ordem", img.getOrdem());
             auditLogService.logUpdate(userId, "produto_imagens", img.getId(), oldData, newData);
         }
+        
+        catalogoService.registrarAlteracao(produtoId);
     }
     
     // FIM DAS MUDANÇAS
@@ -637,7 +774,8 @@ public class ProdutoService {
     // ===== MÉTODOS PÚBLICOS PARA E-COMMERCE =====
     
     /**
-     * Lista apenas produtos ativos para o e-commerce
+     * Lista apenas produtos ativos para o e-commerce (leitura do banco).
+     * Os endpoints públicos usam o CatalogoService, que serve a mesma lista em memória.
      */
     public List<Produto> listarProdutosAtivos() {
         return produtoRepository.findByStatusOrderByIdDesc(Produto.ProdutoStatus.ATIVO);
@@ -657,12 +795,23 @@ public class ProdutoService {
         return produto;
     }
     
+    /**
+     * Detalhe de um produto ativo em uma única consulta (imagens e categoria via fetch join,
+     * unidades vendidas no próprio registro). Retorna null se o produto não estiver disponível
+     */
+    @Transactional(readOnly = true)
+    public ProdutoDetalhe buscarDetalhePublico(Long id) {
+        return produtoRepository.findByIdComImagens(id)
+            .filter(produto -> produto.getStatus() == Produto.ProdutoStatus.ATIVO)
+            .map(ProdutoDetalhe::of)
+            .orElse(null);
+    }
+    
     /**
      * Busca produtos por nome
      */
-    public List<Produto> buscarPorNome(String termo) {
-        return produtoRepository.findByStatusAndNomeContainingIgnoreCaseOrderByIdDesc(
-            Produto.ProdutoStatus.ATIVO, termo);
+    public List<ProdutoResumo> buscarPorNome(String termo) {
+        return produtoRepository.findResumosPorNome(Produto.ProdutoStatus.ATIVO, null, termo);
     }
     
     /**
@@ -676,9 +825,8 @@ public class ProdutoService {
     /**
      * Busca produtos por categoria e nome
      */
-    public List<Produto> buscarPorCategoriaENome(Long categoriaId, String termo) {
-        return produtoRepository.findByStatusAndCategoriaIdAndNomeContainingIgnoreCaseOrderByIdDesc(
-            Produto.ProdutoStatus.ATIVO, categoriaId, termo);
+    public List<ProdutoResumo> buscarPorCategoriaENome(Long categoriaId, String termo) {
+        return produtoRepository.findResumosPorNome(Produto.ProdutoStatus.ATIVO, categoriaId, termo);
     }
 
 }
@@ -0,0 +1,445 @@
+package com.goiashop.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.goiashop.dto.ProdutoCatalogo;
+import com.goiashop.dto.ProdutoMaisVendido;
+
+/**
+ * Rankings de produtos mais vendidos (por unidades e por receita), mantidos em memória.
+ *
+ * Os contadores mudam só quando um pedido entra ou sai de um status que conta como venda
+ * (ver {@link VendasProdutoService}); a carga inicial soma pedido_itens uma única vez.
+ * Cada ranking é um conjunto ordenado pelo contador, então o top-k é lido em O(k).
+ * Há rankings geral e por categoria para o total e para as janelas de 24h, 7 e 30 dias,
+ * cujas vendas expiram pela data do pedido.
+ */
+@Service
+public class RankingVendasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankingVendasService.class);
+
+    public static final int LIMITE_MAXIMO = 100;
+
+    public enum Periodo {
+        TOTAL("total", null),
+        DIA("24h", Duration.ofHours(24)),
+        SEMANA("7d", Duration.ofDays(7)),
+        MES("30d", Duration.ofDays(30));
+
+        private final String parametro;
+        private final Duration duracao;
+
+        Periodo(String parametro, Duration duracao) {
+            this.parametro = parametro;
+            this.duracao = duracao;
+        }
+
+        public String getParametro() {
+            return parametro;
+        }
+
+        /**
+         * Converte o parâmetro da requisição (total, 24h, 7d, 30d); null retorna TOTAL
+         */
+        public static Periodo de(String valor) {
+            if (valor == null || valor.isBlank()) {
+                return TOTAL;
+            }
+            for (Periodo periodo : values()) {
+                if (periodo.parametro.equalsIgnoreCase(valor.trim())) {
+                    return periodo;
+                }
+            }
+            throw new IllegalArgumentException("Período inválido: " + valor + " (use total, 24h, 7d ou 30d)");
+        }
+    }
+
+    public enum Criterio {
+        QUANTIDADE, RECEITA;
+
+        /**
+         * Converte o parâmetro da requisição (quantidade, receita); null retorna QUANTIDADE
+         */
+        public static Criterio de(String valor) {
+            if (valor == null || valor.isBlank()) {
+                return QUANTIDADE;
+            }
+            for (Criterio criterio : values()) {
+                if (criterio.name().equalsIgnoreCase(valor.trim())) {
+                    return criterio;
+                }
+            }
+            throw new IllegalArgumentException("Critério inválido: " + valor + " (use quantidade ou receita)");
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Todo o estado abaixo é protegido por "this"
+    private final Map<Periodo, Rankings> rankings = new EnumMap<>(Periodo.class);
+    private final Map<Periodo, PriorityQueue<Venda>> vendasNaJanela = new EnumMap<>(Periodo.class);
+
+    // Produtos conhecidos pelo catálogo (todos os status): nome e categoria atual
+    private final Map<Long, ProdutoCatalogo> produtos = new HashMap<>();
+
+    // Durante a carga, as vendas ao vivo esperam aqui e são aplicadas sobre os contadores carregados
+    private List<Venda> pendentes;
+
+    public RankingVendasService() {
+        for (Periodo periodo : Periodo.values()) {
+            rankings.put(periodo, new Rankings());
+            if (periodo.duracao != null) {
+                vendasNaJanela.put(periodo, new PriorityQueue<>(Comparator.comparingLong(venda -> venda.instante)));
+            }
+        }
+    }
+
+    /**
+     * Carga inicial dos contadores a partir dos pedidos já pagos
+     *
+     * Vendas confirmadas enquanto as consultas rodam não se perdem na troca dos contadores:
+     * ficam em espera e são somadas depois.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarInicial() {
+        synchronized (this) {
+            pendentes = new ArrayList<>();
+        }
+        String status = "'" + String.join("', '", VendasProdutoService.statusQueContamComoVenda()) + "'";
+        String base = " FROM pedido_itens i JOIN pedidos p ON p.id = i.pedido_id WHERE p.status IN (" + status + ")";
+        LocalDateTime inicioJanelas = LocalDateTime.now().minus(Periodo.MES.duracao);
+
+        try {
+            List<Venda> totais = jdbcTemplate.query(
+                "SELECT i.produto_id, SUM(i.quantity), SUM(i.subtotal)" + base + " GROUP BY i.produto_id",
+                (rs, linha) -> new Venda(0L, rs.getLong(1), rs.getLong(2), centavos(rs.getBigDecimal(3))));
+            List<Venda> recentes = jdbcTemplate.query(
+                "SELECT i.produto_id, SUM(i.quantity), SUM(i.subtotal), p.created_at" + base
+                    + " AND p.created_at >= ? GROUP BY p.id, p.created_at, i.produto_id",
+                (rs, linha) -> new Venda(instante(rs.getTimestamp(4).toLocalDateTime()), rs.getLong(1),
+                    rs.getLong(2), centavos(rs.getBigDecimal(3))),
+                Timestamp.valueOf(inicioJanelas));
+
+            synchronized (this) {
+                for (Periodo periodo : Periodo.values()) {
+                    rankings.put(periodo, new Rankings());
+                }
+                vendasNaJanela.values().forEach(PriorityQueue::clear);
+                for (Venda venda : totais) {
+                    somar(Periodo.TOTAL, venda.produtoId, venda.quantidade, venda.receita);
+                }
+                long agora = System.currentTimeMillis();
+                for (Venda venda : recentes) {
+                    registrarNasJanelas(venda, agora);
+                }
+                aplicarPendentes();
+            }
+            logger.info("Rankings de vendas carregados: {} produtos vendidos, {} vendas nos últimos 30 dias",
+                totais.size(), recentes.size());
+        } catch (Exception e) {
+            logger.error("Erro ao carregar rankings de vendas: {}", e.getMessage(), e);
+            synchronized (this) {
+                aplicarPendentes();
+            }
+        }
+    }
+
+    private void aplicarPendentes() {
+        List<Venda> atrasadas = pendentes;
+        pendentes = null;
+        if (atrasadas != null) {
+            aplicar(atrasadas);
+        }
+    }
+
+    /**
+     * Soma (sinal 1) ou subtrai (sinal -1) as vendas de um pedido; com transação ativa, só após o commit
+     *
+     * @param quantidades Unidades por produto
+     * @param receitas Receita (subtotal dos itens) por produto
+     * @param dataPedido Data do pedido, usada nas janelas de tempo
+     */
+    public void registrarVendas(Map<Long, Long> quantidades, Map<Long, BigDecimal> receitas,
+                                int sinal, LocalDateTime dataPedido) {
+        long instante = dataPedido != null ? instante(dataPedido) : System.currentTimeMillis();
+        List<Venda> vendas = new ArrayList<>(quantidades.size());
+        quantidades.forEach((produtoId, quantidade) -> vendas.add(new Venda(instante, produtoId,
+            sinal * quantidade, sinal * centavos(receitas.getOrDefault(produtoId, BigDecimal.ZERO)))));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(vendas);
+                }
+            });
+        } else {
+            aplicar(vendas);
+        }
+    }
+
+    /**
+     * Os k produtos mais vendidos no período, opcionalmente só de uma categoria
+     */
+    public synchronized List<ProdutoMaisVendido> listar(Periodo periodo, Criterio criterio, Long categoriaId, int limite) {
+        return listar(periodo, criterio, categoriaId, limite, produtoId -> true);
+    }
+
+    /**
+     * Como {@link #listar(Periodo, Criterio, Long, int)}, pulando os produtos que não passam no filtro
+     * (por exemplo, inativos na loja)
+     */
+    public synchronized List<ProdutoMaisVendido> listar(Periodo periodo, Criterio criterio, Long categoriaId,
+                                                         int limite, Predicate<Long> filtro) {
+        expirar(System.currentTimeMillis());
+        Ranking ranking = categoriaId != null
+            ? rankings.get(periodo).porCategoria.get(categoriaId)
+            : rankings.get(periodo).geral;
+        if (ranking == null || limite <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<ProdutoMaisVendido> resultado = new ArrayList<>(Math.min(limite, LIMITE_MAXIMO));
+        Iterator<Contador> ordem = ranking.ordenados(criterio).iterator();
+        while (ordem.hasNext() && resultado.size() < limite) {
+            Contador contador = ordem.next();
+            if (!filtro.test(contador.produtoId)) {
+                continue;
+            }
+            ProdutoCatalogo produto = produtos.get(contador.produtoId);
+            resultado.add(new ProdutoMaisVendido(contador.produtoId,
+                produto != null ? produto.getNome() : null,
+                categoriaDe(produto),
+                contador.quantidade,
+                BigDecimal.valueOf(contador.receita, 2)));
+        }
+        return resultado;
+    }
+
+    /**
+     * Mantém nome e categoria dos produtos; na troca de categoria, move os contadores
+     */
+    @EventListener
+    public synchronized void onCatalogoAlterado(CatalogoAlteradoEvent event) {
+        if (event.isRecargaCompleta()) {
+            produtos.clear();
+            event.getProdutos().forEach((id, produto) -> {
+                if (produto != null) {
+                    produtos.put(id, produto);
+                }
+            });
+            for (Rankings porPeriodo : rankings.values()) {
+                porPeriodo.reconstruirCategorias(produtos);
+            }
+            return;
+        }
+
+        event.getProdutos().forEach((id, produto) -> {
+            ProdutoCatalogo anterior = produto != null ? produtos.put(id, produto) : produtos.remove(id);
+            Long categoriaAnterior = categoriaDe(anterior);
+            Long categoriaNova = categoriaDe(produto);
+            if (produto != null && !Objects.equals(categoriaAnterior, categoriaNova)) {
+                for (Rankings porPeriodo : rankings.values()) {
+                    porPeriodo.moverCategoria(id, categoriaAnterior, categoriaNova);
+                }
+            }
+        });
+    }
+
+    private synchronized void aplicar(List<Venda> vendas) {
+        if (pendentes != null) {
+            pendentes.addAll(vendas);
+            return;
+        }
+        long agora = System.currentTimeMillis();
+        expirar(agora);
+        for (Venda venda : vendas) {
+            somar(Periodo.TOTAL, venda.produtoId, venda.quantidade, venda.receita);
+            registrarNasJanelas(venda, agora);
+        }
+    }
+
+    /**
+     * Soma a venda nas janelas que a contêm e agenda sua expiração
+     */
+    private void registrarNasJanelas(Venda venda, long agora) {
+        for (Map.Entry<Periodo, PriorityQueue<Venda>> janela : vendasNaJanela.entrySet()) {
+            if (venda.instante > agora - janela.getKey().duracao.toMillis()) {
+                somar(janela.getKey(), venda.produtoId, venda.quantidade, venda.receita);
+                janela.getValue().add(venda);
+            }
+        }
+    }
+
+    /**
+     * Remove das janelas as vendas mais antigas que a duração de cada uma
+     */
+    private void expirar(long agora) {
+        for (Map.Entry<Periodo, PriorityQueue<Venda>> janela : vendasNaJanela.entrySet()) {
+            long limite = agora - janela.getKey().duracao.toMillis();
+            PriorityQueue<Venda> fila = janela.getValue();
+            while (!fila.isEmpty() && fila.peek().instante <= limite) {
+                Venda venda = fila.poll();
+                somar(janela.getKey(), venda.produtoId, -venda.quantidade, -venda.receita);
+            }
+        }
+    }
+
+    private void somar(Periodo periodo, Long produtoId, long quantidade, long receita) {
+        Rankings porPeriodo = rankings.get(periodo);
+        porPeriodo.geral.somar(produtoId, quantidade, receita);
+        Long categoriaId = categoriaDe(produtos.get(produtoId));
+        if (categoriaId != null) {
+            porPeriodo.categoria(categoriaId).somar(produtoId, quantidade, receita);
+        }
+    }
+
+    private static Long categoriaDe(ProdutoCatalogo produto) {
+        return produto != null && produto.getCategoria() != null ? produto.getCategoria().getId() : null;
+    }
+
+    private static long instante(LocalDateTime data) {
+        return data.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long centavos(BigDecimal valor) {
+        return valor != null ? valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue() : 0L;
+    }
+
+    /**
+     * Ranking geral e por categoria de um período
+     */
+    private static final class Rankings {
+        private final Ranking geral = new Ranking();
+        private final Map<Long, Ranking> porCategoria = new HashMap<>();
+
+        Ranking categoria(Long categoriaId) {
+            return porCategoria.computeIfAbsent(categoriaId, id -> new Ranking());
+        }
+
+        void moverCategoria(Long produtoId, Long anterior, Long nova) {
+            Contador contador = geral.contadores.get(produtoId);
+            if (contador == null) {
+                return;
+            }
+            if (anterior != null) {
+                categoria(anterior).somar(produtoId, -contador.quantidade, -contador.receita);
+            }
+            if (nova != null) {
+                categoria(nova).somar(produtoId, contador.quantidade, contador.receita);
+            }
+        }
+
+        void reconstruirCategorias(Map<Long, ProdutoCatalogo> produtos) {
+            porCategoria.clear();
+            for (Contador contador : geral.contadores.values()) {
+                Long categoriaId = categoriaDe(produtos.get(contador.produtoId));
+                if (categoriaId != null) {
+                    categoria(categoriaId).somar(contador.produtoId, contador.quantidade, contador.receita);
+                }
+            }
+        }
+    }
+
+    /**
+     * Contadores por produto e as duas ordenações (unidades e receita), atualizadas a cada soma
+     */
+    private static final class Ranking {
+        private static final Comparator<Contador> POR_QUANTIDADE = Comparator
+            .comparingLong((Contador c) -> c.quantidade).reversed()
+            .thenComparing(Comparator.comparingLong((Contador c) -> c.receita).reversed())
+            .thenComparingLong(c -> c.produtoId);
+        private static final Comparator<Contador> POR_RECEITA = Comparator
+            .comparingLong((Contador c) -> c.receita).reversed()
+            .thenComparing(Comparator.comparingLong((Contador c) -> c.quantidade).reversed())
+            .thenComparingLong(c -> c.produtoId);
+
+        private final Map<Long, Contador> contadores = new HashMap<>();
+        private final TreeSet<Contador> porQuantidade = new TreeSet<>(POR_QUANTIDADE);
+        private final TreeSet<Contador> porReceita = new TreeSet<>(POR_RECEITA);
+
+        void somar(Long produtoId, long quantidade, long receita) {
+            Contador atual = contadores.remove(produtoId);
+            long novaQuantidade = quantidade;
+            long novaReceita = receita;
+            if (atual != null) {
+                porQuantidade.remove(atual);
+                porReceita.remove(atual);
+                novaQuantidade += atual.quantidade;
+                novaReceita += atual.receita;
+            }
+            if (novaQuantidade <= 0 && novaReceita <= 0) {
+                return;
+            }
+            Contador novo = new Contador(produtoId, novaQuantidade, novaReceita);
+            contadores.put(produtoId, novo);
+            porQuantidade.add(novo);
+            porReceita.add(novo);
+        }
+
+        TreeSet<Contador> ordenados(Criterio criterio) {
+            return criterio == Criterio.RECEITA ? porReceita : porQuantidade;
+        }
+    }
+
+    /**
+     * Valores acumulados de um produto (imutável: é substituído a cada soma)
+     */
+    private static final class Contador {
+        private final long produtoId;
+        private final long quantidade;
+        private final long receita; // centavos
+
+        Contador(long produtoId, long quantidade, long receita) {
+            this.produtoId = produtoId;
+            this.quantidade = quantidade;
+            this.receita = receita;
+        }
+    }
+
+    /**
+     * Vendas de um produto em um pedido (valores negativos desfazem a venda)
+     */
+    private static final class Venda {
+        private final long instante;
+        private final long produtoId;
+        private final long quantidade;
+        private final long receita; // centavos
+
+        Venda(long instante, long produtoId, long quantidade, long receita) {
+            this.instante = instante;
+            this.produtoId = produtoId;
+            this.quantidade = quantidade;
+            this.receita = receita;
+        }
+    }
+}
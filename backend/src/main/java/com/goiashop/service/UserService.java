@@ -11,11 +11,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import com.goiashop.dto.CursorPaginatedResponse;
 import com.goiashop.dto.PaginatedResponse;
 import com.goiashop.dto.UsuarioAlteracaoRequest;
 import com.goiashop.dto.UsuarioCadastroRequest;
 import com.goiashop.model.User;
 import com.goiashop.repository.UserRepository;
+import com.goiashop.util.CursorPaginacao;
 
 @Service
 public class UserService {
@@ -28,6 +30,9 @@ public class UserService {
     
     @Autowired
     private AuditLogService auditLogService;
+    
+    @Autowired
+    private ContagemCacheService contagemCacheService;
 
     public List<User> listarTodos() {
         return userRepository.findAll();
@@ -59,6 +64,49 @@ public class UserService {
         );
     }
 
+    /**
+     * Lista usuários paginando por cursor (createdAt, id), sem OFFSET e sem COUNT por página
+     * 
+     * @param cursor Cursor recebido na página anterior (null/vazio para a primeira)
+     * @param incluirTotal Se true, inclui o total aproximado (contagem em cache)
+     * @param size Tamanho da página, já validado pelo controller (1 a CursorPaginacao.TAMANHO_MAXIMO)
+     * @throws CursorPaginacao.CursorInvalidoException se o cursor for inválido
+     */
+    public CursorPaginatedResponse<User> listarComCursor(String nome, String status, String cursor, int size, boolean incluirTotal) {
+        User.UserStatus statusEnum = null;
+        if (status != null && !status.trim().isEmpty()) {
+            try {
+                statusEnum = User.UserStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // Ignora status inválido
+            }
+        }
+        String nomeFiltro = nome != null && !nome.trim().isEmpty() ? nome.trim() : null;
+        CursorPaginacao.Posicao posicao = CursorPaginacao.decodificar(cursor);
+        
+        // Busca um registro a mais para saber se existe próxima página
+        List<User> linhas = userRepository.findPaginaPorCursor(nomeFiltro, statusEnum,
+            posicao != null ? posicao.getCreatedAt() : null,
+            posicao != null ? posicao.getId() : null,
+            PageRequest.of(0, size + 1));
+        
+        String proximoCursor = null;
+        if (linhas.size() > size) {
+            linhas = linhas.subList(0, size);
+            User ultimo = linhas.get(size - 1);
+            proximoCursor = CursorPaginacao.codificar(ultimo.getCreatedAt(), ultimo.getId());
+        }
+        
+        Long total = null;
+        if (incluirTotal) {
+            final User.UserStatus statusContagem = statusEnum;
+            total = contagemCacheService.obter("usuarios|" + nomeFiltro + "|" + statusEnum,
+                () -> userRepository.countByFilters(nomeFiltro, statusContagem));
+        }
+        
+        return new CursorPaginatedResponse<>(linhas, size, proximoCursor, total);
+    }
+
     public User buscarPorId(Long id) {
         Optional<User> user = userRepository.findById(id);
         return user.orElse(null);
@@ -0,0 +1,128 @@
+package com.goiashop.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.goiashop.model.Order;
+import com.goiashop.model.OrderItem;
+import com.goiashop.model.Pedido;
+import com.goiashop.model.PedidoItem;
+import com.goiashop.repository.PedidoItemRepository;
+import com.goiashop.repository.ProdutoRepository;
+
+/**
+ * Mantém o contador de unidades vendidas por produto (produtos_ecommerce.quantidade_vendida).
+ *
+ * O contador muda só quando o pedido entra ou sai de um status que conta como venda,
+ * evitando somar pedido_itens a cada leitura. As mesmas transições alimentam os rankings
+ * de mais vendidos ({@link RankingVendasService}) e os "comprados juntos" ({@link CompradosJuntosService}).
+ */
+@Service
+public class VendasProdutoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VendasProdutoService.class);
+
+    // Order e Pedido gravam na mesma coluna pedidos.status: um único conjunto de nomes vale para
+    // as transições ao vivo, a carga de db/init/05_produto_vendas.sql e as recargas na subida
+    // (assim CONFIRMADO -> PAGO não conta a venda duas vezes)
+    private static final Set<String> STATUS_VENDA = Set.of(
+        "CONFIRMADO", "PAGO", "PROCESSANDO", "PREPARANDO", "ENVIADO", "ENTREGUE");
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private PedidoItemRepository pedidoItemRepository;
+
+    @Autowired
+    private VersaoCatalogoService versaoCatalogoService;
+
+    @Autowired
+    private RankingVendasService rankingVendasService;
+
+    @Autowired
+    private CompradosJuntosService compradosJuntosService;
+
+    public static boolean contaComoVenda(Order.OrderStatus status) {
+        return status != null && STATUS_VENDA.contains(status.name());
+    }
+
+    public static boolean contaComoVenda(Pedido.PedidoStatus status) {
+        return status != null && STATUS_VENDA.contains(status.name());
+    }
+
+    /**
+     * Valores da coluna pedidos.status que contam como venda (Order e Pedido usam a mesma tabela)
+     */
+    public static List<String> statusQueContamComoVenda() {
+        return List.copyOf(new TreeSet<>(STATUS_VENDA));
+    }
+
+    /**
+     * Atualiza os contadores após a mudança de status de um Order
+     */
+    @Transactional
+    public void registrarMudancaStatus(Order order, Order.OrderStatus anterior, Order.OrderStatus novo) {
+        int sinal = sinal(contaComoVenda(anterior), contaComoVenda(novo));
+        if (sinal == 0) {
+            return;
+        }
+        Map<Long, Long> quantidades = new LinkedHashMap<>();
+        Map<Long, BigDecimal> receitas = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantidades.merge(item.getProdutoId(), (long) item.getQuantity(), Long::sum);
+            receitas.merge(item.getProdutoId(), item.getSubtotal(), BigDecimal::add);
+        }
+        aplicar(order.getId(), quantidades, receitas, sinal, order.getCreatedAt(), "pedido " + order.getFormattedOrderNumber());
+    }
+
+    /**
+     * Atualiza os contadores após a mudança de status de um Pedido
+     */
+    @Transactional
+    public void registrarMudancaStatus(Long pedidoId, Pedido.PedidoStatus anterior, Pedido.PedidoStatus novo) {
+        int sinal = sinal(contaComoVenda(anterior), contaComoVenda(novo));
+        if (sinal == 0) {
+            return;
+        }
+        Map<Long, Long> quantidades = new LinkedHashMap<>();
+        Map<Long, BigDecimal> receitas = new LinkedHashMap<>();
+        LocalDateTime dataPedido = null;
+        for (PedidoItem item : pedidoItemRepository.findByPedidoId(pedidoId)) {
+            quantidades.merge(item.getProduto().getId(), (long) item.getQuantidade(), Long::sum);
+            receitas.merge(item.getProduto().getId(), item.getSubtotal(), BigDecimal::add);
+            dataPedido = item.getPedido().getCreatedAt();
+        }
+        aplicar(pedidoId, quantidades, receitas, sinal, dataPedido, "pedido " + pedidoId);
+    }
+
+    private static int sinal(boolean contavaAntes, boolean contaAgora) {
+        if (contavaAntes == contaAgora) {
+            return 0;
+        }
+        return contaAgora ? 1 : -1;
+    }
+
+    private void aplicar(Long pedidoId, Map<Long, Long> quantidades, Map<Long, BigDecimal> receitas, int sinal,
+                         LocalDateTime dataPedido, String origem) {
+        for (Map.Entry<Long, Long> item : quantidades.entrySet()) {
+            produtoRepository.somarQuantidadeVendida(item.getKey(), sinal * item.getValue());
+        }
+        versaoCatalogoService.registrarAlteracaoVendas(quantidades.keySet());
+        rankingVendasService.registrarVendas(quantidades, receitas, sinal, dataPedido);
+        compradosJuntosService.registrarPedido(pedidoId, quantidades.keySet(), sinal, dataPedido);
+        logger.debug("Contadores de venda {} para {} produtos ({})",
+            sinal > 0 ? "incrementados" : "decrementados", quantidades.size(), origem);
+    }
+}
@@ -0,0 +1,152 @@
+package com.goiashop.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.goiashop.dto.ProdutoCatalogo;
+
+/**
+ * Contadores de versão do catálogo usados para gerar ETags fortes.
+ *
+ * Cada produto, cada categoria, a lista de categorias e o catálogo como um todo têm
+ * seu contador, incrementado após o commit das escritas. As ETags incluem o instante
+ * de inicialização e a geração (recargas completas), para nunca repetir um valor
+ * já entregue com conteúdo diferente.
+ */
+@Service
+public class VersaoCatalogoService {
+
+    private final String inicio = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong geracao = new AtomicLong();
+    private final AtomicLong versaoCatalogo = new AtomicLong();
+    private final AtomicLong versaoCategorias = new AtomicLong();
+    private final Map<Long, AtomicLong> versoesProduto = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> versoesCategoria = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> versoesVendas = new ConcurrentHashMap<>();
+
+    // Última categoria conhecida de cada produto (para invalidar a categoria antiga na troca)
+    private final Map<Long, Long> categoriaDoProduto = new ConcurrentHashMap<>();
+
+    /**
+     * Incrementa as versões dos produtos alterados e de suas categorias (atual e anterior)
+     *
+     * Chamado pelo {@link CatalogoService} depois que todos os ouvintes do evento atualizaram
+     * seus índices: uma ETag nova nunca é entregue com dados calculados sobre índices antigos.
+     */
+    public void onCatalogoAlterado(CatalogoAlteradoEvent event) {
+        if (event.isRecargaCompleta()) {
+            // Os contadores individuais continuam valendo dentro da nova geração
+            categoriaDoProduto.clear();
+            geracao.incrementAndGet();
+        }
+
+        for (Map.Entry<Long, ProdutoCatalogo> entrada : event.getProdutos().entrySet()) {
+            Long produtoId = entrada.getKey();
+            ProdutoCatalogo produto = entrada.getValue();
+            Long categoriaNova = produto != null && produto.getCategoria() != null ? produto.getCategoria().getId() : null;
+            Long categoriaAnterior = categoriaNova != null
+                ? categoriaDoProduto.put(produtoId, categoriaNova)
+                : categoriaDoProduto.remove(produtoId);
+
+            if (!event.isRecargaCompleta()) {
+                incrementar(versoesProduto, produtoId);
+                if (categoriaAnterior != null) {
+                    incrementar(versoesCategoria, categoriaAnterior);
+                }
+                if (categoriaNova != null && !categoriaNova.equals(categoriaAnterior)) {
+                    incrementar(versoesCategoria, categoriaNova);
+                }
+            }
+        }
+
+        versaoCatalogo.incrementAndGet();
+        // A listagem de categorias inclui as contagens de produtos de cada categoria
+        versaoCategorias.incrementAndGet();
+    }
+
+    /**
+     * Registra a alteração de uma categoria; com transação ativa, só vale após o commit
+     */
+    public void registrarAlteracaoCategoria(Long categoriaId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incrementarCategoria(categoriaId);
+                }
+            });
+        } else {
+            incrementarCategoria(categoriaId);
+        }
+    }
+
+    /**
+     * Versão de qualquer listagem de produtos (muda a cada escrita no catálogo)
+     */
+    public String etagCatalogo() {
+        return etag("cat", versaoCatalogo.get());
+    }
+
+    public String etagProduto(Long produtoId) {
+        return etag("p" + produtoId, versao(versoesProduto, produtoId));
+    }
+
+    /**
+     * Versão do detalhe do produto: a do produto mais a do contador de vendas
+     */
+    public String etagDetalheProduto(Long produtoId) {
+        return etag("d" + produtoId, versao(versoesProduto, produtoId)) + "." + versao(versoesVendas, produtoId);
+    }
+
+    public String etagCategoria(Long categoriaId) {
+        return etag("c" + categoriaId, versao(versoesCategoria, categoriaId));
+    }
+
+    public String etagCategorias() {
+        return etag("cats", versaoCategorias.get());
+    }
+
+    /**
+     * Registra a alteração do contador de vendas dos produtos; com transação ativa, só vale após o commit
+     */
+    public void registrarAlteracaoVendas(Collection<Long> produtoIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    produtoIds.forEach(id -> incrementar(versoesVendas, id));
+                }
+            });
+        } else {
+            produtoIds.forEach(id -> incrementar(versoesVendas, id));
+        }
+    }
+
+    private void incrementarCategoria(Long categoriaId) {
+        if (categoriaId != null) {
+            incrementar(versoesCategoria, categoriaId);
+        }
+        versaoCategorias.incrementAndGet();
+        versaoCatalogo.incrementAndGet();
+    }
+
+    private String etag(String recurso, long versao) {
+        return recurso + "-" + inicio + "." + geracao.get() + "." + versao;
+    }
+
+    private static void incrementar(Map<Long, AtomicLong> versoes, Long id) {
+        versoes.computeIfAbsent(id, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static long versao(Map<Long, AtomicLong> versoes, Long id) {
+        AtomicLong versao = versoes.get(id);
+        return versao != null ? versao.get() : 0L;
+    }
+}
@@ -0,0 +1,83 @@
+package com.goiashop.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Utilitário para paginação por cursor (keyset) sobre (createdAt, id).
+ *
+ * O cursor é opaco para o cliente: Base64 URL-safe de "createdAt|id". Registros sem
+ * createdAt são ordenados por último e representados por "-|id".
+ */
+public class CursorPaginacao {
+
+    private static final String SEM_DATA = "-";
+
+    /**
+     * Maior página atendida; tamanhos acima disso são reduzidos a este valor
+     */
+    public static final int TAMANHO_MAXIMO = 100;
+
+    private CursorPaginacao() {}
+
+    /**
+     * Gera o cursor que aponta para depois do registro informado
+     */
+    public static String codificar(LocalDateTime createdAt, Long id) {
+        String valor = (createdAt != null ? createdAt.toString() : SEM_DATA) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lê o cursor recebido do cliente
+     * @param cursor - cursor opaco; null ou vazio indica a primeira página
+     * @return posição decodificada, ou null para a primeira página
+     * @throws CursorInvalidoException se o cursor for inválido
+     */
+    public static Posicao decodificar(String cursor) {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf('|');
+            if (separador <= 0) {
+                throw new CursorInvalidoException();
+            }
+            String data = valor.substring(0, separador);
+            Long id = Long.valueOf(valor.substring(separador + 1));
+            return new Posicao(SEM_DATA.equals(data) ? null : LocalDateTime.parse(data), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CursorInvalidoException();
+        }
+    }
+
+    /**
+     * Cursor recebido do cliente não pôde ser decodificado
+     */
+    public static class CursorInvalidoException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        public CursorInvalidoException() {
+            super("Cursor inválido");
+        }
+    }
+
+    /**
+     * Última posição vista pelo cliente
+     */
+    public static class Posicao {
+        private final LocalDateTime createdAt;
+        private final Long id;
+
+        public Posicao(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public Long getId() { return id; }
+    }
+}
@@ -0,0 +1,85 @@
+package com.goiashop.util;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Envio de arquivos do disco sem copiar o conteúdo pela JVM.
+ *
+ * Quando o conector do Tomcat suporta sendfile, o arquivo é entregue pelo próprio kernel
+ * depois que o handler retorna. Caso contrário, usa {@link FileChannel#transferTo}.
+ * Os cabeçalhos (tipo, ETag, cache) devem ser definidos antes da chamada.
+ */
+public final class EnvioArquivo {
+
+    private static final String SENDFILE_SUPORTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARQUIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIM = "org.apache.tomcat.sendfile.end";
+
+    private EnvioArquivo() {}
+
+    /**
+     * Envia o trecho [inicio, inicio + tamanho) do arquivo como corpo da resposta
+     *
+     * O arquivo precisa continuar existindo até o fim do envio (com sendfile, ele é
+     * aberto pelo Tomcat depois do retorno deste método).
+     */
+    public static void enviar(Path arquivo, long inicio, long tamanho,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (usarSendfile(arquivo, inicio, tamanho, request, response)) {
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            transferir(canal, arquivo, inicio, tamanho, response);
+        }
+    }
+
+    /**
+     * Igual a {@link #enviar(Path, long, long, HttpServletRequest, HttpServletResponse)}, mas usa um
+     * canal já aberto (que não é fechado aqui) quando não há sendfile
+     */
+    public static void enviar(FileChannel canal, Path arquivo, long inicio, long tamanho,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (usarSendfile(arquivo, inicio, tamanho, request, response)) {
+            return;
+        }
+        transferir(canal, arquivo, inicio, tamanho, response);
+    }
+
+    private static boolean usarSendfile(Path arquivo, long inicio, long tamanho,
+                                        HttpServletRequest request, HttpServletResponse response) {
+        response.setContentLengthLong(tamanho);
+        if (tamanho == 0) {
+            return true;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPORTE))) {
+            request.setAttribute(SENDFILE_ARQUIVO, arquivo.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIM, inicio + tamanho);
+            return true;
+        }
+        return false;
+    }
+
+    private static void transferir(FileChannel canal, Path arquivo, long inicio, long tamanho,
+                                   HttpServletResponse response) throws IOException {
+        // transferTo com posição explícita não altera o canal: pode ser compartilhado entre requisições
+        WritableByteChannel destino = Channels.newChannel(response.getOutputStream());
+        long enviado = 0;
+        while (enviado < tamanho) {
+            long transferido = canal.transferTo(inicio + enviado, tamanho - enviado, destino);
+            if (transferido <= 0) {
+                throw new IOException("Arquivo truncado durante o envio: " + arquivo);
+            }
+            enviado += transferido;
+        }
+    }
+}
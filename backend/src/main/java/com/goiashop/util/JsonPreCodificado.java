@@ -0,0 +1,98 @@
+package com.goiashop.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Corpo de resposta JSON já serializado (e, quando compensa, já comprimido em gzip).
+ *
+ * Respostas quentes do catálogo são escritas direto destes arrays, sem passar
+ * pelo Jackson a cada requisição. As instâncias são imutáveis.
+ */
+public final class JsonPreCodificado {
+
+    // Abaixo disso o gzip não traz ganho relevante
+    private static final int TAMANHO_MINIMO_GZIP = 1024;
+
+    private final byte[] json;
+    private final byte[] gzip;
+
+    private JsonPreCodificado(byte[] json, byte[] gzip) {
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Cria o corpo a partir do JSON serializado, gerando a versão gzip se ela for menor
+     */
+    public static JsonPreCodificado de(byte[] json) {
+        byte[] comprimido = null;
+        if (json.length >= TAMANHO_MINIMO_GZIP) {
+            comprimido = comprimir(json);
+            if (comprimido.length >= json.length) {
+                comprimido = null;
+            }
+        }
+        return new JsonPreCodificado(json, comprimido);
+    }
+
+    public int tamanho() {
+        return json.length;
+    }
+
+    /**
+     * Monta a resposta escolhendo gzip quando o cliente aceita
+     * @param acceptEncoding - valor do header Accept-Encoding (pode ser null)
+     * @param etag - ETag da versão atual, sem aspas (a variante gzip recebe um sufixo)
+     * @param cacheControl - política de cache do recurso
+     */
+    public ResponseEntity<byte[]> responder(String acceptEncoding, String etag, CacheControl cacheControl) {
+        boolean usarGzip = gzip != null && aceitaGzip(acceptEncoding);
+        String etagVariante = usarGzip ? etag + RespostaCondicional.SUFIXO_GZIP : etag;
+
+        byte[] corpo = usarGzip ? gzip : json;
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .contentLength(corpo.length)
+            .eTag(etagVariante)
+            .cacheControl(cacheControl)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (usarGzip) {
+            resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return resposta.body(corpo);
+    }
+
+    /**
+     * Indica se o Accept-Encoding aceita gzip (respeitando q=0)
+     */
+    public static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String parte : acceptEncoding.split(",")) {
+            String[] valores = parte.trim().split(";");
+            if (valores[0].trim().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" significa que o cliente recusa gzip
+                return valores.length < 2 || !valores[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] comprimir(byte[] dados) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(dados.length / 4);
+        try (GZIPOutputStream gzipSaida = new GZIPOutputStream(saida)) {
+            gzipSaida.write(dados);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao comprimir resposta", e);
+        }
+        return saida.toByteArray();
+    }
+}
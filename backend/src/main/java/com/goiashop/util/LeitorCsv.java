@@ -0,0 +1,133 @@
+package com.goiashop.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de CSV em streaming (RFC 4180): lê um registro por vez, com suporte a campos
+ * entre aspas, aspas duplicadas e quebras de linha dentro de aspas.
+ */
+public final class LeitorCsv {
+
+    private final Reader reader;
+    private final char separador;
+    private final char[] buffer = new char[8192];
+    private int posicao;
+    private int limite;
+    private int devolvido = -2;
+
+    private int linhaAtual = 1;
+    private int linhaRegistro;
+
+    public LeitorCsv(Reader reader, char separador) {
+        this.reader = reader;
+        this.separador = separador;
+    }
+
+    /**
+     * Escolhe ';' quando o cabeçalho usa ponto e vírgula (padrão do Excel em pt-BR), senão ','
+     */
+    public static char detectarSeparador(String cabecalho) {
+        if (cabecalho == null) {
+            return ',';
+        }
+        int virgulas = 0;
+        int pontoEVirgulas = 0;
+        for (int i = 0; i < cabecalho.length(); i++) {
+            char c = cabecalho.charAt(i);
+            if (c == ',') {
+                virgulas++;
+            } else if (c == ';') {
+                pontoEVirgulas++;
+            }
+        }
+        return pontoEVirgulas > virgulas ? ';' : ',';
+    }
+
+    /**
+     * Próximo registro, ou null no fim do arquivo
+     */
+    public List<String> proximoRegistro() throws IOException {
+        int c = ler();
+        if (c == -1) {
+            return null;
+        }
+        linhaRegistro = linhaAtual;
+
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+
+        while (true) {
+            if (c == -1) {
+                campos.add(campo.toString());
+                return campos;
+            }
+            char ch = (char) c;
+            if (entreAspas) {
+                if (ch == '"') {
+                    int seguinte = ler();
+                    if (seguinte == '"') {
+                        campo.append('"');
+                    } else {
+                        entreAspas = false;
+                        devolver(seguinte);
+                    }
+                } else {
+                    if (ch == '\n') {
+                        linhaAtual++;
+                    }
+                    campo.append(ch);
+                }
+            } else if (ch == '"' && campo.length() == 0) {
+                entreAspas = true;
+            } else if (ch == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (ch == '\n' || ch == '\r') {
+                if (ch == '\r') {
+                    int seguinte = ler();
+                    if (seguinte != '\n') {
+                        devolver(seguinte);
+                    }
+                }
+                linhaAtual++;
+                campos.add(campo.toString());
+                return campos;
+            } else {
+                campo.append(ch);
+            }
+            c = ler();
+        }
+    }
+
+    /**
+     * Linha do arquivo em que começa o último registro lido
+     */
+    public int getLinhaRegistro() {
+        return linhaRegistro;
+    }
+
+    private int ler() throws IOException {
+        if (devolvido != -2) {
+            int c = devolvido;
+            devolvido = -2;
+            return c;
+        }
+        if (posicao >= limite) {
+            limite = reader.read(buffer, 0, buffer.length);
+            posicao = 0;
+            if (limite <= 0) {
+                limite = 0;
+                return -1;
+            }
+        }
+        return buffer[posicao++];
+    }
+
+    private void devolver(int c) {
+        devolvido = c;
+    }
+}
@@ -0,0 +1,118 @@
+package com.goiashop.util;
+
+/**
+ * Mapa long → double com endereçamento aberto (sondagem linear), sem objetos por entrada.
+ *
+ * A chave 0 é reservada para posição vazia. Não há remoção: valores zerados permanecem
+ * e devem ser ignorados por quem percorre o mapa.
+ */
+public final class MapaLongDouble {
+
+    private static final float CARGA_MAXIMA = 0.6f;
+
+    private long[] chaves;
+    private double[] valores;
+    private int tamanho;
+
+    public MapaLongDouble() {
+        this(8);
+    }
+
+    public MapaLongDouble(int capacidadeInicial) {
+        int capacidade = Integer.highestOneBit(Math.max(4, capacidadeInicial) * 2 - 1);
+        chaves = new long[capacidade];
+        valores = new double[capacidade];
+    }
+
+    public double get(long chave) {
+        int indice = indice(chaves, chave);
+        return chaves[indice] == chave ? valores[indice] : 0.0;
+    }
+
+    /**
+     * Soma delta ao valor da chave (criando a entrada) e retorna o novo valor
+     */
+    public double somar(long chave, double delta) {
+        if (chave == 0) {
+            throw new IllegalArgumentException("Chave 0 é reservada");
+        }
+        int indice = indice(chaves, chave);
+        if (chaves[indice] != chave) {
+            if (tamanho + 1 > chaves.length * CARGA_MAXIMA) {
+                redimensionar();
+                indice = indice(chaves, chave);
+            }
+            chaves[indice] = chave;
+            tamanho++;
+        }
+        valores[indice] += delta;
+        return valores[indice];
+    }
+
+    /**
+     * Multiplica todos os valores pelo fator
+     */
+    public void multiplicar(double fator) {
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] *= fator;
+        }
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Número de posições; use com {@link #chaveEm(int)} e {@link #valorEm(int)} para percorrer
+     */
+    public int capacidade() {
+        return chaves.length;
+    }
+
+    /**
+     * Chave na posição, ou 0 se a posição estiver vazia
+     */
+    public long chaveEm(int posicao) {
+        return chaves[posicao];
+    }
+
+    public double valorEm(int posicao) {
+        return valores[posicao];
+    }
+
+    private void redimensionar() {
+        long[] chavesAntigas = chaves;
+        double[] valoresAntigos = valores;
+        chaves = new long[chavesAntigas.length * 2];
+        valores = new double[chavesAntigas.length * 2];
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (chavesAntigas[i] != 0) {
+                int indice = indice(chaves, chavesAntigas[i]);
+                chaves[indice] = chavesAntigas[i];
+                valores[indice] = valoresAntigos[i];
+            }
+        }
+    }
+
+    /**
+     * Posição da chave, ou da posição vazia onde ela seria inserida
+     */
+    private static int indice(long[] chaves, long chave) {
+        int mascara = chaves.length - 1;
+        int indice = espalhar(chave) & mascara;
+        while (chaves[indice] != 0 && chaves[indice] != chave) {
+            indice = (indice + 1) & mascara;
+        }
+        return indice;
+    }
+
+    private static int espalhar(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "MapaLongDouble{tamanho=" + tamanho + ", capacidade=" + chaves.length + "}";
+    }
+}
@@ -0,0 +1,67 @@
+package com.goiashop.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Utilitário para GETs condicionais (ETag / If-None-Match).
+ *
+ * As ETags são montadas a partir de contadores de versão, então a comparação
+ * é feita antes de qualquer acesso ao banco ou serialização. Quando o corpo é
+ * comprimido, a variante gzip recebe o sufixo {@link #SUFIXO_GZIP}.
+ */
+public class RespostaCondicional {
+
+    // Sufixo da variante comprimida: cada representação tem sua própria ETag forte
+    public static final String SUFIXO_GZIP = "-gzip";
+
+    private RespostaCondicional() {}
+
+    /**
+     * Responde 304 se alguma ETag do If-None-Match corresponder à versão atual
+     * @param ifNoneMatch - valor do header (pode ser null)
+     * @param etag - ETag atual, sem aspas
+     * @param cacheControl - política de cache do recurso
+     * @return resposta 304, ou null se o conteúdo deve ser enviado
+     */
+    public static <T> ResponseEntity<T> naoModificada(String ifNoneMatch, String etag, CacheControl cacheControl) {
+        String correspondente = etagCorrespondente(ifNoneMatch, etag);
+        if (correspondente == null) {
+            return null;
+        }
+        // Devolve a ETag da variante que o cliente já possui (com ou sem gzip)
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(correspondente)
+            .cacheControl(cacheControl)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .build();
+    }
+
+    private static String etagCorrespondente(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return null;
+        }
+        for (String candidata : ifNoneMatch.split(",")) {
+            String valor = candidata.trim();
+            if (valor.equals("*")) {
+                return etag;
+            }
+            // If-None-Match usa comparação fraca: ignora o prefixo W/
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+                valor = valor.substring(1, valor.length() - 1);
+            }
+            String base = valor.endsWith(SUFIXO_GZIP)
+                ? valor.substring(0, valor.length() - SUFIXO_GZIP.length())
+                : valor;
+            if (base.equals(etag)) {
+                return valor;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,125 @@
+package com.goiashop.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Utilitário de normalização de texto para a busca de produtos.
+ *
+ * - Remove acentos ("Tênis" -> "tenis", "calça" -> "calca")
+ * - Quebra o texto em termos e descarta stopwords do português
+ * - Reduz os termos a um radical simples (plural, gênero e diminutivos)
+ */
+public class TextoBusca {
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "a", "o", "as", "os", "e", "de", "da", "do", "das", "dos", "em", "na", "no", "nas", "nos",
+        "um", "uma", "uns", "umas", "para", "pra", "por", "com", "sem", "ao", "aos", "que", "se"
+    );
+
+    private TextoBusca() {}
+
+    /**
+     * Converte para minúsculas e remove acentos
+     * @param texto - texto original (pode ser null)
+     * @return texto normalizado, ou string vazia
+     */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return "";
+        }
+        String decomposto = Normalizer.normalize(texto.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return DIACRITICOS.matcher(decomposto).replaceAll("");
+    }
+
+    /**
+     * Quebra o texto em termos normalizados (sem stopwords), ainda sem radicalização
+     */
+    public static List<String> tokenizar(String texto) {
+        List<String> termos = new ArrayList<>();
+        for (String termo : SEPARADORES.split(normalizar(texto))) {
+            if (termo.isEmpty() || STOPWORDS.contains(termo)) {
+                continue;
+            }
+            // Letras isoladas não ajudam na busca, mas números sim (ex: "tamanho 8")
+            if (termo.length() == 1 && !Character.isDigit(termo.charAt(0))) {
+                continue;
+            }
+            termos.add(termo);
+        }
+        return termos;
+    }
+
+    /**
+     * Reduz um termo já normalizado ao seu radical (stemmer leve para o português)
+     * @param termo - termo normalizado, sem acentos
+     * @return radical do termo
+     */
+    public static String radical(String termo) {
+        if (termo.length() <= 3 || Character.isDigit(termo.charAt(0))) {
+            return termo;
+        }
+
+        String r = removerPlural(termo);
+
+        // Diminutivos: "camisetinha" -> "camiset", "sapatinho" -> "sapat"
+        r = removerSufixo(r, "zinho", 3);
+        r = removerSufixo(r, "zinha", 3);
+        r = removerSufixo(r, "inho", 3);
+        r = removerSufixo(r, "inha", 3);
+
+        // Advérbios: "rapidamente" -> "rapid"
+        r = removerSufixo(r, "amente", 4);
+        r = removerSufixo(r, "mente", 4);
+
+        // Gênero / vogal temática: "camiseta" e "camisetas" -> "camiset"
+        char ultimo = r.charAt(r.length() - 1);
+        if (r.length() > 3 && (ultimo == 'a' || ultimo == 'e' || ultimo == 'o')) {
+            r = r.substring(0, r.length() - 1);
+        }
+        return r;
+    }
+
+    private static String removerPlural(String termo) {
+        if (termo.endsWith("oes") || termo.endsWith("aes")) {
+            return termo.substring(0, termo.length() - 3) + "ao";
+        }
+        if (termo.endsWith("ais")) {
+            return termo.substring(0, termo.length() - 3) + "al";
+        }
+        if (termo.endsWith("eis") && termo.length() > 4) {
+            return termo.substring(0, termo.length() - 3) + "el";
+        }
+        if (termo.endsWith("ois")) {
+            return termo.substring(0, termo.length() - 3) + "ol";
+        }
+        if (termo.endsWith("ns") && termo.length() > 5) {
+            return termo.substring(0, termo.length() - 2) + "m";
+        }
+        if ((termo.endsWith("res") || termo.endsWith("zes") || termo.endsWith("les")) && termo.length() > 4) {
+            return termo.substring(0, termo.length() - 2);
+        }
+        // "bolsas" -> "bolsa", mas "tenis" e "onibus" permanecem
+        if (termo.endsWith("s") && termo.length() > 3) {
+            char anterior = termo.charAt(termo.length() - 2);
+            if (anterior == 'a' || anterior == 'e' || anterior == 'o') {
+                return termo.substring(0, termo.length() - 1);
+            }
+        }
+        return termo;
+    }
+
+    private static String removerSufixo(String termo, String sufixo, int tamanhoMinimoRadical) {
+        if (termo.endsWith(sufixo) && termo.length() - sufixo.length() >= tamanhoMinimoRadical) {
+            return termo.substring(0, termo.length() - sufixo.length());
+        }
+        return termo;
+    }
+}
@@ -0,0 +1,98 @@
+package com.goiashop.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Convenção de nomes das variantes redimensionadas das imagens de produto.
+ *
+ * Cada original "produtos/abc.png" gera "produtos/variantes/abc-card.webp", "…-card.jpg" etc.
+ * A coluna produto_imagens.variantes guarda os formatos gerados ("webp,jpeg"); nula enquanto
+ * a geração está pendente e vazia quando o original não pôde ser lido.
+ */
+public final class VariantesImagem {
+
+    public static final String WEBP = "webp";
+    public static final String JPEG = "jpeg";
+
+    private static final String PASTA = "variantes";
+
+    private VariantesImagem() {}
+
+    /**
+     * Tamanhos gerados, pelo maior lado em pixels
+     */
+    public enum Tamanho {
+        THUMB("thumb", 160),
+        CARD("card", 480),
+        ZOOM("zoom", 1200);
+
+        private final String nome;
+        private final int ladoMaximo;
+
+        Tamanho(String nome, int ladoMaximo) {
+            this.nome = nome;
+            this.ladoMaximo = ladoMaximo;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public int getLadoMaximo() {
+            return ladoMaximo;
+        }
+    }
+
+    /**
+     * Caminho relativo (dentro do diretório de uploads) da variante
+     */
+    public static String caminho(String caminhoOriginal, Tamanho tamanho, String formato) {
+        int barra = caminhoOriginal.lastIndexOf('/');
+        String pasta = barra >= 0 ? caminhoOriginal.substring(0, barra + 1) : "";
+        String arquivo = caminhoOriginal.substring(barra + 1);
+        int ponto = arquivo.lastIndexOf('.');
+        String base = ponto > 0 ? arquivo.substring(0, ponto) : arquivo;
+        return pasta + PASTA + "/" + base + "-" + tamanho.nome + "." + extensao(formato);
+    }
+
+    /**
+     * Todos os caminhos de variante possíveis do original (para remoção)
+     */
+    public static List<String> caminhos(String caminhoOriginal) {
+        List<String> caminhos = new ArrayList<>();
+        for (Tamanho tamanho : Tamanho.values()) {
+            caminhos.add(caminho(caminhoOriginal, tamanho, WEBP));
+            caminhos.add(caminho(caminhoOriginal, tamanho, JPEG));
+        }
+        return caminhos;
+    }
+
+    /**
+     * URLs das variantes geradas, por tamanho e formato: {"card": {"webp": url, "jpeg": url}, ...}
+     *
+     * @return null se ainda não há variantes ou se a URL do original não segue o caminho relativo
+     */
+    public static Map<String, Map<String, String>> urls(String urlOriginal, String caminhoOriginal, String variantes) {
+        if (variantes == null || variantes.isEmpty() || urlOriginal == null || caminhoOriginal == null
+                || !urlOriginal.endsWith(caminhoOriginal)) {
+            return null;
+        }
+        String prefixo = urlOriginal.substring(0, urlOriginal.length() - caminhoOriginal.length());
+        Map<String, Map<String, String>> urls = new LinkedHashMap<>();
+        for (Tamanho tamanho : Tamanho.values()) {
+            Map<String, String> formatos = new LinkedHashMap<>();
+            for (String formato : variantes.split(",")) {
+                formatos.put(formato, prefixo + caminho(caminhoOriginal, tamanho, formato));
+            }
+            urls.put(tamanho.nome, formatos);
+        }
+        return urls;
+    }
+
+    private static String extensao(String formato) {
+        return JPEG.equals(formato) ? "jpg" : formato;
+    }
+}
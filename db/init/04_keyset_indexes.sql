@@ -0,0 +1,6 @@
+-- Índices para paginação por cursor (keyset) ordenada por (created_at DESC, id DESC)
+USE BancoGOIA;
+
+CREATE INDEX idx_produtos_created_id ON produtos_ecommerce (created_at, id);
+CREATE INDEX idx_users_created_id ON users (created_at, id);
+CREATE INDEX idx_pedidos_created_id ON pedidos (created_at, id);
@@ -0,0 +1,14 @@
+-- Contador de unidades vendidas por produto (mantido pela aplicação a cada mudança de status do pedido)
+USE BancoGOIA;
+
+ALTER TABLE produtos_ecommerce ADD COLUMN quantidade_vendida BIGINT NOT NULL DEFAULT 0;
+
+-- Carga inicial a partir dos pedidos já pagos (mesmos status de VendasProdutoService.STATUS_VENDA)
+UPDATE produtos_ecommerce p
+SET p.quantidade_vendida = (
+    SELECT COALESCE(SUM(i.quantity), 0)
+    FROM pedido_itens i
+    JOIN pedidos o ON o.id = i.pedido_id
+    WHERE i.produto_id = p.id
+      AND o.status IN ('CONFIRMADO', 'PAGO', 'PROCESSANDO', 'PREPARANDO', 'ENVIADO', 'ENTREGUE')
+);
@@ -0,0 +1,4 @@
+-- Formatos das variantes redimensionadas (thumb/card/zoom) já geradas para cada imagem
+USE BancoGOIA;
+
+ALTER TABLE produto_imagens ADD COLUMN variantes VARCHAR(50) NULL;
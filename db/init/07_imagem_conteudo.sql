@@ -0,0 +1,5 @@
+-- Imagens endereçadas pelo SHA-256 do conteúdo: vários registros podem apontar para o mesmo arquivo,
+-- que só é removido quando a última referência sai (contagem por caminho_arquivo)
+USE BancoGOIA;
+
+CREATE INDEX idx_produto_imagens_caminho ON produto_imagens (caminho_arquivo);
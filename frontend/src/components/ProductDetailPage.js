@@ -24,7 +24,7 @@ const ProductDetailPage = () => {
       setLoading(true);
       setError('');
 
-      const response = await fetch(`http://localhost:8080/api/produtos/${id}`);
+      const response = await fetch(`http://localhost:8080/api/produtos/public/${id}/detalhes`);
       
       if (!response.ok) {
         if (response.status === 404) {
@@ -245,6 +245,12 @@ const ProductDetailPage = () => {
                   {produto.quantidade > 0 ? `${produto.quantidade} em estoque` : 'Fora de estoque'}
                 </span>
               </div>
+              {produto.quantidadeVendida > 0 && (
+                <div className="detail-item">
+                  <strong>Vendidos:</strong>
+                  <span>{produto.quantidadeVendida}</span>
+                </div>
+              )}
               {isInCart(produto.id) && (
                 <div className="detail-item">
                   <strong>No carrinho:</strong>
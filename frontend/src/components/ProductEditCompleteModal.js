@@ -32,14 +32,15 @@ const ProductEditModal = ({ show, onHide, product, onProductUpdated }) => {
                 quantidadeEstoque: product.quantidadeEstoque || '',
                 avaliacao: product.avaliacao || '',
                 status: product.status || 'ATIVO',
-                categoriaId: product.categoria?.id || ''
+                categoriaId: product.categoriaId || product.categoria?.id || ''
             });
             
-            // Carregar imagens do produto
-            if (product.imagens && product.imagens.length > 0) {
+            // Carregar imagens do produto (a listagem traz só o resumo, sem as imagens)
+            if (product.imagens) {
                 setImagens(product.imagens);
             } else {
                 setImagens([]);
+                fetchImagens(product.id);
             }
             
             // Carregar categorias
@@ -47,6 +48,15 @@ const ProductEditModal = ({ show, onHide, product, onProductUpdated }) => {
         }
     }, [product]);
 
+    const fetchImagens = async (produtoId) => {
+        try {
+            const response = await api.get(`/produtos/${produtoId}`);
+            setImagens(response.data?.imagens || []);
+        } catch (err) {
+            console.error('Erro ao carregar imagens do produto:', err);
+        }
+    };
+
     const fetchCategorias = async () => {
         try {
             const response = await api.get('/categorias');
@@ -20,6 +20,7 @@ const ProductList = () => {
     const [showQuantidadeModal, setShowQuantidadeModal] = useState(false);
     const [selectedProduct, setSelectedProduct] = useState(null);
     const [currentImageIndex, setCurrentImageIndex] = useState(0);
+    const [loadingDetails, setLoadingDetails] = useState(false);
     
     // Estados de filtro e paginação
     const [filtroNome, setFiltroNome] = useState('');
@@ -150,10 +151,21 @@ const ProductList = () => {
         setShowEditModal(true);
     };
 
-    const handleViewDetails = (product) => {
+    const handleViewDetails = async (product) => {
         setSelectedProduct(product);
         setCurrentImageIndex(0); // Resetar para primeira imagem
         setShowDetailsModal(true);
+
+        // A listagem traz só o resumo do produto; as imagens vêm do produto completo
+        try {
+            setLoadingDetails(true);
+            const response = await api.get(`/produtos/${product.id}`);
+            setSelectedProduct(prev => (prev && prev.id === product.id ? response.data : prev));
+        } catch (err) {
+            console.error('Erro ao carregar detalhes do produto:', err);
+        } finally {
+            setLoadingDetails(false);
+        }
     };
 
     const handleNextImage = () => {
@@ -737,7 +749,11 @@ const ProductList = () => {
                                                 justifyContent: 'center',
                                                 borderRadius: '8px'
                                             }}>
-                                                <span style={{ fontSize: '48px' }}>📦</span>
+                                                {loadingDetails ? (
+                                                    <Spinner animation="border" />
+                                                ) : (
+                                                    <span style={{ fontSize: '48px' }}>📦</span>
+                                                )}
                                             </div>
                                         )}
                                     </Col>
@@ -44,6 +44,14 @@ const ImageCarousel = ({ product, getImageUrl }) => {
         id: img.id
       });
     });
+  } else if (product.imagemPrincipalUrl) {
+    // Listagens retornam apenas a URL da imagem principal
+    allImages.push({
+      url: getImageUrl(product.imagemPrincipalUrl),
+      isPrincipal: true,
+      nome: product.nome,
+      id: product.id
+    });
   } else if (product.imagemPrincipal?.urlArquivo) {
     // Fallback: usar apenas a imagem principal se não há array de imagens
     allImages.push({
@@ -273,6 +281,7 @@ const PublicProductGrid = ({ onBackToLanding, onLoginClick }) => {
   const [selectedProduct, setSelectedProduct] = useState(null);
   const [searchTerm, setSearchTerm] = useState('');
   const [searching, setSearching] = useState(false);
+  const [sugestoes, setSugestoes] = useState([]);
   const [categorias, setCategorias] = useState([]);
   const [selectedCategoria, setSelectedCategoria] = useState('');
   const { addToCart } = useCart();
@@ -284,6 +293,12 @@ const PublicProductGrid = ({ onBackToLanding, onLoginClick }) => {
     return urlArquivo.replace('http://localhost:8080', '');
   };
 
+  // Variante reduzida do card (WebP, senão JPEG); original enquanto não gerada
+  const getCardImageUrl = (product) => {
+    const card = product.imagemPrincipalVariantes?.card;
+    return card?.webp || card?.jpeg || product.imagemPrincipalUrl;
+  };
+
   // Função personalizada para adicionar ao carrinho (sem redirecionar)
   const handleAddToCart = (product) => {
     // Simplesmente adiciona ao carrinho
@@ -361,8 +376,24 @@ const PublicProductGrid = ({ onBackToLanding, onLoginClick }) => {
     await fetchProducts(searchTerm, selectedCategoria);
   };
 
+  // Sugestões do autocomplete (trie em memória no backend)
+  const handleSearchTermChange = async (valor) => {
+    setSearchTerm(valor);
+    if (valor.trim().length < 2) {
+      setSugestoes([]);
+      return;
+    }
+    try {
+      const response = await api.get(`/produtos/public/autocomplete?q=${encodeURIComponent(valor)}&limite=8`);
+      setSugestoes(Array.isArray(response.data) ? response.data : []);
+    } catch (err) {
+      setSugestoes([]);
+    }
+  };
+
   const handleClearSearch = () => {
     setSearchTerm('');
+    setSugestoes([]);
     setSelectedCategoria('');
     fetchProducts();
   };
@@ -514,8 +545,9 @@ const PublicProductGrid = ({ onBackToLanding, onLoginClick }) => {
               type="text"
               placeholder="Buscar produtos..."
               value={searchTerm}
-              onChange={(e) => setSearchTerm(e.target.value)}
+              onChange={(e) => handleSearchTermChange(e.target.value)}
               onKeyPress={handleKeyPress}
+              list="sugestoes-busca"
               style={{
                 flex: 1,
                 padding: '12px 16px',
@@ -528,6 +560,11 @@ const PublicProductGrid = ({ onBackToLanding, onLoginClick }) => {
               onFocus={(e) => e.target.style.borderColor = '#FF4F5A'}
               onBlur={(e) => e.target.style.borderColor = '#e0e0e0'}
             />
+            <datalist id="sugestoes-busca">
+              {sugestoes.map((sugestao) => (
+                <option key={`${sugestao.tipo}-${sugestao.id}`} value={sugestao.nome} />
+              ))}
+            </datalist>
             <button
               onClick={handleSearch}
               disabled={searching}
@@ -630,13 +667,13 @@ const PublicProductGrid = ({ onBackToLanding, onLoginClick }) => {
                     display: 'flex',
                     alignItems: 'center',
                     justifyContent: 'center',
-                    backgroundImage: getImageUrl(product.imagemPrincipal?.urlArquivo) ? `url(${getImageUrl(product.imagemPrincipal.urlArquivo)})` : 'none',
+                    backgroundImage: getImageUrl(getCardImageUrl(product)) ? `url(${getImageUrl(getCardImageUrl(product))})` : 'none',
                     backgroundSize: 'cover',
                     backgroundPosition: 'center',
                     color: '#999'
                   }}
                 >
-                  {!product.imagemPrincipal?.urlArquivo && '📦'}
+                  {!product.imagemPrincipalUrl && '📦'}
                 </div>
                 
                 <h3 style={{ 